@@ -23,33 +23,55 @@
 import org.apache.calcite.rel.type.RelDataTypeSystem;
 import org.apache.calcite.rel.type.RelProtoDataType;
 import org.apache.calcite.sql.type.SqlTypeFactoryImpl;
+import org.apache.calcite.util.Util;
 
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
 import com.datastax.oss.driver.api.core.cql.ResultSet;
 import com.datastax.oss.driver.api.core.cql.Row;
 import com.datastax.oss.driver.api.core.data.TupleValue;
 import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayDeque;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.IntStream;
 
 import static java.util.Objects.requireNonNull;
 
 /** Enumerator that reads from a Cassandra column family. */
 class CassandraEnumerator implements Enumerator<Object> {
-  private final Iterator<Row> iterator;
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(CassandraEnumerator.class);
+
+  private Iterator<Row> iterator;
   private final List<RelDataTypeField> fieldTypes;
   @Nullable private Row current;
 
+  /** Pages that have been requested but not yet consumed, oldest first;
+   * a page completes with null if there are no more pages. Empty if the
+   * enumerator reads a synchronous result set. */
+  private final Deque<CompletableFuture<@Nullable AsyncResultSet>> pending =
+      new ArrayDeque<>();
+  private final int prefetchDepth;
+  private long fetchWaitNanos;
+
   /** Creates a CassandraEnumerator.
    *
    * @param results Cassandra result set ({@link com.datastax.oss.driver.api.core.cql.ResultSet})
@@ -62,6 +84,81 @@ class CassandraEnumerator implements Enumerator<Object> {
     final RelDataTypeFactory typeFactory =
         new SqlTypeFactoryImpl(RelDataTypeSystem.DEFAULT);
     this.fieldTypes = protoRowType.apply(typeFactory).getFieldList();
+    this.prefetchDepth = 0;
+  }
+
+  /** Creates a CassandraEnumerator that reads pages asynchronously.
+   *
+   * <p>While the rows of one page are being consumed, up to
+   * {@code prefetchDepth} following pages are fetched in the background.
+   *
+   * @param firstPage First page of the Cassandra result set
+   * @param protoRowType The type of resulting rows
+   * @param prefetchDepth Number of pages to fetch ahead, at least 1
+   */
+  CassandraEnumerator(CompletionStage<AsyncResultSet> firstPage,
+      RelProtoDataType protoRowType, int prefetchDepth) {
+    this.iterator = Collections.emptyIterator();
+    this.current = null;
+    this.prefetchDepth = prefetchDepth;
+
+    final RelDataTypeFactory typeFactory =
+        new SqlTypeFactoryImpl(RelDataTypeSystem.DEFAULT);
+    this.fieldTypes = protoRowType.apply(typeFactory).getFieldList();
+    pending.add(firstPage.toCompletableFuture());
+    requestPages();
+  }
+
+  /** Requests pages until {@link #prefetchDepth} pages beyond the first
+   * pending page are in flight. Each request is chained to its predecessor,
+   * because the driver only knows how to fetch a page once the previous one
+   * has arrived. */
+  private void requestPages() {
+    while (!pending.isEmpty() && pending.size() <= prefetchDepth) {
+      final CompletableFuture<@Nullable AsyncResultSet> next =
+          pending.getLast().thenCompose(rs ->
+              rs != null && rs.hasMorePages()
+                  ? rs.fetchNextPage()
+                  : CompletableFuture.completedFuture(null));
+      pending.add(next);
+    }
+  }
+
+  /** Waits for the oldest pending page, and makes it the current page.
+   *
+   * @return Whether there was another page
+   */
+  private boolean nextPage() {
+    final CompletableFuture<@Nullable AsyncResultSet> future =
+        pending.poll();
+    if (future == null) {
+      return false;
+    }
+    final AsyncResultSet page;
+    final long start = System.nanoTime();
+    try {
+      page = future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      throw Util.throwAsRuntime(Util.causeOrSelf(e));
+    } finally {
+      fetchWaitNanos += System.nanoTime() - start;
+    }
+    if (page == null) {
+      pending.clear();
+      return false;
+    }
+    iterator = page.currentPage().iterator();
+    requestPages();
+    return true;
+  }
+
+  /** Returns the total time, in nanoseconds, that this enumerator has spent
+   * waiting for pages that had not arrived yet. */
+  long fetchWaitNanos() {
+    return fetchWaitNanos;
   }
 
   /** Produces the next row from the results.
@@ -139,12 +236,13 @@ class CassandraEnumerator implements Enumerator<Object> {
   }
 
   @Override public boolean moveNext() {
-    if (iterator.hasNext()) {
-      current = iterator.next();
-      return true;
-    } else {
-      return false;
+    while (!iterator.hasNext()) {
+      if (!nextPage()) {
+        return false;
+      }
     }
+    current = iterator.next();
+    return true;
   }
 
   @Override public void reset() {
@@ -152,6 +250,13 @@ class CassandraEnumerator implements Enumerator<Object> {
   }
 
   @Override public void close() {
-    // Nothing to do here
+    for (CompletableFuture<@Nullable AsyncResultSet> future : pending) {
+      future.cancel(false);
+    }
+    pending.clear();
+    if (prefetchDepth > 0 && LOGGER.isDebugEnabled()) {
+      LOGGER.debug("Waited {} ms for Cassandra to fetch pages",
+          TimeUnit.NANOSECONDS.toMillis(fetchWaitNanos));
+    }
   }
 }
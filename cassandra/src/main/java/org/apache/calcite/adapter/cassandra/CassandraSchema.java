@@ -78,6 +78,14 @@ public class CassandraSchema extends AbstractSchema {
   private final SchemaPlus parentSchema;
   final String name;
   final Hook.Closeable hook;
+  /** Number of rows per page; 0 means the driver's default. */
+  final int pageSize;
+  /** Number of pages to fetch ahead asynchronously; 0 means read pages
+   * synchronously. */
+  final int prefetchDepth;
+
+  /** Default value of {@link #prefetchDepth}. */
+  public static final int DEFAULT_PREFETCH_DEPTH = 1;
 
   static final CqlToSqlTypeConversionRules CQL_TO_SQL_TYPE =
       CqlToSqlTypeConversionRules.instance();
@@ -114,12 +122,35 @@ public CassandraSchema(
       SchemaPlus parentSchema,
       String keyspace,
       String name) {
+    this(session, parentSchema, keyspace, name, 0, DEFAULT_PREFETCH_DEPTH);
+  }
+
+  /**
+   * Creates a Cassandra schema with explicit paging settings.
+   *
+   * @param session a Cassandra session
+   * @param parentSchema the parent schema
+   * @param keyspace the keyspace name
+   * @param name the schema name
+   * @param pageSize number of rows per page, or 0 for the driver's default
+   * @param prefetchDepth number of pages to fetch ahead while the current
+   *                      page is being consumed, or 0 to fetch synchronously
+   */
+  public CassandraSchema(
+      CqlSession session,
+      SchemaPlus parentSchema,
+      String keyspace,
+      String name,
+      int pageSize,
+      int prefetchDepth) {
     super();
 
     this.session = session;
     this.keyspace = keyspace;
     this.parentSchema = parentSchema;
     this.name = name;
+    this.pageSize = pageSize;
+    this.prefetchDepth = prefetchDepth;
     this.hook = prepareHook();
   }
 
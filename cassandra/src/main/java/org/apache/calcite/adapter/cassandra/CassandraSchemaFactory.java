@@ -95,7 +95,10 @@ public CassandraSchemaFactory() {
         .map(CqlIdentifier::asInternal)
         .orElse(name);
 
-    return new CassandraSchema(session, parentSchema, keyspace, name);
+    return new CassandraSchema(session, parentSchema, keyspace, name,
+        getInt(operand, "pageSize", 0),
+        getInt(operand, "prefetchDepth",
+            CassandraSchema.DEFAULT_PREFETCH_DEPTH));
   }
 
   private static Map<String, Object> projectMapOverKeys(
@@ -106,15 +109,20 @@ private static Map<String, Object> projectMapOverKeys(
   }
 
   private static int getPort(Map<String, Object> map) {
-    if (map.containsKey("port")) {
-      Object portObj = map.get("port");
-      if (portObj instanceof String) {
-        return parseInt((String) portObj);
+    return getInt(map, "port", DEFAULT_CASSANDRA_PORT);
+  }
+
+  private static int getInt(Map<String, Object> map, String key,
+      int defaultValue) {
+    if (map.containsKey(key)) {
+      Object obj = map.get(key);
+      if (obj instanceof String) {
+        return parseInt((String) obj);
       } else {
-        return (int) portObj;
+        return (int) obj;
       }
     } else {
-      return DEFAULT_CASSANDRA_PORT;
+      return defaultValue;
     }
   }
 }
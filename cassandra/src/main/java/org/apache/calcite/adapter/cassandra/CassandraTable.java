@@ -40,6 +40,7 @@
 
 import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.cql.ResultSet;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
 import com.google.common.collect.ImmutableList;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -62,6 +63,8 @@ public class CassandraTable extends AbstractQueryableTable
   final List<RelFieldCollation> clusteringOrder;
   private final Optional<String> keyspace;
   private final String columnFamily;
+  private final int pageSize;
+  private final int prefetchDepth;
 
   @Deprecated // to be removed before 2.0
   public CassandraTable(CassandraSchema schema, String columnFamily, boolean isView) {
@@ -72,6 +75,8 @@ public CassandraTable(CassandraSchema schema, String columnFamily, boolean isVie
     this.partitionKeys = schema.getPartitionKeys(columnFamily, isView);
     this.clusteringKeys = schema.getClusteringKeys(columnFamily, isView);
     this.clusteringOrder = schema.getClusteringOrder(columnFamily, isView);
+    this.pageSize = schema.pageSize;
+    this.prefetchDepth = schema.prefetchDepth;
   }
 
   public CassandraTable(
@@ -86,6 +91,8 @@ public CassandraTable(
     this.partitionKeys = schema.getPartitionKeys(columnFamily, isView);
     this.clusteringKeys = schema.getClusteringKeys(columnFamily, isView);
     this.clusteringOrder = schema.getClusteringOrder(columnFamily, isView);
+    this.pageSize = schema.pageSize;
+    this.prefetchDepth = schema.prefetchDepth;
   }
 
   @Deprecated // to be removed before 2.0
@@ -220,10 +227,22 @@ public Enumerable<Object> query(final CqlSession session, List<Map.Entry<String,
 
     return new AbstractEnumerable<Object>() {
       @Override public Enumerator<Object> enumerator() {
-        final ResultSet results = session.execute(queryBuilder.toString());
+        SimpleStatement statement =
+            SimpleStatement.newInstance(queryBuilder.toString());
+        if (pageSize > 0) {
+          statement = statement.setPageSize(pageSize);
+        }
+        final Enumerator<Object> enumerator;
+        if (prefetchDepth > 0) {
+          enumerator =
+              new CassandraEnumerator(session.executeAsync(statement),
+                  resultRowType, prefetchDepth);
+        } else {
+          final ResultSet results = session.execute(statement);
+          enumerator = new CassandraEnumerator(results, resultRowType);
+        }
         // Skip results until we get to the right offset
         int skip = 0;
-        Enumerator<Object> enumerator = new CassandraEnumerator(results, resultRowType);
         while (skip < offset && enumerator.moveNext()) {
           skip++;
         }
@@ -146,6 +146,42 @@ static void load(CqlSession session) {
                + "tweet_id=f3e4182e-d05b-11e5-b58b-90e2ba530b12\n");
   }
 
+  /** Tests that a query whose results span many pages returns all rows,
+   * whether the pages are fetched asynchronously ahead of the consumer or
+   * one at a time. */
+  @Test void testPaging() {
+    for (int prefetchDepth : new int[] {0, 1, 3}) {
+      CalciteAssert.model(pagingModel(10, prefetchDepth))
+          .query("select * from \"userline\" where \"username\" = '!PUBLIC!'")
+          .returnsCount(146);
+      CalciteAssert.model(pagingModel(10, prefetchDepth))
+          .query("select \"tweet_id\" from \"userline\" where "
+              + "\"username\"='!PUBLIC!' limit 2 offset 1")
+          .returns("tweet_id=f3dbb03a-d05b-11e5-b58b-90e2ba530b12\n"
+              + "tweet_id=f3e4182e-d05b-11e5-b58b-90e2ba530b12\n");
+    }
+  }
+
+  /** Returns a model like "/model.json" with the given paging settings. */
+  private static String pagingModel(int pageSize, int prefetchDepth) {
+    return "{\n"
+        + "  version: '1.0',\n"
+        + "  defaultSchema: 'twissandra',\n"
+        + "  schemas: [ {\n"
+        + "    name: 'twissandra',\n"
+        + "    type: 'custom',\n"
+        + "    factory: 'org.apache.calcite.adapter.cassandra.CassandraSchemaFactory',\n"
+        + "    operand: {\n"
+        + "      host: 'localhost',\n"
+        + "      port: 9142,\n"
+        + "      keyspace: 'twissandra',\n"
+        + "      pageSize: " + pageSize + ",\n"
+        + "      prefetchDepth: " + prefetchDepth + "\n"
+        + "    }\n"
+        + "  } ]\n"
+        + "}";
+  }
+
   @Test void testMaterializedView() {
     CalciteAssert.that()
         .with(TWISSANDRA)
@@ -137,7 +137,13 @@ enum Variable {
      *
      * <p>Default value is "user.name" from
      * {@link System#getProperty(String)}. */
-    SYSTEM_USER("systemUser", String.class);
+    SYSTEM_USER("systemUser", String.class),
+
+    /** Id of the durable state of a continuous query; if null, the
+     * query's incremental operators keep their state in memory only.
+     *
+     * @see org.apache.calcite.runtime.StateStores#name */
+    STREAM_STATE_ID("streamStateId", String.class);
 
     public final String camelName;
     public final Class clazz;
@@ -225,6 +225,10 @@ public EnumerableAggregate(RelOptCluster cluster, RelTraitSet traitSet,
 
     createAccumulatorAdders(
         inParameter, aggs, accPhysType, acc_, inputPhysType, builder, implementor, typeFactory);
+    final Expression accumulatorCombiner = needsAccumulatorCombiner()
+        ? createAccumulatorCombiner(aggs, accPhysType, acc_, builder,
+            implementor, typeFactory)
+        : null;
 
     final ParameterExpression lambdaFactory =
         Expressions.parameter(AggregateLambdaFactory.class,
@@ -324,6 +328,7 @@ public EnumerableAggregate(RelOptCluster cluster, RelTraitSet traitSet,
                           BuiltInMethod.AGG_LAMBDA_FACTORY_ACC_SINGLE_GROUP_RESULT_SELECTOR.method,
                           resultSelector)))));
     } else if (aggCalls.isEmpty()
+        && canImplementAsDistinct()
         && groupSet.equals(
             ImmutableBitSet.range(child.getRowType().getFieldCount()))) {
       builder.add(
@@ -348,18 +353,58 @@ public EnumerableAggregate(RelOptCluster cluster, RelTraitSet traitSet,
                   acc_));
       builder.add(
           Expressions.return_(null,
-              Expressions.call(childExp,
-                  BuiltInMethod.GROUP_BY2.method,
-                  Expressions.list(keySelector_,
-                      Expressions.call(lambdaFactory,
-                          BuiltInMethod.AGG_LAMBDA_FACTORY_ACC_INITIALIZER.method),
-                      Expressions.call(lambdaFactory,
-                          BuiltInMethod.AGG_LAMBDA_FACTORY_ACC_ADDER.method),
-                      Expressions.call(lambdaFactory,
-                          BuiltInMethod.AGG_LAMBDA_FACTORY_ACC_RESULT_SELECTOR.method,
-                          resultSelector_))
-                      .appendIfNotNull(keyPhysType.comparer()))));
+              implementGroupBy(implementor, builder, childExp, inputPhysType,
+                  keyPhysType, keySelector_,
+                  Expressions.call(lambdaFactory,
+                      BuiltInMethod.AGG_LAMBDA_FACTORY_ACC_INITIALIZER.method),
+                  Expressions.call(lambdaFactory,
+                      BuiltInMethod.AGG_LAMBDA_FACTORY_ACC_ADDER.method),
+                  Expressions.call(lambdaFactory,
+                      BuiltInMethod.AGG_LAMBDA_FACTORY_ACC_RESULT_SELECTOR.method,
+                      resultSelector_),
+                  accumulatorCombiner)));
     }
     return implementor.result(physType, builder.toBlock());
   }
+
+  /** Returns whether an aggregate that has no aggregate functions and groups
+   * by every field of its input may be implemented as
+   * {@link org.apache.calcite.linq4j.Enumerable#distinct()}.
+   *
+   * <p>Returns true; a sub-class that must not read all of its input before
+   * emitting rows returns false. */
+  protected boolean canImplementAsDistinct() {
+    return true;
+  }
+
+  /** Returns whether {@link #implementGroupBy} needs a function that
+   * combines two accumulators.
+   *
+   * <p>Returns false; a sub-class that merges groups returns true. */
+  protected boolean needsAccumulatorCombiner() {
+    return false;
+  }
+
+  /** Generates the expression that groups the rows of the input and applies
+   * the accumulators, in the case that there is a single grouping set that
+   * has at least one field.
+   *
+   * <p>The default implementation calls
+   * {@link org.apache.calcite.linq4j.Enumerable#groupBy}, which reads all of
+   * its input before it emits the first group.
+   *
+   * <p>{@code accumulatorCombiner} is null unless
+   * {@link #needsAccumulatorCombiner()} returns true and every aggregate call
+   * can be combined. */
+  protected Expression implementGroupBy(EnumerableRelImplementor implementor,
+      BlockBuilder builder, Expression childExp, PhysType inputPhysType,
+      PhysType keyPhysType, Expression keySelector,
+      Expression accumulatorInitializer, Expression accumulatorAdder,
+      Expression resultSelector, @Nullable Expression accumulatorCombiner) {
+    return Expressions.call(childExp,
+        BuiltInMethod.GROUP_BY2.method,
+        Expressions.list(keySelector, accumulatorInitializer,
+                accumulatorAdder, resultSelector)
+            .appendIfNotNull(keyPhysType.comparer()));
+  }
 }
@@ -293,6 +293,96 @@ protected void createAccumulatorAdders(
     }
   }
 
+  /** Returns whether the accumulators of an aggregate call can be combined,
+   * by {@link #createAccumulatorCombiner}, without access to the rows that
+   * they have accumulated. */
+  protected static boolean canCombine(AggregateCall call) {
+    return !call.isDistinct()
+        && call.collation.equals(RelCollations.EMPTY)
+        && call.getAggregation().getRollup() != null;
+  }
+
+  /** Creates a function that adds the contents of one accumulator to another,
+   * such as when two session windows merge; returns null if the accumulator
+   * of an aggregate call cannot be combined.
+   *
+   * <p>For each aggregate call, the function computes the result of the
+   * second accumulator, and adds it to the first accumulator using the
+   * call's roll-up function; for example, {@code COUNT} is combined using
+   * {@code SUM0}. The roll-up function must have the same state as the
+   * call. */
+  protected @Nullable Expression createAccumulatorCombiner(
+      final List<AggImpState> aggs,
+      final PhysType accPhysType,
+      final ParameterExpression accExpr,
+      final BlockBuilder builder,
+      EnumerableRelImplementor implementor,
+      JavaTypeFactory typeFactory) {
+    final ParameterExpression otherExpr =
+        Expressions.parameter(accPhysType.getJavaRowType(), "other");
+    final BlockBuilder builder2 = new BlockBuilder();
+    for (int i = 0, stateOffset = 0; i < aggs.size(); i++) {
+      final AggImpState agg = aggs.get(i);
+      final SqlAggFunction rollup = agg.call.getAggregation().getRollup();
+      if (!canCombine(agg.call) || rollup == null) {
+        return null;
+      }
+      final AggregateCall rollupCall =
+          AggregateCall.create(rollup, false, false, false, ImmutableList.of(),
+              ImmutableList.of(0), -1, null, RelCollations.EMPTY,
+              agg.call.type, agg.call.name);
+      final AggImpState rollupAgg = new AggImpState(i, rollupCall, false);
+      final AggContext rollupContext =
+          new AggContextImpl(rollupAgg, typeFactory) {
+            @Override public List<? extends RelDataType> parameterRelTypes() {
+              return ImmutableList.of(agg.call.type);
+            }
+          };
+      final AggContext context = requireNonNull(agg.context, "agg.context");
+      final List<Type> stateTypes = agg.implementor.getStateType(context);
+      if (!rollupAgg.implementor.getStateType(rollupContext)
+          .equals(stateTypes)) {
+        return null;
+      }
+      final List<Expression> accumulator = new ArrayList<>();
+      final List<Expression> other = new ArrayList<>();
+      for (int j = 0; j < stateTypes.size(); j++) {
+        accumulator.add(accPhysType.fieldReference(accExpr, j + stateOffset));
+        other.add(accPhysType.fieldReference(otherExpr, j + stateOffset));
+      }
+      stateOffset += stateTypes.size();
+
+      final Expression otherResult =
+          builder2.append("r",
+              agg.implementor.implementResult(context,
+                  new AggResultContextImpl(builder2, agg.call, other, null,
+                      null)));
+      rollupAgg.implementor.implementAdd(rollupContext,
+          new AggAddContextImpl(builder2, accumulator) {
+            @Override public List<RexNode> rexArguments() {
+              return ImmutableList.of(new RexInputRef(0, agg.call.type));
+            }
+
+            @Override public @Nullable RexNode rexFilterArgument() {
+              return null;
+            }
+
+            @Override public RexToLixTranslator rowTranslator() {
+              return RexToLixTranslator.forAggregation(typeFactory,
+                  currentBlock(),
+                  (list, index, storageType) -> storageType == null
+                      ? otherResult
+                      : EnumUtils.convert(otherResult, storageType),
+                  implementor.getConformance());
+            }
+          });
+    }
+    builder2.add(accExpr);
+    return builder.append("accumulatorCombiner",
+        Expressions.lambda(Function2.class, builder2.toBlock(), accExpr,
+            otherExpr));
+  }
+
   protected List<Type> createAggStateTypes(
       final List<Expression> initExpressions,
       final BlockBuilder initBlock,
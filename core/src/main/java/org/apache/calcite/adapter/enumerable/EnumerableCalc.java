@@ -19,6 +19,7 @@
 import org.apache.calcite.DataContext;
 import org.apache.calcite.adapter.java.JavaTypeFactory;
 import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.function.Function2;
 import org.apache.calcite.linq4j.tree.BlockBuilder;
 import org.apache.calcite.linq4j.tree.BlockStatement;
 import org.apache.calcite.linq4j.tree.Blocks;
@@ -38,6 +39,7 @@
 import org.apache.calcite.rel.metadata.RelMdCollation;
 import org.apache.calcite.rel.metadata.RelMdDistribution;
 import org.apache.calcite.rel.metadata.RelMetadataQuery;
+import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rex.RexBuilder;
 import org.apache.calcite.rex.RexNode;
 import org.apache.calcite.rex.RexProgram;
@@ -55,6 +57,7 @@
 
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.apache.calcite.adapter.enumerable.EnumUtils.BRIDGE_METHODS;
@@ -205,6 +208,82 @@ public static EnumerableCalc create(final RelNode input,
     BlockStatement currentBody =
         builder3.toBlock();
 
+    // If "current()" would be too large to be JIT-compiled, split the
+    // projections into several functions, each of which fills part of the
+    // row, and make "current()" call them. "current()" reads the input row
+    // once and passes it to each function, so that every function sees the
+    // same input values. Do not split a non-deterministic program; each
+    // function would evaluate the shared expressions again.
+    final List<MemberDeclaration> projectorDecls = new ArrayList<>();
+    final int projectCount = program.getProjectList().size();
+    final int splitCount =
+        physType.getFormat() == JavaRowFormat.ARRAY
+            && program.getExprList().stream().allMatch(RexUtil::isDeterministic)
+            ? EnumerableRelImplementor.methodSplitCount(currentBody,
+                projectCount)
+            : 1;
+    if (splitCount > 1) {
+      final ParameterExpression input_ =
+          Expressions.parameter(Object.class, "input");
+      final ParameterExpression row_ =
+          Expressions.parameter(Object[].class, "row");
+      final BlockBuilder builder4 = new BlockBuilder();
+      final Expression currentInput =
+          builder4.append("input",
+              Expressions.call(inputEnumerator,
+                  BuiltInMethod.ENUMERATOR_CURRENT.method),
+              false);
+      final Expression row =
+          builder4.append("row",
+              Expressions.newArrayBounds(Object.class, 1,
+                  Expressions.constant(projectCount)));
+      for (int i = 0; i < splitCount; i++) {
+        final int start = i * projectCount / splitCount;
+        final int end = (i + 1) * projectCount / splitCount;
+        final RelDataType splitRowType =
+            typeFactory.createStructType(
+                program.getOutputRowType().getFieldList().subList(start, end));
+        final RexProgram splitProgram =
+            new RexProgram(program.getInputRowType(), program.getExprList(),
+                program.getProjectList().subList(start, end), null,
+                splitRowType);
+        final BlockBuilder builder5 = new BlockBuilder();
+        final List<Expression> splitExpressions =
+            RexToLixTranslator.translateProjects(
+                splitProgram,
+                typeFactory,
+                conformance,
+                builder5,
+                null,
+                PhysTypeImpl.of(typeFactory, splitRowType,
+                    JavaRowFormat.ARRAY, false),
+                DataContext.ROOT,
+                new RexToLixTranslator.InputGetterImpl(
+                    EnumUtils.convert(input_, inputJavaType), result.physType),
+                implementor.allCorrelateVariables);
+        for (int j = 0; j < splitExpressions.size(); j++) {
+          builder5.add(
+              Expressions.statement(
+                  Expressions.assign(
+                      Expressions.arrayIndex(row_,
+                          Expressions.constant(start + j)),
+                      splitExpressions.get(j))));
+        }
+        builder5.add(Expressions.return_(null, row_));
+        final ParameterExpression projector =
+            Expressions.parameter(Function2.class, "projector" + i);
+        projectorDecls.add(
+            Expressions.fieldDecl(Modifier.PUBLIC | Modifier.FINAL, projector,
+                Expressions.lambda(builder5.toBlock(), input_, row_)));
+        builder4.add(
+            Expressions.statement(
+                Expressions.call(projector,
+                    BuiltInMethod.FUNCTION2_APPLY.method, currentInput, row)));
+      }
+      builder4.add(Expressions.return_(null, row));
+      currentBody = builder4.toBlock();
+    }
+
     final Expression inputEnumerable =
         builder.append(
             "inputEnumerable", result.block, false);
@@ -212,7 +291,7 @@ public static EnumerableCalc create(final RelNode input,
         Expressions.new_(
             enumeratorType,
             NO_EXPRS,
-            Expressions.list(
+            Expressions.<MemberDeclaration>list(
                 Expressions.fieldDecl(
                     Modifier.PUBLIC
                     | Modifier.FINAL,
@@ -245,7 +324,8 @@ public static EnumerableCalc create(final RelNode input,
                         : outputJavaType,
                     "current",
                     NO_PARAMS,
-                    currentBody)));
+                    currentBody))
+                .appendAll(projectorDecls));
     builder.add(
         Expressions.return_(
             null,
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.enumerable;
+
+import org.apache.calcite.linq4j.tree.BlockBuilder;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.ColumnarValues;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.runtime.ColumnarRows;
+import org.apache.calcite.util.BuiltInMethod;
+
+import java.util.List;
+
+/** Implementation of {@link org.apache.calcite.rel.core.ColumnarValues} in
+ * {@link org.apache.calcite.adapter.enumerable.EnumerableConvention enumerable calling convention}.
+ *
+ * <p>The generated code does not depend on the number of rows; it reads the
+ * rows from the {@link ColumnarRows}, which is passed to it at run time. */
+public class EnumerableColumnarValues extends ColumnarValues
+    implements EnumerableRel {
+  /** Creates an EnumerableColumnarValues. */
+  public EnumerableColumnarValues(RelOptCluster cluster,
+      RelTraitSet traitSet, RelDataType rowType, ColumnarRows rows) {
+    super(cluster, traitSet, rowType, rows);
+  }
+
+  /** Creates an EnumerableColumnarValues. */
+  public static EnumerableColumnarValues create(RelOptCluster cluster,
+      RelDataType rowType, ColumnarRows rows) {
+    return new EnumerableColumnarValues(cluster,
+        cluster.traitSetOf(EnumerableConvention.INSTANCE), rowType, rows);
+  }
+
+  @Override public RelNode copy(RelTraitSet traitSet, List<RelNode> inputs) {
+    assert inputs.isEmpty();
+    return new EnumerableColumnarValues(getCluster(), traitSet, getRowType(),
+        rows);
+  }
+
+  @Override public Result implement(EnumerableRelImplementor implementor,
+      Prefer pref) {
+    return implement(implementor, getRowType(), rows);
+  }
+
+  /** Generates code that returns the rows of a {@link ColumnarRows}.
+   * Rows are arrays, or scalars if there is one column. */
+  static Result implement(EnumerableRelImplementor implementor,
+      RelDataType rowType, ColumnarRows rows) {
+    final PhysType physType =
+        PhysTypeImpl.of(implementor.getTypeFactory(), rowType,
+            rowType.getFieldCount() == 1
+                ? JavaRowFormat.SCALAR
+                : JavaRowFormat.ARRAY);
+    final Expression rowsExp = implementor.stash(rows, ColumnarRows.class);
+    final BlockBuilder builder = new BlockBuilder();
+    builder.add(
+        Expressions.return_(null,
+            Expressions.call(rowsExp,
+                rowType.getFieldCount() == 1
+                    ? BuiltInMethod.COLUMNAR_ROWS_SCALARS.method
+                    : BuiltInMethod.COLUMNAR_ROWS_ARRAYS.method)));
+    return implementor.result(physType, builder.toBlock());
+  }
+}
@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.enumerable;
+
+import org.apache.calcite.linq4j.function.Function2;
+import org.apache.calcite.linq4j.tree.BlockBuilder;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelOptCost;
+import org.apache.calcite.plan.RelOptPlanner;
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.rel.InvalidRelException;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.RelWriter;
+import org.apache.calcite.rel.core.AggregateCall;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
+import org.apache.calcite.runtime.Enumerables.GroupWindowType;
+import org.apache.calcite.util.BuiltInMethod;
+import org.apache.calcite.util.ImmutableBitSet;
+
+import com.google.common.collect.ImmutableList;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/** Implementation of {@link org.apache.calcite.rel.core.Aggregate} over a
+ * stream, grouped by an event-time window ({@code TUMBLE}, {@code HOP} or
+ * {@code SESSION}), in {@link EnumerableConvention enumerable calling
+ * convention}.
+ *
+ * <p>The window is computed from the time in one of the grouping fields,
+ * {@link #windowField}; in each output row, that field holds the start of
+ * the window. The operator keeps an accumulator for each open window, and
+ * emits the window, and releases its state, when the watermark (the latest
+ * time seen, minus {@link #allowedLateness}) passes the end of the window.
+ * Memory use is therefore proportional to the number of open windows, not
+ * to the number of rows.
+ *
+ * <p>If rows may arrive late, a row may join two {@code SESSION} windows;
+ * the accumulators of the two windows are then combined. Therefore, such
+ * windows may only use aggregate functions that have a roll-up function,
+ * such as {@code COUNT}, {@code SUM}, {@code MIN} and {@code MAX}.
+ *
+ * @see EnumerableGroupWindowAggregateRule
+ * @see org.apache.calcite.runtime.Enumerables#groupWindowAggregate */
+public class EnumerableGroupWindowAggregate extends EnumerableAggregate {
+  public final GroupWindowType windowType;
+  /** Ordinal of the input field that holds the time of each row; one of the
+   * grouping fields. */
+  public final int windowField;
+  /** Length of each window, or the gap between sessions, in
+   * milliseconds. */
+  public final long size;
+  /** Interval between the start of windows, in milliseconds; for
+   * {@code TUMBLE} and {@code SESSION}, the same as {@link #size}. */
+  public final long slide;
+  /** Alignment of windows, in milliseconds. */
+  public final long offset;
+  /** How far, in milliseconds, behind the latest time seen a row may arrive
+   * and still be included in its window. */
+  public final long allowedLateness;
+
+  /** Creates an EnumerableGroupWindowAggregate. */
+  public EnumerableGroupWindowAggregate(RelOptCluster cluster,
+      RelTraitSet traitSet, RelNode input, ImmutableBitSet groupSet,
+      @Nullable List<ImmutableBitSet> groupSets, List<AggregateCall> aggCalls,
+      GroupWindowType windowType, int windowField, long size, long slide,
+      long offset, long allowedLateness) throws InvalidRelException {
+    super(cluster, traitSet, input, groupSet, groupSets, aggCalls);
+    this.windowType = requireNonNull(windowType, "windowType");
+    this.windowField = windowField;
+    this.size = size;
+    this.slide = slide;
+    this.offset = offset;
+    this.allowedLateness = allowedLateness;
+    if (getGroupType() != Group.SIMPLE) {
+      throw new InvalidRelException(
+          "grouping sets not supported in windowed aggregation");
+    }
+    if (!groupSet.get(windowField)) {
+      throw new InvalidRelException("window field " + windowField
+          + " is not a grouping field");
+    }
+    if (size <= 0 || slide <= 0 || allowedLateness < 0) {
+      throw new InvalidRelException("invalid window");
+    }
+    if (windowType == GroupWindowType.SESSION && allowedLateness > 0) {
+      // A late row may join two sessions, whose accumulators must then be
+      // combined.
+      for (AggregateCall aggCall : aggCalls) {
+        if (!canCombine(aggCall)) {
+          throw new InvalidRelException("aggregate " + aggCall
+              + " cannot be combined, so cannot merge sessions");
+        }
+      }
+    }
+  }
+
+  @Override public EnumerableGroupWindowAggregate copy(RelTraitSet traitSet,
+      RelNode input, ImmutableBitSet groupSet,
+      @Nullable List<ImmutableBitSet> groupSets, List<AggregateCall> aggCalls) {
+    try {
+      return new EnumerableGroupWindowAggregate(getCluster(), traitSet, input,
+          groupSet, groupSets, aggCalls, windowType, windowField, size, slide,
+          offset, allowedLateness);
+    } catch (InvalidRelException e) {
+      // Semantic error not possible. Must be a bug. Convert to
+      // internal error.
+      throw new AssertionError(e);
+    }
+  }
+
+  @Override public RelWriter explainTerms(RelWriter pw) {
+    return super.explainTerms(pw)
+        .item("window", windowType)
+        .item("field", windowField)
+        .item("size", size)
+        .itemIf("slide", slide, windowType == GroupWindowType.HOP)
+        .itemIf("offset", offset, offset != 0)
+        .itemIf("lateness", allowedLateness, allowedLateness != 0);
+  }
+
+  @Override public @Nullable RelOptCost computeSelfCost(RelOptPlanner planner,
+      RelMetadataQuery mq) {
+    // Cheaper than EnumerableAggregate, which must buffer the whole stream,
+    // and than EnumerableStreamAggregate, which cannot evaluate the group
+    // window function.
+    final RelOptCost cost = super.computeSelfCost(planner, mq);
+    return cost == null ? null : cost.multiplyBy(0.25D);
+  }
+
+  @Override protected boolean canImplementAsDistinct() {
+    return false;
+  }
+
+  @Override protected boolean needsAccumulatorCombiner() {
+    return windowType == GroupWindowType.SESSION;
+  }
+
+  @Override protected Expression implementGroupBy(
+      EnumerableRelImplementor implementor, BlockBuilder builder,
+      Expression childExp, PhysType inputPhysType, PhysType keyPhysType,
+      Expression keySelector, Expression accumulatorInitializer,
+      Expression accumulatorAdder, Expression resultSelector,
+      @Nullable Expression accumulatorCombiner) {
+    if (accumulatorCombiner == null && windowType == GroupWindowType.SESSION
+        && allowedLateness > 0) {
+      throw new IllegalStateException("cannot combine accumulators of "
+          + aggCalls);
+    }
+    final Expression timeSelector =
+        builder.append("timeSelector",
+            inputPhysType.generateAccessor(ImmutableList.of(windowField)));
+    return Expressions.call(BuiltInMethod.GROUP_WINDOW_AGGREGATE.method,
+        childExp, keySelector, timeSelector,
+        Expressions.constant(groupSet.indexOf(windowField)),
+        Expressions.constant(groupSet.cardinality()),
+        Expressions.constant(windowType),
+        Expressions.constant(size),
+        Expressions.constant(slide),
+        Expressions.constant(offset),
+        Expressions.constant(allowedLateness),
+        accumulatorInitializer, accumulatorAdder, resultSelector,
+        accumulatorCombiner == null
+            ? Expressions.constant(null, Function2.class)
+            : accumulatorCombiner,
+        implementor.stateName("window"));
+  }
+}
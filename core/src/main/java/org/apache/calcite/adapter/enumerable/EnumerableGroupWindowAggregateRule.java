@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.enumerable;
+
+import org.apache.calcite.config.CalciteSystemProperty;
+import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.plan.RelRule;
+import org.apache.calcite.rel.InvalidRelException;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.Aggregate;
+import org.apache.calcite.rel.core.Project;
+import org.apache.calcite.rel.stream.Delta;
+import org.apache.calcite.rel.stream.LogicalDelta;
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.runtime.Enumerables.GroupWindowType;
+import org.apache.calcite.sql.type.SqlTypeFamily;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.calcite.util.Util;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.immutables.value.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Planner rule that converts a {@link Delta} over an {@link Aggregate}
+ * that groups by a group window function ({@code TUMBLE}, {@code HOP} or
+ * {@code SESSION}) to an {@link EnumerableGroupWindowAggregate}.
+ *
+ * <p>For example, in
+ *
+ * <blockquote><pre>SELECT STREAM TUMBLE_END(rowtime, INTERVAL '1' HOUR),
+ *   product, COUNT(*)
+ * FROM Orders
+ * GROUP BY TUMBLE(rowtime, INTERVAL '1' HOUR), product</pre></blockquote>
+ *
+ * <p>the {@link Project} below the {@link Aggregate} computes
+ * {@code $TUMBLE(rowtime, 3600000)}. The rule replaces that expression with
+ * {@code rowtime}, and the new aggregate assigns each row to its window.
+ *
+ * <p>The size, slide, gap and alignment of the window must be literals, and
+ * the interval must be a day-time interval.
+ *
+ * @see EnumerableRules#ENUMERABLE_GROUP_WINDOW_AGGREGATE_RULE
+ */
+@Value.Enclosing
+public class EnumerableGroupWindowAggregateRule
+    extends RelRule<EnumerableGroupWindowAggregateRule.Config> {
+  /** Creates an EnumerableGroupWindowAggregateRule. */
+  protected EnumerableGroupWindowAggregateRule(Config config) {
+    super(config);
+  }
+
+  @Override public void onMatch(RelOptRuleCall call) {
+    final Delta delta = call.rel(0);
+    Util.discard(delta);
+    final Aggregate aggregate = call.rel(1);
+    final Project project = call.rel(2);
+    int windowField = -1;
+    for (int i = 0; i < project.getProjects().size(); i++) {
+      final RexNode e = project.getProjects().get(i);
+      if (e instanceof RexCall
+          && ((RexCall) e).getOperator().isGroup()) {
+        if (windowField >= 0 || !aggregate.getGroupSet().get(i)) {
+          return; // more than one window, or a window that is not a key
+        }
+        windowField = i;
+      }
+    }
+    if (windowField < 0) {
+      return;
+    }
+    final RexCall windowCall =
+        (RexCall) project.getProjects().get(windowField);
+    final RexNode time = windowCall.operands.get(0);
+    if (time.getType().getSqlTypeName() != SqlTypeName.TIMESTAMP) {
+      return;
+    }
+    final GroupWindowType windowType;
+    final Long size;
+    final Long slide;
+    final @Nullable Long offset;
+    switch (windowCall.getKind()) {
+    case TUMBLE:
+      windowType = GroupWindowType.TUMBLE;
+      size = interval(windowCall.operands.get(1));
+      slide = size;
+      offset = alignment(windowCall.operands, 2);
+      break;
+    case HOP:
+      windowType = GroupWindowType.HOP;
+      slide = interval(windowCall.operands.get(1));
+      size = interval(windowCall.operands.get(2));
+      offset = alignment(windowCall.operands, 3);
+      break;
+    case SESSION:
+      windowType = GroupWindowType.SESSION;
+      size = interval(windowCall.operands.get(1));
+      slide = size;
+      offset = 0L;
+      break;
+    default:
+      return;
+    }
+    if (size == null || slide == null || offset == null) {
+      return;
+    }
+    final List<RexNode> newProjects = new ArrayList<>(project.getProjects());
+    newProjects.set(windowField, time);
+    final RelNode newProject =
+        project.copy(project.getTraitSet(), project.getInput(), newProjects,
+            project.getRowType());
+    final RelNode newInput =
+        convert(call.getPlanner(), LogicalDelta.create(newProject),
+            newProject.getTraitSet().replace(EnumerableConvention.INSTANCE));
+    try {
+      call.transformTo(
+          new EnumerableGroupWindowAggregate(aggregate.getCluster(),
+              aggregate.getTraitSet().replace(EnumerableConvention.INSTANCE),
+              newInput, aggregate.getGroupSet(), aggregate.getGroupSets(),
+              aggregate.getAggCallList(), windowType, windowField, size,
+              slide, offset, config.allowedLateness()));
+    } catch (InvalidRelException e) {
+      EnumerableRules.LOGGER.debug(e.toString());
+    }
+  }
+
+  /** Returns the value, in milliseconds, of a day-time interval literal, or
+   * null if the expression is not such a literal. */
+  private static @Nullable Long interval(RexNode e) {
+    if (e instanceof RexLiteral
+        && e.getType().getSqlTypeName().getFamily()
+            == SqlTypeFamily.INTERVAL_DAY_TIME) {
+      return ((RexLiteral) e).getValueAs(Long.class);
+    }
+    return null;
+  }
+
+  /** Returns the value, in milliseconds since midnight, of the optional
+   * alignment argument of a group window function; 0 if the argument is not
+   * present; null if it is not a literal. */
+  private static @Nullable Long alignment(List<RexNode> operands, int i) {
+    if (operands.size() <= i) {
+      return 0L;
+    }
+    final RexNode e = operands.get(i);
+    if (e instanceof RexLiteral
+        && e.getType().getSqlTypeName() == SqlTypeName.TIME) {
+      final Integer millis = ((RexLiteral) e).getValueAs(Integer.class);
+      return millis == null ? null : millis.longValue();
+    }
+    return null;
+  }
+
+  /** Rule configuration. */
+  @Value.Immutable
+  public interface Config extends RelRule.Config {
+    Config DEFAULT = ImmutableEnumerableGroupWindowAggregateRule.Config.of()
+        .withOperandSupplier(b0 ->
+            b0.operand(Delta.class).oneInput(b1 ->
+                b1.operand(Aggregate.class)
+                    .predicate(aggregate -> Aggregate.isSimple(aggregate)
+                        && aggregate.getGroupCount() > 0)
+                    .oneInput(b2 ->
+                        b2.operand(Project.class).anyInputs())))
+        .withDescription("EnumerableGroupWindowAggregateRule");
+
+    @Override default EnumerableGroupWindowAggregateRule toRule() {
+      return new EnumerableGroupWindowAggregateRule(this);
+    }
+
+    /** How long, in milliseconds, a row may arrive after rows with a later
+     * time and still be included in its window. The default is the value
+     * of {@link CalciteSystemProperty#STREAM_ALLOWED_LATENESS}. */
+    @Value.Default default long allowedLateness() {
+      return CalciteSystemProperty.STREAM_ALLOWED_LATENESS.value();
+    }
+
+    /** Sets {@link #allowedLateness()}. */
+    Config withAllowedLateness(long allowedLateness);
+  }
+}
@@ -42,7 +42,9 @@
 import org.apache.calcite.runtime.Bindable;
 import org.apache.calcite.runtime.Hook;
 import org.apache.calcite.runtime.Typed;
+import org.apache.calcite.util.Pair;
 import org.apache.calcite.util.Util;
+import org.apache.calcite.util.trace.CalciteTrace;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
@@ -52,7 +54,12 @@
 import org.codehaus.commons.compiler.CompilerFactoryFactory;
 import org.codehaus.commons.compiler.ICompilerFactory;
 import org.codehaus.commons.compiler.ISimpleCompiler;
+import org.codehaus.janino.util.ClassFile;
+import org.slf4j.Logger;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
 import java.util.List;
@@ -70,6 +77,9 @@
  */
 public class EnumerableInterpretable extends ConverterImpl
     implements InterpretableRel {
+  private static final Logger LOGGER =
+      CalciteTrace.getRelImplementorTracer();
+
   protected EnumerableInterpretable(RelOptCluster cluster, RelNode input) {
     super(cluster, ConventionTraitDef.INSTANCE,
         cluster.traitSetOf(InterpretableConvention.INSTANCE), input);
@@ -174,12 +184,52 @@ private static Bindable<?> compileToBindable(String className, String s, ISimple
       throws CompileException, ClassNotFoundException, InvocationTargetException,
       InstantiationException, IllegalAccessException {
     compiler.cook(s);
+    checkMethodSizes(compiler);
     return (Bindable<?>) compiler.getClassLoader()
         .loadClass(className)
         .getDeclaredConstructors()[0]
         .newInstance();
   }
 
+  /** Reports each method of the compiled classes whose bytecode is larger
+   * than {@link CalciteSystemProperty#GENERATED_METHOD_MAX_SIZE}; HotSpot
+   * never JIT-compiles such a method, so it runs in the interpreter. */
+  static void checkMethodSizes(ISimpleCompiler compiler) {
+    final int maxSize = CalciteSystemProperty.GENERATED_METHOD_MAX_SIZE.value();
+    if (maxSize < 0) {
+      return;
+    }
+    final Map<String, byte[]> bytecodes;
+    try {
+      bytecodes = compiler.getBytecodes();
+    } catch (UnsupportedOperationException | IllegalStateException e) {
+      // This compiler does not give access to its class files
+      return;
+    }
+    for (Map.Entry<String, byte[]> entry : bytecodes.entrySet()) {
+      final ClassFile classFile;
+      try {
+        classFile = new ClassFile(new ByteArrayInputStream(entry.getValue()));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      for (ClassFile.MethodInfo methodInfo : classFile.methodInfos) {
+        for (ClassFile.AttributeInfo attribute : methodInfo.getAttributes()) {
+          if (attribute instanceof ClassFile.CodeAttribute) {
+            final int size = ((ClassFile.CodeAttribute) attribute).code.length;
+            if (size > maxSize) {
+              final String name = entry.getKey() + "." + methodInfo.getName();
+              LOGGER.warn("Generated method {} has {} bytes of bytecode, more "
+                  + "than the {} bytes that can be JIT-compiled; it will run "
+                  + "in the interpreter", name, size, maxSize);
+              Hook.OVERSIZED_METHOD.run(Pair.of(name, size));
+            }
+          }
+        }
+      }
+    }
+  }
+
   /**
    * A visitor detecting if the Java AST contains static fields.
    */
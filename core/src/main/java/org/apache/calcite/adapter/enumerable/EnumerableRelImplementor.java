@@ -17,6 +17,7 @@
 package org.apache.calcite.adapter.enumerable;
 
 import org.apache.calcite.DataContext;
+import org.apache.calcite.config.CalciteSystemProperty;
 import org.apache.calcite.jdbc.JavaTypeFactoryImpl;
 import org.apache.calcite.linq4j.Enumerable;
 import org.apache.calcite.linq4j.function.Function1;
@@ -35,6 +36,7 @@
 import org.apache.calcite.linq4j.tree.MethodCallExpression;
 import org.apache.calcite.linq4j.tree.NewArrayExpression;
 import org.apache.calcite.linq4j.tree.NewExpression;
+import org.apache.calcite.linq4j.tree.Node;
 import org.apache.calcite.linq4j.tree.ParameterExpression;
 import org.apache.calcite.linq4j.tree.Primitive;
 import org.apache.calcite.linq4j.tree.Statement;
@@ -82,9 +84,16 @@ public class EnumerableRelImplementor extends JavaRelImplementor {
   private final Map<String, RexToLixTranslator.InputGetter> corrVars =
       new HashMap<>();
   private static final Equivalence<Object> IDENTITY = Equivalence.identity();
+  /** Number of characters of generated Java source that are assumed to
+   * compile to one byte of bytecode. Typical code has between 7 and 10;
+   * the lower value makes {@link #estimateMethodSize} err on the high side. */
+  private static final int SOURCE_CHARS_PER_BYTE = 5;
   // A combination of IdentityHashMap + LinkedHashMap to ensure deterministic order
   private final Map<Equivalence.Wrapper<Object>, ParameterExpression> stashedParameters =
       new LinkedHashMap<>();
+  /** Number of stateful operators implemented so far; see
+   * {@link #stateName}. */
+  private int stateCount;
 
   @SuppressWarnings("methodref.receiver.bound.invalid")
   protected final Function1<String, RexToLixTranslator.InputGetter> allCorrelateVariables =
@@ -456,6 +465,25 @@ public <T> Expression stash(T input, Class<? super T> clazz) {
     return x;
   }
 
+  /** Returns an expression for the name of the state of a stateful
+   * streaming operator, to be passed to
+   * {@link org.apache.calcite.runtime.StateStores#create}.
+   *
+   * <p>At run time, the expression evaluates to null unless the caller has
+   * given the execution a state id
+   * ({@link org.apache.calcite.DataContext.Variable#STREAM_STATE_ID}). The
+   * name combines the id with the kind of the operator and its position
+   * among the stateful operators of the plan; a plan is implemented the
+   * same way each time, so the name is stable across executions of the same
+   * query.
+   *
+   * @param kind Kind of operator, for example "aggregate"
+   */
+  public Expression stateName(String kind) {
+    return Expressions.call(BuiltInMethod.STATE_STORES_NAME.method,
+        DataContext.ROOT, Expressions.constant(kind + "-" + stateCount++));
+  }
+
   public void registerCorrelVariable(final String name,
       final ParameterExpression pe,
       final BlockBuilder corrBlock, final PhysType physType) {
@@ -483,6 +511,33 @@ public EnumerableRel.Result result(PhysType physType, BlockStatement block) {
         block, physType, ((PhysTypeImpl) physType).format);
   }
 
+  /** Estimates the size, in bytes of bytecode, of a method with a given
+   * body. The estimate is based on the length of the Java source, and is
+   * usually a little high. */
+  public static int estimateMethodSize(Node body) {
+    return Expressions.toString(body).length() / SOURCE_CHARS_PER_BYTE;
+  }
+
+  /** Returns the number of methods into which a method with a given body,
+   * consisting of {@code partCount} independent parts, should be split so
+   * that each is small enough to be JIT-compiled; or 1 if the method is
+   * small enough already.
+   *
+   * @see CalciteSystemProperty#GENERATED_METHOD_MAX_SIZE */
+  public static int methodSplitCount(Node body, int partCount) {
+    final int maxSize = CalciteSystemProperty.GENERATED_METHOD_MAX_SIZE.value();
+    if (maxSize < 0 || partCount <= 1) {
+      return 1;
+    }
+    final int size = estimateMethodSize(body);
+    if (size <= maxSize) {
+      return 1;
+    }
+    // Aim for half the maximum size, to allow for error in the estimate.
+    final int targetSize = Math.max(maxSize / 2, 1);
+    return Math.min(partCount, (size + targetSize - 1) / targetSize);
+  }
+
   @Override public SqlConformance getConformance() {
     return (SqlConformance) map.getOrDefault("_conformance",
         SqlConformanceEnum.DEFAULT);
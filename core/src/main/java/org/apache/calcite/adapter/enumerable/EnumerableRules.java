@@ -71,6 +71,18 @@ private EnumerableRules() {
   public static final RelOptRule ENUMERABLE_BATCH_NESTED_LOOP_JOIN_RULE =
       EnumerableBatchNestedLoopJoinRule.Config.DEFAULT.toRule();
 
+  /** Rule that converts a
+   * {@link org.apache.calcite.rel.logical.LogicalJoin} whose condition
+   * contains a spatial predicate such as {@code ST_Intersects} into an
+   * {@link org.apache.calcite.adapter.enumerable.EnumerableSpatialJoin}. */
+  public static final RelOptRule ENUMERABLE_SPATIAL_JOIN_RULE =
+      EnumerableSpatialJoinRule.Config.DEFAULT.toRule();
+
+  /** Rule that converts a {@link org.apache.calcite.rel.stream.Delta} over
+   * a join of a stream and a table to an {@link EnumerableStreamJoin}. */
+  public static final RelOptRule ENUMERABLE_STREAM_JOIN_RULE =
+      EnumerableStreamJoinRule.Config.DEFAULT.toRule();
+
   /** Rule that converts a
    * {@link org.apache.calcite.rel.logical.LogicalProject} to an
    * {@link EnumerableProject}. */
@@ -87,6 +99,18 @@ private EnumerableRules() {
       EnumerableAggregateRule.DEFAULT_CONFIG
           .toRule(EnumerableAggregateRule.class);
 
+  /** Rule that converts a {@link org.apache.calcite.rel.stream.Delta} over
+   * an aggregate whose input is sorted on a grouping field to an
+   * {@link EnumerableStreamAggregate}. */
+  public static final RelOptRule ENUMERABLE_STREAM_AGGREGATE_RULE =
+      EnumerableStreamAggregateRule.Config.DEFAULT.toRule();
+
+  /** Rule that converts a {@link org.apache.calcite.rel.stream.Delta} over
+   * an aggregate that groups by {@code TUMBLE}, {@code HOP} or
+   * {@code SESSION} to an {@link EnumerableGroupWindowAggregate}. */
+  public static final RelOptRule ENUMERABLE_GROUP_WINDOW_AGGREGATE_RULE =
+      EnumerableGroupWindowAggregateRule.Config.DEFAULT.toRule();
+
   /** Rule that converts a {@link org.apache.calcite.rel.core.Sort} to an
    * {@link EnumerableSort}. */
   public static final EnumerableSortRule ENUMERABLE_SORT_RULE =
@@ -147,6 +171,14 @@ private EnumerableRules() {
   public static final EnumerableValuesRule ENUMERABLE_VALUES_RULE =
       EnumerableValuesRule.DEFAULT_CONFIG.toRule(EnumerableValuesRule.class);
 
+  /** Rule that converts a
+   * {@link org.apache.calcite.rel.logical.LogicalColumnarValues} to
+   * {@link EnumerableConvention enumerable calling convention}. */
+  public static final EnumerableColumnarValuesRule
+      ENUMERABLE_COLUMNAR_VALUES_RULE =
+      EnumerableColumnarValuesRule.DEFAULT_CONFIG
+          .toRule(EnumerableColumnarValuesRule.class);
+
   /** Rule that converts a {@link org.apache.calcite.rel.logical.LogicalWindow}
    * to an {@link org.apache.calcite.adapter.enumerable.EnumerableWindow}. */
   public static final EnumerableWindowRule ENUMERABLE_WINDOW_RULE =
@@ -214,10 +246,14 @@ private EnumerableRules() {
           EnumerableRules.ENUMERABLE_ASOFJOIN_RULE,
           EnumerableRules.ENUMERABLE_MERGE_JOIN_RULE,
           EnumerableRules.ENUMERABLE_CORRELATE_RULE,
+          EnumerableRules.ENUMERABLE_SPATIAL_JOIN_RULE,
+          EnumerableRules.ENUMERABLE_STREAM_JOIN_RULE,
           EnumerableRules.ENUMERABLE_PROJECT_RULE,
           EnumerableRules.ENUMERABLE_FILTER_RULE,
           EnumerableRules.ENUMERABLE_CALC_RULE,
           EnumerableRules.ENUMERABLE_AGGREGATE_RULE,
+          EnumerableRules.ENUMERABLE_STREAM_AGGREGATE_RULE,
+          EnumerableRules.ENUMERABLE_GROUP_WINDOW_AGGREGATE_RULE,
           EnumerableRules.ENUMERABLE_SORT_RULE,
           EnumerableRules.ENUMERABLE_LIMIT_RULE,
           EnumerableRules.ENUMERABLE_COLLECT_RULE,
@@ -230,6 +266,7 @@ private EnumerableRules() {
           EnumerableRules.ENUMERABLE_MINUS_RULE,
           EnumerableRules.ENUMERABLE_TABLE_MODIFICATION_RULE,
           EnumerableRules.ENUMERABLE_VALUES_RULE,
+          EnumerableRules.ENUMERABLE_COLUMNAR_VALUES_RULE,
           EnumerableRules.ENUMERABLE_WINDOW_RULE,
           EnumerableRules.ENUMERABLE_TABLE_SCAN_RULE,
           EnumerableRules.ENUMERABLE_TABLE_FUNCTION_SCAN_RULE,
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.enumerable;
+
+import org.apache.calcite.linq4j.tree.BlockBuilder;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelOptCost;
+import org.apache.calcite.plan.RelOptPlanner;
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.RelNodes;
+import org.apache.calcite.rel.RelWriter;
+import org.apache.calcite.rel.core.CorrelationId;
+import org.apache.calcite.rel.core.Join;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.metadata.RelMdUtil;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.util.BuiltInMethod;
+import org.apache.calcite.util.Util;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/** Implementation of {@link org.apache.calcite.rel.core.Join} in
+ * {@link org.apache.calcite.adapter.enumerable.EnumerableConvention enumerable calling convention}
+ * whose condition contains a spatial predicate, such as
+ * {@code ST_Intersects(left.geom, right.geom)}.
+ *
+ * <p>Builds an STR-tree over the envelopes of the geometries of the smaller
+ * input, and probes it with the envelope of the geometry of each row of the
+ * other input. The whole join condition is evaluated for each pair of rows
+ * whose envelopes intersect.
+ *
+ * @see EnumerableSpatialJoinRule */
+public class EnumerableSpatialJoin extends Join implements EnumerableRel {
+  /** Ordinal of the geometry field in the left input. */
+  public final int leftGeometry;
+  /** Ordinal of the geometry field in the right input. */
+  public final int rightGeometry;
+  /** Distance by which to expand envelopes; positive for
+   * {@code ST_DWithin}, 0 for other predicates. */
+  public final double distance;
+
+  /** Creates an EnumerableSpatialJoin. */
+  protected EnumerableSpatialJoin(RelOptCluster cluster, RelTraitSet traits,
+      RelNode left, RelNode right, RexNode condition,
+      Set<CorrelationId> variablesSet, JoinRelType joinType,
+      int leftGeometry, int rightGeometry, double distance) {
+    super(cluster, traits, ImmutableList.of(), left, right, condition,
+        variablesSet, joinType);
+    checkArgument(joinType == JoinRelType.INNER,
+        "spatial join must be inner join: %s", joinType);
+    this.leftGeometry = leftGeometry;
+    this.rightGeometry = rightGeometry;
+    this.distance = distance;
+  }
+
+  /** Creates an EnumerableSpatialJoin. */
+  public static EnumerableSpatialJoin create(RelNode left, RelNode right,
+      RexNode condition, int leftGeometry, int rightGeometry,
+      double distance) {
+    final RelOptCluster cluster = left.getCluster();
+    final RelTraitSet traitSet =
+        cluster.traitSetOf(EnumerableConvention.INSTANCE);
+    return new EnumerableSpatialJoin(cluster, traitSet, left, right,
+        condition, ImmutableSet.of(), JoinRelType.INNER, leftGeometry,
+        rightGeometry, distance);
+  }
+
+  @Override public EnumerableSpatialJoin copy(RelTraitSet traitSet,
+      RexNode condition, RelNode left, RelNode right, JoinRelType joinType,
+      boolean semiJoinDone) {
+    return new EnumerableSpatialJoin(getCluster(), traitSet, left, right,
+        condition, variablesSet, joinType, leftGeometry, rightGeometry,
+        distance);
+  }
+
+  @Override public RelWriter explainTerms(RelWriter pw) {
+    return super.explainTerms(pw)
+        .item("leftGeometry", leftGeometry)
+        .item("rightGeometry", rightGeometry)
+        .itemIf("distance", distance, distance > 0D);
+  }
+
+  @Override public @Nullable RelOptCost computeSelfCost(RelOptPlanner planner,
+      RelMetadataQuery mq) {
+    double rowCount = mq.getRowCount(this);
+
+    // Joins can be flipped, and both versions have the same cost. To make
+    // the results stable between versions of the planner, make one of the
+    // versions slightly more expensive.
+    if (RelNodes.COMPARATOR.compare(left, right) > 0) {
+      rowCount = RelMdUtil.addEpsilon(rowCount);
+    }
+
+    // Each input is read once; building the tree costs N log N in the size
+    // of the smaller input.
+    final double rightRowCount = mq.getRowCount(right);
+    final double leftRowCount = mq.getRowCount(left);
+    if (Double.isInfinite(leftRowCount) || Double.isInfinite(rightRowCount)) {
+      rowCount = Double.POSITIVE_INFINITY;
+    } else {
+      rowCount += leftRowCount + rightRowCount
+          + Util.nLogN(Math.min(leftRowCount, rightRowCount));
+    }
+    return planner.getCostFactory().makeCost(rowCount, 0, 0);
+  }
+
+  @Override public Result implement(EnumerableRelImplementor implementor,
+      Prefer pref) {
+    final BlockBuilder builder = new BlockBuilder();
+    final Result leftResult =
+        implementor.visitChild(this, 0, (EnumerableRel) left, pref);
+    final Expression leftExpression =
+        builder.append("left", leftResult.block);
+    final Result rightResult =
+        implementor.visitChild(this, 1, (EnumerableRel) right, pref);
+    final Expression rightExpression =
+        builder.append("right", rightResult.block);
+    final PhysType physType =
+        PhysTypeImpl.of(implementor.getTypeFactory(),
+            getRowType(),
+            pref.preferArray());
+    final Expression predicate =
+        EnumUtils.generatePredicate(implementor, getCluster().getRexBuilder(),
+            left, right, leftResult.physType, rightResult.physType,
+            condition);
+    final RelMetadataQuery mq = getCluster().getMetadataQuery();
+    final boolean buildLeft = mq.getRowCount(left) < mq.getRowCount(right);
+    return implementor.result(
+        physType,
+        builder.append(
+            Expressions.call(BuiltInMethod.SPATIAL_JOIN.method,
+                leftExpression,
+                rightExpression,
+                leftResult.physType.generateAccessor(
+                    ImmutableList.of(leftGeometry)),
+                rightResult.physType.generateAccessor(
+                    ImmutableList.of(rightGeometry)),
+                Expressions.constant(distance),
+                predicate,
+                EnumUtils.joinSelector(joinType,
+                    physType,
+                    ImmutableList.of(leftResult.physType,
+                        rightResult.physType)),
+                Expressions.constant(buildLeft)))
+            .toBlock());
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.enumerable;
+
+import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.plan.RelRule;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.Join;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.logical.LogicalJoin;
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.rex.RexNode;
+
+import com.google.common.collect.ImmutableSet;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.immutables.value.Value;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Set;
+
+/** Planner rule that converts a {@link LogicalJoin} whose condition contains
+ * a spatial predicate between a geometry column of each input, such as
+ * {@code ST_Intersects(s.geom, p.geom)} or
+ * {@code ST_DWithin(s.geom, p.geom, 10)}, to an
+ * {@link EnumerableSpatialJoin}.
+ *
+ * <p>Only inner joins are converted, because for other join types a row
+ * that is not found in the index must still be emitted.
+ *
+ * @see EnumerableRules#ENUMERABLE_SPATIAL_JOIN_RULE
+ */
+@Value.Enclosing
+public class EnumerableSpatialJoinRule
+    extends RelRule<EnumerableSpatialJoinRule.Config> {
+  /** Names of predicates that are true only if the envelopes of their two
+   * geometry arguments intersect. */
+  private static final Set<String> INTERSECTING_PREDICATES =
+      ImmutableSet.of("ST_CONTAINS", "ST_CONTAINSPROPERLY", "ST_COVEREDBY",
+          "ST_COVERS", "ST_CROSSES", "ST_ENVELOPESINTERSECT", "ST_EQUALS",
+          "ST_INTERSECTS", "ST_ORDERINGEQUALS", "ST_OVERLAPS", "ST_TOUCHES",
+          "ST_WITHIN");
+
+  /** Creates an EnumerableSpatialJoinRule. */
+  protected EnumerableSpatialJoinRule(Config config) {
+    super(config);
+  }
+
+  @Override public boolean matches(RelOptRuleCall call) {
+    final Join join = call.rel(0);
+    return join.getJoinType() == JoinRelType.INNER
+        && join.getVariablesSet().isEmpty()
+        && findSpatialPredicate(join) != null;
+  }
+
+  @Override public void onMatch(RelOptRuleCall call) {
+    final Join join = call.rel(0);
+    final SpatialPredicate predicate = findSpatialPredicate(join);
+    if (predicate == null) {
+      return;
+    }
+    final RelNode left = join.getLeft();
+    final RelNode right = join.getRight();
+    call.transformTo(
+        EnumerableSpatialJoin.create(
+            convert(call.getPlanner(), left,
+                left.getTraitSet().replace(EnumerableConvention.INSTANCE)),
+            convert(call.getPlanner(), right,
+                right.getTraitSet().replace(EnumerableConvention.INSTANCE)),
+            join.getCondition(),
+            predicate.leftGeometry,
+            predicate.rightGeometry,
+            predicate.distance));
+  }
+
+  /** Returns the first conjunct of a join's condition that is a spatial
+   * predicate between a field of each input, or null if there is none. */
+  static @Nullable SpatialPredicate findSpatialPredicate(Join join) {
+    final int leftFieldCount = join.getLeft().getRowType().getFieldCount();
+    for (RexNode conjunct : RelOptUtil.conjunctions(join.getCondition())) {
+      if (!(conjunct instanceof RexCall)) {
+        continue;
+      }
+      final RexCall call = (RexCall) conjunct;
+      final String name =
+          call.getOperator().getName().toUpperCase(Locale.ROOT);
+      final double distance;
+      if (INTERSECTING_PREDICATES.contains(name)
+          && call.operands.size() == 2) {
+        distance = 0D;
+      } else if (name.equals("ST_DWITHIN")
+          && call.operands.size() == 3
+          && call.operands.get(2) instanceof RexLiteral) {
+        final BigDecimal d =
+            ((RexLiteral) call.operands.get(2)).getValueAs(BigDecimal.class);
+        if (d == null || d.signum() < 0) {
+          continue;
+        }
+        distance = d.doubleValue();
+      } else {
+        continue;
+      }
+      final RexNode op0 = call.operands.get(0);
+      final RexNode op1 = call.operands.get(1);
+      if (!(op0 instanceof RexInputRef) || !(op1 instanceof RexInputRef)) {
+        continue;
+      }
+      final int i0 = ((RexInputRef) op0).getIndex();
+      final int i1 = ((RexInputRef) op1).getIndex();
+      if (i0 < leftFieldCount && i1 >= leftFieldCount) {
+        return new SpatialPredicate(i0, i1 - leftFieldCount, distance);
+      }
+      if (i1 < leftFieldCount && i0 >= leftFieldCount) {
+        return new SpatialPredicate(i1, i0 - leftFieldCount, distance);
+      }
+    }
+    return null;
+  }
+
+  /** Spatial predicate found in a join condition. */
+  static class SpatialPredicate {
+    final int leftGeometry;
+    final int rightGeometry;
+    final double distance;
+
+    SpatialPredicate(int leftGeometry, int rightGeometry, double distance) {
+      this.leftGeometry = leftGeometry;
+      this.rightGeometry = rightGeometry;
+      this.distance = distance;
+    }
+  }
+
+  /** Rule configuration. */
+  @Value.Immutable
+  public interface Config extends RelRule.Config {
+    Config DEFAULT = ImmutableEnumerableSpatialJoinRule.Config.of()
+        .withOperandSupplier(b -> b.operand(LogicalJoin.class).anyInputs())
+        .withDescription("EnumerableSpatialJoinRule");
+
+    @Override default EnumerableSpatialJoinRule toRule() {
+      return new EnumerableSpatialJoinRule(this);
+    }
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.enumerable;
+
+import org.apache.calcite.linq4j.tree.BlockBuilder;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelOptCost;
+import org.apache.calcite.plan.RelOptPlanner;
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.rel.InvalidRelException;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.RelWriter;
+import org.apache.calcite.rel.core.AggregateCall;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
+import org.apache.calcite.util.BuiltInMethod;
+import org.apache.calcite.util.ImmutableBitSet;
+
+import com.google.common.collect.ImmutableList;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.List;
+
+/** Implementation of {@link org.apache.calcite.rel.core.Aggregate} over a
+ * stream, in {@link EnumerableConvention enumerable calling convention}.
+ *
+ * <p>One of the grouping fields, {@link #monotonicField}, increases as rows
+ * arrive, such as {@code FLOOR(rowtime TO HOUR)}. Unlike
+ * {@link EnumerableAggregate}, which must read all of its input before it
+ * emits the first group, this operator emits a group as soon as a row arrives
+ * with a greater value of that field, and then releases the state of the
+ * group. It can therefore aggregate an infinite stream.
+ *
+ * @see EnumerableStreamAggregateRule
+ * @see org.apache.calcite.runtime.Enumerables#streamGroupBy */
+public class EnumerableStreamAggregate extends EnumerableAggregate {
+  /** Ordinal of the input field that increases as rows arrive; one of the
+   * grouping fields. */
+  public final int monotonicField;
+
+  /** Creates an EnumerableStreamAggregate. */
+  public EnumerableStreamAggregate(RelOptCluster cluster, RelTraitSet traitSet,
+      RelNode input, ImmutableBitSet groupSet,
+      @Nullable List<ImmutableBitSet> groupSets, List<AggregateCall> aggCalls,
+      int monotonicField) throws InvalidRelException {
+    super(cluster, traitSet, input, groupSet, groupSets, aggCalls);
+    this.monotonicField = monotonicField;
+    if (getGroupType() != Group.SIMPLE) {
+      throw new InvalidRelException(
+          "grouping sets not supported in streaming aggregation");
+    }
+    if (!groupSet.get(monotonicField)) {
+      throw new InvalidRelException("monotonic field " + monotonicField
+          + " is not a grouping field");
+    }
+  }
+
+  @Override public EnumerableStreamAggregate copy(RelTraitSet traitSet,
+      RelNode input, ImmutableBitSet groupSet,
+      @Nullable List<ImmutableBitSet> groupSets, List<AggregateCall> aggCalls) {
+    try {
+      return new EnumerableStreamAggregate(getCluster(), traitSet, input,
+          groupSet, groupSets, aggCalls, monotonicField);
+    } catch (InvalidRelException e) {
+      // Semantic error not possible. Must be a bug. Convert to
+      // internal error.
+      throw new AssertionError(e);
+    }
+  }
+
+  @Override public RelWriter explainTerms(RelWriter pw) {
+    return super.explainTerms(pw)
+        .item("monotonic", monotonicField);
+  }
+
+  @Override public @Nullable RelOptCost computeSelfCost(RelOptPlanner planner,
+      RelMetadataQuery mq) {
+    // Cheaper than EnumerableAggregate, which must buffer the whole stream
+    // before it emits anything.
+    final RelOptCost cost = super.computeSelfCost(planner, mq);
+    return cost == null ? null : cost.multiplyBy(0.5D);
+  }
+
+  @Override protected boolean canImplementAsDistinct() {
+    return false;
+  }
+
+  @Override protected Expression implementGroupBy(
+      EnumerableRelImplementor implementor, BlockBuilder builder,
+      Expression childExp, PhysType inputPhysType, PhysType keyPhysType,
+      Expression keySelector, Expression accumulatorInitializer,
+      Expression accumulatorAdder, Expression resultSelector,
+      @Nullable Expression accumulatorCombiner) {
+    final Expression progressSelector =
+        builder.append("progressSelector",
+            inputPhysType.generateAccessor(ImmutableList.of(monotonicField)));
+    return Expressions.call(BuiltInMethod.STREAM_GROUP_BY.method, childExp,
+        keySelector, progressSelector, accumulatorInitializer,
+        accumulatorAdder, resultSelector, implementor.stateName("aggregate"));
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.enumerable;
+
+import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.plan.RelRule;
+import org.apache.calcite.rel.InvalidRelException;
+import org.apache.calcite.rel.RelCollation;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.Aggregate;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
+import org.apache.calcite.rel.stream.Delta;
+import org.apache.calcite.rel.stream.LogicalDelta;
+import org.apache.calcite.util.Util;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.immutables.value.Value;
+
+import java.util.List;
+
+/** Planner rule that converts a {@link Delta} over an {@link Aggregate}
+ * whose input is sorted on one of its grouping fields to an
+ * {@link EnumerableStreamAggregate} over the {@link Delta} of its input.
+ *
+ * <p>For example, in
+ *
+ * <blockquote><pre>SELECT STREAM FLOOR(rowtime TO HOUR), product, COUNT(*)
+ * FROM Orders
+ * GROUP BY FLOOR(rowtime TO HOUR), product</pre></blockquote>
+ *
+ * <p>{@code Orders} is sorted on {@code rowtime}, and so
+ * {@code FLOOR(rowtime TO HOUR)} does not decrease; each hour's groups are
+ * emitted when the first row of the next hour arrives.
+ *
+ * @see EnumerableRules#ENUMERABLE_STREAM_AGGREGATE_RULE
+ */
+@Value.Enclosing
+public class EnumerableStreamAggregateRule
+    extends RelRule<EnumerableStreamAggregateRule.Config> {
+  /** Creates an EnumerableStreamAggregateRule. */
+  protected EnumerableStreamAggregateRule(Config config) {
+    super(config);
+  }
+
+  @Override public void onMatch(RelOptRuleCall call) {
+    final Delta delta = call.rel(0);
+    Util.discard(delta);
+    final Aggregate aggregate = call.rel(1);
+    final RelNode input = aggregate.getInput();
+    final Integer monotonicField =
+        findMonotonicField(aggregate, call.getMetadataQuery());
+    if (monotonicField == null) {
+      return;
+    }
+    final RelNode newInput =
+        convert(call.getPlanner(), LogicalDelta.create(input),
+            input.getTraitSet().replace(EnumerableConvention.INSTANCE));
+    try {
+      call.transformTo(
+          new EnumerableStreamAggregate(aggregate.getCluster(),
+              aggregate.getTraitSet().replace(EnumerableConvention.INSTANCE),
+              newInput, aggregate.getGroupSet(), aggregate.getGroupSets(),
+              aggregate.getAggCallList(), monotonicField));
+    } catch (InvalidRelException e) {
+      EnumerableRules.LOGGER.debug(e.toString());
+    }
+  }
+
+  /** Returns the ordinal of a grouping field on which the input of an
+   * aggregate is sorted, or null if there is none. */
+  private static @Nullable Integer findMonotonicField(Aggregate aggregate,
+      RelMetadataQuery mq) {
+    final List<RelCollation> collations = mq.collations(aggregate.getInput());
+    if (collations == null) {
+      return null;
+    }
+    for (RelCollation collation : collations) {
+      if (!collation.getFieldCollations().isEmpty()) {
+        final int field =
+            collation.getFieldCollations().get(0).getFieldIndex();
+        if (aggregate.getGroupSet().get(field)) {
+          return field;
+        }
+      }
+    }
+    return null;
+  }
+
+  /** Rule configuration. */
+  @Value.Immutable
+  public interface Config extends RelRule.Config {
+    Config DEFAULT = ImmutableEnumerableStreamAggregateRule.Config.of()
+        .withOperandSupplier(b0 ->
+            b0.operand(Delta.class).oneInput(b1 ->
+                b1.operand(Aggregate.class)
+                    .predicate(aggregate -> Aggregate.isSimple(aggregate)
+                        && aggregate.getGroupCount() > 0)
+                    .anyInputs()))
+        .withDescription("EnumerableStreamAggregateRule");
+
+    @Override default EnumerableStreamAggregateRule toRule() {
+      return new EnumerableStreamAggregateRule(this);
+    }
+  }
+}
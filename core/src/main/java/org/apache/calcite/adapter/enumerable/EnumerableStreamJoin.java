@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.enumerable;
+
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelOptCost;
+import org.apache.calcite.plan.RelOptPlanner;
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.CorrelationId;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
+import org.apache.calcite.rex.RexNode;
+
+import com.google.common.collect.ImmutableSet;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/** Implementation of a join between a stream and a table in
+ * {@link EnumerableConvention enumerable calling convention}.
+ *
+ * <p>The stream is the left input, and the table is the right input. Like
+ * {@link EnumerableHashJoin}, it reads the table into a hash table, then
+ * joins each row of the stream as it arrives; it never buffers the stream,
+ * and so it can join an infinite stream. Other join algorithms, such as
+ * {@link EnumerableMergeJoin} (which must sort the stream) are not
+ * suitable.
+ *
+ * @see EnumerableStreamJoinRule */
+public class EnumerableStreamJoin extends EnumerableHashJoin {
+  /** Creates an EnumerableStreamJoin.
+   *
+   * <p>Use {@link #create} unless you know what you're doing. */
+  protected EnumerableStreamJoin(RelOptCluster cluster, RelTraitSet traits,
+      RelNode left, RelNode right, RexNode condition,
+      JoinRelType joinType) {
+    super(cluster, traits, left, right, condition, ImmutableSet.of(),
+        joinType);
+  }
+
+  /** Creates an EnumerableStreamJoin. */
+  public static EnumerableStreamJoin create(RelNode left, RelNode right,
+      RexNode condition, JoinRelType joinType) {
+    final RelOptCluster cluster = left.getCluster();
+    // The output is in the order that rows arrive on the stream, but within
+    // each row of the stream, the order of matching rows is not defined.
+    final RelTraitSet traitSet =
+        cluster.traitSetOf(EnumerableConvention.INSTANCE);
+    return new EnumerableStreamJoin(cluster, traitSet, left, right, condition,
+        joinType);
+  }
+
+  @Override public EnumerableStreamJoin copy(RelTraitSet traitSet,
+      RexNode condition, RelNode left, RelNode right, JoinRelType joinType,
+      boolean semiJoinDone) {
+    return new EnumerableStreamJoin(getCluster(), traitSet, left, right,
+        condition, joinType);
+  }
+
+  @Override public @Nullable RelOptCost computeSelfCost(RelOptPlanner planner,
+      RelMetadataQuery mq) {
+    // Cheaper than joins that must buffer or sort the stream.
+    final RelOptCost cost = super.computeSelfCost(planner, mq);
+    return cost == null ? null : cost.multiplyBy(0.5D);
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.enumerable;
+
+import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.plan.RelOptTable;
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.plan.RelRule;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.Join;
+import org.apache.calcite.rel.stream.Delta;
+import org.apache.calcite.rel.stream.LogicalDelta;
+import org.apache.calcite.schema.StreamableTable;
+import org.apache.calcite.util.Util;
+
+import org.immutables.value.Value;
+
+/** Planner rule that converts a {@link Delta} over an inner or left
+ * {@link Join} whose right input is a table (not a stream) to an
+ * {@link EnumerableStreamJoin} of the {@link Delta} of the left input and
+ * the right input.
+ *
+ * <p>The stream must be the left input. If the stream is the right input,
+ * other rules must first swap the inputs of the join.
+ *
+ * @see EnumerableRules#ENUMERABLE_STREAM_JOIN_RULE
+ */
+@Value.Enclosing
+public class EnumerableStreamJoinRule
+    extends RelRule<EnumerableStreamJoinRule.Config> {
+  /** Creates an EnumerableStreamJoinRule. */
+  protected EnumerableStreamJoinRule(Config config) {
+    super(config);
+  }
+
+  @Override public boolean matches(RelOptRuleCall call) {
+    final Join join = call.rel(1);
+    switch (join.getJoinType()) {
+    case INNER:
+    case LEFT:
+      break;
+    default:
+      return false;
+    }
+    return join.getVariablesSet().isEmpty()
+        && !join.analyzeCondition().leftKeys.isEmpty()
+        && !isStream(join.getRight());
+  }
+
+  @Override public void onMatch(RelOptRuleCall call) {
+    final Delta delta = call.rel(0);
+    Util.discard(delta);
+    final Join join = call.rel(1);
+    final RelNode left = join.getLeft();
+    final RelNode right = join.getRight();
+    call.transformTo(
+        EnumerableStreamJoin.create(
+            convert(call.getPlanner(), LogicalDelta.create(left),
+                left.getTraitSet().replace(EnumerableConvention.INSTANCE)),
+            convert(call.getPlanner(), right,
+                right.getTraitSet().replace(EnumerableConvention.INSTANCE)),
+            join.getCondition(),
+            join.getJoinType()));
+  }
+
+  /** Returns whether a relational expression reads from a table that can be
+   * a stream. */
+  private static boolean isStream(RelNode rel) {
+    for (RelOptTable table : RelOptUtil.findAllTables(rel)) {
+      if (table.unwrap(StreamableTable.class) != null) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Rule configuration. */
+  @Value.Immutable
+  public interface Config extends RelRule.Config {
+    Config DEFAULT = ImmutableEnumerableStreamJoinRule.Config.of()
+        .withOperandSupplier(b0 ->
+            b0.operand(Delta.class).oneInput(b1 ->
+                b1.operand(Join.class).anyInputs()))
+        .withDescription("EnumerableStreamJoinRule");
+
+    @Override default EnumerableStreamJoinRule toRule() {
+      return new EnumerableStreamJoinRule(this);
+    }
+  }
+}
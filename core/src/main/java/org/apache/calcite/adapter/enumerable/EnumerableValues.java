@@ -17,6 +17,7 @@
 package org.apache.calcite.adapter.enumerable;
 
 import org.apache.calcite.adapter.java.JavaTypeFactory;
+import org.apache.calcite.config.CalciteSystemProperty;
 import org.apache.calcite.linq4j.tree.BlockBuilder;
 import org.apache.calcite.linq4j.tree.Expression;
 import org.apache.calcite.linq4j.tree.Expressions;
@@ -29,6 +30,7 @@
 import org.apache.calcite.rel.RelDistributionTraitDef;
 import org.apache.calcite.rel.RelFieldCollation;
 import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.ColumnarValues;
 import org.apache.calcite.rel.core.Values;
 import org.apache.calcite.rel.metadata.RelMdCollation;
 import org.apache.calcite.rel.metadata.RelMdDistribution;
@@ -36,6 +38,7 @@
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rel.type.RelDataTypeField;
 import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.runtime.ColumnarRows;
 import org.apache.calcite.util.BuiltInMethod;
 import org.apache.calcite.util.Pair;
 
@@ -112,6 +115,17 @@ public static EnumerableValues create(RelOptCluster cluster,
   }
 
   @Override public Result implement(EnumerableRelImplementor implementor, Prefer pref) {
+    // If there are many rows, read them from columns, so that the size of
+    // the generated code does not depend on the number of rows.
+    final int columnarThreshold =
+        CalciteSystemProperty.VALUES_COLUMNAR_THRESHOLD.value();
+    if (columnarThreshold >= 0 && tuples.size() >= columnarThreshold) {
+      final ColumnarRows rows = ColumnarValues.toRows(getRowType(), tuples);
+      if (rows != null) {
+        return EnumerableColumnarValues.implement(implementor, getRowType(),
+            rows);
+      }
+    }
 /*
           return Linq4j.asEnumerable(
               new Object[][] {
@@ -35,6 +35,8 @@
 import org.apache.calcite.plan.RelOptCost;
 import org.apache.calcite.plan.RelOptPlanner;
 import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.rel.RelCollation;
+import org.apache.calcite.rel.RelCollations;
 import org.apache.calcite.rel.RelFieldCollation;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.core.AggregateCall;
@@ -202,8 +204,14 @@ private static void sampleOfTheGeneratedWindowedAggregate() {
     builder.add(Expressions.declare(0, prevStart, null));
     builder.add(Expressions.declare(0, prevEnd, null));
 
+    // Whether the input to the current group is in the same order as the
+    // input to this Window. It is until a group sorts its input.
+    boolean inputOrderPreserved = true;
     for (int windowIdx = 0; windowIdx < groups.size(); windowIdx++) {
       Group group = groups.get(windowIdx);
+      final boolean inputSorted =
+          inputOrderPreserved && isInputSorted(group);
+      inputOrderPreserved = inputSorted;
       // Comparator:
       // final Comparator<JdbcTest.Employee> comparator =
       //    new Comparator<JdbcTest.Employee>() {
@@ -216,9 +224,9 @@ private static void sampleOfTheGeneratedWindowedAggregate() {
           builder.append("comparator",
               inputPhysType.generateComparator(group.collation()));
 
-      Pair<Expression, Expression> partitionIterator =
+      Pair<@Nullable Expression, Expression> partitionIterator =
           getPartitionIterator(builder, source_, inputPhysType, group,
-              comparator_);
+              comparator_, inputSorted);
       final Expression collectionExpr = partitionIterator.left;
       final Expression iterator_ = partitionIterator.right;
 
@@ -248,9 +256,11 @@ private static void sampleOfTheGeneratedWindowedAggregate() {
 
       final Expression list_ =
           builder.append("list",
-              Expressions.new_(ArrayList.class,
-                  Expressions.call(collectionExpr,
-                      BuiltInMethod.COLLECTION_SIZE.method)),
+              collectionExpr == null
+                  ? Expressions.new_(ArrayList.class)
+                  : Expressions.new_(ArrayList.class,
+                      Expressions.call(collectionExpr,
+                          BuiltInMethod.COLLECTION_SIZE.method)),
               false);
 
       Pair<@Nullable Expression, @Nullable Expression> collationKey =
@@ -301,8 +311,9 @@ private static void sampleOfTheGeneratedWindowedAggregate() {
                 outputPhysType.getJavaFieldType(i)));
       }
 
-      declareAndResetState(typeFactory, builder, result, windowIdx, aggs,
-          outputPhysType, outputRow, group.exclude);
+      final boolean removesRows =
+          declareAndResetState(typeFactory, builder, result, windowIdx, aggs,
+              outputPhysType, outputRow, group);
 
       // There are assumptions that minX==0. If ever change this, look for
       // frameRowCount, bounds checking, etc
@@ -414,8 +425,72 @@ private static void sampleOfTheGeneratedWindowedAggregate() {
           Expressions.orElse(Expressions.orElse(isExcluding, lowerBoundCanChange),
               Expressions.lessThan(endX, prevEnd));
 
+      final Function<AggImpState, List<RexNode>> rexArguments = agg -> {
+        List<Integer> argList = agg.call.getArgList();
+        List<RelDataType> inputTypes =
+            EnumUtils.fieldRowTypes(result.physType.getRowType(), constants,
+                argList);
+        List<RexNode> args = new ArrayList<>(inputTypes.size());
+        for (int i = 0; i < argList.size(); i++) {
+          Integer idx = argList.get(i);
+          args.add(new RexInputRef(idx, inputTypes.get(i)));
+        }
+        return args;
+      };
+
       BlockStatement resetWindowState = builder6.toBlock();
-      if (resetWindowState.statements.size() == 1) {
+      if (removesRows) {
+        // The frame slides forward. Remove the rows that have left the frame,
+        // then add the rows that have entered it. Recompute if the new frame
+        // does not overlap the previous one (or the previous frame was
+        // empty, or this is the first row of the partition).
+        //
+        //   if (end < prevEnd || start < prevStart || start > prevEnd) {
+        //     // reset
+        //     actualStart = start;
+        //   } else {
+        //     for (int k = prevStart; k < start; k++) {
+        //       // implementRemove
+        //     }
+        //     actualStart = prevEnd + 1;
+        //   }
+        needRecomputeWindow =
+            Expressions.orElse(
+                Expressions.orElse(Expressions.lessThan(endX, prevEnd),
+                    Expressions.lessThan(startX, prevStart)),
+                Expressions.greaterThan(startX, prevEnd));
+        final BlockBuilder builder8 = new BlockBuilder(true, builder5);
+        final DeclarationStatement kDecl =
+            Expressions.declare(0, "k", prevStart);
+        final Function<BlockBuilder, WinAggFrameResultContext>
+            removeContextBuilder =
+            getBlockBuilderWinAggFrameResultContextFunction(typeFactory,
+                implementor.getConformance(), result, translatedConstants,
+                comparator_, rows_, i_, startX, endX, minX, maxX,
+                hasRows, frameRowCount, partitionRowCount,
+                kDecl, inputPhysType);
+        implementRemove(aggs, builder8, removeContextBuilder, rexArguments,
+            kDecl);
+        final BlockStatement removeBlock = builder8.toBlock();
+        final BlockBuilder builder9 = new BlockBuilder(true, builder5);
+        if (!removeBlock.statements.isEmpty()) {
+          builder9.add(
+              Expressions.for_(kDecl,
+                  Expressions.lessThan(kDecl.parameter, startX),
+                  Expressions.preIncrementAssign(kDecl.parameter),
+                  removeBlock));
+        }
+        builder9.add(
+            Expressions.statement(
+                Expressions.assign(actualStart,
+                    Expressions.add(prevEnd, Expressions.constant(1)))));
+        builder5.add(
+            Expressions.declare(0, actualStart, null));
+        builder5.add(
+            Expressions.ifThenElse(needRecomputeWindow,
+                resetWindowState,
+                builder9.toBlock()));
+      } else if (resetWindowState.statements.size() == 1) {
         builder5.add(
             Expressions.declare(0, actualStart,
                 Expressions.condition(needRecomputeWindow, startX,
@@ -451,19 +526,6 @@ private static void sampleOfTheGeneratedWindowedAggregate() {
               hasRows, frameRowCount, partitionRowCount,
               jDecl, inputPhysTypeFinal);
 
-      final Function<AggImpState, List<RexNode>> rexArguments = agg -> {
-        List<Integer> argList = agg.call.getArgList();
-        List<RelDataType> inputTypes =
-            EnumUtils.fieldRowTypes(result.physType.getRowType(), constants,
-                argList);
-        List<RexNode> args = new ArrayList<>(inputTypes.size());
-        for (int i = 0; i < argList.size(); i++) {
-          Integer idx = argList.get(i);
-          args.add(new RexInputRef(idx, inputTypes.get(i)));
-        }
-        return args;
-      };
-
       implementAdd(aggs, builder7, resultContextBuilder, rexArguments, jDecl);
       BlockStatement forBlock = builder7.toBlock();
 
@@ -510,9 +572,12 @@ private static void sampleOfTheGeneratedWindowedAggregate() {
           Expressions.while_(
               Expressions.call(iterator_, BuiltInMethod.ITERATOR_HAS_NEXT.method),
               builder3.toBlock()));
-      builder.add(
-          Expressions.statement(
-              Expressions.call(collectionExpr, BuiltInMethod.MAP_CLEAR.method)));
+      if (collectionExpr != null) {
+        builder.add(
+            Expressions.statement(
+                Expressions.call(collectionExpr,
+                    BuiltInMethod.MAP_CLEAR.method)));
+      }
 
       // We're not assigning to "source". For each group, create a new
       // final variable called "source" or "sourceN".
@@ -659,12 +724,70 @@ public Expression getRow(Expression rowIndex) {
     };
   }
 
-  private static Pair<Expression, Expression> getPartitionIterator(
+  /** Returns whether the input is sorted on the partition keys of a group
+   * (in any order and direction) followed by its order keys, and therefore
+   * the group's partitions can be read one at a time, without sorting. */
+  private boolean isInputSorted(Group group) {
+    final RelMetadataQuery mq = getCluster().getMetadataQuery();
+    final List<RelCollation> collations = mq.collations(getInput());
+    if (collations == null) {
+      return false;
+    }
+    final RelDataType inputRowType = getInput().getRowType();
+    final int keyCount = group.keys.cardinality();
+    final List<RelFieldCollation> orderKeys =
+        group.orderKeys.getFieldCollations();
+  outer:
+    for (RelCollation collation : collations) {
+      final List<RelFieldCollation> fieldCollations =
+          collation.getFieldCollations();
+      if (fieldCollations.size() < keyCount + orderKeys.size()
+          || !ImmutableBitSet.of(
+                  RelCollations.ordinals(fieldCollations.subList(0, keyCount)))
+              .equals(group.keys)) {
+        continue;
+      }
+      for (int i = 0; i < orderKeys.size(); i++) {
+        final RelFieldCollation actual = fieldCollations.get(keyCount + i);
+        final RelFieldCollation required = orderKeys.get(i);
+        if (actual.getFieldIndex() != required.getFieldIndex()
+            || actual.direction != required.direction
+            || actual.nullDirection != required.nullDirection
+            && inputRowType.getFieldList().get(actual.getFieldIndex())
+                .getType().isNullable()) {
+          continue outer;
+        }
+      }
+      return true;
+    }
+    return false;
+  }
+
+  private static Pair<@Nullable Expression, Expression> getPartitionIterator(
       BlockBuilder builder,
       Expression source_,
       PhysType inputPhysType,
       Group group,
-      Expression comparator_) {
+      Expression comparator_,
+      boolean inputSorted) {
+    if (inputSorted) {
+      // The input is already sorted, so read one partition at a time.
+      //
+      //   Iterator<Employee[]> iterator =
+      //       SortedMultiMap.sortedArrayIterator(source,
+      //           new Function1<Employee, Integer>() {
+      //             public Integer apply(Employee v1) {
+      //               return v1.deptno;
+      //             }
+      //           });
+      //   final List<Xxx> list = new ArrayList<Xxx>();
+      return Pair.of(null,
+          builder.append("iterator",
+              Expressions.call(null,
+                  BuiltInMethod.SORTED_MULTI_MAP_SORTED.method,
+                  source_,
+                  inputPhysType.generateAccessor(group.keys.asList()))));
+    }
     // Populate map of lists, one per partition
     //   final Map<Integer, List<Employee>> multiMap =
     //     new SortedMultiMap<Integer, List<Employee>>();
@@ -770,61 +893,33 @@ private static Pair<Expression, Expression> getPartitionIterator(
     }
   }
 
-  private void declareAndResetState(final JavaTypeFactory typeFactory,
+  /** Declares and resets the state of each aggregate function in a group.
+   *
+   * <p>Returns whether the group removes rows from the state as its frame
+   * slides; it does if the start of the frame can move and every aggregate
+   * function can remove rows. */
+  private boolean declareAndResetState(final JavaTypeFactory typeFactory,
       BlockBuilder builder, final Result result, int windowIdx,
       List<AggImpState> aggs, PhysType outputPhysType,
-      List<Expression> outputRow, RexWindowExclusion exclusion) {
+      List<Expression> outputRow, Group group) {
+    boolean removesRows =
+        !group.lowerBound.isUnboundedPreceding()
+            && group.exclude == RexWindowExclusion.EXCLUDE_NO_OTHER;
     for (final AggImpState agg : aggs) {
-      agg.context =
-          new WinAggContext() {
-            @Override public SqlAggFunction aggregation() {
-              return agg.call.getAggregation();
-            }
-
-            @Override public RelDataType returnRelType() {
-              return agg.call.type;
-            }
-
-            @Override public Type returnType() {
-              return EnumUtils.javaClass(typeFactory, returnRelType());
-            }
-
-            @Override public List<? extends Type> parameterTypes() {
-              return EnumUtils.fieldTypes(typeFactory,
-                  parameterRelTypes());
-            }
-
-            @Override public List<? extends RelDataType> parameterRelTypes() {
-              return EnumUtils.fieldRowTypes(result.physType.getRowType(),
-                  constants, agg.call.getArgList());
-            }
-
-            @Override public List<ImmutableBitSet> groupSets() {
-              throw new UnsupportedOperationException();
-            }
-
-            @Override public List<Integer> keyOrdinals() {
-              throw new UnsupportedOperationException();
-            }
-
-            @Override public List<? extends RelDataType> keyRelTypes() {
-              throw new UnsupportedOperationException();
-            }
-
-            @Override public List<? extends Type> keyTypes() {
-              throw new UnsupportedOperationException();
-            }
-
-            @Override public RexWindowExclusion getExclude() {
-              return exclusion;
-            }
-          };
+      removesRows &= agg.implementor instanceof InvertibleAggImplementor
+          && ((InvertibleAggImplementor) agg.implementor).canRemove(
+              createContext(typeFactory, result, agg, group.exclude, false));
+    }
+    for (final AggImpState agg : aggs) {
+      final WinAggContext context =
+          createContext(typeFactory, result, agg, group.exclude, removesRows);
+      agg.context = context;
       String aggName = "a" + agg.aggIdx;
       if (CalciteSystemProperty.DEBUG.value()) {
         aggName = Util.toJavaId(agg.call.getAggregation().getName(), 0)
             .substring("ID$0$".length()) + aggName;
       }
-      List<Type> state = agg.implementor.getStateType(agg.context);
+      List<Type> state = agg.implementor.getStateType(context);
       final List<Expression> decls = new ArrayList<>(state.size());
       for (int i = 0; i < state.size(); i++) {
         Type type = state.get(i);
@@ -836,7 +931,7 @@ private void declareAndResetState(final JavaTypeFactory typeFactory,
         decls.add(pe);
       }
       agg.state = decls;
-      Type aggHolderType = agg.context.returnType();
+      Type aggHolderType = context.returnType();
       Type aggStorageType =
           outputPhysType.getJavaFieldType(outputRow.size());
       if (Primitive.is(aggHolderType) && !Primitive.is(aggStorageType)) {
@@ -855,11 +950,64 @@ private void declareAndResetState(final JavaTypeFactory typeFactory,
                   aggRes.getType())));
       agg.result = aggRes;
       outputRow.add(aggRes);
-      agg.implementor.implementReset(agg.context,
+      agg.implementor.implementReset(context,
           new WinAggResetContextImpl(builder, agg.state,
               castNonNull(null), castNonNull(null), castNonNull(null), castNonNull(null),
               castNonNull(null), castNonNull(null)));
     }
+    return removesRows;
+  }
+
+  private WinAggContext createContext(final JavaTypeFactory typeFactory,
+      final Result result, final AggImpState agg,
+      final RexWindowExclusion exclusion, final boolean removesRows) {
+    return new WinAggContext() {
+      @Override public SqlAggFunction aggregation() {
+        return agg.call.getAggregation();
+      }
+
+      @Override public RelDataType returnRelType() {
+        return agg.call.type;
+      }
+
+      @Override public Type returnType() {
+        return EnumUtils.javaClass(typeFactory, returnRelType());
+      }
+
+      @Override public List<? extends Type> parameterTypes() {
+        return EnumUtils.fieldTypes(typeFactory,
+            parameterRelTypes());
+      }
+
+      @Override public List<? extends RelDataType> parameterRelTypes() {
+        return EnumUtils.fieldRowTypes(result.physType.getRowType(),
+            constants, agg.call.getArgList());
+      }
+
+      @Override public List<ImmutableBitSet> groupSets() {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override public List<Integer> keyOrdinals() {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override public List<? extends RelDataType> keyRelTypes() {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override public List<? extends Type> keyTypes() {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override public RexWindowExclusion getExclude() {
+        return exclusion;
+      }
+
+      @Override public boolean removesRows() {
+        return removesRows;
+      }
+    };
   }
 
   private static void implementAdd(List<AggImpState> aggs,
@@ -886,6 +1034,31 @@ private static void implementAdd(List<AggImpState> aggs,
     }
   }
 
+  private static void implementRemove(List<AggImpState> aggs,
+      final BlockBuilder builder,
+      final Function<BlockBuilder, WinAggFrameResultContext> frame,
+      final Function<AggImpState, List<RexNode>> rexArguments,
+      final DeclarationStatement kDecl) {
+    for (final AggImpState agg : aggs) {
+      final WinAggAddContext removeContext =
+          new WinAggAddContextImpl(builder, requireNonNull(agg.state, "agg.state"), frame) {
+            @Override public Expression currentPosition() {
+              return kDecl.parameter;
+            }
+
+            @Override public List<RexNode> rexArguments() {
+              return rexArguments.apply(agg);
+            }
+
+            @Override public @Nullable RexNode rexFilterArgument() {
+              return null;
+            }
+          };
+      ((InvertibleAggImplementor) agg.implementor).implementRemove(
+          requireNonNull(agg.context, "agg.context"), removeContext);
+    }
+  }
+
   private static boolean implementResult(List<AggImpState> aggs,
       final BlockBuilder builder,
       final Function<BlockBuilder, WinAggFrameResultContext> frame,
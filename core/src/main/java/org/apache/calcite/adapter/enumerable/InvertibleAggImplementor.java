@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.enumerable;
+
+/**
+ * Implements an aggregate function whose accumulator can also remove a value
+ * that it has previously added.
+ *
+ * <p>When the frame of a windowed aggregate slides, as in
+ * {@code SUM(x) OVER (ROWS 10 PRECEDING)}, the window removes the rows that
+ * have left the frame and adds the rows that have entered it, rather than
+ * resetting the accumulator and adding every row of the new frame.
+ *
+ * <p>Rows are removed in the same order as they were added.
+ *
+ * @see WinAggContext#removesRows()
+ */
+public interface InvertibleAggImplementor extends AggImplementor {
+  /**
+   * Returns whether this implementor can remove values in the given context.
+   *
+   * <p>For example, {@code SUM} can remove values if it is computed using
+   * exact arithmetic, but not if it is computed using floating-point
+   * arithmetic, because then removing a value that has been added does not
+   * necessarily restore the previous total.
+   *
+   * <p>Calcite calls this method before
+   * {@link #getStateType(AggContext)}.
+   *
+   * @param info Aggregate context
+   * @return Whether this implementor can remove values
+   */
+  boolean canRemove(AggContext info);
+
+  /**
+   * Updates intermediate values to account for the removal of a value that
+   * was previously added.
+   * {@link AggResetContext#accumulator()} should be used to reference
+   * the state variables.
+   *
+   * @param info Aggregate context
+   * @param remove Context of the value being removed
+   */
+  void implementRemove(AggContext info, AggAddContext remove);
+}
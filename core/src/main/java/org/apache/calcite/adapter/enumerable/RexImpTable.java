@@ -47,6 +47,7 @@
 import org.apache.calcite.rex.RexPatternFieldRef;
 import org.apache.calcite.rex.RexWindowExclusion;
 import org.apache.calcite.runtime.FlatLists;
+import org.apache.calcite.runtime.MonotonicDeque;
 import org.apache.calcite.runtime.PairList;
 import org.apache.calcite.runtime.SqlFunctions;
 import org.apache.calcite.schema.FunctionContext;
@@ -1736,6 +1737,20 @@ static class CountWinImplementor extends StrictWinAggImplementor {
               Expressions.postIncrementAssign(add.accumulator().get(0))));
     }
 
+    @Override public boolean canRemove(WinAggContext info) {
+      return true;
+    }
+
+    @Override protected void implementNotNullRemove(WinAggContext info,
+        WinAggAddContext remove) {
+      if (justFrameRowCount) {
+        return;
+      }
+      remove.currentBlock().add(
+          Expressions.statement(
+              Expressions.postDecrementAssign(remove.accumulator().get(0))));
+    }
+
     @Override protected Expression implementNotNullResult(WinAggContext info,
         WinAggResultContext result) {
       if (justFrameRowCount) {
@@ -1794,19 +1809,78 @@ static class SumImplementor extends StrictAggImplementor {
       accAdvance(add, acc, next);
     }
 
+    /** {@inheritDoc}
+     *
+     * <p>Returns true only if the sum is exact; floating-point sums are
+     * recomputed, as subtraction does not reverse rounding errors. */
+    @Override public boolean canRemove(AggContext info) {
+      final Primitive p = Primitive.of(Primitive.unbox(info.returnType()));
+      return p != Primitive.FLOAT
+          && p != Primitive.DOUBLE
+          && UnsignedType.of(info.returnType()) == null;
+    }
+
+    @Override protected void implementNotNullRemove(AggContext info,
+        AggAddContext remove) {
+      Expression acc = remove.accumulator().get(0);
+      Expression next;
+      if (info.returnType() == BigDecimal.class) {
+        next = Expressions.call(acc, "subtract", remove.arguments().get(0));
+      } else {
+        final Expression arg =
+            EnumUtils.convert(remove.arguments().get(0), acc.type);
+        next = Expressions.subtract(acc, arg);
+      }
+      accAdvance(remove, acc, next);
+    }
+
     @Override public Expression implementNotNullResult(AggContext info,
         AggResultContext result) {
       return super.implementNotNullResult(info, result);
     }
   }
 
-  /** Implementor for the {@code MIN} and {@code MAX} aggregate functions. */
+  /** Implementor for the {@code MIN} and {@code MAX} aggregate functions.
+   *
+   * <p>If used in a window whose frame slides, it keeps a
+   * {@link MonotonicDeque} of the values in the frame that may yet become the
+   * minimum (or maximum), rather than a single value. */
   static class MinMaxImplementor extends StrictAggImplementor {
+    @Override public boolean canRemove(AggContext info) {
+      switch (info.aggregation().kind) {
+      case MIN:
+      case MAX:
+        return info instanceof WinAggContext;
+      default:
+        return false;
+      }
+    }
+
+    private static boolean usesDeque(AggContext info) {
+      return info instanceof WinAggContext
+          && ((WinAggContext) info).removesRows();
+    }
+
+    @Override public List<Type> getNotNullState(AggContext info) {
+      if (usesDeque(info)) {
+        return Collections.singletonList(MonotonicDeque.class);
+      }
+      return super.getNotNullState(info);
+    }
+
     @Override protected void implementNotNullReset(AggContext info,
         AggResetContext reset) {
       Expression acc = reset.accumulator().get(0);
-      Primitive p = Primitive.of(acc.getType());
       final boolean isMin = info.aggregation().kind == SqlKind.MIN;
+      if (usesDeque(info)) {
+        reset.currentBlock().add(
+            Expressions.statement(
+                Expressions.assign(acc,
+                    Expressions.new_(MonotonicDeque.class,
+                        Expressions.constant(!isMin)))));
+        return;
+      }
+      Primitive p = Primitive.of(acc.getType());
       Object inf = p == null ? null : (isMin ? p.max : p.min);
       reset.currentBlock().add(
           Expressions.statement(
@@ -1818,6 +1892,14 @@ static class MinMaxImplementor extends StrictAggImplementor {
         AggAddContext add) {
       Expression acc = add.accumulator().get(0);
       Expression arg = add.arguments().get(0);
+      if (usesDeque(info)) {
+        add.currentBlock().add(
+            Expressions.statement(
+                Expressions.call(acc, BuiltInMethod.MONOTONIC_DEQUE_ADD.method,
+                    ((WinAggAddContext) add).currentPosition(),
+                    Expressions.box(arg))));
+        return;
+      }
       final boolean isMin = info.aggregation().kind == SqlKind.MIN;
       final Method method = (isMin
           ? BuiltInMethod.LESSER
@@ -1827,6 +1909,26 @@ static class MinMaxImplementor extends StrictAggImplementor {
               acc, Expressions.unbox(arg));
       accAdvance(add, acc, next);
     }
+
+    @Override protected void implementNotNullRemove(AggContext info,
+        AggAddContext remove) {
+      remove.currentBlock().add(
+          Expressions.statement(
+              Expressions.call(remove.accumulator().get(0),
+                  BuiltInMethod.MONOTONIC_DEQUE_REMOVE.method,
+                  ((WinAggAddContext) remove).currentPosition())));
+    }
+
+    @Override protected Expression implementNotNullResult(AggContext info,
+        AggResultContext result) {
+      if (usesDeque(info)) {
+        return Expressions.convert_(
+            Expressions.call(result.accumulator().get(0),
+                BuiltInMethod.MONOTONIC_DEQUE_FIRST.method),
+            Primitive.box(info.returnType()));
+      }
+      return super.implementNotNullResult(info, result);
+    }
   }
 
   /** Implementor for the {@code ARG_MIN} and {@code ARG_MAX} aggregate
@@ -55,6 +55,7 @@
 import org.apache.calcite.rex.RexTableInputRef;
 import org.apache.calcite.rex.RexUtil;
 import org.apache.calcite.rex.RexVisitor;
+import org.apache.calcite.runtime.SearchRanges;
 import org.apache.calcite.runtime.SpatialTypeFunctions;
 import org.apache.calcite.runtime.rtti.RuntimeTypeInformation;
 import org.apache.calcite.runtime.variant.VariantValue;
@@ -70,11 +71,14 @@
 import org.apache.calcite.util.BuiltInMethod;
 import org.apache.calcite.util.ControlFlowException;
 import org.apache.calcite.util.Pair;
+import org.apache.calcite.util.Sarg;
 import org.apache.calcite.util.Util;
 
 import com.google.common.base.CaseFormat;
+import com.google.common.collect.BoundType;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Range;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.locationtech.jts.geom.Geometry;
@@ -117,6 +121,11 @@ public class RexToLixTranslator implements RexVisitor<RexToLixTranslator.Result>
           .put(BuiltInMethod.TRANSLATE3.method, TRANSLATE3)
           .build();
 
+  /** Minimum number of ranges in a {@link Sarg} for a call to
+   * {@code SEARCH} to be implemented by a binary search; a call with fewer
+   * ranges is expanded into comparisons. */
+  private static final int SEARCH_MIN_RANGES = 8;
+
   final JavaTypeFactory typeFactory;
   final RexBuilder builder;
   private final @Nullable RexProgram program;
@@ -1452,6 +1461,10 @@ private ConstantExpression getTypedNullLiteral(RexLiteral literal) {
       return implementCaseWhen(call);
     }
     if (operator == SEARCH) {
+      final Result result = implementSearch(call);
+      if (result != null) {
+        return result;
+      }
       return RexUtil.expandSearch(builder, program, call).accept(this);
     }
     final RexImpTable.RexCallImplementor implementor =
@@ -1473,6 +1486,193 @@ private ConstantExpression getTypedNullLiteral(RexLiteral literal) {
     return result;
   }
 
+  /**
+   * Implements a call to {@code SEARCH} whose {@link Sarg} has many ranges
+   * by a binary search over a {@link SearchRanges} that is built once per
+   * query. Returns null if the Sarg has few ranges, or if the type of its
+   * values is not supported; then the call is expanded into comparisons.
+   *
+   * <p>We generate code that looks like:
+   *
+   * <blockquote><pre>{@code
+   *      static final SearchRanges SEARCH_RANGES =
+   *          SearchRanges.ofLongs("P1:1P1:3...");
+   *      ......code for x......
+   *      final boolean search_isNull = x_isNull;
+   *      final Boolean search_value =
+   *          x_isNull ? null : SEARCH_RANGES.contains(x_value);
+   * }</pre></blockquote>
+   */
+  private @Nullable Result implementSearch(RexCall call) {
+    final RexNode ref = call.operands.get(0);
+    RexNode node = call.operands.get(1);
+    while (node instanceof RexLocalRef) {
+      node = requireNonNull(program, "program").getExprList()
+          .get(((RexLocalRef) node).getIndex());
+    }
+    final RexLiteral literal = (RexLiteral) node;
+    final Sarg<?> sarg = requireNonNull(literal.getValueAs(Sarg.class), "sarg");
+    if (sarg.rangeSet.asRanges().size() < SEARCH_MIN_RANGES) {
+      return null;
+    }
+    final RelDataType type = literal.getType();
+    if (type.getSqlTypeName() != ref.getType().getSqlTypeName()) {
+      return null;
+    }
+    final Type javaClass = typeFactory.getJavaClass(ref.getType());
+    final Primitive primitive = Primitive.ofBoxOr(javaClass);
+    final Class<?> valueClass;
+    final Method factory;
+    final Method contains;
+    switch (type.getSqlTypeName()) {
+    case TINYINT:
+    case SMALLINT:
+    case INTEGER:
+    case BIGINT:
+    case DATE:
+    case TIME:
+    case TIMESTAMP:
+      if (primitive == null || !primitive.isFixedNumeric()) {
+        return null;
+      }
+      // DATE and TIME values are ints; TIMESTAMP values are longs
+      valueClass =
+          type.getSqlTypeName() == SqlTypeName.DATE
+              || type.getSqlTypeName() == SqlTypeName.TIME
+              ? Integer.class
+              : Long.class;
+      factory = BuiltInMethod.SEARCH_RANGES_OF_LONGS.method;
+      contains = BuiltInMethod.SEARCH_RANGES_CONTAINS_LONG.method;
+      break;
+    case FLOAT:
+    case DOUBLE:
+      if (primitive != Primitive.DOUBLE) {
+        return null;
+      }
+      valueClass = Double.class;
+      factory = BuiltInMethod.SEARCH_RANGES_OF_DOUBLES.method;
+      contains = BuiltInMethod.SEARCH_RANGES_CONTAINS_DOUBLE.method;
+      break;
+    case DECIMAL:
+      if (javaClass != BigDecimal.class) {
+        return null;
+      }
+      valueClass = BigDecimal.class;
+      factory = BuiltInMethod.SEARCH_RANGES_OF_DECIMALS.method;
+      contains = BuiltInMethod.SEARCH_RANGES_CONTAINS.method;
+      break;
+    case CHAR:
+    case VARCHAR:
+      if (javaClass != String.class
+          || EnumUtils.generateCollatorExpression(ref.getType().getCollation())
+              != null) {
+        return null;
+      }
+      valueClass = String.class;
+      factory = BuiltInMethod.SEARCH_RANGES_OF_STRINGS.method;
+      contains = BuiltInMethod.SEARCH_RANGES_CONTAINS.method;
+      break;
+    default:
+      return null;
+    }
+
+    // Encode the ranges before generating any code, in case a bound cannot
+    // be converted.
+    final StringBuilder buf = new StringBuilder();
+    for (Range<?> range : sarg.rangeSet.asRanges()) {
+      final String lower =
+          range.hasLowerBound()
+              ? searchBound(range.lowerEndpoint(), type, valueClass)
+              : null;
+      final String upper =
+          range.hasUpperBound()
+              ? searchBound(range.upperEndpoint(), type, valueClass)
+              : null;
+      if (range.hasLowerBound() && lower == null
+          || range.hasUpperBound() && upper == null) {
+        return null;
+      }
+      SearchRanges.appendRange(buf,
+          lower, range.hasLowerBound()
+              && range.lowerBoundType() == BoundType.CLOSED,
+          upper, range.hasUpperBound()
+              && range.upperBoundType() == BoundType.CLOSED);
+    }
+    final Expression ranges =
+        appendConstant("searchRanges",
+            Expressions.call(factory,
+                Expressions.constant(SearchRanges.split(buf))));
+
+    final Result operand = implementCallOperand(ref, null, this);
+    final Expression value =
+        valueClass == Long.class || valueClass == Integer.class
+            ? searchValue(operand.valueVariable, long.class)
+            : valueClass == Double.class
+                ? searchValue(operand.valueVariable, double.class)
+                : operand.valueVariable;
+    final Type returnType = typeFactory.getJavaClass(call.getType());
+    final Expression nullValue;
+    final Expression isNullExpression;
+    switch (sarg.nullAs) {
+    case TRUE:
+      nullValue = RexImpTable.TRUE_EXPR;
+      isNullExpression = RexImpTable.FALSE_EXPR;
+      break;
+    case FALSE:
+      nullValue = RexImpTable.FALSE_EXPR;
+      isNullExpression = RexImpTable.FALSE_EXPR;
+      break;
+    default:
+      nullValue =
+          Primitive.is(returnType)
+              ? RexImpTable.FALSE_EXPR
+              : Expressions.constant(null, returnType);
+      isNullExpression = operand.isNullVariable;
+      break;
+    }
+    final ParameterExpression isNullVariable =
+        Expressions.parameter(Boolean.TYPE, list.newName("search_isNull"));
+    list.add(
+        Expressions.declare(Modifier.FINAL, isNullVariable, isNullExpression));
+    final ParameterExpression valueVariable =
+        Expressions.parameter(returnType, list.newName("search_value"));
+    list.add(
+        Expressions.declare(Modifier.FINAL, valueVariable,
+            Expressions.condition(operand.isNullVariable,
+                EnumUtils.convert(nullValue, returnType),
+                EnumUtils.convert(Expressions.call(ranges, contains, value),
+                    returnType))));
+    final Result result = new Result(isNullVariable, valueVariable);
+    rexResultMap.put(call, result);
+    return result;
+  }
+
+  /** Widens a numeric value, which may be boxed, to a primitive type. */
+  private static Expression searchValue(Expression value, Class<?> target) {
+    if (Primitive.is(value.getType())) {
+      return Expressions.convert_(value, target);
+    }
+    // Call "longValue()" or "doubleValue()" of the Number
+    return Expressions.call(value, target.getName() + "Value");
+  }
+
+  /** Converts a bound of a {@link Sarg} to the text from which
+   * {@link SearchRanges} will parse the value that generated code sees, or
+   * returns null if it cannot be converted. */
+  private @Nullable String searchBound(Object endpoint, RelDataType type,
+      Class<?> valueClass) {
+    final RexNode bound = builder.makeLiteral(endpoint, type, true, true);
+    if (!(bound instanceof RexLiteral)) {
+      return null;
+    }
+    final Object value = ((RexLiteral) bound).getValueAs(valueClass);
+    if (value instanceof Double && ((Double) value).isNaN()) {
+      // NaN is not ordered, so cannot be found by binary search
+      return null;
+    }
+    return value == null ? null : value.toString();
+  }
+
   private static Result implementCallOperand(final RexNode operand,
       final @Nullable Type storageType, final RexToLixTranslator translator) {
     final Type originalStorageType = translator.currentStorageType;
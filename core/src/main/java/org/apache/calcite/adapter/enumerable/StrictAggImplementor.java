@@ -36,9 +36,12 @@
  * @see org.apache.calcite.adapter.enumerable.RexImpTable.CountImplementor
  * @see org.apache.calcite.adapter.enumerable.RexImpTable.SumImplementor
  */
-public abstract class StrictAggImplementor implements AggImplementor {
+public abstract class StrictAggImplementor implements InvertibleAggImplementor {
   private boolean needTrackEmptySet;
   private boolean trackNullsPerRow;
+  /** Whether the flag that tracks whether any non-null rows have been seen
+   * is a count, so that it can be decremented when a row is removed. */
+  private boolean countNullsPerRow;
   private int stateSize;
 
   protected boolean nonDefaultOnEmptySet(AggContext info) {
@@ -65,10 +68,13 @@ protected static void accAdvance(AggAddContext add, Expression acc,
     }
     final boolean hasNullableArgs = anyNullable(info.parameterRelTypes());
     trackNullsPerRow = !(info instanceof WinAggContext) || hasNullableArgs;
+    countNullsPerRow = trackNullsPerRow
+        && info instanceof WinAggContext
+        && ((WinAggContext) info).removesRows();
 
     List<Type> res = new ArrayList<>(subState.size() + 1);
     res.addAll(subState);
-    res.add(boolean.class); // has not nulls
+    res.add(countNullsPerRow ? int.class : boolean.class); // has not nulls
     return res;
   }
 
@@ -115,6 +121,23 @@ protected void implementNotNullReset(AggContext info,
   }
 
   @Override public final void implementAdd(AggContext info, final AggAddContext add) {
+    implementAddOrRemove(info, add, true);
+  }
+
+  /** Returns false; a sub-class that implements
+   * {@link #implementNotNullRemove(AggContext, AggAddContext)} should
+   * override. */
+  @Override public boolean canRemove(AggContext info) {
+    return false;
+  }
+
+  @Override public final void implementRemove(AggContext info,
+      final AggAddContext remove) {
+    implementAddOrRemove(info, remove, false);
+  }
+
+  private void implementAddOrRemove(AggContext info, AggAddContext add,
+      boolean isAdd) {
     final List<RexNode> args = add.rexArguments();
     final RexToLixTranslator translator = add.rowTranslator();
     final List<Expression> conditions = new ArrayList<>();
@@ -138,25 +161,47 @@ protected void implementNotNullReset(AggContext info,
         : new BlockBuilder(true, add.currentBlock());
     if (trackNullsPerRow) {
       List<Expression> acc = add.accumulator();
+      final Expression flag = acc.get(acc.size() - 1);
       thenBlock.add(
           Expressions.statement(
-              Expressions.assign(acc.get(acc.size() - 1),
-                  Expressions.constant(true))));
+              countNullsPerRow
+                  ? (isAdd
+                      ? Expressions.postIncrementAssign(flag)
+                      : Expressions.postDecrementAssign(flag))
+                  : Expressions.assign(flag, Expressions.constant(true))));
     }
     if (argsNotNull) {
-      implementNotNullAdd(info, add);
+      implementNotNullAddOrRemove(info, add, isAdd);
       return;
     }
 
     add.nestBlock(thenBlock);
-    implementNotNullAdd(info, add);
+    implementNotNullAddOrRemove(info, add, isAdd);
     add.exitBlock();
     add.currentBlock().add(Expressions.ifThen(condition, thenBlock.toBlock()));
   }
 
+  private void implementNotNullAddOrRemove(AggContext info, AggAddContext add,
+      boolean isAdd) {
+    if (isAdd) {
+      implementNotNullAdd(info, add);
+    } else {
+      implementNotNullRemove(info, add);
+    }
+  }
+
   protected abstract void implementNotNullAdd(AggContext info,
       AggAddContext add);
 
+  /** Updates the state to account for the removal of a row whose arguments
+   * are not null. Called only if {@link #canRemove(AggContext)} returned
+   * true. */
+  protected void implementNotNullRemove(AggContext info,
+      AggAddContext remove) {
+    throw new UnsupportedOperationException(
+        "remove is not supported by " + getClass());
+  }
+
   @Override public final Expression implementResult(AggContext info,
       final AggResultContext result) {
     if (!needTrackEmptySet) {
@@ -178,9 +223,12 @@ protected abstract void implementNotNullAdd(AggContext info,
     thenBlock.add(Expressions.statement(Expressions.assign(res, nonNull)));
     BlockStatement thenBranch = thenBlock.toBlock();
     Expression seenNotNullRows =
-        trackNullsPerRow
-        ? acc.get(acc.size() - 1)
-        : ((WinAggResultContext) result).hasRows();
+        !trackNullsPerRow
+        ? ((WinAggResultContext) result).hasRows()
+        : countNullsPerRow
+        ? Expressions.greaterThan(acc.get(acc.size() - 1),
+            Expressions.constant(0))
+        : acc.get(acc.size() - 1);
 
     if (thenBranch.statements.size() == 1) {
       return Expressions.condition(seenNotNullRows,
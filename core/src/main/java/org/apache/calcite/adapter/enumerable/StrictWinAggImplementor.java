@@ -33,6 +33,15 @@ public abstract class StrictWinAggImplementor extends StrictAggImplementor
   protected abstract void implementNotNullAdd(WinAggContext info,
       WinAggAddContext add);
 
+  protected void implementNotNullRemove(WinAggContext info,
+      WinAggAddContext remove) {
+    super.implementNotNullRemove(info, remove);
+  }
+
+  public boolean canRemove(WinAggContext info) {
+    return super.canRemove(info);
+  }
+
   protected boolean nonDefaultOnEmptySet(WinAggContext info) {
     return super.nonDefaultOnEmptySet(info);
   }
@@ -56,6 +65,15 @@ protected Expression implementNotNullResult(WinAggContext info,
     implementNotNullAdd((WinAggContext) info, (WinAggAddContext) add);
   }
 
+  @Override protected final void implementNotNullRemove(AggContext info,
+      AggAddContext remove) {
+    implementNotNullRemove((WinAggContext) info, (WinAggAddContext) remove);
+  }
+
+  @Override public final boolean canRemove(AggContext info) {
+    return canRemove((WinAggContext) info);
+  }
+
   @Override protected boolean nonDefaultOnEmptySet(AggContext info) {
     return nonDefaultOnEmptySet((WinAggContext) info);
   }
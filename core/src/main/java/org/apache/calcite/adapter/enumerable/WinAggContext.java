@@ -26,4 +26,15 @@
 public interface WinAggContext extends AggContext {
   /** The exclude clause of the group of the window function. */
   RexWindowExclusion getExclude();
+
+  /** Returns whether the window removes rows that leave the frame by calling
+   * {@link InvertibleAggImplementor#implementRemove}, rather than resetting
+   * the accumulator whenever the start of the frame moves.
+   *
+   * <p>The window only does this if every aggregate function in the group
+   * {@link InvertibleAggImplementor#canRemove can remove rows}; an
+   * implementor may use a different state in that case. */
+  default boolean removesRows() {
+    return false;
+  }
 }
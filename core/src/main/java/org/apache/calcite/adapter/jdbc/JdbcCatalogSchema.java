@@ -41,6 +41,7 @@
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Supplier;
@@ -65,6 +66,7 @@ public class JdbcCatalogSchema extends JdbcBaseSchema implements Wrapper {
   public final SqlDialect dialect;
   final JdbcConvention convention;
   final String catalog;
+  private final @Nullable Duration metadataCacheTtl;
   private final Lookup<JdbcSchema> subSchemas;
 
   /** default schema name, lazily initialized. */
@@ -75,10 +77,17 @@ public class JdbcCatalogSchema extends JdbcBaseSchema implements Wrapper {
   /** Creates a JdbcCatalogSchema. */
   public JdbcCatalogSchema(DataSource dataSource, SqlDialect dialect,
       JdbcConvention convention, String catalog) {
+    this(dataSource, dialect, convention, catalog, null);
+  }
+
+  private JdbcCatalogSchema(DataSource dataSource, SqlDialect dialect,
+      JdbcConvention convention, String catalog,
+      @Nullable Duration metadataCacheTtl) {
     this.dataSource = requireNonNull(dataSource, "dataSource");
     this.dialect = requireNonNull(dialect, "dialect");
     this.convention = requireNonNull(convention, "convention");
     this.catalog = catalog;
+    this.metadataCacheTtl = metadataCacheTtl;
     this.subSchemas = new LoadingCacheLookup<>(new IgnoreCaseLookup<JdbcSchema>() {
       @Override public @Nullable JdbcSchema get(String name) {
         try (Connection connection = dataSource.getConnection();
@@ -88,7 +97,12 @@ public JdbcCatalogSchema(DataSource dataSource, SqlDialect dialect,
             final String schemaName =
                 requireNonNull(resultSet.getString(1),
                     "got null schemaName from the database");
-            return new JdbcSchema(dataSource, dialect, convention, catalog, schemaName);
+            final JdbcSchema schema =
+                new JdbcSchema(dataSource, dialect, convention, catalog,
+                    schemaName);
+            return metadataCacheTtl == null
+                ? schema
+                : schema.withMetadataCache(metadataCacheTtl);
           }
         } catch (SQLException e) {
           throw new RuntimeException(e);
@@ -143,6 +157,17 @@ public static JdbcCatalogSchema create(
     return new JdbcCatalogSchema(dataSource, dialect, convention, catalog);
   }
 
+  /** Returns a copy of this catalog schema whose sub-schemas cache the names
+   * and row types of back-end tables.
+   *
+   * @see JdbcSchema#withMetadataCache(Duration) */
+  public JdbcCatalogSchema withMetadataCache(Duration ttl) {
+    if (ttl.isNegative() || ttl.isZero()) {
+      throw new IllegalArgumentException("ttl must be positive: " + ttl);
+    }
+    return new JdbcCatalogSchema(dataSource, dialect, convention, catalog, ttl);
+  }
+
   @Override public Lookup<Table> tables() {
     return Lookup.empty();
   }
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.jdbc;
+
+import org.apache.calcite.avatica.MetaImpl;
+import org.apache.calcite.rel.type.RelProtoDataType;
+import org.apache.calcite.util.ImmutableNullableList;
+import org.apache.calcite.util.Pair;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Cache of the metadata of the tables in a back-end schema.
+ *
+ * <p>A cache is shared by every {@link JdbcSchema} that has the same data
+ * source, catalog, schema and time-to-live, and so survives from one Calcite
+ * connection to the next, as long as some connection is using it or until the
+ * JVM needs the memory.
+ *
+ * <p>The names and types of all tables are read in a single call to
+ * {@link java.sql.DatabaseMetaData#getTables}, after resolving the catalog and
+ * schema of the connection, which are refreshed with them; the row type of a table is read
+ * the first time that it is needed. An entry is refreshed in the background if
+ * it is read more than one time-to-live after it was loaded; until the refresh
+ * completes, readers see the previous value. An entry that has not been read
+ * for two times-to-live is discarded, and the next reader reloads it.
+ */
+final class JdbcMetadataCache {
+  /** Caches, keyed by data source, catalog, schema and time-to-live. Values
+   * are soft, so that a cache survives while there are no connections. */
+  private static final Cache<List<@Nullable Object>, JdbcMetadataCache>
+      INSTANCES = CacheBuilder.newBuilder().softValues().build();
+
+  /** Executor that refreshes entries in the background. */
+  private static final Executor REFRESH_EXECUTOR =
+      Executors.newCachedThreadPool(
+          new ThreadFactoryBuilder()
+              .setDaemon(true)
+              .setNameFormat("calcite-jdbc-metadata-%d")
+              .build());
+
+  /** Key of {@link #tables}; there is one entry, for all tables. */
+  private static final String ALL = "%";
+
+  private final LoadingCache<String, ImmutableMap<String, MetaImpl.MetaTable>>
+      tables;
+  private final LoadingCache<List<@Nullable String>, RelProtoDataType>
+      rowTypes;
+
+  private JdbcMetadataCache(DataSource dataSource, @Nullable String catalog,
+      @Nullable String schema, Duration ttl) {
+    this.tables =
+        builder(ttl).build(
+            CacheLoader.asyncReloading(
+                CacheLoader.from(pattern ->
+                    loadTables(dataSource, catalog, schema, pattern)),
+                REFRESH_EXECUTOR));
+    this.rowTypes =
+        builder(ttl).build(
+            CacheLoader.asyncReloading(
+                new CacheLoader<List<@Nullable String>, RelProtoDataType>() {
+                  @Override public RelProtoDataType load(
+                      List<@Nullable String> key) throws SQLException {
+                    return JdbcSchema.loadRelDataType(dataSource, key.get(0),
+                        key.get(1), requireNonNull(key.get(2), "tableName"));
+                  }
+                },
+                REFRESH_EXECUTOR));
+  }
+
+  /** Returns the cache for a given data source, catalog and schema, creating
+   * it if necessary. */
+  static JdbcMetadataCache of(DataSource dataSource, @Nullable String catalog,
+      @Nullable String schema, Duration ttl) {
+    final List<@Nullable Object> key =
+        ImmutableNullableList.of(dataSource, catalog, schema, ttl);
+    try {
+      return INSTANCES.get(key,
+          () -> new JdbcMetadataCache(dataSource, catalog, schema, ttl));
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  private static CacheBuilder<Object, Object> builder(Duration ttl) {
+    return CacheBuilder.newBuilder()
+        .refreshAfterWrite(ttl.toMillis(), TimeUnit.MILLISECONDS)
+        .expireAfterAccess(ttl.toMillis() * 2, TimeUnit.MILLISECONDS)
+        .recordStats();
+  }
+
+  private static ImmutableMap<String, MetaImpl.MetaTable> loadTables(
+      DataSource dataSource, @Nullable String catalog, @Nullable String schema,
+      String pattern) {
+    // Resolve the catalog and schema on every load, so that a change in the
+    // connection's defaults is seen at the next refresh
+    final Pair<@Nullable String, @Nullable String> catalogSchema =
+        JdbcSchema.getCatalogSchema(dataSource, catalog, schema);
+    // If the back end returns the same name twice (say, a table and a
+    // synonym), keep the first
+    final Map<String, MetaImpl.MetaTable> map = new LinkedHashMap<>();
+    try (Stream<MetaImpl.MetaTable> s =
+             JdbcSchema.getMetaTableStream(dataSource, catalogSchema, pattern)) {
+      s.forEach(t -> map.putIfAbsent(t.tableName, t));
+    }
+    return ImmutableMap.copyOf(map);
+  }
+
+  /** Returns the metadata of all tables, keyed by name. */
+  ImmutableMap<String, MetaImpl.MetaTable> tables() {
+    return tables.getUnchecked(ALL);
+  }
+
+  /** Returns the row type of a table. */
+  RelProtoDataType rowType(@Nullable String catalogName,
+      @Nullable String schemaName, String tableName) throws SQLException {
+    try {
+      return rowTypes.get(
+          ImmutableNullableList.of(catalogName, schemaName, tableName));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      if (e.getCause() instanceof SQLException) {
+        throw (SQLException) e.getCause();
+      }
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  /** Returns statistics of this cache, including the number of lookups and
+   * the time spent loading metadata from the back end. */
+  CacheStats stats() {
+    return tables.stats().plus(rowTypes.stats());
+  }
+}
@@ -20,6 +20,7 @@
 import org.apache.calcite.avatica.MetaImpl;
 import org.apache.calcite.avatica.SqlType;
 import org.apache.calcite.linq4j.function.Experimental;
+import org.apache.calcite.linq4j.function.Predicate1;
 import org.apache.calcite.linq4j.tree.Expression;
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rel.type.RelDataTypeFactory;
@@ -45,6 +46,7 @@
 import org.apache.calcite.util.Pair;
 import org.apache.calcite.util.Util;
 
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Ordering;
 
@@ -57,6 +59,7 @@
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.Duration;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -90,6 +93,7 @@ public class JdbcSchema extends JdbcBaseSchema implements Schema, Wrapper {
   final JdbcConvention convention;
   private final LazyReference<Lookup<Table>> tables = new LazyReference<>();
   private final Lookup<JdbcSchema> subSchemas = Lookup.empty();
+  private final @Nullable JdbcMetadataCache metadataCache;
 
   @Experimental
   public static final ThreadLocal<@Nullable Foo> THREAD_METADATA = new ThreadLocal<>();
@@ -108,11 +112,51 @@ public class JdbcSchema extends JdbcBaseSchema implements Schema, Wrapper {
    */
   public JdbcSchema(DataSource dataSource, SqlDialect dialect,
       JdbcConvention convention, @Nullable String catalog, @Nullable String schema) {
+    this(dataSource, dialect, convention, catalog, schema, null);
+  }
+
+  private JdbcSchema(DataSource dataSource, SqlDialect dialect,
+      JdbcConvention convention, @Nullable String catalog,
+      @Nullable String schema, @Nullable Duration metadataCacheTtl) {
     this.dataSource = requireNonNull(dataSource, "dataSource");
     this.dialect = requireNonNull(dialect, "dialect");
     this.convention = convention;
     this.catalog = catalog;
     this.schema = schema;
+    this.metadataCache = metadataCacheTtl == null
+        ? null
+        : JdbcMetadataCache.of(dataSource, catalog, schema, metadataCacheTtl);
+  }
+
+  /** Returns a copy of this schema that caches the names and row types of
+   * back-end tables.
+   *
+   * <p>The cache is shared with every other schema that has the same data
+   * source, catalog, schema and time-to-live, including schemas in other
+   * connections. It is refreshed in the background; a table created or
+   * dropped in the back end may not be seen for up to {@code ttl}.
+   *
+   * @param ttl Time after which cached metadata is refreshed
+   * @return Schema that caches metadata
+   */
+  public JdbcSchema withMetadataCache(Duration ttl) {
+    if (ttl.isNegative() || ttl.isZero()) {
+      throw new IllegalArgumentException("ttl must be positive: " + ttl);
+    }
+    return new JdbcSchema(dataSource, dialect, convention, catalog, schema,
+        ttl);
+  }
+
+  /** Returns statistics of the metadata cache, or null if this schema does
+   * not cache metadata.
+   *
+   * <p>The statistics include the number of lookups of tables and row types,
+   * how many of them were answered from the cache, and the total time spent
+   * loading metadata from the back end.
+   *
+   * @see #withMetadataCache(Duration) */
+  public @Nullable CacheStats getMetadataCacheStats() {
+    return metadataCache == null ? null : metadataCache.stats();
   }
 
   public static JdbcSchema create(
@@ -163,7 +207,12 @@ public static JdbcSchema create(
         final String jdbcDriver = (String) operand.get("jdbcDriver");
         final String jdbcUser = (String) operand.get("jdbcUser");
         final String jdbcPassword = (String) operand.get("jdbcPassword");
-        dataSource = dataSource(jdbcUrl, jdbcDriver, jdbcUser, jdbcPassword);
+        final int statementCacheSize =
+            intOperand(operand, "jdbcStatementCacheSize");
+        final String jmxName = (String) operand.get("jdbcJmxName");
+        dataSource =
+            dataSource(jdbcUrl, jdbcDriver, jdbcUser, jdbcPassword,
+                statementCacheSize, jmxName);
       }
     } catch (Exception e) {
       throw new RuntimeException("Error while reading dataSource", e);
@@ -171,17 +220,42 @@ public static JdbcSchema create(
     String jdbcCatalog = (String) operand.get("jdbcCatalog");
     String jdbcSchema = (String) operand.get("jdbcSchema");
     String sqlDialectFactory = (String) operand.get("sqlDialectFactory");
+    final int metadataCacheSeconds =
+        intOperand(operand, "jdbcMetadataCacheSeconds");
 
+    final JdbcSchema schema;
     if (sqlDialectFactory == null || sqlDialectFactory.isEmpty()) {
-      return JdbcSchema.create(
-          parentSchema, name, dataSource, jdbcCatalog, jdbcSchema);
+      schema =
+          JdbcSchema.create(parentSchema, name, dataSource, jdbcCatalog,
+              jdbcSchema);
     } else {
       SqlDialectFactory factory =
           AvaticaUtils.instantiatePlugin(SqlDialectFactory.class,
               sqlDialectFactory);
-      return JdbcSchema.create(parentSchema, name, dataSource, factory,
-          jdbcCatalog, jdbcSchema);
+      schema =
+          JdbcSchema.create(parentSchema, name, dataSource, factory,
+              jdbcCatalog, jdbcSchema);
     }
+    return metadataCacheSeconds == 0
+        ? schema
+        : schema.withMetadataCache(Duration.ofSeconds(metadataCacheSeconds));
+  }
+
+  /** Reads a non-negative integer operand, which may be a number (from a
+   * JSON model) or a string (from a connect string); returns 0 if the operand
+   * is not present. */
+  private static int intOperand(Map<String, Object> operand, String name) {
+    final Object o = operand.get(name);
+    if (o == null) {
+      return 0;
+    }
+    final int i = o instanceof Number
+        ? ((Number) o).intValue()
+        : Integer.parseInt(o.toString());
+    if (i < 0) {
+      throw new IllegalArgumentException(name + " must not be negative: " + o);
+    }
+    return i;
   }
 
   /**
@@ -205,15 +279,49 @@ public static SqlDialect createDialect(SqlDialectFactory dialectFactory,
   /** Creates a JDBC data source with the given specification. */
   public static DataSource dataSource(String url, @Nullable String driverClassName,
       @Nullable String username, @Nullable String password) {
+    return dataSource(url, driverClassName, username, password, 0, null);
+  }
+
+  /** Creates a pooled JDBC data source with the given specification and a
+   * per-connection cache of prepared statements.
+   *
+   * @param url JDBC connect string
+   * @param driverClassName Name of JDBC driver class, or null
+   * @param username User name, or null
+   * @param password Password, or null
+   * @param statementCacheSize Maximum number of prepared statements cached
+   *   per pooled connection, keyed by SQL text; 0 to disable the cache
+   * @param jmxName JMX object name under which to register the connection
+   *   pool and its statement pools, or null to not register them
+   */
+  public static DataSource dataSource(String url, @Nullable String driverClassName,
+      @Nullable String username, @Nullable String password,
+      int statementCacheSize, @Nullable String jmxName) {
     if (url.startsWith("jdbc:hsqldb:")) {
       // Prevent hsqldb from screwing up java.util.logging.
       System.setProperty("hsqldb.reconfig_logging", "false");
     }
     return JdbcUtils.DataSourcePool.INSTANCE.get(url, driverClassName, username,
-        password);
+        password, statementCacheSize, jmxName);
   }
 
   @Override public Lookup<Table> tables() {
+    final JdbcMetadataCache metadataCache = this.metadataCache;
+    if (metadataCache != null) {
+      return tables.getOrCompute(() -> new IgnoreCaseLookup<Table>() {
+        @Override public @Nullable Table get(String name) {
+          final MetaImpl.MetaTable tableDef = metadataCache.tables().get(name);
+          return tableDef == null ? null : jdbcTableMapper(tableDef);
+        }
+
+        @Override public Set<String> getNames(LikePattern pattern) {
+          final Predicate1<String> matcher = pattern.matcher();
+          return metadataCache.tables().keySet().stream()
+              .filter(matcher::apply)
+              .collect(Collectors.toSet());
+        }
+      });
+    }
     return tables.getOrCompute(() -> new IgnoreCaseLookup<Table>() {
       @Override public @Nullable Table get(String name) {
         try (Stream<MetaImpl.MetaTable> s = getMetaTableStream(name)) {
@@ -252,8 +360,16 @@ public DataSource getDataSource() {
     return Schemas.subSchemaExpression(parentSchema, name, JdbcSchema.class);
   }
 
-  private Stream<MetaImpl.MetaTable> getMetaTableStream(String tableNamePattern) {
-    final Pair<@Nullable String, @Nullable String> catalogSchema = getCatalogSchema();
+  Stream<MetaImpl.MetaTable> getMetaTableStream(String tableNamePattern) {
+    return getMetaTableStream(dataSource,
+        getCatalogSchema(dataSource, catalog, schema), tableNamePattern);
+  }
+
+  /** Returns a stream of the tables in a given catalog and schema whose names
+   * match a pattern. The caller must close the stream. */
+  static Stream<MetaImpl.MetaTable> getMetaTableStream(DataSource dataSource,
+      Pair<@Nullable String, @Nullable String> catalogSchema,
+      String tableNamePattern) {
     final Stream<MetaImpl.MetaTable> tableDefs;
     Connection connection = null;
     ResultSet resultSet = null;
@@ -333,13 +449,14 @@ private static List<Integer> version(DatabaseMetaData metaData) throws SQLExcept
         metaData.getJDBCMinorVersion());
   }
 
-  /** Returns a pair of (catalog, schema) for the current connection. */
-  private Pair<@Nullable String, @Nullable String> getCatalogSchema() {
+  /** Returns a pair of (catalog, schema) for a connection from a data
+   * source, using the connection's defaults for those not specified. */
+  static Pair<@Nullable String, @Nullable String> getCatalogSchema(
+      DataSource dataSource, @Nullable String catalog,
+      @Nullable String schema) {
     try (Connection connection = dataSource.getConnection()) {
       final DatabaseMetaData metaData = connection.getMetaData();
       final List<Integer> version41 = ImmutableList.of(4, 1); // JDBC 4.1
-      String catalog = this.catalog;
-      String schema = this.schema;
       final boolean jdbc41OrAbove =
           VERSION_ORDERING.compare(version(metaData), version41) >= 0;
       if (catalog == null && jdbc41OrAbove) {
@@ -372,6 +489,17 @@ private static List<Integer> version(DatabaseMetaData metaData) throws SQLExcept
 
   RelProtoDataType getRelDataType(String catalogName, String schemaName,
       String tableName) throws SQLException {
+    if (metadataCache != null) {
+      return metadataCache.rowType(catalogName, schemaName, tableName);
+    }
+    return loadRelDataType(dataSource, catalogName, schemaName, tableName);
+  }
+
+  /** Reads the row type of a table from the back end, bypassing the
+   * metadata cache. */
+  static RelProtoDataType loadRelDataType(DataSource dataSource,
+      @Nullable String catalogName,
+      @Nullable String schemaName, String tableName) throws SQLException {
     Connection connection = null;
     try {
       connection = dataSource.getConnection();
@@ -382,8 +510,9 @@ RelProtoDataType getRelDataType(String catalogName, String schemaName,
     }
   }
 
-  RelProtoDataType getRelDataType(DatabaseMetaData metaData, String catalogName,
-      String schemaName, String tableName) throws SQLException {
+  static RelProtoDataType getRelDataType(DatabaseMetaData metaData,
+      @Nullable String catalogName, @Nullable String schemaName,
+      String tableName) throws SQLException {
     final ResultSet resultSet =
         metaData.getColumns(catalogName, schemaName, tableName, null);
 
@@ -554,6 +683,16 @@ private static void close(
    *     }
    *   ]
    * }</pre></blockquote>
+   *
+   * <p>Optional operands {@code jdbcStatementCacheSize} and
+   * {@code jdbcJmxName} enable a per-connection cache of prepared statements
+   * and JMX monitoring of the connection pool; see
+   * {@link JdbcSchema#dataSource(String, String, String, String, int, String)}.
+   *
+   * <p>Optional operand {@code jdbcMetadataCacheSeconds}, if positive, caches
+   * the names and row types of back-end tables for that many seconds, sharing
+   * the cache among connections; see
+   * {@link JdbcSchema#withMetadataCache(Duration)}.
    */
   public static class Factory implements SchemaFactory {
     public static final Factory INSTANCE = new Factory();
@@ -47,6 +47,8 @@
 import java.util.TimeZone;
 import javax.sql.DataSource;
 
+import static java.util.Objects.requireNonNull;
+
 /**
  * Utilities for the JDBC provider.
  */
@@ -251,7 +253,17 @@ static class ObjectArrayRowBuilder2 extends ObjectArrayRowBuilder1 {
    * <p>This in turn makes it easier to cache
    * {@link org.apache.calcite.sql.SqlDialect} objects. Otherwise, each time we
    * see a new data source, we have to open a connection to find out what
-   * database product and version it is. */
+   * database product and version it is.
+   *
+   * <p>Each data source is a pool of connections. If the statement cache size
+   * is positive, each pooled connection also keeps a cache of prepared
+   * statements, keyed by SQL text, so that re-executing the same generated SQL
+   * does not prepare it again on the back end. If a JMX name is given, the
+   * connection pool and its statement pools are registered as MBeans; they
+   * report, among other things, how many statements have been prepared
+   * ({@code CreatedCount}), how many have been borrowed from the cache
+   * ({@code BorrowedCount}), and how long threads waited to check out a
+   * connection ({@code MeanBorrowWaitTimeMillis}). */
   static class DataSourcePool {
     public static final DataSourcePool INSTANCE = new DataSourcePool();
 
@@ -266,15 +278,32 @@ private static BasicDataSource dataSource(
       dataSource.setUsername(key.get(1));
       dataSource.setPassword(key.get(2));
       dataSource.setDriverClassName(key.get(3));
+      final int statementCacheSize =
+          Integer.parseInt(requireNonNull(key.get(4), "statementCacheSize"));
+      if (statementCacheSize > 0) {
+        dataSource.setPoolPreparedStatements(true);
+        dataSource.setMaxOpenPreparedStatements(statementCacheSize);
+      }
+      final String jmxName = key.get(5);
+      if (jmxName != null) {
+        dataSource.setJmxName(jmxName);
+      }
       return dataSource;
     }
 
     public DataSource get(String url, @Nullable String driverClassName,
         @Nullable String username, @Nullable String password) {
+      return get(url, driverClassName, username, password, 0, null);
+    }
+
+    public DataSource get(String url, @Nullable String driverClassName,
+        @Nullable String username, @Nullable String password,
+        int statementCacheSize, @Nullable String jmxName) {
       // Get data source objects from a cache, so that we don't have to sniff
       // out what kind of database they are quite as often.
       final List<@Nullable String> key =
-          ImmutableNullableList.of(url, username, password, driverClassName);
+          ImmutableNullableList.of(url, username, password, driverClassName,
+              Integer.toString(statementCacheSize), jmxName);
       return cache.getUnchecked(key);
     }
   }
@@ -87,6 +87,8 @@ public interface CalciteConnectionConfig extends ConnectionConfig {
       @PolyNull T defaultSchemaFactory);
   /** Returns the value of {@link CalciteConnectionProperty#SCHEMA_TYPE}. */
   JsonSchema.Type schemaType();
+  /** Returns the value of {@link CalciteConnectionProperty#SHARED_MODEL}. */
+  boolean sharedModel();
   /** Returns the value of {@link CalciteConnectionProperty#SPARK}. */
   boolean spark();
   /** Returns the value of
@@ -110,6 +112,16 @@ public interface CalciteConnectionConfig extends ConnectionConfig {
   boolean lenientOperatorLookup();
   /** Returns the value of {@link CalciteConnectionProperty#TOPDOWN_OPT}. */
   boolean topDownOpt();
+  /** Returns the value of
+   * {@link CalciteConnectionProperty#PLANNER_MAX_RULE_FIRINGS}. */
+  int plannerMaxRuleFirings();
+  /** Returns the value of {@link CalciteConnectionProperty#PLANNER_TIMEOUT}. */
+  long plannerTimeout();
+  /** Returns the value of
+   * {@link CalciteConnectionProperty#PLANNER_MAX_REL_COUNT}. */
+  int plannerMaxRelCount();
+  /** Returns the value of {@link CalciteConnectionProperty#STREAM_STATE_ID}. */
+  @Nullable String streamStateId();
 
   /** Returns the value of {@link CalciteConnectionProperty#META_TABLE_FACTORY},
    * or a default meta table factory if not set. If
@@ -170,6 +170,10 @@ public boolean isSet(CalciteConnectionProperty property) {
         .getEnum(JsonSchema.Type.class);
   }
 
+  @Override public boolean sharedModel() {
+    return CalciteConnectionProperty.SHARED_MODEL.wrap(properties).getBoolean();
+  }
+
   @Override public boolean spark() {
     return CalciteConnectionProperty.SPARK.wrap(properties).getBoolean();
   }
@@ -215,6 +219,26 @@ public boolean isSet(CalciteConnectionProperty property) {
         .getBoolean();
   }
 
+  @Override public int plannerMaxRuleFirings() {
+    return CalciteConnectionProperty.PLANNER_MAX_RULE_FIRINGS.wrap(properties)
+        .getInt();
+  }
+
+  @Override public long plannerTimeout() {
+    return CalciteConnectionProperty.PLANNER_TIMEOUT.wrap(properties)
+        .getLong();
+  }
+
+  @Override public int plannerMaxRelCount() {
+    return CalciteConnectionProperty.PLANNER_MAX_REL_COUNT.wrap(properties)
+        .getInt();
+  }
+
+  @Override public @Nullable String streamStateId() {
+    return CalciteConnectionProperty.STREAM_STATE_ID.wrap(properties)
+        .getString();
+  }
+
   @Override public <T> @PolyNull T metaTableFactory(
       Class<T> metaTableFactoryClass,
       @PolyNull T defaultMetaTableFactory) {
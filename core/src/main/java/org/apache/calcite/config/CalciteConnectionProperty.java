@@ -133,6 +133,16 @@ public enum CalciteConnectionProperty implements ConnectionProperty {
    * <p>Ignored if {@link #MODEL} is specified. */
   SCHEMA_TYPE("schemaType", Type.ENUM, null, false, JsonSchema.Type.class),
 
+  /** Whether connections that have the same model share one copy of the
+   * schemas, tables and functions that it defines, rather than each
+   * connection loading the model again. Default false.
+   *
+   * <p>Each connection gets its own root schema and sub-schemas, so tables
+   * and functions that a connection adds or removes are not seen by other
+   * connections; but the underlying schemas and tables (and, for example, the
+   * contents of an in-memory table) are shared. */
+  SHARED_MODEL("sharedModel", Type.BOOLEAN, false, false),
+
   /** Specifies whether Spark should be used as the engine for processing that
    * cannot be pushed to the source system. If false (the default), Calcite
    * generates code that implements the Enumerable interface. */
@@ -186,7 +196,32 @@ public enum CalciteConnectionProperty implements ConnectionProperty {
   LENIENT_OPERATOR_LOOKUP("lenientOperatorLookup", Type.BOOLEAN, false, false),
 
   /** Whether to enable top-down optimization in Volcano planner. */
-  TOPDOWN_OPT("topDownOpt", Type.BOOLEAN, CalciteSystemProperty.TOPDOWN_OPT.value(), false);
+  TOPDOWN_OPT("topDownOpt", Type.BOOLEAN, CalciteSystemProperty.TOPDOWN_OPT.value(), false),
+
+  /** Maximum number of rule firings in the Volcano planner; when it is
+   * reached, the planner returns the best plan found so far. Default 0, which
+   * means no limit. */
+  PLANNER_MAX_RULE_FIRINGS("plannerMaxRuleFirings", Type.NUMBER, 0, false),
+
+  /** Maximum time, in milliseconds, that the Volcano planner may spend firing
+   * rules; when it is reached, the planner returns the best plan found so
+   * far. Default 0, which means no limit. */
+  PLANNER_TIMEOUT("plannerTimeout", Type.NUMBER, 0, false),
+
+  /** Maximum number of relational expressions in the memo of the Volcano
+   * planner; when it is reached, the planner returns the best plan found so
+   * far. Default 0, which means no limit. */
+  PLANNER_MAX_REL_COUNT("plannerMaxRelCount", Type.NUMBER, 0, false),
+
+  /** Id of the state of continuous queries executed on this connection.
+   *
+   * <p>If set, and {@link CalciteSystemProperty#STREAM_STATE_DIRECTORY} is
+   * set, incremental operators such as {@code SELECT STREAM ... GROUP BY}
+   * checkpoint their state in a sub-directory with this name, and an
+   * execution that finds a checkpoint resumes from it. The id identifies one
+   * query; executions with the same id must not run at the same time. If
+   * not set (the default), state is kept in memory only. */
+  STREAM_STATE_ID("streamStateId", Type.STRING, null, false);
 
   private final String camelName;
   private final Type type;
@@ -101,6 +101,39 @@
   public static final CalciteSystemProperty<Boolean> ENABLE_STREAM =
       booleanProperty("calcite.enable.stream", true);
 
+  /** Directory in which incremental operators of streaming queries, such as
+   * {@code SELECT STREAM ... GROUP BY}, store and checkpoint their state.
+   *
+   * <p>If empty (the default), operators keep their state in memory. If set,
+   * and an execution has a state id (connection property
+   * {@link CalciteConnectionProperty#STREAM_STATE_ID streamStateId}), each
+   * operator keeps at most {@link #STREAM_STATE_MAX_IN_MEMORY} entries in
+   * memory, writes the others to a sub-directory for that id, and resumes
+   * from the most recent checkpoint when an execution with the same id
+   * starts. Executions without a state id are not persisted.
+   *
+   * @see org.apache.calcite.runtime.StateStores */
+  public static final CalciteSystemProperty<String> STREAM_STATE_DIRECTORY =
+      stringProperty("calcite.stream.state.directory", "");
+
+  /** Maximum number of entries that each incremental operator of a streaming
+   * query keeps in memory, if {@link #STREAM_STATE_DIRECTORY} is set.
+   *
+   * <p>The default value is 10,000. */
+  public static final CalciteSystemProperty<Integer> STREAM_STATE_MAX_IN_MEMORY =
+      intProperty("calcite.stream.state.maxInMemory", 10_000, v -> v >= 0);
+
+  /** How long, in milliseconds, a row of a stream may arrive after rows
+   * with a later event time, and still be included in its window by
+   * {@code SELECT STREAM ... GROUP BY TUMBLE/HOP/SESSION}.
+   *
+   * <p>The default value is 0: rows are expected in order of event time. A
+   * greater value delays the emission of each window by the same amount.
+   *
+   * @see org.apache.calcite.runtime.Enumerables#groupWindowAggregate */
+  public static final CalciteSystemProperty<Integer> STREAM_ALLOWED_LATENESS =
+      intProperty("calcite.stream.allowedLateness", 0, v -> v >= 0);
+
   /** Whether RexNode digest should be normalized (e.g. call operands ordered).
    *
    * <p>Normalization helps to treat $0=$1 and $1=$0 expressions equal, thus it
@@ -108,6 +141,15 @@
   public static final CalciteSystemProperty<Boolean> ENABLE_REX_DIGEST_NORMALIZE =
       booleanProperty("calcite.enable.rexnode.digest.normalize", true);
 
+  /** Whether {@link org.apache.calcite.rex.RexBuilder} should hash-cons the
+   * calls, input references and literals it creates.
+   *
+   * <p>Interning makes structurally identical expressions the same object, so
+   * that comparing digests in the planner is usually a reference comparison,
+   * and wide or deep expressions are not allocated more than once. */
+  public static final CalciteSystemProperty<Boolean> REX_INTERN =
+      booleanProperty("calcite.rex.intern", true);
+
   /**
    * Whether to follow the SQL standard strictly.
    */
@@ -422,6 +464,21 @@
   public static final CalciteSystemProperty<Integer> FUNCTION_LEVEL_CACHE_MAX_SIZE =
       intProperty("calcite.function.cache.maxSize", 1_000, v -> v >= 0);
 
+  /**
+   * The maximum number of idle parsers that are kept, per parser
+   * implementation, for reuse by later statements.
+   *
+   * <p>A parser generated by JavaCC allocates its token buffers and
+   * look-ahead tables when it is created; a parser that is reset and reused
+   * avoids that cost. The default value is 16.
+   *
+   * <p>Setting this property to 0 disables pooling.
+   *
+   * @see org.apache.calcite.sql.parser.SqlParserPool
+   */
+  public static final CalciteSystemProperty<Integer> PARSER_POOL_SIZE =
+      intProperty("calcite.parser.pool.size", 16, v -> v >= 0);
+
   /**
    * Minimum numbers of fields in a Join result that will trigger the "compact code generation".
    * This feature reduces the risk of running into a compilation error due to the code of a
@@ -439,6 +496,38 @@
   public static final CalciteSystemProperty<Integer> JOIN_SELECTOR_COMPACT_CODE_THRESHOLD =
       intProperty("calcite.join.selector.compact.code.threshold", 100);
 
+  /**
+   * Minimum number of rows in a Values for which the generated code reads
+   * the rows from typed column arrays rather than constructing each row in
+   * code. This keeps the size of the generated code constant however many
+   * rows there are.
+   *
+   * <p>The default value is 100, a negative value disables the feature.
+   *
+   * @see org.apache.calcite.adapter.enumerable.EnumerableValues
+   * @see org.apache.calcite.runtime.ColumnarRows
+   */
+  public static final CalciteSystemProperty<Integer> VALUES_COLUMNAR_THRESHOLD =
+      intProperty("calcite.values.columnar.threshold", 100);
+
+  /**
+   * Maximum size, in bytes of bytecode, of a method in generated code.
+   *
+   * <p>HotSpot does not JIT-compile a method larger than 8,000 bytes (unless
+   * the JVM is started with {@code -XX:-DontCompileHugeMethods}), so such a
+   * method is always interpreted. Code generation splits the evaluation of
+   * a large number of expressions into helper methods that are estimated to
+   * be smaller than this size, and a warning is logged for each compiled
+   * method that is nevertheless larger.
+   *
+   * <p>The default value is 8000, a negative value disables both features.
+   *
+   * @see org.apache.calcite.adapter.enumerable.EnumerableCalc
+   * @see org.apache.calcite.adapter.enumerable.EnumerableInterpretable
+   */
+  public static final CalciteSystemProperty<Integer> GENERATED_METHOD_MAX_SIZE =
+      intProperty("calcite.generated.method.max.size", 8000);
+
   private static CalciteSystemProperty<Boolean> booleanProperty(String key,
       boolean defaultValue) {
     // Note that "" -> true (convenient for command-lines flags like '-Dflag')
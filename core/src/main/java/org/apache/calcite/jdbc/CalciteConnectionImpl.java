@@ -109,6 +109,10 @@
   final Supplier<CalcitePrepare> prepareFactory;
   final CalciteServer server = new CalciteServerImpl();
 
+  /** Shared model that this connection's root schema was copied from, or
+   * null; released when the connection is closed. */
+  SharedModelRegistry.@Nullable Entry sharedModel;
+
   // must be package-protected
   static final Trojan TROJAN = createTrojan();
 
@@ -461,6 +465,10 @@ static class DataContextImpl implements DataContext {
           .put(Variable.STDIN.camelName, streamHolder.get()[0])
           .put(Variable.STDOUT.camelName, streamHolder.get()[1])
           .put(Variable.STDERR.camelName, streamHolder.get()[2]);
+      final String streamStateId = connection.config().streamStateId();
+      if (streamStateId != null) {
+        builder.put(Variable.STREAM_STATE_ID.camelName, streamStateId);
+      }
       for (Map.Entry<String, Object> entry : parameters.entrySet()) {
         Object e = entry.getValue();
         if (e == null) {
@@ -444,6 +444,36 @@ public CalciteSchema createSnapshot(SchemaVersion version) {
     return snapshot(null, version);
   }
 
+  /** Adds the contents of this schema to another schema.
+   *
+   * <p>The entries (tables, functions, types and lattices) and the underlying
+   * {@link Schema} objects are shared, not copied; but the target gets its
+   * own maps, and its own {@code CalciteSchema} for each sub-schema, so that
+   * entries added to or removed from the target, or any of its
+   * sub-schemas, do not affect this schema.
+   *
+   * @param target Schema to copy into; typically a root schema
+   */
+  @Experimental
+  public void copyInto(CalciteSchema target) {
+    tableMap.map().forEach(target.tableMap::put);
+    typeMap.map().forEach(target.typeMap::put);
+    latticeMap.map().forEach(target.latticeMap::put);
+    functionMap.map().forEach((name, entries) ->
+        entries.forEach(entry -> target.functionMap.put(name, entry)));
+    functionNames.iterable().forEach(target.functionNames::add);
+    nullaryFunctionMap.map().forEach(target.nullaryFunctionMap::put);
+    for (CalciteSchema subSchema : subSchemaMap.map().values()) {
+      final CalciteSchema subSchema2 =
+          target.add(subSchema.name, subSchema.schema);
+      subSchema2.path = subSchema.path;
+      if (subSchema2.isCacheEnabled() != subSchema.isCacheEnabled()) {
+        subSchema2.setCache(subSchema.isCacheEnabled());
+      }
+      subSchema.copyInto(subSchema2);
+    }
+  }
+
   /** Returns a subset of a map whose keys match the given string
    * case-insensitively.
    *
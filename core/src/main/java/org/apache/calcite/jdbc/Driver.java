@@ -144,8 +144,17 @@ protected Function0<CalcitePrepare> createPrepareFactory() {
         final String model = model(connection);
         if (model != null) {
           try {
-            ModelHandler h = new ModelHandler(connection.getRootSchema(), model);
-            String defaultName = h.defaultSchemaName();
+            final String defaultName;
+            if (connection.config().sharedModel()) {
+              final SharedModelRegistry.Entry entry =
+                  SharedModelRegistry.INSTANCE.acquire(model);
+              connection.sharedModel = entry;
+              entry.rootSchema.copyInto(connection.rootSchema);
+              defaultName = entry.defaultSchemaName;
+            } else {
+              ModelHandler h = new ModelHandler(connection.getRootSchema(), model);
+              defaultName = h.defaultSchemaName();
+            }
             if (defaultName != null) {
               connection.setSchema(defaultName);
             }
@@ -156,6 +165,17 @@ protected Function0<CalcitePrepare> createPrepareFactory() {
         connection.init();
       }
 
+      @Override public void onConnectionClose(AvaticaConnection connection_) {
+        final CalciteConnectionImpl connection =
+            (CalciteConnectionImpl) connection_;
+        final SharedModelRegistry.Entry entry = connection.sharedModel;
+        if (entry != null) {
+          connection.sharedModel = null;
+          SharedModelRegistry.INSTANCE.release(entry);
+        }
+        super.onConnectionClose(connection);
+      }
+
       @Nullable String model(CalciteConnectionImpl connection) {
         String model = connection.config().model();
         if (model != null) {
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.jdbc;
+
+import org.apache.calcite.model.ModelHandler;
+import org.apache.calcite.util.ImmutableNullableList;
+import org.apache.calcite.util.Util;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process-wide registry of the schemas loaded from models, so that
+ * connections that have the same model can share them.
+ *
+ * <p>A model is loaded into a private root schema the first time a
+ * connection asks for it; each connection then copies that root into its own
+ * root schema using {@link CalciteSchema#copyInto(CalciteSchema)}, which is
+ * cheap because it shares the underlying schemas and tables.
+ *
+ * <p>An inline model is identified by its text, a model file by its path and
+ * its last-modified time. Entries are reference-counted; an entry that has
+ * had no connections for a minute is discarded.
+ *
+ * <p>A model is loaded outside the registry's lock, so that loading a slow
+ * model does not hold up connections that use other models; connections that
+ * ask for a model while it is loading wait for it.
+ *
+ * @see org.apache.calcite.config.CalciteConnectionProperty#SHARED_MODEL
+ */
+final class SharedModelRegistry {
+  static final SharedModelRegistry INSTANCE = new SharedModelRegistry();
+
+  /** How long an entry with no connections is kept. */
+  private static final long IDLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+  /** Entries, keyed by model; a future that is not done is a model that is
+   * being loaded. A model that fails to load is removed. */
+  private final Map<List<@Nullable Object>, CompletableFuture<Entry>> entries =
+      new HashMap<>();
+
+  private SharedModelRegistry() {}
+
+  /** Returns the entry for a model, loading it if necessary, and increments
+   * its reference count. The caller must call {@link #release} when it no
+   * longer needs the entry. */
+  Entry acquire(String model) throws IOException {
+    final List<@Nullable Object> key = key(model);
+    final CompletableFuture<Entry> future;
+    final boolean load;
+    synchronized (this) {
+      final long now = System.nanoTime();
+      entries.values().removeIf(f -> {
+        if (!f.isDone()) {
+          return false;
+        }
+        final Entry e = f.join();
+        return e.refCount == 0 && now - e.idleSince > IDLE_NANOS;
+      });
+      final CompletableFuture<Entry> existing = entries.get(key);
+      load = existing == null;
+      future = existing == null ? new CompletableFuture<>() : existing;
+      if (load) {
+        entries.put(key, future);
+      }
+    }
+    if (load) {
+      try {
+        final CalciteSchema rootSchema = CalciteSchema.createRootSchema(false);
+        final ModelHandler h = new ModelHandler(rootSchema.plus(), model);
+        future.complete(new Entry(rootSchema, h.defaultSchemaName()));
+      } catch (IOException | RuntimeException | Error e) {
+        // Remove the entry before failing it, so that the next connection
+        // tries again
+        synchronized (this) {
+          entries.remove(key, future);
+        }
+        future.completeExceptionally(e);
+        throw e;
+      }
+    }
+    final Entry entry;
+    try {
+      entry = future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while loading model", e);
+    } catch (ExecutionException e) {
+      final Throwable cause = Util.causeOrSelf(e);
+      if (cause instanceof IOException) {
+        throw new IOException(cause.getMessage(), cause);
+      }
+      throw Util.throwAsRuntime(cause);
+    }
+    synchronized (this) {
+      ++entry.refCount;
+    }
+    return entry;
+  }
+
+  /** Decrements the reference count of an entry. */
+  synchronized void release(Entry entry) {
+    if (--entry.refCount == 0) {
+      entry.idleSince = System.nanoTime();
+    }
+  }
+
+  private static List<@Nullable Object> key(String model) {
+    if (model.startsWith("inline:")) {
+      return ImmutableNullableList.of(model, null);
+    }
+    // If the file changes, the model will be loaded again
+    return ImmutableNullableList.of(model, new File(model).lastModified());
+  }
+
+  /** Model that has been loaded into a root schema. */
+  static class Entry {
+    final CalciteSchema rootSchema;
+    final @Nullable String defaultSchemaName;
+    int refCount;
+    long idleSince = System.nanoTime();
+
+    Entry(CalciteSchema rootSchema, @Nullable String defaultSchemaName) {
+      this.rootSchema = rootSchema;
+      this.defaultSchemaName = defaultSchemaName;
+    }
+  }
+}
@@ -18,6 +18,7 @@
 
 import org.apache.calcite.jdbc.CalciteSchema;
 import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.schema.Table;
 
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
@@ -28,6 +29,11 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
@@ -52,6 +58,31 @@ class MaterializationActor {
   final Multimap<TileKey, TileKey> tilesByDimensionality =
       HashMultimap.create();
 
+  /** Materializations of tiles, including tiles that wider tiles have made
+   * obsolete. Used to choose which tiles to evict when tiles occupy more rows
+   * than the budget. */
+  final Map<TileKey, MaterializationKey> tileMaterializations = new HashMap<>();
+
+  /** For each tile in {@link #tileMaterializations}, the tick of its most
+   * recent use. Query threads update it when they read a tile, without a
+   * lock, so it is separate from the tile's materialization. */
+  final Map<TileKey, Long> tileUses = new ConcurrentHashMap<>();
+
+  /** Source of the ticks in {@link #tileUses}. */
+  final AtomicLong tileUseTick = new AtomicLong();
+
+  /** Tiles that are being built in the background. */
+  final Set<TileKey> pendingTiles = ConcurrentHashMap.newKeySet();
+
+  /** Tiles whose background build failed, with the time (as given by
+   * {@link System#nanoTime()}) of the failure. */
+  final Map<TileKey, Long> failedTiles = new ConcurrentHashMap<>();
+
+  /** Tiles that have been built in the background but not yet registered.
+   * Background threads add to this queue; a thread that defines a tile
+   * drains it. */
+  final Queue<BuiltTile> builtTiles = new ConcurrentLinkedQueue<>();
+
   /** A query materialized in a table, so that reading from the table gives the
    * same results as executing the query. */
   static class Materialization {
@@ -89,6 +120,27 @@ static class Materialization {
     }
   }
 
+  /** A tile whose table has been built in the background. */
+  static class BuiltTile {
+    final CalciteSchema schema;
+    final TileKey tileKey;
+    final String sql;
+    final String suggestedTableName;
+    /** Table that contains the tile's data, or null if the table could not
+     * be built. */
+    final @Nullable Table table;
+
+    BuiltTile(CalciteSchema schema, TileKey tileKey, String sql,
+        String suggestedTableName, @Nullable Table table) {
+      this.schema = requireNonNull(schema, "schema");
+      this.tileKey = requireNonNull(tileKey, "tileKey");
+      this.sql = requireNonNull(sql, "sql");
+      this.suggestedTableName =
+          requireNonNull(suggestedTableName, "suggestedTableName");
+      this.table = table;
+    }
+  }
+
   /** A materialization can be re-used if it is the same SQL, on the same
    * schema, with the same path for resolving functions. */
   static class QueryKey {
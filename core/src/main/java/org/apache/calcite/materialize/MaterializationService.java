@@ -42,15 +42,21 @@
 import com.google.common.collect.ImmutableMap;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.apache.calcite.linq4j.Nullness.castNonNull;
 
@@ -61,6 +67,9 @@
  * and the process by which they become valid and invalid.
  */
 public class MaterializationService {
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(MaterializationService.class);
+
   private static final MaterializationService INSTANCE =
       new MaterializationService();
 
@@ -94,9 +103,56 @@ public class MaterializationService {
   private final MaterializationActor actor = new MaterializationActor();
   private final DefaultTableFactory tableFactory = new DefaultTableFactory();
 
+  /** Executor that builds tiles in the background, or null if a tile is built
+   * by the thread that needs it. */
+  private volatile @Nullable Executor tileExecutor;
+
+  /** Maximum number of rows, summed over all tiles, or -1 if there is no
+   * limit. */
+  private volatile long tileRowBudget = -1;
+
+  /** Time, in milliseconds, to wait after a tile failed to build in the
+   * background before trying to build it again. */
+  private volatile long tileRetryDelayMillis = TimeUnit.MINUTES.toMillis(1);
+
+  /** Number of tiles that have failed to build in the background. */
+  private final AtomicLong tileFailureCount = new AtomicLong();
+
   private MaterializationService() {
   }
 
+  /** Sets the executor that builds tiles.
+   *
+   * <p>If the executor is not null, a tile that does not exist is built by a
+   * task submitted to the executor, and {@link #defineTile} returns null until
+   * the task has finished; meanwhile, queries that could have used the tile
+   * read from the underlying tables. If the executor is null (the default),
+   * the tile is built by the thread that calls {@code defineTile}. */
+  public void setTileExecutor(@Nullable Executor tileExecutor) {
+    this.tileExecutor = tileExecutor;
+  }
+
+  /** Sets the maximum number of rows, summed over all tiles. When a new tile
+   * takes the total above the budget, the least recently used tiles are
+   * removed. A negative value (the default) means there is no limit. */
+  public void setTileRowBudget(long tileRowBudget) {
+    this.tileRowBudget = tileRowBudget < 0 ? -1 : tileRowBudget;
+  }
+
+  /** Sets how long, in milliseconds, to wait after a tile failed to build in
+   * the background before trying to build it again. Until then, queries that
+   * could have used the tile read from the underlying tables. The default is
+   * one minute. */
+  public void setTileRetryDelay(long tileRetryDelayMillis) {
+    this.tileRetryDelayMillis = Math.max(tileRetryDelayMillis, 0);
+  }
+
+  /** Returns the number of tiles that have failed to build in the
+   * background. */
+  public long getTileFailureCount() {
+    return tileFailureCount.get();
+  }
+
   /** Defines a new materialization. Returns its key. */
   public @Nullable MaterializationKey defineMaterialization(final CalciteSchema schema,
       @Nullable TileKey tileKey, String viewSql, @Nullable List<String> viewSchemaPath,
@@ -200,12 +256,16 @@ private MaterializationService() {
     final TileKey tileKey =
         new TileKey(lattice, groupSet, ImmutableList.copyOf(measureList));
 
+    // Step 0. Register tiles that have been built in the background.
+    registerBuiltTiles();
+
     // Step 1. Look for an exact match for the tile.
     materializationKey = actor.keyByTile.get(tileKey);
     if (materializationKey != null) {
       final CalciteSchema.TableEntry tableEntry =
           checkValid(materializationKey);
       if (tableEntry != null) {
+        touchTile(tileKey);
         return Pair.of(tableEntry, tileKey);
       }
     }
@@ -222,6 +282,7 @@ private MaterializationService() {
           final CalciteSchema.TableEntry tableEntry =
               checkValid(materializationKey);
           if (tableEntry != null) {
+            touchTile(tileKey1);
             return Pair.of(tableEntry, tileKey1);
           }
         }
@@ -272,18 +333,114 @@ && allSatisfiable(measureList, tileKey2)) {
     // whether they were current, create a wider tile that contains their
     // measures plus the currently requested measures. Then we can obsolete all
     // other tiles.
-    final List<TileKey> obsolete = new ArrayList<>();
     final Set<Lattice.Measure> measureSet = new LinkedHashSet<>();
     for (TileKey tileKey1 : actor.tilesByDimensionality.get(tileKey0)) {
       measureSet.addAll(tileKey1.measures);
-      obsolete.add(tileKey1);
     }
     measureSet.addAll(measureList);
     final TileKey newTileKey =
         new TileKey(lattice, groupSet, ImmutableList.copyOf(measureSet));
 
     final String sql = lattice.sql(groupSet, newTileKey.measures);
-    materializationKey =
+    final Executor tileExecutor = this.tileExecutor;
+    if (tileExecutor == null) {
+      return registerTile(schema, newTileKey, sql, suggestedTableName,
+          tableFactory);
+    }
+
+    // Build the tile in the background, unless it is already being built,
+    // or failed to build recently. The table is populated by the background
+    // task, so that the query that first reads the tile does not have to
+    // wait.
+    if (!isRetryPending(newTileKey) && actor.pendingTiles.add(newTileKey)) {
+      tileExecutor.execute(() -> {
+        Table table;
+        try {
+          table = tableFactory.createTable(schema, sql, schema.path(null));
+          Util.discard(table.getStatistic().getRowCount());
+        } catch (RuntimeException e) {
+          // Do not build the tile again until the retry delay has passed.
+          LOGGER.warn("Failed to build tile {}; will not retry for {} ms",
+              newTileKey, tileRetryDelayMillis, e);
+          tileFailureCount.incrementAndGet();
+          actor.failedTiles.put(newTileKey, System.nanoTime());
+          table = null;
+        }
+        actor.builtTiles.add(
+            new MaterializationActor.BuiltTile(schema, newTileKey, sql,
+                suggestedTableName, table));
+      });
+    }
+
+    // If the executor ran the task in this thread, the tile is ready now.
+    registerBuiltTiles();
+    materializationKey = actor.keyByTile.get(newTileKey);
+    if (materializationKey != null) {
+      final CalciteSchema.TableEntry tableEntry =
+          checkValid(materializationKey);
+      if (tableEntry != null) {
+        return Pair.of(tableEntry, newTileKey);
+      }
+    }
+    return null;
+  }
+
+  /** Marks a tile as recently used, so that it is among the last to be
+   * evicted. Does nothing if the tile has been evicted. */
+  private void touchTile(TileKey tileKey) {
+    Util.discard(
+        actor.tileUses.replace(tileKey, actor.tileUseTick.incrementAndGet()));
+  }
+
+  /** Returns whether a tile failed to build in the background and its retry
+   * delay has not yet passed. */
+  private boolean isRetryPending(TileKey tileKey) {
+    final Long failureTime = actor.failedTiles.get(tileKey);
+    if (failureTime == null) {
+      return false;
+    }
+    if (System.nanoTime() - failureTime
+        < TimeUnit.MILLISECONDS.toNanos(tileRetryDelayMillis)) {
+      return true;
+    }
+    actor.failedTiles.remove(tileKey, failureTime);
+    return false;
+  }
+
+  /** Registers the tiles whose tables have been built in the background. */
+  private void registerBuiltTiles() {
+    for (;;) {
+      final MaterializationActor.BuiltTile builtTile = actor.builtTiles.poll();
+      if (builtTile == null) {
+        return;
+      }
+      final Table table = builtTile.table;
+      if (table != null) {
+        registerTile(builtTile.schema, builtTile.tileKey, builtTile.sql,
+            builtTile.suggestedTableName, (schema, viewSql, viewSchemaPath) ->
+                table);
+      }
+      actor.pendingTiles.remove(builtTile.tileKey);
+    }
+  }
+
+  /** Creates the materialization of a tile, obsoletes the tiles of the same
+   * dimensionality whose measures it contains, and evicts tiles if the row
+   * budget is exceeded. */
+  private @Nullable Pair<CalciteSchema.TableEntry, TileKey> registerTile(
+      CalciteSchema schema, TileKey newTileKey, String sql,
+      String suggestedTableName, TableFactory tableFactory) {
+    final TileKey tileKey0 =
+        new TileKey(newTileKey.lattice, newTileKey.dimensions,
+            ImmutableList.of());
+    final List<TileKey> obsolete = new ArrayList<>();
+    for (TileKey tileKey1 : actor.tilesByDimensionality.get(tileKey0)) {
+      if (newTileKey.measures.containsAll(tileKey1.measures)) {
+        obsolete.add(tileKey1);
+      }
+    }
+
+    final MaterializationKey materializationKey =
         defineMaterialization(schema, newTileKey, sql, schema.path(null),
             suggestedTableName, tableFactory, true, false);
     if (materializationKey != null) {
@@ -298,12 +455,85 @@ && allSatisfiable(measureList, tileKey2)) {
 
         actor.tilesByDimensionality.put(tileKey0, newTileKey);
         actor.keyByTile.put(newTileKey, materializationKey);
+        actor.tileMaterializations.put(newTileKey, materializationKey);
+        actor.tileUses.put(newTileKey, actor.tileUseTick.incrementAndGet());
+        evictTiles(newTileKey);
         return Pair.of(tableEntry, newTileKey);
       }
     }
     return null;
   }
 
+  /** Removes the least recently used tiles, other than {@code newTileKey},
+   * until the tiles occupy no more rows than the budget. Obsolete tiles are
+   * never used, so they are among the first to go. */
+  private void evictTiles(TileKey newTileKey) {
+    if (tileRowBudget < 0) {
+      return;
+    }
+    final Map<TileKey, Double> rowCounts = new HashMap<>();
+    double totalRowCount = 0D;
+    for (Map.Entry<TileKey, MaterializationKey> entry
+        : actor.tileMaterializations.entrySet()) {
+      final double rowCount = rowCount(entry.getValue());
+      rowCounts.put(entry.getKey(), rowCount);
+      totalRowCount += rowCount;
+    }
+    if (totalRowCount <= tileRowBudget) {
+      return;
+    }
+    // Sort by the tick of each tile's most recent use; query threads may
+    // touch tiles meanwhile, so read each tick once
+    final Map<TileKey, Long> ticks = new HashMap<>();
+    for (TileKey tileKey : actor.tileMaterializations.keySet()) {
+      ticks.put(tileKey, actor.tileUses.getOrDefault(tileKey, 0L));
+    }
+    final List<TileKey> tileKeys = new ArrayList<>(ticks.keySet());
+    tileKeys.sort(Comparator.comparingLong(k -> requireNonNull(ticks.get(k))));
+    for (TileKey tileKey : tileKeys) {
+      if (totalRowCount <= tileRowBudget) {
+        break;
+      }
+      if (tileKey.equals(newTileKey)) {
+        continue;
+      }
+      final MaterializationKey key =
+          requireNonNull(actor.tileMaterializations.remove(tileKey));
+      actor.tileUses.remove(tileKey);
+      totalRowCount -= requireNonNull(rowCounts.get(tileKey));
+      removeTile(tileKey, key);
+    }
+  }
+
+  /** Returns the number of rows in the table of a materialization, or 0 if
+   * the materialization has no table or the number is not known. */
+  private double rowCount(MaterializationKey key) {
+    final CalciteSchema.TableEntry tableEntry = checkValid(key);
+    if (tableEntry == null) {
+      return 0D;
+    }
+    final Double rowCount = tableEntry.getTable().getStatistic().getRowCount();
+    return rowCount == null ? 0D : rowCount;
+  }
+
+  /** Removes a tile, its materialization, and the table that holds its
+   * data. */
+  private void removeTile(TileKey tileKey, MaterializationKey key) {
+    final TileKey tileKey0 =
+        new TileKey(tileKey.lattice, tileKey.dimensions, ImmutableList.of());
+    actor.tilesByDimensionality.remove(tileKey0, tileKey);
+    actor.keyByTile.remove(tileKey, key);
+    actor.keyBySql.values().remove(key);
+    final MaterializationActor.Materialization materialization =
+        actor.keyMap.remove(key);
+    if (materialization != null
+        && materialization.materializedTable != null) {
+      final CalciteSchema.TableEntry tableEntry =
+          materialization.materializedTable;
+      tableEntry.schema.removeTable(tableEntry.name);
+    }
+  }
+
   private static boolean allSatisfiable(List<Lattice.Measure> measureList,
       TileKey tileKey) {
     // A measure can be satisfied if it is contained in the measure list, or,
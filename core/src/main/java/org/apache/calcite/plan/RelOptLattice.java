@@ -60,7 +60,10 @@ public RelOptTable rootTable() {
    * the star table.
    *
    * <p>The current implementation creates a materialization and populates it,
-   * provided that {@link Lattice#auto} is true.
+   * provided that {@link Lattice#auto} is true. If the materialization service
+   * builds tiles in the background (see
+   * {@link MaterializationService#setTileExecutor}), returns null until the
+   * tile has been built.
    *
    * <p>Future implementations might return materializations at a different
    * level of aggregation, from which the desired result can be obtained by
@@ -205,6 +205,29 @@ public class VolcanoPlanner extends AbstractRelOptPlanner {
    */
   final Set<RelSubset> explorationRoots = new HashSet<>();
 
+  /** Maximum number of rule firings in {@link #findBestExp()}, or 0 for
+   * no limit. */
+  private int maxRuleFirings = 0;
+
+  /** Maximum time, in milliseconds, that {@link #findBestExp()} may spend
+   * firing rules, or 0 for no limit. */
+  private long maxPlanningMillis = 0;
+
+  /** Maximum number of relational expressions registered in the planner, or
+   * 0 for no limit. */
+  private int maxRelCount = 0;
+
+  /** Number of rules fired since {@link #findBestExp()} was called. */
+  private int ruleFiringCount = 0;
+
+  /** Value of {@link System#nanoTime()} when planning must stop, or
+   * {@link Long#MAX_VALUE} if there is no time limit. */
+  private long deadlineNanos = Long.MAX_VALUE;
+
+  /** The limit that caused the most recent call to {@link #findBestExp()}
+   * to stop early, or null. */
+  private @Nullable Limit exceededLimit;
+
   //~ Constructors -----------------------------------------------------------
 
   /**
@@ -267,6 +290,47 @@ public void setTopDownOpt(boolean value) {
     initRuleQueue();
   }
 
+  /**
+   * Sets the maximum number of rule firings in {@link #findBestExp()}.
+   * When the limit is reached, the planner stops exploring and returns the
+   * cheapest plan that it has found so far. Zero or less means no limit.
+   */
+  public void setMaxRuleFirings(int maxRuleFirings) {
+    this.maxRuleFirings = Math.max(maxRuleFirings, 0);
+  }
+
+  /**
+   * Sets the maximum time, in milliseconds, that {@link #findBestExp()} may
+   * spend firing rules. When the limit is reached, the planner stops exploring
+   * and returns the cheapest plan that it has found so far. Zero or less means
+   * no limit.
+   */
+  public void setMaxPlanningMillis(long maxPlanningMillis) {
+    this.maxPlanningMillis = Math.max(maxPlanningMillis, 0);
+  }
+
+  /**
+   * Sets the maximum number of relational expressions that may be registered
+   * in the planner. When the limit is reached, the planner stops exploring
+   * and returns the cheapest plan that it has found so far. Zero or less means
+   * no limit.
+   *
+   * <p>The memo is the largest consumer of memory in the planner, so this
+   * limit bounds the memory used to plan a query.
+   */
+  public void setMaxRelCount(int maxRelCount) {
+    this.maxRelCount = Math.max(maxRelCount, 0);
+  }
+
+  /**
+   * Returns the limit that caused the most recent call to
+   * {@link #findBestExp()} to stop exploring early, or null if planning ran to
+   * completion.
+   */
+  public @Nullable Limit getExceededLimit() {
+    return exceededLimit;
+  }
+
   // implement RelOptPlanner
   @Override public boolean isRegistered(RelNode rel) {
     return mapRel2Subset.get(rel) != null;
@@ -410,6 +474,7 @@ protected void registerMaterializations() {
     this.materializations.clear();
     this.latticeByName.clear();
     this.provenanceMap.clear();
+    this.exceededLimit = null;
   }
 
   @Override public boolean addRule(RelOptRule rule) {
@@ -522,7 +587,16 @@ protected void registerMaterializations() {
     ensureRootConverters();
     registerMaterializations();
 
-    ruleDriver.drive();
+    ruleFiringCount = 0;
+    exceededLimit = null;
+    deadlineNanos = maxPlanningMillis > 0
+        ? System.nanoTime() + maxPlanningMillis * 1_000_000L
+        : Long.MAX_VALUE;
+    try {
+      ruleDriver.drive();
+    } finally {
+      deadlineNanos = Long.MAX_VALUE;
+    }
 
     if (LOGGER.isTraceEnabled()) {
       StringWriter sw = new StringWriter();
@@ -532,7 +606,17 @@ protected void registerMaterializations() {
       LOGGER.info(sw.toString());
     }
     dumpRuleAttemptsInfo();
-    RelNode cheapest = root.buildCheapestPlan(this);
+    final RelNode cheapest;
+    try {
+      cheapest = root.buildCheapestPlan(this);
+    } catch (CannotPlanException e) {
+      if (exceededLimit != null) {
+        throw new CannotPlanException("Planner stopped because "
+            + exceededLimit.description
+            + " before it found a complete plan. " + e.getMessage());
+      }
+      throw e;
+    }
     if (LOGGER.isDebugEnabled()) {
       LOGGER.debug(
           "Cheapest plan:\n{}", RelOptUtil.toString(cheapest, SqlExplainLevel.ALL_ATTRIBUTES));
@@ -550,6 +634,25 @@ protected void registerMaterializations() {
     }
   }
 
+  /** Called before each rule firing. Throws {@link VolcanoTimeoutException}
+   * (which causes the rule driver to stop) if planning has exceeded one of
+   * its limits. */
+  void checkLimits() {
+    final Limit limit;
+    if (maxRuleFirings > 0 && ++ruleFiringCount > maxRuleFirings) {
+      limit = Limit.RULE_FIRINGS;
+    } else if (maxRelCount > 0 && mapRel2Subset.size() > maxRelCount) {
+      limit = Limit.REL_COUNT;
+    } else if (deadlineNanos != Long.MAX_VALUE
+        && System.nanoTime() - deadlineNanos > 0) {
+      limit = Limit.TIME;
+    } else {
+      return;
+    }
+    exceededLimit = limit;
+    throw new VolcanoTimeoutException();
+  }
+
   /** Ensures that the subset that is the root relational expression contains
    * converters to all other subsets in its equivalence set.
    *
@@ -1601,6 +1704,28 @@ protected RelOptCost upperBoundForInputs(
 
   //~ Inner Classes ----------------------------------------------------------
 
+  /** A limit on the effort that {@link VolcanoPlanner} spends planning a
+   * query.
+   *
+   * @see #setMaxRuleFirings(int)
+   * @see #setMaxPlanningMillis(long)
+   * @see #setMaxRelCount(int) */
+  public enum Limit {
+    /** Maximum number of rule firings. */
+    RULE_FIRINGS("it reached the maximum number of rule firings"),
+    /** Maximum planning time. */
+    TIME("it reached the maximum planning time"),
+    /** Maximum number of relational expressions in the memo. */
+    REL_COUNT("it reached the maximum number of relational expressions");
+
+    /** Description, used in messages. */
+    public final String description;
+
+    Limit(String description) {
+      this.description = description;
+    }
+  }
+
   /**
    * A rule call which defers its actions. Whereas {@link RelOptRuleCall}
    * invokes the rule when it finds a match, a <code>DeferringRuleCall</code>
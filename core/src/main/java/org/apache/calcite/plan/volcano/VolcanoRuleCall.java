@@ -164,6 +164,7 @@ protected VolcanoRuleCall(
   protected void onMatch() {
     assert getRule().matches(this);
     volcanoPlanner.checkCancel();
+    volcanoPlanner.checkLimits();
     try {
       if (volcanoPlanner.isRuleExcluded(getRule())) {
         LOGGER.debug("Rule [{}] not fired due to exclusion filter", getRule());
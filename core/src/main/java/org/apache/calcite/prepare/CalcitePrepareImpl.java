@@ -97,6 +97,7 @@
 import org.apache.calcite.sql.parser.SqlParseException;
 import org.apache.calcite.sql.parser.SqlParser;
 import org.apache.calcite.sql.parser.SqlParserImplFactory;
+import org.apache.calcite.sql.parser.SqlParserPool;
 import org.apache.calcite.sql.parser.impl.SqlParserImpl;
 import org.apache.calcite.sql.type.ExtraSqlTypes;
 import org.apache.calcite.sql.type.MeasureSqlType;
@@ -206,6 +207,8 @@ private ParseResult parse_(Context context, String sql, boolean convert,
       sqlNode = parser.parseStmt();
     } catch (SqlParseException e) {
       throw new RuntimeException("parse failed", e);
+    } finally {
+      releaseParser(parser);
     }
     final SqlValidator validator =
         createSqlValidator(context, catalogReader,
@@ -384,7 +387,14 @@ protected SqlParser createParser(String sql) {
 
   /** Factory method for SQL parser with a given configuration. */
   protected SqlParser createParser(String sql, SqlParser.Config parserConfig) {
-    return SqlParser.create(sql, parserConfig);
+    return SqlParserPool.INSTANCE.acquire(sql, parserConfig);
+  }
+
+  /** Called when a parser returned by {@link #createParser} has finished
+   * parsing. The default implementation returns it to the shared
+   * {@link SqlParserPool}; the parser must not be used again. */
+  protected void releaseParser(SqlParser parser) {
+    SqlParserPool.INSTANCE.release(parser);
   }
 
   @Deprecated // to be removed before 2.0
@@ -455,6 +465,9 @@ protected RelOptPlanner createPlanner(
       planner.addRelTraitDef(RelCollationTraitDef.INSTANCE);
     }
     planner.setTopDownOpt(prepareContext.config().topDownOpt());
+    planner.setMaxRuleFirings(prepareContext.config().plannerMaxRuleFirings());
+    planner.setMaxPlanningMillis(prepareContext.config().plannerTimeout());
+    planner.setMaxRelCount(prepareContext.config().plannerMaxRelCount());
     RelOptUtil.registerDefaultRules(planner,
         prepareContext.config().materializationsEnabled(),
         enableBindable);
@@ -650,6 +663,8 @@ <T> CalciteSignature<T> prepare2_(
       } catch (SqlParseException e) {
         throw new RuntimeException(
             "parse failed: " + e.getMessage(), e);
+      } finally {
+        releaseParser(parser);
       }
 
       Hook.PARSE_TREE.run(new Object[] {query.sql, sqlNode});
@@ -1120,6 +1135,8 @@ private PreparedResult prepare_(Supplier<RelNode> fn,
         sqlNode = parser.parseQuery();
       } catch (SqlParseException e) {
         throw new RuntimeException("parse failed", e);
+      } finally {
+        prepare.releaseParser(parser);
       }
       // View may have different schema path than current connection.
       final CatalogReader catalogReader =
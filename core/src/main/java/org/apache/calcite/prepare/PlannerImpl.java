@@ -46,6 +46,7 @@
 import org.apache.calcite.sql.SqlOperatorTable;
 import org.apache.calcite.sql.parser.SqlParseException;
 import org.apache.calcite.sql.parser.SqlParser;
+import org.apache.calcite.sql.parser.SqlParserPool;
 import org.apache.calcite.sql.util.SqlOperatorTables;
 import org.apache.calcite.sql.validate.SqlValidator;
 import org.apache.calcite.sql2rel.RelDecorrelator;
@@ -212,8 +213,13 @@ private void ready() {
       break;
     }
     ensure(State.STATE_2_READY);
-    SqlParser parser = SqlParser.create(reader, parserConfig);
-    SqlNode sqlNode = parser.parseStmt();
+    SqlParser parser = SqlParserPool.INSTANCE.acquire(reader, parserConfig);
+    SqlNode sqlNode;
+    try {
+      sqlNode = parser.parseStmt();
+    } finally {
+      SqlParserPool.INSTANCE.release(parser);
+    }
     state = State.STATE_3_PARSED;
     return sqlNode;
   }
@@ -300,12 +306,14 @@ public class ViewExpanderImpl implements ViewExpander {
       ready();
       planner = requireNonNull(this.planner, "planner");
     }
-    SqlParser parser = SqlParser.create(queryString, parserConfig);
+    SqlParser parser = SqlParserPool.INSTANCE.acquire(queryString, parserConfig);
     SqlNode sqlNode;
     try {
       sqlNode = parser.parseQuery();
     } catch (SqlParseException e) {
       throw new RuntimeException("parse failed", e);
+    } finally {
+      SqlParserPool.INSTANCE.release(parser);
     }
 
     final CalciteCatalogReader catalogReader =
@@ -30,6 +30,7 @@
 import org.apache.calcite.plan.RelOptTable;
 import org.apache.calcite.plan.RelOptUtil;
 import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.plan.volcano.VolcanoPlanner;
 import org.apache.calcite.rel.RelCollation;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.RelRoot;
@@ -177,6 +178,15 @@ protected RelRoot optimize(RelRoot root,
     final RelNode rootRel4 =
         program.run(planner, root.rel, desiredTraits, materializationList,
             latticeList);
+    if (planner instanceof VolcanoPlanner) {
+      final VolcanoPlanner.Limit limit =
+          ((VolcanoPlanner) planner).getExceededLimit();
+      if (limit != null) {
+        LOGGER.warn("Planner stopped early because {}; using the best plan "
+            + "found so far", limit.description);
+        Hook.PLANNER_LIMIT.run(limit);
+      }
+    }
     if (LOGGER.isDebugEnabled()) {
       LOGGER.debug("Plan after physical tweaks:\n{}",
           RelOptUtil.toString(rootRel4, SqlExplainLevel.ALL_ATTRIBUTES));
@@ -104,18 +104,37 @@ interface Statistic {
     Object toMap(JsonBuilder jsonBuilder);
   }
 
-  /** Whole data set. */
+  /** Whole data set.
+   *
+   * <p>If the profiler profiled a sample of the input, {@code rowCount} is the
+   * number of rows in the sample, which is the row count that the other
+   * statistics describe, and {@code inputRowCount} is the number of rows in
+   * the input. */
   class RowCount implements Statistic {
     final int rowCount;
+    final long inputRowCount;
 
     public RowCount(int rowCount) {
+      this(rowCount, rowCount);
+    }
+
+    public RowCount(int rowCount, long inputRowCount) {
       this.rowCount = rowCount;
+      this.inputRowCount = inputRowCount;
+    }
+
+    /** Returns whether the statistics describe a sample of the input. */
+    public boolean isSampled() {
+      return inputRowCount != rowCount;
     }
 
     @Override public Object toMap(JsonBuilder jsonBuilder) {
       final Map<String, @Nullable Object> map = jsonBuilder.map();
       map.put("type", "rowCount");
       map.put("rowCount", rowCount);
+      if (isSampled()) {
+        map.put("inputRowCount", inputRowCount);
+      }
       return map;
     }
   }
@@ -51,9 +51,17 @@
 import java.util.NavigableSet;
 import java.util.PriorityQueue;
 import java.util.Queue;
+import java.util.Random;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -66,8 +74,30 @@
 /**
  * Implementation of {@link Profiler} that only investigates "interesting"
  * combinations of columns.
+ *
+ * <p>If {@link Builder#withParallelism(int) parallelism} is greater than 1,
+ * each pass deals the input rows in batches to several worker threads. Each
+ * worker collects values and sketches for its own rows, and at the end of the
+ * pass the profiler merges the workers' collectors.
+ *
+ * <p>If a {@link Builder#withSampleSize(int) sample size} is set, the profiler
+ * reads the input once to draw a random sample of rows, and profiles the
+ * sample. Every statistic of the profile, including the row count, then
+ * describes the sample; {@link RowCount#isSampled()} is true and
+ * {@code inputRowCount} holds the number of rows in the input.
  */
 public class ProfilerImpl implements Profiler {
+  /** Number of distinct values above which a collector switches from a set of
+   * values to a HyperLogLog sketch. */
+  private static final int SKETCH_THRESHOLD = 1000;
+
+  /** Number of rows that are sent to a worker thread at a time. */
+  private static final int BATCH_SIZE = 1024;
+
+  /** Seed of the random number generator that draws samples, so that
+   * profiling the same rows gives the same result each time. */
+  private static final long SAMPLE_SEED = 0L;
+
   /** The number of combinations to consider per pass.
    * The number is determined by memory, but a value of 1,000 is typical.
    * You need 2KB memory per sketch, and one sketch for each combination. */
@@ -81,6 +111,15 @@ public class ProfilerImpl implements Profiler {
   /** Whether a successor is considered interesting enough to analyze. */
   private final Predicate<Pair<Space, Column>> predicate;
 
+  /** Number of threads that collect values in each pass. If 1, values are
+   * collected on the calling thread. */
+  private final int parallelism;
+
+  /** Maximum number of rows to profile. If the input has more rows, the
+   * profiler profiles a random sample of this many rows. If 0, the profiler
+   * profiles every row. */
+  private final int sampleSize;
+
   public static Builder builder() {
     return new Builder();
   }
@@ -97,16 +136,60 @@ public static Builder builder() {
    */
   ProfilerImpl(int combinationsPerPass,
       int interestingCount, Predicate<Pair<Space, Column>> predicate) {
+    this(combinationsPerPass, interestingCount, predicate, 1, 0);
+  }
+
+  /**
+   * Creates a {@code ProfilerImpl} that may use several threads and may
+   * profile a sample of the rows.
+   *
+   * @param combinationsPerPass Maximum number of columns (or combinations of
+   *   columns) to compute each pass
+   * @param interestingCount Minimum number of combinations considered
+   *   interesting
+   * @param predicate Whether a successor is considered interesting enough to
+   *   analyze
+   * @param parallelism Number of threads that collect values each pass
+   * @param sampleSize Maximum number of rows to profile, or 0 to profile all
+   *   rows
+   */
+  ProfilerImpl(int combinationsPerPass, int interestingCount,
+      Predicate<Pair<Space, Column>> predicate, int parallelism,
+      int sampleSize) {
     checkArgument(combinationsPerPass > 2);
     checkArgument(interestingCount > 2);
+    checkArgument(parallelism > 0);
+    checkArgument(sampleSize >= 0);
     this.combinationsPerPass = combinationsPerPass;
     this.interestingCount = interestingCount;
     this.predicate = predicate;
+    this.parallelism = parallelism;
+    this.sampleSize = sampleSize;
   }
 
   @Override public Profile profile(Iterable<List<Comparable>> rows,
       final List<Column> columns, Collection<ImmutableBitSet> initialGroups) {
-    return new Run(columns, initialGroups).profile(rows);
+    if (sampleSize == 0) {
+      return new Run(columns, initialGroups).profile(rows);
+    }
+    final Reservoir reservoir = new Reservoir(sampleSize);
+    for (List<Comparable> row : rows) {
+      reservoir.add(row);
+    }
+    final Profile profile =
+        new Run(columns, initialGroups).profile(reservoir.rows);
+    if (reservoir.count == reservoir.rows.size()) {
+      // The sample contains every row
+      return profile;
+    }
+    // Cardinalities, unique keys and functional dependencies hold for the
+    // sample, not necessarily for the input, so the row count that they are
+    // consistent with is that of the sample. Record the input's row count
+    // separately, which marks the profile as sampled.
+    return new Profile(columns,
+        new RowCount(profile.rowCount.rowCount, reservoir.count),
+        profile.functionalDependencyList, profile.distributionList,
+        profile.uniqueList);
   }
 
   /** A run of the profiler. */
@@ -289,16 +372,12 @@ void pass(int pass, List<Space> spaces, Iterable<List<Comparable>> rows) {
             + ", distributions.size: " + distributions.size());
       }
 
-      for (Space space : spaces) {
-        space.collector = Collector.create(space, 1000);
-      }
-
-      int rowCount = 0;
-      for (final List<Comparable> row : rows) {
-        ++rowCount;
-        for (Space space : spaces) {
-          castNonNull(space.collector).add(row);
-        }
+      final Collector[] collectors = new Collector[spaces.size()];
+      final int rowCount = parallelism > 1
+          ? collectParallel(spaces, rows, collectors)
+          : collect(spaces, rows, collectors);
+      for (Ord<Space> space : Ord.zip(spaces)) {
+        space.e.collector = collectors[space.i];
       }
 
       // Populate unique keys.
@@ -400,6 +479,121 @@ void pass(int pass, List<Space> spaces, Iterable<List<Comparable>> rows) {
       }
     }
 
+    /** Creates a collector for each space. */
+    private Collector[] createCollectors(List<Space> spaces) {
+      final Collector[] collectors = new Collector[spaces.size()];
+      for (Ord<Space> space : Ord.zip(spaces)) {
+        collectors[space.i] = Collector.create(space.e, SKETCH_THRESHOLD);
+      }
+      return collectors;
+    }
+
+    /** Adds a row to each collector. A collector may replace itself with one
+     * of a different kind, so the array is updated. */
+    private void add(Collector[] collectors, List<Comparable> row) {
+      for (int i = 0; i < collectors.length; i++) {
+        collectors[i] = collectors[i].add(row);
+      }
+    }
+
+    /** Collects the values of each space on the calling thread, populates
+     * {@code collectors}, and returns the number of rows. */
+    private int collect(List<Space> spaces, Iterable<List<Comparable>> rows,
+        Collector[] collectors) {
+      System.arraycopy(createCollectors(spaces), 0, collectors, 0,
+          collectors.length);
+      int rowCount = 0;
+      for (final List<Comparable> row : rows) {
+        ++rowCount;
+        add(collectors, row);
+      }
+      return rowCount;
+    }
+
+    /** Collects the values of each space using {@link #parallelism} worker
+     * threads, populates {@code collectors} with the merged collectors of the
+     * workers, and returns the number of rows.
+     *
+     * <p>The calling thread reads the rows and puts them, in batches, on a
+     * queue; each worker takes batches from the queue and adds them to its own
+     * collectors. Rows must therefore not be modified after the iterator has
+     * returned them. */
+    private int collectParallel(List<Space> spaces,
+        Iterable<List<Comparable>> rows, Collector[] collectors) {
+      final BlockingQueue<List<List<Comparable>>> queue =
+          new ArrayBlockingQueue<>(parallelism * 2);
+      final ExecutorService executor =
+          Executors.newFixedThreadPool(parallelism);
+      try {
+        final List<Future<Collector[]>> futures = new ArrayList<>();
+        for (int i = 0; i < parallelism; i++) {
+          futures.add(
+              executor.submit(() -> {
+                final Collector[] workerCollectors = createCollectors(spaces);
+                for (;;) {
+                  final List<List<Comparable>> batch = queue.take();
+                  if (batch.isEmpty()) {
+                    // There are no more rows
+                    return workerCollectors;
+                  }
+                  for (List<Comparable> row : batch) {
+                    add(workerCollectors, row);
+                  }
+                }
+              }));
+        }
+
+        int rowCount = 0;
+        List<List<Comparable>> batch = new ArrayList<>(BATCH_SIZE);
+        for (final List<Comparable> row : rows) {
+          ++rowCount;
+          batch.add(row);
+          if (batch.size() == BATCH_SIZE) {
+            put(queue, batch, futures);
+            batch = new ArrayList<>(BATCH_SIZE);
+          }
+        }
+        if (!batch.isEmpty()) {
+          put(queue, batch, futures);
+        }
+        for (int i = 0; i < parallelism; i++) {
+          put(queue, ImmutableList.of(), futures);
+        }
+
+        for (Future<Collector[]> future : futures) {
+          final Collector[] workerCollectors = future.get();
+          for (int i = 0; i < collectors.length; i++) {
+            collectors[i] = collectors[i] == null
+                ? workerCollectors[i]
+                : collectors[i].merge(workerCollectors[i]);
+          }
+        }
+        return rowCount;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw Util.toUnchecked(e);
+      } catch (ExecutionException e) {
+        throw Util.throwAsRuntime(Util.causeOrSelf(e));
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+
+    /** Puts a batch of rows on the queue, waiting until there is room.
+     * While waiting, rethrows the exception of any worker that has failed,
+     * so that a failed worker does not cause the reader to wait forever. */
+    private void put(BlockingQueue<List<List<Comparable>>> queue,
+        List<List<Comparable>> batch, List<Future<Collector[]>> futures)
+        throws InterruptedException, ExecutionException {
+      while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+        for (Future<Collector[]> future : futures) {
+          if (future.isDone()) {
+            future.get();
+          }
+        }
+      }
+    }
+
     /** Estimates the cardinality of a collection of columns represented by
      * {@code columnOrdinals}, drawing on existing distributions. */
     private double cardinality(double rowCount, ImmutableBitSet columns) {
@@ -509,9 +703,12 @@ static class Space {
   public static class Builder {
     int combinationsPerPass = 100;
     Predicate<Pair<Space, Column>> predicate = p -> true;
+    int parallelism = 1;
+    int sampleSize = 0;
 
     public ProfilerImpl build() {
-      return new ProfilerImpl(combinationsPerPass, 200, predicate);
+      return new ProfilerImpl(combinationsPerPass, 200, predicate, parallelism,
+          sampleSize);
     }
 
     public Builder withPassSize(int passSize) {
@@ -519,6 +716,22 @@ public Builder withPassSize(int passSize) {
       return this;
     }
 
+    /** Sets the number of threads that collect values in each pass.
+     * The default is 1, which collects values on the calling thread. */
+    public Builder withParallelism(int parallelism) {
+      this.parallelism = parallelism;
+      return this;
+    }
+
+    /** Sets the maximum number of rows to profile. If the input has more
+     * rows, the profiler profiles a random sample of this many rows, and all
+     * statistics, including the row count, describe the sample. The default
+     * is 0, which profiles every row. */
+    public Builder withSampleSize(int sampleSize) {
+      this.sampleSize = sampleSize;
+      return this;
+    }
+
     public Builder withMinimumSurprise(double v) {
       predicate =
           spaceColumnPair -> {
@@ -538,9 +751,26 @@ abstract static class Collector {
       this.space = space;
     }
 
-    abstract void add(List<Comparable> row);
+    /** Adds a row, and returns the collector that should receive the next
+     * row; usually this collector, but a collector that has seen too many
+     * distinct values returns a sketch collector that replaces it. */
+    abstract Collector add(List<Comparable> row);
+
     abstract void finish();
 
+    /** Converts this collector to one that collects into a HyperLogLog
+     * sketch. */
+    abstract HllCollector toHll();
+
+    /** Merges the values of another collector, for the same space, into
+     * this collector, and returns the collector that holds the merged
+     * values. */
+    Collector merge(Collector other) {
+      final HllCollector collector = toHll();
+      collector.union(other.toHll());
+      return collector;
+    }
+
     /** Creates an initial collector of the appropriate kind. */
     public static Collector create(Space space, int sketchThreshold) {
       final List<Integer> columnOrdinalList = space.columnOrdinals.asList();
@@ -567,21 +797,40 @@ static class SingletonCollector extends Collector {
       this.sketchThreshold = sketchThreshold;
     }
 
-    @Override public void add(List<Comparable> row) {
+    @Override public Collector add(List<Comparable> row) {
       final Comparable v = row.get(columnOrdinal);
       if (v == NullSentinel.INSTANCE) {
         nullCount++;
       } else {
         if (values.add(v) && values.size() == sketchThreshold) {
           // Too many values. Switch to a sketch collector.
-          final HllSingletonCollector collector =
-              new HllSingletonCollector(space, columnOrdinal);
-          for (Comparable value : values) {
-            collector.add(value);
-          }
-          space.collector = collector;
+          return toHll();
         }
       }
+      return this;
+    }
+
+    @Override HllCollector toHll() {
+      final HllSingletonCollector collector =
+          new HllSingletonCollector(space, columnOrdinal);
+      for (Comparable value : values) {
+        collector.add(value);
+      }
+      if (nullCount > 0) {
+        collector.nullCount = nullCount;
+        collector.sketch.update(HllCollector.NULL_BITS);
+      }
+      return collector;
+    }
+
+    @Override Collector merge(Collector other) {
+      if (other instanceof SingletonCollector) {
+        final SingletonCollector collector = (SingletonCollector) other;
+        values.addAll(collector.values);
+        nullCount += collector.nullCount;
+        return values.size() >= sketchThreshold ? toHll() : this;
+      }
+      return super.merge(other);
     }
 
     @Override public void finish() {
@@ -607,7 +856,7 @@ static class CompositeCollector extends Collector {
       this.sketchThreshold = sketchThreshold;
     }
 
-    @Override public void add(List<Comparable> row) {
+    @Override public Collector add(List<Comparable> row) {
       if (space.columnOrdinals.equals(OF)) {
         Util.discard(0);
       }
@@ -625,22 +874,40 @@ static class CompositeCollector extends Collector {
       if (((Set) values).add(FlatLists.copyOf(columnValues))
           && values.size() == sketchThreshold) {
         // Too many values. Switch to a sketch collector.
-        final HllCompositeCollector collector =
-            new HllCompositeCollector(space, columnOrdinals);
-        final List<Comparable> list =
-            new ArrayList<>(
-                Collections.nCopies(columnOrdinals[columnOrdinals.length - 1]
-                        + 1,
-                    null));
-        for (FlatLists.ComparableList value : this.values) {
-          for (int i = 0; i < value.size(); i++) {
-            Comparable c = (Comparable) value.get(i);
-            list.set(columnOrdinals[i], c);
-          }
-          collector.add(list);
+        return toHll();
+      }
+      return this;
+    }
+
+    @Override HllCollector toHll() {
+      final HllCompositeCollector collector =
+          new HllCompositeCollector(space, columnOrdinals);
+      final List<Comparable> list =
+          new ArrayList<>(
+              Collections.nCopies(columnOrdinals[columnOrdinals.length - 1]
+                      + 1,
+                  null));
+      for (FlatLists.ComparableList value : this.values) {
+        for (int i = 0; i < value.size(); i++) {
+          Comparable c = (Comparable) value.get(i);
+          list.set(columnOrdinals[i], c);
         }
-        space.collector = collector;
+        collector.add(list);
+      }
+      // Adding the values counted each distinct partially null value once;
+      // use the number of partially null rows instead
+      collector.nullCount = nullCount;
+      return collector;
+    }
+
+    @Override Collector merge(Collector other) {
+      if (other instanceof CompositeCollector) {
+        final CompositeCollector collector = (CompositeCollector) other;
+        values.addAll(collector.values);
+        nullCount += collector.nullCount;
+        return values.size() >= sketchThreshold ? toHll() : this;
       }
+      return super.merge(other);
     }
 
     @Override public void finish() {
@@ -689,6 +956,16 @@ protected void add(Comparable value) {
       space.cardinality = (int) sketch.getEstimate();
       space.valueSet = null;
     }
+
+    @Override HllCollector toHll() {
+      return this;
+    }
+
+    /** Adds the values of another sketch collector to this one. */
+    void union(HllCollector other) {
+      sketch.union(other.sketch);
+      nullCount += other.nullCount;
+    }
   }
 
   /** Collector that collects one column value into a HyperLogLog sketch. */
@@ -700,7 +977,7 @@ static class HllSingletonCollector extends HllCollector {
       this.columnOrdinal = columnOrdinal;
     }
 
-    @Override public void add(List<Comparable> row) {
+    @Override public Collector add(List<Comparable> row) {
       final Comparable value = row.get(columnOrdinal);
       if (value == NullSentinel.INSTANCE) {
         nullCount++;
@@ -708,6 +985,7 @@ static class HllSingletonCollector extends HllCollector {
       } else {
         add(value);
       }
+      return this;
     }
   }
 
@@ -722,7 +1000,7 @@ static class HllCompositeCollector extends HllCollector {
       this.columnOrdinals = columnOrdinals;
     }
 
-    @Override public void add(List<Comparable> row) {
+    @Override public Collector add(List<Comparable> row) {
       if (space.columnOrdinals.equals(OF)) {
         Util.discard(0);
       }
@@ -754,6 +1032,36 @@ static class HllCompositeCollector extends HllCollector {
         }
       }
       sketch.update(Arrays.copyOf(buf.array(), buf.position()));
+      return this;
+    }
+  }
+
+  /** Random sample of a fixed number of rows, drawn in one pass over an input
+   * of unknown size ("Algorithm R"). */
+  static class Reservoir {
+    final List<List<Comparable>> rows = new ArrayList<>();
+    private final int size;
+    private final Random random = new Random(SAMPLE_SEED);
+    /** Number of rows offered. */
+    long count = 0;
+
+    Reservoir(int size) {
+      checkArgument(size > 0);
+      this.size = size;
+    }
+
+    /** Offers a row. The row is kept with probability
+     * {@code size / count}, in which case it replaces a random row already in
+     * the sample. */
+    void add(List<Comparable> row) {
+      if (count++ < size) {
+        rows.add(row);
+      } else {
+        final long i = (long) (random.nextDouble() * count);
+        if (i < size) {
+          rows.set((int) i, row);
+        }
+      }
     }
   }
 
@@ -410,6 +410,13 @@ public RelWriter explainTerms(RelWriter pw) {
   }
 
   private PairList<String, @Nullable Object> getDigestItems() {
+    if (digest instanceof InnerRelDigest) {
+      return ((InnerRelDigest) digest).items();
+    }
+    return computeDigestItems();
+  }
+
+  private PairList<String, @Nullable Object> computeDigestItems() {
     RelDigestWriter rdw = new RelDigestWriter();
     explainTerms(rdw);
     if (this instanceof Hintable) {
@@ -424,12 +431,28 @@ private class InnerRelDigest implements RelDigest {
     /** Cached hash code. */
     private int hash = 0;
 
+    /** Cached digest attributes. Inputs are {@link RelNode}s, which in a
+     * planner are compared by identity, and expressions are usually
+     * interned, so comparing two lists of items is cheap; building them
+     * (by calling {@link #explainTerms}) is not. */
+    private @Nullable PairList<String, @Nullable Object> items;
+
     @Override public RelNode getRel() {
       return AbstractRelNode.this;
     }
 
     @Override public void clear() {
       hash = 0;
+      items = null;
+    }
+
+    PairList<String, @Nullable Object> items() {
+      PairList<String, @Nullable Object> items = this.items;
+      if (items == null) {
+        items = computeDigestItems();
+        this.items = items;
+      }
+      return items;
     }
 
     @Override public boolean equals(final @Nullable Object o) {
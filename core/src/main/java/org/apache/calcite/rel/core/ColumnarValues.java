@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.rel.core;
+
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelOptCost;
+import org.apache.calcite.plan.RelOptPlanner;
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.rel.AbstractRelNode;
+import org.apache.calcite.rel.RelWriter;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rel.type.RelDataTypeField;
+import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.runtime.ColumnarRows;
+import org.apache.calcite.sql.SqlExplainLevel;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Relational expression whose value is a sequence of literal rows, held in
+ * typed column arrays rather than as {@link RexLiteral}s.
+ *
+ * <p>It is equivalent to {@link Values}, but is much more compact for a
+ * large data set, such as an inline table of many thousands of rows or a
+ * long IN-list that has been converted to a join. The planner never expands
+ * the data into literals; two instances are equivalent if their data are
+ * equal.
+ *
+ * @see ColumnarRows
+ */
+public abstract class ColumnarValues extends AbstractRelNode {
+  //~ Instance fields --------------------------------------------------------
+
+  public final ColumnarRows rows;
+
+  //~ Constructors -----------------------------------------------------------
+
+  /**
+   * Creates a ColumnarValues.
+   *
+   * @param cluster Cluster that this relational expression belongs to
+   * @param traits  Traits
+   * @param rowType Row type of the rows
+   * @param rows    Rows, in the internal representation of the row type
+   */
+  protected ColumnarValues(RelOptCluster cluster, RelTraitSet traits,
+      RelDataType rowType, ColumnarRows rows) {
+    super(cluster, traits);
+    this.rowType = rowType;
+    this.rows = rows;
+    assert rows.columnCount() == rowType.getFieldCount()
+        : "rows have " + rows.columnCount() + " columns; row type is "
+        + rowType;
+  }
+
+  //~ Methods ----------------------------------------------------------------
+
+  /** Converts rows of literals to columns, or returns null if the row type
+   * has a field whose type is not supported.
+   *
+   * <p>Supported types are {@code BOOLEAN}, the exact and approximate
+   * numeric types, {@code CHAR}, {@code VARCHAR}, {@code DATE}, {@code TIME}
+   * and {@code TIMESTAMP}. */
+  public static @Nullable ColumnarRows toRows(RelDataType rowType,
+      List<? extends List<RexLiteral>> tuples) {
+    final List<RelDataTypeField> fields = rowType.getFieldList();
+    final List<Class<?>> classes = new ArrayList<>(fields.size());
+    for (RelDataTypeField field : fields) {
+      final Class<?> clazz = javaClass(field.getType());
+      if (clazz == null) {
+        return null;
+      }
+      classes.add(clazz);
+    }
+    final ColumnarRows.Builder builder =
+        ColumnarRows.builder(classes, tuples.size());
+    for (int row = 0; row < tuples.size(); row++) {
+      final List<RexLiteral> tuple = tuples.get(row);
+      for (int i = 0; i < classes.size(); i++) {
+        builder.set(row, i, tuple.get(i).getValueAs(classes.get(i)));
+      }
+    }
+    return builder.build();
+  }
+
+  /** Returns the class of the internal representation of values of a given
+   * type, or null if the type is not supported. */
+  private static @Nullable Class<?> javaClass(RelDataType type) {
+    switch (type.getSqlTypeName()) {
+    case BOOLEAN:
+      return Boolean.class;
+    case TINYINT:
+      return Byte.class;
+    case SMALLINT:
+      return Short.class;
+    case INTEGER:
+    case DATE:
+    case TIME:
+      return Integer.class;
+    case BIGINT:
+    case TIMESTAMP:
+      return Long.class;
+    case REAL:
+      return Float.class;
+    case FLOAT:
+    case DOUBLE:
+      return Double.class;
+    case DECIMAL:
+      return BigDecimal.class;
+    case CHAR:
+    case VARCHAR:
+      return String.class;
+    default:
+      return null;
+    }
+  }
+
+  @Override protected RelDataType deriveRowType() {
+    if (rowType == null) {
+      throw new AssertionError("rowType must not be null for " + this);
+    }
+    return rowType;
+  }
+
+  @Override public @Nullable RelOptCost computeSelfCost(RelOptPlanner planner,
+      RelMetadataQuery mq) {
+    double dRows = mq.getRowCount(this);
+
+    // Assume CPU is negligible since values are precomputed.
+    double dCpu = 1;
+    double dIo = 0;
+    return planner.getCostFactory().makeCost(dRows, dCpu, dIo);
+  }
+
+  @Override public double estimateRowCount(RelMetadataQuery mq) {
+    return rows.size();
+  }
+
+  @Override public RelWriter explainTerms(RelWriter pw) {
+    return super.explainTerms(pw)
+        // For rel digest, include the row type since a rendered value
+        // may leave the type ambiguous (e.g. "null").
+        .itemIf("type", getRowType(),
+            pw.getDetailLevel() == SqlExplainLevel.DIGEST_ATTRIBUTES)
+        .item("rows", rows);
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.rel.logical;
+
+import org.apache.calcite.plan.Convention;
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.ColumnarValues;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.runtime.ColumnarRows;
+
+import java.util.List;
+
+/**
+ * Sub-class of {@link org.apache.calcite.rel.core.ColumnarValues}
+ * not targeted at any particular engine or calling convention.
+ */
+public class LogicalColumnarValues extends ColumnarValues {
+  //~ Constructors -----------------------------------------------------------
+
+  /**
+   * Creates a LogicalColumnarValues.
+   *
+   * <p>Use {@link #create} unless you know what you're doing.
+   *
+   * @param cluster  Cluster that this relational expression belongs to
+   * @param traitSet Traits
+   * @param rowType  Row type of the rows
+   * @param rows     Rows
+   */
+  public LogicalColumnarValues(RelOptCluster cluster, RelTraitSet traitSet,
+      RelDataType rowType, ColumnarRows rows) {
+    super(cluster, traitSet, rowType, rows);
+  }
+
+  /** Creates a LogicalColumnarValues. */
+  public static LogicalColumnarValues create(RelOptCluster cluster,
+      RelDataType rowType, ColumnarRows rows) {
+    return new LogicalColumnarValues(cluster,
+        cluster.traitSetOf(Convention.NONE), rowType, rows);
+  }
+
+  @Override public RelNode copy(RelTraitSet traitSet, List<RelNode> inputs) {
+    assert traitSet.containsIfApplicable(Convention.NONE);
+    assert inputs.isEmpty();
+    return new LogicalColumnarValues(getCluster(), traitSet, getRowType(),
+        rows);
+  }
+}
@@ -20,6 +20,7 @@
 import org.apache.calcite.avatica.util.DateTimeUtils;
 import org.apache.calcite.avatica.util.Spaces;
 import org.apache.calcite.avatica.util.TimeUnit;
+import org.apache.calcite.config.CalciteSystemProperty;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.core.AggregateCall;
 import org.apache.calcite.rel.core.CorrelationId;
@@ -126,6 +127,8 @@ public class RexBuilder {
   private final RexLiteral charEmpty;
   private final RexLiteral constantNull;
   private final SqlStdOperatorTable opTab = SqlStdOperatorTable.instance();
+  private final @Nullable RexInterner interner =
+      CalciteSystemProperty.REX_INTERN.value() ? new RexInterner() : null;
 
   //~ Constructors -----------------------------------------------------------
 
@@ -290,7 +293,7 @@ public RexNode makeCall(
       RelDataType returnType,
       SqlOperator op,
       List<RexNode> exprs) {
-    return new RexCall(pos, returnType, op, exprs);
+    return internCall(pos, returnType, op, exprs);
   }
 
   /**
@@ -320,7 +323,18 @@ public RexNode makeCall(
       SqlParserPos pos, SqlOperator op,
       List<? extends RexNode> exprs) {
     final RelDataType type = deriveReturnType(op, exprs);
-    return new RexCall(pos, type, op, exprs);
+    return internCall(pos, type, op, exprs);
+  }
+
+  /** Creates a call, or returns an existing call that has the same operator,
+   * type, position and operands. */
+  private RexCall internCall(SqlParserPos pos, RelDataType type,
+      SqlOperator op, List<? extends RexNode> exprs) {
+    if (interner == null) {
+      return new RexCall(pos, type, op, exprs);
+    }
+    return interner.call(pos, type, op, exprs,
+        () -> new RexCall(pos, type, op, exprs));
   }
 
   /**
@@ -1118,7 +1132,7 @@ public RexNode makeAbstractCast(SqlParserPos pos, RelDataType type, RexNode exp,
     final SqlOperator operator =
         safe ? SqlLibraryOperators.SAFE_CAST
             : SqlStdOperatorTable.CAST;
-    return new RexCall(pos, type, operator, ImmutableList.of(exp));
+    return internCall(pos, type, operator, ImmutableList.of(exp));
   }
 
   /**
@@ -1150,9 +1164,9 @@ public RexNode makeAbstractCast(
         safe ? SqlLibraryOperators.SAFE_CAST
             : SqlStdOperatorTable.CAST;
     if (format.isNull()) {
-      return new RexCall(pos, type, operator, ImmutableList.of(exp));
+      return internCall(pos, type, operator, ImmutableList.of(exp));
     }
-    return new RexCall(pos, type, operator, ImmutableList.of(exp, format));
+    return internCall(pos, type, operator, ImmutableList.of(exp, format));
   }
 
   /**
@@ -1271,8 +1285,12 @@ public RexRangeRef makeRangeReference(
   public RexInputRef makeInputRef(
       RelDataType type,
       int i) {
-    type = SqlTypeUtil.addCharsetAndCollation(type, typeFactory);
-    return new RexInputRef(i, type);
+    final RelDataType type2 =
+        SqlTypeUtil.addCharsetAndCollation(type, typeFactory);
+    if (interner == null) {
+      return new RexInputRef(i, type2);
+    }
+    return interner.inputRef(i, type2, () -> new RexInputRef(i, type2));
   }
 
   /**
@@ -1419,7 +1437,14 @@ protected RexLiteral makeLiteral(
       throw new IllegalArgumentException(
           "Cannot convert " + o + " to " + type  + " due to overflow");
     }
-    return new RexLiteral(o, type, typeName);
+    if (interner == null) {
+      return new RexLiteral(o, type, typeName);
+    }
+    final Comparable o2 = o;
+    final RelDataType type2 = type;
+    final SqlTypeName typeName2 = typeName;
+    return interner.literal(o2, type2, typeName2,
+        () -> new RexLiteral(o2, type2, typeName2));
   }
 
   /**
@@ -1833,6 +1858,7 @@ public RexNode makeIn(RexNode arg, List<? extends RexNode> ranges) {
         }
         final List<RelDataType> types = ranges.stream()
             .map(RexNode::getType)
+            .distinct()
             .collect(Collectors.toList());
         RelDataType sargType =
             requireNonNull(typeFactory.leastRestrictive(types),
@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.rex;
+
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.sql.SqlOperator;
+import org.apache.calcite.sql.parser.SqlParserPos;
+import org.apache.calcite.sql.type.SqlTypeName;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Hash-conses the expressions created by a {@link RexBuilder}, so that
+ * structurally identical calls, input references and literals are the same
+ * object.
+ *
+ * <p>Keys are strict: two calls are the same only if they have the same
+ * operator, type and parser position, and their operands are the same
+ * objects. (Compare {@link RexCall#equals}, which also regards {@code $0 = $1}
+ * and {@code $1 = $0} as equal.) Because operands are themselves interned,
+ * looking up a call costs a few identity comparisons, not a walk of the
+ * expression tree, and equality checks in the planner usually succeed on
+ * reference equality.
+ *
+ * <p>Values are held weakly, so an expression that is no longer used by any
+ * plan can be garbage-collected.
+ *
+ * @see org.apache.calcite.config.CalciteSystemProperty#REX_INTERN
+ */
+final class RexInterner {
+  private final Cache<Object, RexNode> cache =
+      CacheBuilder.newBuilder().weakValues().build();
+
+  /** Returns the canonical call with the given attributes, creating it if
+   * necessary. */
+  RexCall call(SqlParserPos pos, RelDataType type, SqlOperator op,
+      List<? extends RexNode> operands, Supplier<RexCall> factory) {
+    return intern(new CallKey(pos, type, op, operands), factory);
+  }
+
+  /** Returns the canonical input reference with the given attributes,
+   * creating it if necessary. */
+  RexInputRef inputRef(int index, RelDataType type,
+      Supplier<RexInputRef> factory) {
+    return intern(new InputRefKey(index, type), factory);
+  }
+
+  /** Returns the canonical literal with the given attributes, creating it if
+   * necessary. */
+  RexLiteral literal(@Nullable Comparable value, RelDataType type,
+      SqlTypeName typeName, Supplier<RexLiteral> factory) {
+    if (value instanceof List) {
+      // Equality of nested literals ignores their SqlTypeName, so it is not
+      // strict enough to intern on.
+      return factory.get();
+    }
+    return intern(new LiteralKey(value, type, typeName), factory);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <E extends RexNode> E intern(Object key, Supplier<E> factory) {
+    // Not atomic; if two threads race, both get valid (equal) expressions,
+    // and only one of them becomes canonical.
+    E e = (E) cache.getIfPresent(key);
+    if (e == null) {
+      e = factory.get();
+      cache.put(key, e);
+    }
+    return e;
+  }
+
+  /** Key of a {@link RexCall}. Operands are compared by identity. */
+  private static final class CallKey {
+    final SqlParserPos pos;
+    final RelDataType type;
+    final SqlOperator op;
+    final RexNode[] operands;
+    final int hash;
+
+    CallKey(SqlParserPos pos, RelDataType type, SqlOperator op,
+        List<? extends RexNode> operands) {
+      this.pos = pos;
+      this.type = type;
+      this.op = op;
+      this.operands = operands.toArray(new RexNode[0]);
+      int h = Objects.hash(pos, System.identityHashCode(type),
+          System.identityHashCode(op));
+      for (RexNode operand : this.operands) {
+        h = h * 31 + System.identityHashCode(operand);
+      }
+      this.hash = h;
+    }
+
+    @Override public int hashCode() {
+      return hash;
+    }
+
+    @Override public boolean equals(@Nullable Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof CallKey)) {
+        return false;
+      }
+      final CallKey that = (CallKey) obj;
+      if (hash != that.hash
+          || type != that.type
+          || op != that.op
+          || operands.length != that.operands.length
+          || !pos.equals(that.pos)) {
+        return false;
+      }
+      for (int i = 0; i < operands.length; i++) {
+        if (operands[i] != that.operands[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /** Key of a {@link RexInputRef}. */
+  private static final class InputRefKey {
+    final int index;
+    final RelDataType type;
+
+    InputRefKey(int index, RelDataType type) {
+      this.index = index;
+      this.type = type;
+    }
+
+    @Override public int hashCode() {
+      return index * 31 + System.identityHashCode(type);
+    }
+
+    @Override public boolean equals(@Nullable Object obj) {
+      return this == obj
+          || obj instanceof InputRefKey
+          && index == ((InputRefKey) obj).index
+          && type == ((InputRefKey) obj).type;
+    }
+  }
+
+  /** Key of a {@link RexLiteral}. */
+  private static final class LiteralKey {
+    final @Nullable Comparable value;
+    final RelDataType type;
+    final SqlTypeName typeName;
+
+    LiteralKey(@Nullable Comparable value, RelDataType type,
+        SqlTypeName typeName) {
+      this.value = value;
+      this.type = type;
+      this.typeName = typeName;
+    }
+
+    @Override public int hashCode() {
+      return (Objects.hashCode(value) * 31 + System.identityHashCode(type))
+          * 31 + typeName.hashCode();
+    }
+
+    @Override public boolean equals(@Nullable Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof LiteralKey)) {
+        return false;
+      }
+      final LiteralKey that = (LiteralKey) obj;
+      // BigDecimal 1.0 and 1.00 are different; so are Integer 1 and Long 1
+      return type == that.type
+          && typeName == that.typeName
+          && Objects.equals(value, that.value)
+          && valueClass() == that.valueClass();
+    }
+
+    private @Nullable Class<?> valueClass() {
+      return value == null ? null : value.getClass();
+    }
+  }
+}
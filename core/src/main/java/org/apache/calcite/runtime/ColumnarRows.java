@@ -0,0 +1,302 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.runtime;
+
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Linq4j;
+import org.apache.calcite.linq4j.tree.Primitive;
+
+import com.google.common.collect.ImmutableList;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.lang.reflect.Array;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Immutable set of rows stored as one array per column.
+ *
+ * <p>A column whose values have a primitive type, such as {@code int} or
+ * {@code double}, is stored in an array of that primitive type, plus a bit set
+ * that records which rows are null; any other column is stored in an
+ * {@code Object[]}. Values are in Calcite's internal representation; for
+ * example, a {@code DATE} is an {@code int} number of days since the epoch.
+ *
+ * <p>Rows are created only as they are read, so a large data set occupies
+ * little more memory than its column arrays.
+ *
+ * @see org.apache.calcite.rel.core.ColumnarValues
+ */
+public final class ColumnarRows {
+  /** Maximum number of rows printed by {@link #toString()}. */
+  private static final int MAX_PRINTED_ROWS = 5;
+
+  private final int rowCount;
+  private final ImmutableList<Column> columns;
+  private int hash;
+
+  private ColumnarRows(int rowCount, ImmutableList<Column> columns) {
+    this.rowCount = rowCount;
+    this.columns = columns;
+  }
+
+  /** Creates a builder.
+   *
+   * @param columnClasses Java class of each column; a primitive class or its
+   *                      box class causes the column to be stored in a
+   *                      primitive array
+   * @param rowCount      Number of rows
+   */
+  public static Builder builder(List<? extends Class<?>> columnClasses,
+      int rowCount) {
+    return new Builder(columnClasses, rowCount);
+  }
+
+  /** Returns the number of rows. */
+  public int size() {
+    return rowCount;
+  }
+
+  /** Returns the number of columns. */
+  public int columnCount() {
+    return columns.size();
+  }
+
+  /** Returns the value of a given column in a given row. */
+  public @Nullable Object get(int row, int column) {
+    return columns.get(column).get(row);
+  }
+
+  /** Returns a given row as an array. */
+  public @Nullable Object[] row(int row) {
+    final @Nullable Object[] values = new Object[columns.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = columns.get(i).get(row);
+    }
+    return values;
+  }
+
+  /** Returns the rows as arrays, one array per row. */
+  public Enumerable<@Nullable Object[]> arrays() {
+    return Linq4j.asEnumerable(
+        new AbstractList<@Nullable Object[]>() {
+          @Override public @Nullable Object[] get(int index) {
+            return row(index);
+          }
+
+          @Override public int size() {
+            return rowCount;
+          }
+        });
+  }
+
+  /** Returns the values of the first column; for use when there is only
+   * one column, and rows are represented as scalars. */
+  public Enumerable<@Nullable Object> scalars() {
+    final Column column = columns.get(0);
+    return Linq4j.asEnumerable(
+        new AbstractList<@Nullable Object>() {
+          @Override public @Nullable Object get(int index) {
+            return column.get(index);
+          }
+
+          @Override public int size() {
+            return rowCount;
+          }
+        });
+  }
+
+  @Override public int hashCode() {
+    if (hash == 0) {
+      hash = Objects.hash(rowCount, columns);
+    }
+    return hash;
+  }
+
+  @Override public boolean equals(@Nullable Object obj) {
+    return this == obj
+        || obj instanceof ColumnarRows
+        && rowCount == ((ColumnarRows) obj).rowCount
+        && hashCode() == obj.hashCode()
+        && columns.equals(((ColumnarRows) obj).columns);
+  }
+
+  @Override public String toString() {
+    final StringBuilder b = new StringBuilder("[");
+    for (int row = 0; row < Math.min(rowCount, MAX_PRINTED_ROWS); row++) {
+      if (row > 0) {
+        b.append(", ");
+      }
+      b.append("{ ");
+      for (int i = 0; i < columns.size(); i++) {
+        if (i > 0) {
+          b.append(", ");
+        }
+        b.append(columns.get(i).get(row));
+      }
+      b.append(" }");
+    }
+    if (rowCount > MAX_PRINTED_ROWS) {
+      b.append(", ... ").append(rowCount - MAX_PRINTED_ROWS).append(" more");
+    }
+    return b.append("]").toString();
+  }
+
+  /** Column of values. */
+  private static class Column {
+    /** Primitive type of the values, or null if stored as objects. */
+    final @Nullable Primitive primitive;
+    /** Array of values; {@code int[]}, {@code double[]}, etc. if
+     * {@link #primitive} is not null, otherwise {@code Object[]}. */
+    final Object array;
+    /** Rows whose value is null, if {@link #primitive} is not null. */
+    final BitSet nulls;
+
+    Column(@Nullable Primitive primitive, Object array, BitSet nulls) {
+      this.primitive = primitive;
+      this.array = array;
+      this.nulls = nulls;
+    }
+
+    @Nullable Object get(int row) {
+      if (primitive == null) {
+        return ((@Nullable Object[]) array)[row];
+      }
+      if (nulls.get(row)) {
+        return null;
+      }
+      switch (primitive) {
+      case BOOLEAN:
+        return ((boolean[]) array)[row];
+      case BYTE:
+        return ((byte[]) array)[row];
+      case CHAR:
+        return ((char[]) array)[row];
+      case SHORT:
+        return ((short[]) array)[row];
+      case INT:
+        return ((int[]) array)[row];
+      case LONG:
+        return ((long[]) array)[row];
+      case FLOAT:
+        return ((float[]) array)[row];
+      case DOUBLE:
+        return ((double[]) array)[row];
+      default:
+        throw new AssertionError(primitive);
+      }
+    }
+
+    @Override public int hashCode() {
+      return Objects.hash(primitive, nulls) * 31
+          + Arrays.deepHashCode(new Object[] {array});
+    }
+
+    @Override public boolean equals(@Nullable Object obj) {
+      return this == obj
+          || obj instanceof Column
+          && primitive == ((Column) obj).primitive
+          && nulls.equals(((Column) obj).nulls)
+          && Objects.deepEquals(array, ((Column) obj).array);
+    }
+  }
+
+  /** Builder for {@link ColumnarRows}. */
+  public static class Builder {
+    private final int rowCount;
+    private final @Nullable Primitive[] primitives;
+    private final Object[] arrays;
+    private final BitSet[] nulls;
+
+    private Builder(List<? extends Class<?>> columnClasses, int rowCount) {
+      this.rowCount = rowCount;
+      final int n = columnClasses.size();
+      this.primitives = new Primitive[n];
+      this.arrays = new Object[n];
+      this.nulls = new BitSet[n];
+      for (int i = 0; i < n; i++) {
+        Primitive primitive = Primitive.ofBoxOr(columnClasses.get(i));
+        if (primitive == Primitive.VOID || primitive == Primitive.OTHER) {
+          primitive = null;
+        }
+        primitives[i] = primitive;
+        arrays[i] = primitive == null
+            ? new Object[rowCount]
+            : Array.newInstance(primitive.getPrimitiveClass(), rowCount);
+        nulls[i] = new BitSet();
+      }
+    }
+
+    /** Sets the value of a given column in a given row. */
+    public Builder set(int row, int column, @Nullable Object value) {
+      final Object array = arrays[column];
+      final Primitive primitive = primitives[column];
+      if (primitive == null) {
+        ((@Nullable Object[]) array)[row] = value;
+      } else if (value == null) {
+        nulls[column].set(row);
+      } else {
+        switch (primitive) {
+        case BOOLEAN:
+          ((boolean[]) array)[row] = (Boolean) value;
+          break;
+        case BYTE:
+          ((byte[]) array)[row] = ((Number) value).byteValue();
+          break;
+        case CHAR:
+          ((char[]) array)[row] = (Character) value;
+          break;
+        case SHORT:
+          ((short[]) array)[row] = ((Number) value).shortValue();
+          break;
+        case INT:
+          ((int[]) array)[row] = ((Number) value).intValue();
+          break;
+        case LONG:
+          ((long[]) array)[row] = ((Number) value).longValue();
+          break;
+        case FLOAT:
+          ((float[]) array)[row] = ((Number) value).floatValue();
+          break;
+        case DOUBLE:
+          ((double[]) array)[row] = ((Number) value).doubleValue();
+          break;
+        default:
+          throw new AssertionError(primitive);
+        }
+      }
+      return this;
+    }
+
+    /** Creates a ColumnarRows. The builder must not be used afterwards. */
+    public ColumnarRows build() {
+      final ImmutableList.Builder<Column> columns = ImmutableList.builder();
+      for (int i = 0; i < arrays.length; i++) {
+        columns.add(
+            new Column(primitives[i], requireNonNull(arrays[i], "array"),
+                nulls[i]));
+      }
+      return new ColumnarRows(rowCount, columns.build());
+    }
+  }
+}
@@ -20,19 +20,39 @@
 import org.apache.calcite.linq4j.AbstractEnumerable;
 import org.apache.calcite.linq4j.Enumerable;
 import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.function.Function0;
 import org.apache.calcite.linq4j.function.Function1;
+import org.apache.calcite.linq4j.function.Function2;
+import org.apache.calcite.linq4j.function.Predicate2;
+import org.apache.calcite.util.Util;
+
+import com.google.common.collect.ImmutableList;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.index.strtree.STRtree;
 
+import java.io.Serializable;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
+import static org.apache.calcite.linq4j.Nullness.castNonNull;
+
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -125,7 +145,7 @@ public static <E, TKey, TResult> Enumerable<TResult> match(
 
               matcher.matchOne(partitionState.getRows(), partitionState,
                   // TODO 26.12.18 jf: add row states (whatever this is?)
-                  matches -> emitter.emit(matches.rows, null, matches.symbols,
+                  matches -> emitter.emit(matches.rows(), null, matches.symbols(),
                       matchCounter.getAndIncrement(), emitRows::add));
 /*
               recentRows.add(e);
@@ -184,6 +204,744 @@ public static <E, TKey, TResult> Enumerable<TResult> match(
     };
   }
 
+  /** Joins two inputs on a spatial predicate, using an STR-tree index.
+   *
+   * <p>Reads the build input (the left input if {@code buildLeft}, otherwise
+   * the right input) and indexes the envelope of each row's geometry in a
+   * JTS {@link STRtree}. Then, for each row of the other input, queries the
+   * tree with the envelope of that row's geometry, expanded by
+   * {@code distance}, and evaluates {@code predicate} for each candidate.
+   *
+   * <p>The spatial predicate must only hold if the envelopes of the two
+   * geometries, after expansion by {@code distance}, intersect; this is
+   * true for predicates such as {@code ST_Intersects}, {@code ST_Contains}
+   * and {@code ST_DWithin}. Rows whose geometry is null do not match.
+   *
+   * @param left           Left input
+   * @param right          Right input
+   * @param leftGeometry   Returns the geometry of a left row
+   * @param rightGeometry  Returns the geometry of a right row
+   * @param distance       Distance by which to expand envelopes; 0 unless
+   *                       the predicate is {@code ST_DWithin}
+   * @param predicate      Join condition
+   * @param resultSelector Combines a left and a right row
+   * @param buildLeft      Whether to index the left input
+   */
+  public static <TSource, TInner, TResult> Enumerable<TResult> spatialJoin(
+      final Enumerable<TSource> left, final Enumerable<TInner> right,
+      final Function1<TSource, @Nullable Geometry> leftGeometry,
+      final Function1<TInner, @Nullable Geometry> rightGeometry,
+      final double distance,
+      final Predicate2<TSource, TInner> predicate,
+      final Function2<TSource, TInner, TResult> resultSelector,
+      final boolean buildLeft) {
+    return new AbstractEnumerable<TResult>() {
+      @Override public Enumerator<TResult> enumerator() {
+        if (buildLeft) {
+          final STRtree tree = spatialIndex(left, leftGeometry);
+          return spatialProbe(right.enumerator(), rightGeometry, tree, distance,
+              (TInner r, TSource l) -> predicate.apply(l, r),
+              (TInner r, TSource l) -> resultSelector.apply(l, r));
+        } else {
+          final STRtree tree = spatialIndex(right, rightGeometry);
+          return spatialProbe(left.enumerator(), leftGeometry, tree, distance,
+              predicate, resultSelector);
+        }
+      }
+    };
+  }
+
+  /** Returns an enumerator that, for each row of the probe input, queries a
+   * spatial index and returns the rows that match. */
+  private static <P, B, TResult> Enumerator<TResult> spatialProbe(
+      final Enumerator<P> probe,
+      final Function1<P, @Nullable Geometry> probeGeometry,
+      final STRtree tree, final double distance,
+      final Predicate2<P, B> predicate,
+      final Function2<P, B, TResult> resultSelector) {
+    return new Enumerator<TResult>() {
+      @Nullable P probeRow;
+      Iterator<B> candidates = Collections.emptyIterator();
+      @Nullable TResult resultRow;
+
+      @Override public TResult current() {
+        return castNonNull(resultRow);
+      }
+
+      @Override public boolean moveNext() {
+        for (;;) {
+          while (candidates.hasNext()) {
+            final P p = castNonNull(probeRow);
+            final B b = candidates.next();
+            if (predicate.apply(p, b)) {
+              resultRow = resultSelector.apply(p, b);
+              return true;
+            }
+          }
+          if (!probe.moveNext()) {
+            return false;
+          }
+          probeRow = probe.current();
+          candidates =
+              Enumerables.<B>spatialQuery(tree,
+                  probeGeometry.apply(castNonNull(probeRow)), distance)
+                  .iterator();
+        }
+      }
+
+      @Override public void reset() {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override public void close() {
+        probe.close();
+      }
+    };
+  }
+
+  /** Builds an STR-tree of the envelopes of the geometries of the rows of
+   * an input. */
+  private static <E> STRtree spatialIndex(Enumerable<E> input,
+      Function1<E, @Nullable Geometry> geometry) {
+    final STRtree tree = new STRtree();
+    try (Enumerator<E> enumerator = input.enumerator()) {
+      while (enumerator.moveNext()) {
+        final E row = enumerator.current();
+        final Geometry g = geometry.apply(row);
+        if (g != null) {
+          tree.insert(g.getEnvelopeInternal(), row);
+        }
+      }
+    }
+    tree.build();
+    return tree;
+  }
+
+  /** Returns the rows in an STR-tree whose envelope intersects the envelope
+   * of a geometry, expanded by a distance. */
+  @SuppressWarnings("unchecked")
+  private static <E> List<E> spatialQuery(STRtree tree,
+      @Nullable Geometry geometry, double distance) {
+    if (geometry == null) {
+      return ImmutableList.of();
+    }
+    final Envelope envelope = new Envelope(geometry.getEnvelopeInternal());
+    if (distance > 0) {
+      envelope.expandBy(distance);
+    }
+    return tree.query(envelope);
+  }
+
+  /** Groups the rows of a stream, emitting each group as soon as it is
+   * complete.
+   *
+   * <p>One of the grouping keys must be monotonic in the input; its value in a
+   * row is given by {@code progressSelector}. When a row arrives whose
+   * progress is greater than that of an open group, no more rows can arrive
+   * for that group, so it is emitted and its state is released. The groups
+   * that are still open at the end of the input are emitted then. A group
+   * whose progress is null is emitted only at the end of the input.
+   *
+   * <p>If a row arrives late, after its group has been emitted, it opens the
+   * group again, and the group is emitted again when it completes.
+   *
+   * <p>The accumulators of open groups are held in a {@link StateStore}
+   * called {@code stateName}, which is checkpointed each time emitted groups
+   * have been consumed; see {@link StatefulEnumerator}.
+   *
+   * @param <TSource> Row type
+   * @param <TKey> Key type
+   * @param <TAccumulate> Accumulator type
+   * @param <TResult> Result type */
+  public static <TSource, TKey, TAccumulate, TResult> Enumerable<TResult>
+      streamGroupBy(final Enumerable<TSource> source,
+      final Function1<TSource, TKey> keySelector,
+      final Function1<TSource, ?> progressSelector,
+      final Function0<TAccumulate> accumulatorInitializer,
+      final Function2<TAccumulate, TSource, TAccumulate> accumulatorAdder,
+      final Function2<TKey, TAccumulate, TResult> resultSelector,
+      final @Nullable String stateName) {
+    return new AbstractEnumerable<TResult>() {
+      @Override public Enumerator<TResult> enumerator() {
+        return new StreamGroupByEnumerator<>(source.enumerator(), keySelector,
+            progressSelector, accumulatorInitializer, accumulatorAdder,
+            resultSelector,
+            StateStores.create(stateName, classLoader(accumulatorInitializer)));
+      }
+    };
+  }
+
+  /** Returns the class loader of the accumulators created by an
+   * initializer. Accumulators are often instances of generated classes,
+   * which the default class loader cannot find when a state store reads
+   * them back. */
+  private static <TAccumulate> @Nullable ClassLoader classLoader(
+      Function0<TAccumulate> accumulatorInitializer) {
+    final TAccumulate accumulator = accumulatorInitializer.apply();
+    return accumulator == null ? null
+        : accumulator.getClass().getClassLoader();
+  }
+
+  /** Enumerator of an incremental operator that keeps its state in a
+   * {@link StateStore}, and can resume from a checkpoint.
+   *
+   * <p>The source of a resumed execution is read again from its start, and
+   * must return the same rows in the same order as before. The store records,
+   * with each checkpoint, how many input rows its contents reflect; on start,
+   * the enumerator skips that many rows, so that no row is counted twice.
+   *
+   * <p>The enumerator makes a checkpoint after the results that a row caused
+   * to be emitted have been consumed, and before it reads the next row. If
+   * an execution fails, its successor emits again any results emitted since
+   * the last checkpoint, but no result is lost.
+   *
+   * @param <TSource> Row type
+   * @param <TResult> Result type */
+  private abstract static class StatefulEnumerator<TSource, TResult>
+      implements Enumerator<TResult> {
+    private final Enumerator<TSource> input;
+    private final StateStore<?, ?> store;
+    /** Results that have been emitted but not yet consumed. */
+    protected final Deque<TResult> pending = new ArrayDeque<>();
+    private @Nullable TResult current;
+    /** Number of input rows consumed; -1 before the first call to
+     * {@link #moveNext()}. */
+    private long consumed = -1;
+    private boolean checkpointDue;
+    private boolean done;
+
+    StatefulEnumerator(Enumerator<TSource> input, StateStore<?, ?> store) {
+      this.input = input;
+      this.store = store;
+    }
+
+    /** Adds a row to the state; returns whether results were emitted. */
+    protected abstract boolean add(TSource row);
+
+    /** Emits the results that are still open at the end of the input. */
+    protected abstract void finish();
+
+    @Override public TResult current() {
+      return castNonNull(current);
+    }
+
+    @Override public boolean moveNext() {
+      for (;;) {
+        if (!pending.isEmpty()) {
+          current = pending.remove();
+          return true;
+        }
+        if (checkpointDue) {
+          store.checkpoint(consumed);
+          checkpointDue = false;
+        }
+        if (done) {
+          return false;
+        }
+        if (consumed < 0) {
+          // Skip the rows that the restored state already reflects.
+          consumed = 0;
+          final long sourceOffset = store.sourceOffset();
+          while (consumed < sourceOffset && input.moveNext()) {
+            ++consumed;
+          }
+        }
+        if (!input.moveNext()) {
+          done = true;
+          finish();
+          checkpointDue = true;
+          continue;
+        }
+        ++consumed;
+        if (add(input.current())) {
+          checkpointDue = true;
+        }
+      }
+    }
+
+    @Override public void reset() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override public void close() {
+      try {
+        input.close();
+      } finally {
+        store.close();
+      }
+    }
+  }
+
+  /** State of an open group in {@link #streamGroupBy}.
+   *
+   * @param <TAccumulate> Accumulator type */
+  private static class StreamGroup<TAccumulate> implements Serializable {
+    final @Nullable Comparable progress;
+    TAccumulate accumulator;
+
+    StreamGroup(@Nullable Comparable progress, TAccumulate accumulator) {
+      this.progress = progress;
+      this.accumulator = accumulator;
+    }
+  }
+
+  /** Enumerator that implements {@link #streamGroupBy}.
+   *
+   * @param <TSource> Row type
+   * @param <TKey> Key type
+   * @param <TAccumulate> Accumulator type
+   * @param <TResult> Result type */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private static class StreamGroupByEnumerator<TSource, TKey, TAccumulate,
+      TResult> extends StatefulEnumerator<TSource, TResult> {
+    private final Function1<TSource, TKey> keySelector;
+    private final Function1<TSource, ?> progressSelector;
+    private final Function0<TAccumulate> accumulatorInitializer;
+    private final Function2<TAccumulate, TSource, TAccumulate> accumulatorAdder;
+    private final Function2<TKey, TAccumulate, TResult> resultSelector;
+    private final StateStore<TKey, StreamGroup<TAccumulate>> store;
+    /** Keys of open groups, indexed by progress. */
+    private final TreeMap<Comparable, Set<TKey>> open = new TreeMap<>();
+    /** Keys of open groups whose progress is null. */
+    private final Set<TKey> openNull = new LinkedHashSet<>();
+
+    StreamGroupByEnumerator(Enumerator<TSource> input,
+        Function1<TSource, TKey> keySelector,
+        Function1<TSource, ?> progressSelector,
+        Function0<TAccumulate> accumulatorInitializer,
+        Function2<TAccumulate, TSource, TAccumulate> accumulatorAdder,
+        Function2<TKey, TAccumulate, TResult> resultSelector,
+        StateStore<TKey, StreamGroup<TAccumulate>> store) {
+      super(input, store);
+      this.keySelector = keySelector;
+      this.progressSelector = progressSelector;
+      this.accumulatorInitializer = accumulatorInitializer;
+      this.accumulatorAdder = accumulatorAdder;
+      this.resultSelector = resultSelector;
+      this.store = store;
+      // Groups restored from a checkpoint are open; index them.
+      for (TKey key : store.keys()) {
+        index(key, requireNonNull(store.get(key), "group").progress);
+      }
+    }
+
+    private void index(TKey key, @Nullable Comparable progress) {
+      if (progress == null) {
+        openNull.add(key);
+      } else {
+        open.computeIfAbsent(progress, p -> new LinkedHashSet<>()).add(key);
+      }
+    }
+
+    @Override protected boolean add(TSource row) {
+      final Comparable progress = (Comparable) progressSelector.apply(row);
+      boolean emitted = false;
+      if (progress != null) {
+        final NavigableMap<Comparable, Set<TKey>> complete =
+            open.headMap(progress, false);
+        if (!complete.isEmpty()) {
+          emit(complete);
+          emitted = true;
+        }
+      }
+      final TKey key = keySelector.apply(row);
+      StreamGroup<TAccumulate> group = store.get(key);
+      if (group == null) {
+        group = new StreamGroup<>(progress, accumulatorInitializer.apply());
+        index(key, progress);
+      }
+      group.accumulator = accumulatorAdder.apply(group.accumulator, row);
+      store.put(key, group);
+      return emitted;
+    }
+
+    @Override protected void finish() {
+      emit(open);
+      emit(openNull);
+    }
+
+    /** Emits the groups in a range of the index, and removes them. */
+    private void emit(Map<Comparable, Set<TKey>> groups) {
+      for (Set<TKey> keys : groups.values()) {
+        emit(keys);
+      }
+      groups.clear();
+    }
+
+    /** Emits a set of groups, and removes them. */
+    private void emit(Set<TKey> keys) {
+      for (TKey key : keys) {
+        final StreamGroup<TAccumulate> group =
+            requireNonNull(store.remove(key), "group");
+        pending.add(resultSelector.apply(key, group.accumulator));
+      }
+      keys.clear();
+    }
+  }
+
+  /** Type of window in {@link #groupWindowAggregate}. */
+  public enum GroupWindowType {
+    /** Fixed-size windows that do not overlap; {@code TUMBLE}. */
+    TUMBLE,
+    /** Fixed-size windows that start at regular intervals, and may overlap;
+     * {@code HOP}. */
+    HOP,
+    /** Windows that extend while rows for the same key arrive less than a
+     * given gap apart; {@code SESSION}. */
+    SESSION
+  }
+
+  /** Aggregates the rows of a stream into event-time windows, emitting each
+   * window once it can receive no more rows.
+   *
+   * <p>The window of a row is determined by its time
+   * ({@code timeSelector}), which is the value of one of the grouping keys;
+   * in the key of each result, that value is replaced by the start of the
+   * window.
+   *
+   * <ul>
+   * <li>{@link GroupWindowType#TUMBLE}: windows of length {@code size} that
+   * start at {@code offset} plus a multiple of {@code size};
+   * <li>{@link GroupWindowType#HOP}: windows of length {@code size} that
+   * start at {@code offset} plus a multiple of {@code slide}; a row belongs
+   * to each window that contains its time;
+   * <li>{@link GroupWindowType#SESSION}: for each value of the other keys,
+   * windows that contain rows less than {@code size} apart, and end
+   * {@code size} after the last row.
+   * </ul>
+   *
+   * <p>The watermark is the greatest time seen so far minus
+   * {@code allowedLateness}. A window is emitted, and its state released,
+   * when the watermark reaches its end. Rows may arrive out of order, but a
+   * row that would fall only into windows that have already been emitted is
+   * dropped. Windows of rows whose time is null are emitted at the end of
+   * the input.
+   *
+   * <p>A row that arrives out of order may join two session windows; their
+   * accumulators are then combined using {@code accumulatorCombiner}. If it
+   * is null, such a row is dropped, as if it were late. (With
+   * {@code allowedLateness} 0, rows never arrive out of order.)
+   *
+   * <p>The state of open windows is held in a {@link StateStore} called
+   * {@code stateName}, and is checkpointed each time emitted windows have
+   * been consumed; see {@link StatefulEnumerator}.
+   *
+   * @param source Input rows
+   * @param keySelector Key of each row, including its time
+   * @param timeSelector Time of each row, in milliseconds
+   * @param keyOrdinal Position of the time in the key
+   * @param keyCount Number of fields in the key; if 1, the key is the time,
+   *                 otherwise the key is a list
+   * @param type Type of window
+   * @param size Length of each window, or the session gap, in milliseconds
+   * @param slide Interval between the start of windows, in milliseconds
+   * @param offset Alignment of windows, in milliseconds
+   * @param allowedLateness How far, in milliseconds, behind the greatest
+   *                        time seen so far a row can arrive and still be
+   *                        included
+   * @param accumulatorInitializer Creates an accumulator
+   * @param accumulatorAdder Adds a row to an accumulator
+   * @param resultSelector Converts a key and an accumulator to a result
+   * @param accumulatorCombiner Adds the contents of the second accumulator to
+   *                            the first, or null
+   * @param stateName Name of the state store, or null if the state is not
+   *                  persistent
+   *
+   * @param <TSource> Row type
+   * @param <TKey> Key type
+   * @param <TAccumulate> Accumulator type
+   * @param <TResult> Result type
+   */
+  public static <TSource, TKey, TAccumulate, TResult> Enumerable<TResult>
+      groupWindowAggregate(final Enumerable<TSource> source,
+      final Function1<TSource, TKey> keySelector,
+      final Function1<TSource, ?> timeSelector, final int keyOrdinal,
+      final int keyCount, final GroupWindowType type, final long size,
+      final long slide, final long offset, final long allowedLateness,
+      final Function0<TAccumulate> accumulatorInitializer,
+      final Function2<TAccumulate, TSource, TAccumulate> accumulatorAdder,
+      final Function2<TKey, TAccumulate, TResult> resultSelector,
+      final @Nullable Function2<TAccumulate, TAccumulate, TAccumulate>
+          accumulatorCombiner,
+      final @Nullable String stateName) {
+    return new AbstractEnumerable<TResult>() {
+      @Override public Enumerator<TResult> enumerator() {
+        return new GroupWindowEnumerator<>(source.enumerator(), keySelector,
+            timeSelector, keyOrdinal, keyCount, type, size, slide, offset,
+            allowedLateness, accumulatorInitializer, accumulatorAdder,
+            resultSelector, accumulatorCombiner,
+            StateStores.create(stateName, classLoader(accumulatorInitializer)));
+      }
+    };
+  }
+
+  /** Open window in {@link #groupWindowAggregate}.
+   *
+   * @param <TAccumulate> Accumulator type */
+  private static class Pane<TAccumulate> implements Serializable {
+    /** Start of the window; null for the window of rows whose time is
+     * null. */
+    @Nullable Long start;
+    /** End of the window (exclusive). */
+    long end;
+    TAccumulate accumulator;
+
+    Pane(@Nullable Long start, long end, TAccumulate accumulator) {
+      this.start = start;
+      this.end = end;
+      this.accumulator = accumulator;
+    }
+  }
+
+  /** Enumerator that implements {@link #groupWindowAggregate}.
+   *
+   * <p>The state store maps each partition (the key without its time) to
+   * its open windows.
+   *
+   * @param <TSource> Row type
+   * @param <TKey> Key type
+   * @param <TAccumulate> Accumulator type
+   * @param <TResult> Result type */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private static class GroupWindowEnumerator<TSource, TKey, TAccumulate,
+      TResult> extends StatefulEnumerator<TSource, TResult> {
+    private final Function1<TSource, TKey> keySelector;
+    private final Function1<TSource, ?> timeSelector;
+    private final int keyOrdinal;
+    private final int keyCount;
+    private final GroupWindowType type;
+    private final long size;
+    private final long slide;
+    private final long offset;
+    private final long allowedLateness;
+    private final Function0<TAccumulate> accumulatorInitializer;
+    private final Function2<TAccumulate, TSource, TAccumulate> accumulatorAdder;
+    private final Function2<TKey, TAccumulate, TResult> resultSelector;
+    private final @Nullable Function2<TAccumulate, TAccumulate, TAccumulate>
+        accumulatorCombiner;
+    private final StateStore<List<Object>,
+        ArrayList<Pane<TAccumulate>>> store;
+    /** Partitions that have a window ending at a given time. An entry may be
+     * stale, if the window has since been extended or merged. */
+    private final TreeMap<Long, Set<List<Object>>> ends = new TreeMap<>();
+    private long maxTime = Long.MIN_VALUE;
+
+    GroupWindowEnumerator(Enumerator<TSource> input,
+        Function1<TSource, TKey> keySelector,
+        Function1<TSource, ?> timeSelector, int keyOrdinal, int keyCount,
+        GroupWindowType type, long size, long slide, long offset,
+        long allowedLateness, Function0<TAccumulate> accumulatorInitializer,
+        Function2<TAccumulate, TSource, TAccumulate> accumulatorAdder,
+        Function2<TKey, TAccumulate, TResult> resultSelector,
+        @Nullable Function2<TAccumulate, TAccumulate, TAccumulate>
+            accumulatorCombiner,
+        StateStore<List<Object>, ArrayList<Pane<TAccumulate>>> store) {
+      super(input, store);
+      this.keySelector = keySelector;
+      this.timeSelector = timeSelector;
+      this.keyOrdinal = keyOrdinal;
+      this.keyCount = keyCount;
+      this.type = type;
+      this.size = size;
+      this.slide = slide;
+      this.offset = offset;
+      this.allowedLateness = allowedLateness;
+      this.accumulatorInitializer = accumulatorInitializer;
+      this.accumulatorAdder = accumulatorAdder;
+      this.resultSelector = resultSelector;
+      this.accumulatorCombiner = accumulatorCombiner;
+      this.store = store;
+      // Windows restored from a checkpoint are open; index them.
+      for (List<Object> partition : store.keys()) {
+        for (Pane<TAccumulate> pane
+            : requireNonNull(store.get(partition), "panes")) {
+          index(partition, pane.end);
+        }
+      }
+    }
+
+    private void index(List<Object> partition, long end) {
+      ends.computeIfAbsent(end, e -> new LinkedHashSet<>()).add(partition);
+    }
+
+    private long watermark() {
+      return maxTime == Long.MIN_VALUE ? Long.MIN_VALUE
+          : maxTime - allowedLateness;
+    }
+
+    @Override protected boolean add(TSource row) {
+      final Number time = (Number) timeSelector.apply(row);
+      if (time != null) {
+        maxTime = Math.max(maxTime, time.longValue());
+      }
+      add(row, time == null ? null : time.longValue());
+      return emit(watermark());
+    }
+
+    @Override protected void finish() {
+      emit(Long.MAX_VALUE);
+    }
+
+    /** Adds a row to each of its windows, opening windows as necessary. */
+    private void add(TSource row, @Nullable Long time) {
+      final List<Object> partition = partition(keySelector.apply(row));
+      ArrayList<Pane<TAccumulate>> panes = store.get(partition);
+      if (panes == null) {
+        panes = new ArrayList<>();
+      }
+      final int paneCount = panes.size();
+      final long watermark = watermark();
+      if (time == null) {
+        addToPane(partition, panes, null, Long.MAX_VALUE, row);
+      } else {
+        switch (type) {
+        case TUMBLE:
+          final long start = time - Math.floorMod(time - offset, size);
+          if (start + size > watermark) {
+            addToPane(partition, panes, start, start + size, row);
+          }
+          break;
+        case HOP:
+          for (long s = time - Math.floorMod(time - offset, slide);
+               s > time - size;
+               s -= slide) {
+            if (s + size > watermark) {
+              addToPane(partition, panes, s, s + size, row);
+            }
+          }
+          break;
+        case SESSION:
+          addToSession(partition, panes, time, row);
+          break;
+        default:
+          throw new AssertionError(type);
+        }
+      }
+      if (!panes.isEmpty() || paneCount > 0) {
+        store.put(partition, panes);
+      }
+    }
+
+    private void addToPane(List<Object> partition,
+        List<Pane<TAccumulate>> panes, @Nullable Long start,
+        long end, TSource row) {
+      for (Pane<TAccumulate> pane : panes) {
+        if (Objects.equals(pane.start, start)) {
+          pane.accumulator =
+              accumulatorAdder.apply(pane.accumulator, row);
+          return;
+        }
+      }
+      panes.add(
+          new Pane<>(start, end,
+              accumulatorAdder.apply(accumulatorInitializer.apply(), row)));
+      index(partition, end);
+    }
+
+    private void addToSession(List<Object> partition,
+        List<Pane<TAccumulate>> panes, long time, TSource row) {
+      // Find the open sessions that the row's interval [time, time + gap)
+      // overlaps.
+      final List<Pane<TAccumulate>> overlapping = new ArrayList<>();
+      for (Pane<TAccumulate> pane : panes) {
+        if (pane.start != null && pane.start < time + size
+            && time < pane.end) {
+          overlapping.add(pane);
+        }
+      }
+      if (overlapping.isEmpty()) {
+        if (time + size <= watermark()) {
+          return; // too late
+        }
+        panes.add(
+            new Pane<>(time, time + size,
+                accumulatorAdder.apply(accumulatorInitializer.apply(), row)));
+        index(partition, time + size);
+        return;
+      }
+      if (overlapping.size() > 1 && accumulatorCombiner == null) {
+        // The row would join sessions whose accumulators cannot be
+        // combined; drop it, as if it were late.
+        return;
+      }
+      final Pane<TAccumulate> pane = overlapping.get(0);
+      for (Pane<TAccumulate> other : Util.skip(overlapping)) {
+        panes.remove(other);
+        pane.start = Math.min(requireNonNull(pane.start, "start"),
+            requireNonNull(other.start, "start"));
+        pane.end = Math.max(pane.end, other.end);
+        pane.accumulator =
+            requireNonNull(accumulatorCombiner, "accumulatorCombiner")
+                .apply(pane.accumulator, other.accumulator);
+      }
+      pane.start = Math.min(requireNonNull(pane.start, "start"), time);
+      pane.end = Math.max(pane.end, time + size);
+      pane.accumulator = accumulatorAdder.apply(pane.accumulator, row);
+      index(partition, pane.end);
+    }
+
+    /** Emits, in order of their end, the windows that end at or before a
+     * given time, and releases their state. Returns whether any windows were
+     * emitted. */
+    private boolean emit(long watermark) {
+      final NavigableMap<Long, Set<List<Object>>> complete =
+          ends.headMap(watermark, true);
+      if (complete.isEmpty()) {
+        return false;
+      }
+      boolean emitted = false;
+      for (Map.Entry<Long, Set<List<Object>>> entry : complete.entrySet()) {
+        final long end = entry.getKey();
+        for (List<Object> partition : entry.getValue()) {
+          final ArrayList<Pane<TAccumulate>> panes =
+              store.get(partition);
+          if (panes == null) {
+            continue;
+          }
+          final int paneCount = panes.size();
+          for (Iterator<Pane<TAccumulate>> iterator =
+               panes.iterator(); iterator.hasNext();) {
+            final Pane<TAccumulate> pane = iterator.next();
+            if (pane.end == end) {
+              pending.add(
+                  resultSelector.apply(key(partition, pane.start),
+                      pane.accumulator));
+              iterator.remove();
+            }
+          }
+          if (panes.isEmpty()) {
+            store.remove(partition);
+          } else if (panes.size() < paneCount) {
+            store.put(partition, panes);
+          }
+          emitted |= panes.size() < paneCount;
+        }
+      }
+      complete.clear();
+      return emitted;
+    }
+
+    /** Returns the key without its time. */
+    private List<Object> partition(TKey key) {
+      if (keyCount == 1) {
+        return ImmutableList.of();
+      }
+      final List<Object> partition = new ArrayList<>((List<Object>) key);
+      partition.set(keyOrdinal, null);
+      return partition;
+    }
+
+    /** Returns the key of a window. */
+    private TKey key(List<Object> partition, @Nullable Long start) {
+      if (keyCount == 1) {
+        return (TKey) start;
+      }
+      final List<Object> key = new ArrayList<>(partition);
+      key.set(keyOrdinal, start);
+      return (TKey) FlatLists.ofComparable((List) key);
+    }
+  }
+
   /** Given a match (a list of rows, and their states) produces a list
    * of rows to be output.
    *
@@ -25,6 +25,7 @@
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.checker.nullness.qual.PolyNull;
 
+import java.io.Serializable;
 import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -281,10 +282,13 @@ public static <K extends Object, V extends Object> ImmutableMap<K, V> append(
   }
 
   /** Base class for flat lists.
+   *
+   * <p>Flat lists are serializable (if their elements are) so that they can
+   * be used as keys in a {@link StateStore}.
    *
    * @param <T> element type */
   public abstract static class AbstractFlatList<T>
-      extends AbstractImmutableList<T> implements RandomAccess {
+      extends AbstractImmutableList<T> implements RandomAccess, Serializable {
     @Override protected final List<T> toList() {
       //noinspection unchecked
       return Arrays.asList((T[]) toArray());
@@ -1309,7 +1313,7 @@ private ComparableEmptyList() {
    * @param <T> element type */
   static class ComparableListImpl<T extends Comparable<T>>
       extends AbstractList<T>
-      implements ComparableList<T> {
+      implements ComparableList<T>, Serializable {
     private final List<T> list;
 
     protected ComparableListImpl(List<T> list) {
@@ -66,6 +66,18 @@ public enum Hook {
    * Janino. */
   JAVA_PLAN,
 
+  /** Called with a holder of the directory in which stateful streaming
+   * operators persist their state, initially the value of
+   * {@link org.apache.calcite.config.CalciteSystemProperty#STREAM_STATE_DIRECTORY}.
+   * Use this to change the directory in tests. */
+  STREAM_STATE_DIRECTORY,
+
+  /** Called with the name and size of each method in the code compiled by
+   * Janino whose bytecode is larger than
+   * {@link org.apache.calcite.config.CalciteSystemProperty#GENERATED_METHOD_MAX_SIZE},
+   * as a {@link org.apache.calcite.util.Pair}. */
+  OVERSIZED_METHOD,
+
   /** Called before SqlToRelConverter is built. */
   SQL2REL_CONVERTER_CONFIG_BUILDER,
 
@@ -88,6 +100,11 @@ public enum Hook {
   /** Called to create a Program to optimize the statement. */
   PROGRAM,
 
+  /** Called with a {@link org.apache.calcite.plan.volcano.VolcanoPlanner.Limit}
+   * when the planner has stopped exploring early because it exceeded that
+   * limit, and the statement will use the best plan found so far. */
+  PLANNER_LIMIT,
+
   /** Called when materialization is created. */
   CREATE_MATERIALIZATION,
 
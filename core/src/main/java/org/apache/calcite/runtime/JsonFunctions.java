@@ -25,12 +25,16 @@
 import org.apache.calcite.util.Util;
 
 import com.fasterxml.jackson.annotation.JsonValue;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.PrettyPrinter;
 import com.fasterxml.jackson.core.util.DefaultIndenter;
 import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
 import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.InvalidPathException;
@@ -43,6 +47,7 @@
 import org.checkerframework.checker.nullness.qual.EnsuresNonNullIf;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -74,10 +79,34 @@ public class JsonFunctions {
       Pattern.compile("^\\s*(?<mode>strict|lax)\\s+(?<spec>.+)$",
           Pattern.CASE_INSENSITIVE | Pattern.DOTALL | Pattern.MULTILINE);
 
+  /** Path that consists of object keys and array indexes, such as
+   * {@code $.a['b'][0]}. */
+  private static final Pattern JSON_SIMPLE_PATH =
+      Pattern.compile("\\$(\\.[A-Za-z_][A-Za-z0-9_]*|\\['[^'\\\\,]*'\\]"
+          + "|\\[[0-9]{1,9}\\])+");
+
+  private static final Pattern JSON_SIMPLE_PATH_STEP =
+      Pattern.compile("\\.([A-Za-z_][A-Za-z0-9_]*)|\\['([^']*)'\\]"
+          + "|\\[([0-9]+)\\]");
+
   private static final JacksonJsonProvider JSON_PATH_JSON_PROVIDER =
       new JacksonJsonProvider();
   private static final MappingProvider JSON_PATH_MAPPING_PROVIDER =
       new JacksonMappingProvider();
+  private static final Configuration STRICT_CONFIGURATION =
+      Configuration.builder()
+          .jsonProvider(JSON_PATH_JSON_PROVIDER)
+          .mappingProvider(JSON_PATH_MAPPING_PROVIDER)
+          .build();
+  private static final Configuration LAX_CONFIGURATION =
+      Configuration.builder()
+          .options(Option.SUPPRESS_EXCEPTIONS)
+          .jsonProvider(JSON_PATH_JSON_PROVIDER)
+          .mappingProvider(JSON_PATH_MAPPING_PROVIDER)
+          .build();
+
+  /** Returned by {@link #jsonReadStreaming} if it cannot evaluate a path. */
+  private static final Object NO_RESULT = new Object();
   private static final PrettyPrinter JSON_PRETTY_PRINTER =
       new DefaultPrettyPrinter().withObjectIndenter(
           DefaultIndenter.SYSTEM_LINEFEED_INSTANCE.withLinefeed("\n"));
@@ -126,56 +155,199 @@ public static JsonPathContext jsonApiCommonSyntax(String input, String pathSpec)
   }
 
   public static JsonPathContext jsonApiCommonSyntax(JsonValueContext input, String pathSpec) {
-    PathMode mode;
-    String pathStr;
+    return jsonApiCommonSyntax(input, JsonPathSpec.of(pathSpec));
+  }
+
+  private static JsonPathContext jsonApiCommonSyntax(JsonValueContext input,
+      JsonPathSpec spec) {
     try {
-      Matcher matcher = JSON_PATH_BASE.matcher(pathSpec);
-      if (!matcher.matches()) {
-        mode = PathMode.STRICT;
-        pathStr = pathSpec;
-      } else {
-        mode = PathMode.valueOf(castNonNull(matcher.group(1)).toUpperCase(Locale.ROOT));
-        pathStr = castNonNull(matcher.group(2));
-      }
-      DocumentContext ctx;
-      switch (mode) {
+      final Configuration configuration;
+      switch (spec.mode) {
       case STRICT:
         if (input.hasException()) {
-          return JsonPathContext.withStrictException(pathSpec,
+          return JsonPathContext.withStrictException(spec.pathSpec,
               requireNonNull(input.exc));
         }
-        ctx =
-            JsonPath.parse(input.obj(),
-                Configuration.builder()
-                    .jsonProvider(JSON_PATH_JSON_PROVIDER)
-                    .mappingProvider(JSON_PATH_MAPPING_PROVIDER)
-                    .build());
+        configuration = STRICT_CONFIGURATION;
         break;
       case LAX:
         if (input.hasException()) {
           return JsonPathContext.withJavaObj(PathMode.LAX, null);
         }
-        ctx =
-            JsonPath.parse(input.obj(),
-                Configuration.builder()
-                    .options(Option.SUPPRESS_EXCEPTIONS)
-                    .jsonProvider(JSON_PATH_JSON_PROVIDER)
-                    .mappingProvider(JSON_PATH_MAPPING_PROVIDER)
-                    .build());
+        configuration = LAX_CONFIGURATION;
         break;
       default:
-        throw RESOURCE.illegalJsonPathModeInPathSpec(mode.toString(), pathSpec).ex();
+        throw RESOURCE.illegalJsonPathModeInPathSpec(spec.mode.toString(),
+            spec.pathSpec).ex();
       }
+      final DocumentContext ctx = JsonPath.parse(input.obj(), configuration);
       try {
-        return JsonPathContext.withJavaObj(mode, ctx.read(pathStr));
+        return JsonPathContext.withJavaObj(spec.mode, ctx.read(spec.path()));
       } catch (Exception e) {
-        return JsonPathContext.withStrictException(pathSpec, e);
+        return JsonPathContext.withStrictException(spec.pathSpec, e);
       }
     } catch (Exception e) {
       return JsonPathContext.withUnknownException(e);
     }
   }
 
+  /** Evaluates a simple path by reading tokens of a JSON document, without
+   * building objects for the parts of the document that are not on the path.
+   *
+   * <p>Returns {@link #NO_RESULT} if the document does not contain the path,
+   * is invalid, or contains a duplicate key on the path; in those cases the
+   * caller should parse the document and evaluate the path as usual, so that
+   * results and errors are exactly the same.
+   *
+   * @param input Document
+   * @param steps Steps of the path; each is a {@link String} (an object key)
+   *              or an {@link Integer} (an array index)
+   */
+  static @Nullable Object jsonReadStreaming(String input, List<Object> steps) {
+    final ObjectMapper mapper = JSON_PATH_JSON_PROVIDER.getObjectMapper();
+    try (JsonParser parser = mapper.getFactory().createParser(input)) {
+      JsonToken token = parser.nextToken();
+      for (Object step : steps) {
+        if (step instanceof String) {
+          if (token != JsonToken.START_OBJECT) {
+            return NO_RESULT;
+          }
+          for (;;) {
+            if (parser.nextToken() != JsonToken.FIELD_NAME) {
+              return NO_RESULT;
+            }
+            final String name = parser.currentName();
+            token = parser.nextToken();
+            if (step.equals(name)) {
+              break;
+            }
+            parser.skipChildren();
+          }
+        } else {
+          if (token != JsonToken.START_ARRAY) {
+            return NO_RESULT;
+          }
+          final int index = (Integer) step;
+          for (int i = 0;; i++) {
+            token = parser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) {
+              return NO_RESULT;
+            }
+            if (i == index) {
+              break;
+            }
+            parser.skipChildren();
+          }
+        }
+      }
+      final Object value = mapper.readValue(parser, Object.class);
+
+      // Read the rest of the document, to check that it is valid, and that
+      // no object on the path has a later duplicate of the key we followed
+      // (when the document is parsed, the last duplicate wins)
+      for (int level = steps.size(); level > 0;) {
+        token = parser.nextToken();
+        if (token == null) {
+          return NO_RESULT;
+        }
+        switch (token) {
+        case END_OBJECT:
+        case END_ARRAY:
+          --level;
+          break;
+        case FIELD_NAME:
+          if (steps.get(level - 1).equals(parser.currentName())) {
+            return NO_RESULT;
+          }
+          break;
+        case START_OBJECT:
+        case START_ARRAY:
+          parser.skipChildren();
+          break;
+        default:
+          break;
+        }
+      }
+      return value;
+    } catch (IOException | RuntimeException e) {
+      return NO_RESULT;
+    }
+  }
+
+  /** A path specification, such as {@code lax $.a.b[0]}, parsed once. */
+  private static final class JsonPathSpec {
+    private static final LoadingCache<String, JsonPathSpec> CACHE =
+        CacheBuilder.newBuilder()
+            .maximumSize(FUNCTION_LEVEL_CACHE_MAX_SIZE.value())
+            .build(CacheLoader.from(JsonPathSpec::new));
+
+    final String pathSpec;
+    final PathMode mode;
+    private final @Nullable JsonPath path;
+    private final @Nullable RuntimeException pathException;
+    /** Steps of the path, if it is simple enough to be evaluated by
+     * {@link #jsonReadStreaming}, otherwise null. */
+    final @Nullable List<Object> steps;
+
+    private JsonPathSpec(String pathSpec) {
+      this.pathSpec = pathSpec;
+      final String pathStr;
+      final Matcher matcher = JSON_PATH_BASE.matcher(pathSpec);
+      if (!matcher.matches()) {
+        mode = PathMode.STRICT;
+        pathStr = pathSpec;
+      } else {
+        mode =
+            PathMode.valueOf(castNonNull(matcher.group(1))
+                .toUpperCase(Locale.ROOT));
+        pathStr = castNonNull(matcher.group(2));
+      }
+      JsonPath path;
+      RuntimeException pathException;
+      try {
+        path = JsonPath.compile(pathStr);
+        pathException = null;
+      } catch (RuntimeException e) {
+        path = null;
+        pathException = e;
+      }
+      this.path = path;
+      this.pathException = pathException;
+      this.steps = path == null ? null : steps(pathStr);
+    }
+
+    static JsonPathSpec of(String pathSpec) {
+      return CACHE.getUnchecked(pathSpec);
+    }
+
+    /** Returns the compiled path; throws if the path is invalid. */
+    JsonPath path() {
+      if (path == null) {
+        throw requireNonNull(pathException, "pathException");
+      }
+      return path;
+    }
+
+    /** Returns the steps of a path such as {@code $.a['b'][0]}, or null if
+     * the path has other elements, such as wildcards or filters. */
+    private static @Nullable List<Object> steps(String pathStr) {
+      if (!JSON_SIMPLE_PATH.matcher(pathStr).matches()) {
+        return null;
+      }
+      final List<Object> steps = new ArrayList<>();
+      final Matcher matcher = JSON_SIMPLE_PATH_STEP.matcher(pathStr);
+      while (matcher.find()) {
+        if (matcher.group(1) != null) {
+          steps.add(matcher.group(1));
+        } else if (matcher.group(2) != null) {
+          steps.add(matcher.group(2));
+        } else {
+          steps.add(Integer.valueOf(castNonNull(matcher.group(3))));
+        }
+      }
+      return ImmutableList.copyOf(steps);
+    }
+  }
 
   /** State for {@code JSON_EXISTS}, {@code JSON_VALUE}, {@code JSON_QUERY}.
    *
@@ -188,9 +360,44 @@ public static class StatefulFunction {
             .maximumSize(FUNCTION_LEVEL_CACHE_MAX_SIZE.value())
             .build(CacheLoader.from(JsonFunctions::jsonValueExpression));
 
+    /** The most recently parsed document. Several functions are often
+     * applied to the same column of a row, so this avoids a cache lookup. */
+    private @Nullable ParsedDocument last;
+
+    /** The most recent document that was read without being parsed. */
+    private @Nullable String lastStreamed;
+
     public JsonPathContext jsonApiCommonSyntaxWithCache(String input,
         String pathSpec) {
-      return jsonApiCommonSyntax(cache.getUnchecked(input), pathSpec);
+      final JsonPathSpec spec = JsonPathSpec.of(pathSpec);
+      ParsedDocument document = last;
+      if (document == null || document.input != input) {
+        final List<Object> steps = spec.steps;
+        if (steps != null && input != lastStreamed) {
+          // The first time we see a document, read just the value we need;
+          // if another function needs the same document, parse it
+          lastStreamed = input;
+          final Object value = jsonReadStreaming(input, steps);
+          if (value != NO_RESULT
+              && (value != null || spec.mode != PathMode.STRICT)) {
+            return JsonPathContext.withJavaObj(spec.mode, value);
+          }
+        }
+        document = new ParsedDocument(input, cache.getUnchecked(input));
+        last = document;
+      }
+      return jsonApiCommonSyntax(document.context, spec);
+    }
+
+    /** A document and the result of parsing it. */
+    private static final class ParsedDocument {
+      final String input;
+      final JsonValueContext context;
+
+      ParsedDocument(String input, JsonValueContext context) {
+        this.input = input;
+        this.context = context;
+      }
     }
 
     public @Nullable Boolean jsonExists(String input, String pathSpec) {
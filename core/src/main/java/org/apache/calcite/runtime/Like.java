@@ -16,10 +16,15 @@
  */
 package org.apache.calcite.runtime;
 
+import org.apache.calcite.linq4j.function.Predicate1;
+
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
+import java.util.stream.Collectors;
 
 /**
  * Utilities for converting SQL {@code LIKE} and {@code SIMILAR} operators
@@ -110,6 +115,109 @@ static String sqlToRegexLike(
     return javaPattern.toString();
   }
 
+  /**
+   * Returns a matcher for a SQL LIKE pattern that does not use a regular
+   * expression, or null if the pattern is too complex.
+   *
+   * <p>A pattern whose only wildcard is {@code %} is split into literal
+   * segments. A string matches if it starts with the first segment, ends
+   * with the last segment, and contains the other segments in order, without
+   * overlap. Patterns that contain {@code _} are not handled; the regular
+   * expression for {@code _} does not match line terminators.
+   */
+  static @Nullable Predicate1<String> sqlToMatcherLike(String sqlPattern,
+      @Nullable CharSequence escapeStr) {
+    final char escapeChar;
+    if (escapeStr != null) {
+      if (escapeStr.length() != 1) {
+        throw invalidEscapeCharacter(escapeStr.toString());
+      }
+      escapeChar = escapeStr.charAt(0);
+    } else {
+      escapeChar = 0;
+    }
+    final List<String> segments = new ArrayList<>();
+    final int len = sqlPattern.length();
+    final StringBuilder segment = new StringBuilder(len);
+    for (int i = 0; i < len; i++) {
+      final char c = sqlPattern.charAt(i);
+      if (c == escapeChar) {
+        if (i == len - 1) {
+          throw invalidEscapeSequence(sqlPattern, i);
+        }
+        final char nextChar = sqlPattern.charAt(i + 1);
+        if (nextChar == '_' || nextChar == '%' || nextChar == escapeChar) {
+          segment.append(nextChar);
+          i++;
+        } else {
+          throw invalidEscapeSequence(sqlPattern, i);
+        }
+      } else if (c == '_') {
+        return null;
+      } else if (c == '%') {
+        segments.add(segment.toString());
+        segment.setLength(0);
+      } else {
+        segment.append(c);
+      }
+    }
+    segments.add(segment.toString());
+    return likeMatcher(segments);
+  }
+
+  /** Returns a matcher for a list of literal segments that are separated by
+   * {@code %} wildcards. */
+  private static Predicate1<String> likeMatcher(List<String> segments) {
+    final String first = segments.get(0);
+    if (segments.size() == 1) {
+      return first::equals;
+    }
+    final String last = segments.get(segments.size() - 1);
+    final List<String> middle = segments.subList(1, segments.size() - 1)
+        .stream()
+        .filter(segment -> !segment.isEmpty())
+        .collect(Collectors.toList());
+    if (middle.isEmpty()) {
+      if (first.isEmpty() && last.isEmpty()) {
+        return s -> true;
+      } else if (last.isEmpty()) {
+        return s -> s.startsWith(first);
+      } else if (first.isEmpty()) {
+        return s -> s.endsWith(last);
+      } else {
+        final int minLength = first.length() + last.length();
+        return s -> s.length() >= minLength
+            && s.startsWith(first)
+            && s.endsWith(last);
+      }
+    }
+    if (middle.size() == 1 && first.isEmpty() && last.isEmpty()) {
+      final String infix = middle.get(0);
+      return s -> s.contains(infix);
+    }
+    final String[] infixes = middle.toArray(new String[0]);
+    final int minLength = segments.stream().mapToInt(String::length).sum();
+    return s -> {
+      if (s.length() < minLength
+          || !s.startsWith(first)
+          || !s.endsWith(last)) {
+        return false;
+      }
+      // Find each segment after the previous one; the leftmost match leaves
+      // the most room for the following segments
+      final int end = s.length() - last.length();
+      int start = first.length();
+      for (String infix : infixes) {
+        final int i = s.indexOf(infix, start);
+        if (i < 0 || i + infix.length() > end) {
+          return false;
+        }
+        start = i + infix.length();
+      }
+      return true;
+    };
+  }
+
   private static RuntimeException invalidEscapeCharacter(String s) {
     return new RuntimeException(
         "Invalid escape character '" + s + "'");
@@ -17,55 +17,122 @@
 package org.apache.calcite.runtime;
 
 import org.apache.calcite.linq4j.MemoryFactory;
-import org.apache.calcite.util.ImmutableBitSet;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 import static java.util.Objects.requireNonNull;
 
 /**
  * Workspace that partialMatches patterns against an automaton.
  *
+ * <p>The matcher converts the automaton to a deterministic automaton, and then
+ * to a transition table indexed by state and symbol. For each row, it
+ * evaluates the predicate of each symbol at most once, and advances each
+ * partial match by looking up the table.
+ *
+ * <p>A partial match shares the rows that it has matched with the partial
+ * matches that it was extended from. A row is therefore retained only while
+ * a partial match that contains it can still be extended.
+ *
  * @param <E> Type of rows matched by this automaton
  */
 public class Matcher<E> {
-  private final DeterministicAutomaton dfa;
-  private final ImmutableMap<String, Predicate<MemoryFactory.Memory<E>>> predicates;
+  /** Names of symbols, indexed by symbol id. */
+  private final String[] symbolNames;
+  /** Predicates, indexed by symbol id. */
+  private final Predicate<MemoryFactory.Memory<E>>[] symbolPredicates;
+  /** Number of symbols, and therefore the width of a row of
+   * {@link #transitionTable}. */
+  private final int symbolCount;
+  /** Transition table; the state reached from state {@code s} on symbol
+   * {@code y} is {@code transitionTable[s * symbolCount + y]}, or -1 if there
+   * is no such transition. */
+  private final int[] transitionTable;
+  /** For each state, the ids of the symbols that have a transition from that
+   * state. */
+  private final int[][] stateSymbols;
+  /** Whether each state is an end state. */
+  private final boolean[] endStates;
+  /** Id of the start state. */
+  private final int startState;
 
   // The following members are work space. They can be shared among partitions,
   // but only one thread can use them at a time. Putting them here saves the
   // expense of creating a fresh object each call to "match".
 
+  /** Result of each symbol's predicate for the current row: 0 if not yet
+   * evaluated, 1 if true, 2 if false. */
+  private final byte[] predicateResults;
+
   /**
    * Creates a Matcher; use {@link #builder}.
    */
+  @SuppressWarnings({"unchecked", "method.invocation.invalid"})
   private Matcher(Automaton automaton,
       ImmutableMap<String, Predicate<MemoryFactory.Memory<E>>> predicates) {
-    this.predicates = requireNonNull(predicates, "predicates");
-    final ImmutableBitSet.Builder startSetBuilder =
-        ImmutableBitSet.builder();
-    startSetBuilder.set(automaton.startState.id);
-    automaton.epsilonSuccessors(automaton.startState.id, startSetBuilder);
-    ImmutableBitSet unusedStartSet = startSetBuilder.build();
     // Build the DFA
-    dfa = new DeterministicAutomaton(automaton);
+    final DeterministicAutomaton dfa = new DeterministicAutomaton(automaton);
+
+    // Number the states of the DFA, starting with the start state, and
+    // build the transition table
+    symbolNames = automaton.symbolNames.toArray(new String[0]);
+    symbolCount = symbolNames.length;
+    symbolPredicates = new Predicate[symbolCount];
+    for (int i = 0; i < symbolCount; i++) {
+      symbolPredicates[i] =
+          requireNonNull(predicates.get(symbolNames[i]), symbolNames[i]);
+    }
+    final Map<DeterministicAutomaton.MultiState, Integer> stateIds =
+        new HashMap<>();
+    stateIds.put(dfa.startState, 0);
+    for (DeterministicAutomaton.Transition transition : dfa.getTransitions()) {
+      stateIds.putIfAbsent(transition.fromState, stateIds.size());
+      stateIds.putIfAbsent(transition.toState, stateIds.size());
+    }
+    final int stateCount = stateIds.size();
+    transitionTable = new int[stateCount * symbolCount];
+    Arrays.fill(transitionTable, -1);
+    final List<List<Integer>> symbolLists = new ArrayList<>();
+    for (int i = 0; i < stateCount; i++) {
+      symbolLists.add(new ArrayList<>());
+    }
+    for (DeterministicAutomaton.Transition transition : dfa.getTransitions()) {
+      final int from = requireNonNull(stateIds.get(transition.fromState));
+      final int to = requireNonNull(stateIds.get(transition.toState));
+      transitionTable[from * symbolCount + transition.symbolId] = to;
+      symbolLists.get(from).add(transition.symbolId);
+    }
+    stateSymbols = new int[stateCount][];
+    for (int i = 0; i < stateCount; i++) {
+      final List<Integer> symbols = symbolLists.get(i);
+      Collections.sort(symbols);
+      stateSymbols[i] = symbols.stream().mapToInt(x -> x).toArray();
+    }
+    endStates = new boolean[stateCount];
+    for (DeterministicAutomaton.MultiState endState : dfa.getEndStates()) {
+      final Integer id = stateIds.get(endState);
+      if (id != null) {
+        endStates[id] = true;
+      }
+    }
+    startState = 0;
+    predicateResults = new byte[symbolCount];
   }
 
   public static <E> Builder<E> builder(Automaton automaton) {
@@ -107,54 +174,40 @@ protected void matchOne(MemoryFactory.Memory<E> rows,
 
   protected List<PartialMatch<E>> matchOneWithSymbols(MemoryFactory.Memory<E> rows,
       PartitionState<E> partitionState) {
-    final HashSet<PartialMatch<E>> newMatches = new HashSet<>();
-    for (Map.Entry<String, Predicate<MemoryFactory.Memory<E>>> predicate
-        : predicates.entrySet()) {
-      for (PartialMatch<E> pm : partitionState.getPartialMatches()) {
-        // Remove this match
-        if (predicate.getValue().test(rows)) {
-          // Check if we have transitions from here
-          final List<DeterministicAutomaton.Transition> transitions =
-              dfa.getTransitions().stream()
-                  .filter(t -> predicate.getKey().equals(t.symbol))
-                  .filter(t -> pm.currentState.equals(t.fromState))
-                  .collect(Collectors.toList());
-
-          for (DeterministicAutomaton.Transition transition : transitions) {
-            // System.out.println("Append new transition to ");
-            final PartialMatch<E> newMatch =
-                pm.append(transition.symbol, rows.get(), transition.toState);
-            newMatches.add(newMatch);
-          }
+    Arrays.fill(predicateResults, (byte) 0);
+    final E row = rows.get();
+    final long rowIndex = partitionState.rowCount++;
+
+    // Extend each partial match, in the order they started, then start new
+    // matches at this row.
+    final List<PartialMatch<E>> newMatches = new ArrayList<>();
+    for (PartialMatch<E> pm : partitionState.partialMatches) {
+      for (int symbol : stateSymbols[pm.state]) {
+        if (test(symbol, rows)) {
+          newMatches.add(
+              pm.append(symbolNames[symbol], row,
+                  transitionTable[pm.state * symbolCount + symbol]));
         }
       }
-      // Check if a new Match starts here
-      if (predicate.getValue().test(rows)) {
-        final List<DeterministicAutomaton.Transition> transitions =
-            dfa.getTransitions().stream()
-                .filter(t -> predicate.getKey().equals(t.symbol))
-                .filter(t -> dfa.startState.equals(t.fromState))
-                .collect(Collectors.toList());
-
-        for (DeterministicAutomaton.Transition transition : transitions) {
-          final PartialMatch<E> newMatch =
-              new PartialMatch<>(-1L, ImmutableList.of(transition.symbol),
-                  ImmutableList.of(rows.get()), transition.toState);
-          newMatches.add(newMatch);
-        }
+    }
+    for (int symbol : stateSymbols[startState]) {
+      if (test(symbol, rows)) {
+        newMatches.add(
+            new PartialMatch<>(rowIndex, symbolNames[symbol], row, null,
+                transitionTable[startState * symbolCount + symbol]));
       }
     }
 
-    // Remove all current partitions
-    partitionState.clearPartitions();
-    // Add all partial matches
-    partitionState.addPartialMatches(newMatches);
+    // Partial matches that were not extended can never match, so discard
+    // them, and the rows that only they reference
+    partitionState.partialMatches = newMatches;
+
     // Check if one of the new Matches is in a final state, otherwise add them
     // and go on
     final ImmutableList.Builder<PartialMatch<E>> builder =
         ImmutableList.builder();
     for (PartialMatch<E> match : newMatches) {
-      if (dfa.getEndStates().contains(match.currentState)) {
+      if (endStates[match.state]) {
         // This is the match, handle all "open" partial matches with a suitable
         // strategy
         // TODO add strategy
@@ -165,14 +218,32 @@ protected List<PartialMatch<E>> matchOneWithSymbols(MemoryFactory.Memory<E> rows
     return builder.build();
   }
 
+  /** Returns whether the predicate of a symbol is true for the current row,
+   * evaluating it only the first time it is needed for that row. */
+  private boolean test(int symbol, MemoryFactory.Memory<E> rows) {
+    switch (predicateResults[symbol]) {
+    case 1:
+      return true;
+    case 2:
+      return false;
+    default:
+      final boolean b = symbolPredicates[symbol].test(rows);
+      predicateResults[symbol] = b ? (byte) 1 : (byte) 2;
+      return b;
+    }
+  }
+
   /**
    * State for each partition.
    *
    * @param <E> Row type
    */
   static class PartitionState<E> {
-    private final Set<PartialMatch<E>> partialMatches = new HashSet<>();
+    /** Partial matches, in the order that they started. */
+    private List<PartialMatch<E>> partialMatches = new ArrayList<>();
     private final MemoryFactory<E> memoryFactory;
+    /** Number of rows that have been read. */
+    private long rowCount;
 
     PartitionState(int history, int future) {
       this.memoryFactory = new MemoryFactory<>(history, future);
@@ -182,8 +253,8 @@ public void addPartialMatches(Collection<PartialMatch<E>> matches) {
       partialMatches.addAll(matches);
     }
 
-    public Set<PartialMatch<E>> getPartialMatches() {
-      return ImmutableSet.copyOf(partialMatches);
+    public List<PartialMatch<E>> getPartialMatches() {
+      return ImmutableList.copyOf(partialMatches);
     }
 
     public void removePartialMatch(PartialMatch<E> pm) {
@@ -207,56 +278,79 @@ public MemoryFactory<E> getMemoryFactory() {
    * Partial match of the NFA.
    *
    * <p>This class is immutable; the {@link #copy()} and
-   * {@link #append(String, Object, DeterministicAutomaton.MultiState)}
-   * methods generate new instances.
+   * {@link #append(String, Object, int)} methods generate new instances.
+   *
+   * <p>A partial match holds its last symbol and row, and a reference to the
+   * partial match that it extends; therefore appending is a constant-time
+   * operation, and partial matches share common prefixes.
    *
    * @param <E> Row type
    */
   static class PartialMatch<E> {
     final long startRow;
-    final ImmutableList<String> symbols;
-    final ImmutableList<E> rows;
-    final DeterministicAutomaton.MultiState currentState;
+    final String symbol;
+    final E row;
+    final @Nullable PartialMatch<E> previous;
+    final int size;
+    /** Id of the current state of the deterministic automaton. */
+    final int state;
 
-    PartialMatch(long startRow, ImmutableList<String> symbols,
-        ImmutableList<E> rows, DeterministicAutomaton.MultiState currentState) {
+    PartialMatch(long startRow, String symbol, E row,
+        @Nullable PartialMatch<E> previous, int state) {
       this.startRow = startRow;
-      this.symbols = symbols;
-      this.rows = rows;
-      this.currentState = currentState;
+      this.symbol = requireNonNull(symbol, "symbol");
+      this.row = row;
+      this.previous = previous;
+      this.size = previous == null ? 1 : previous.size + 1;
+      this.state = state;
     }
 
     public PartialMatch<E> copy() {
-      return new PartialMatch<>(startRow, symbols, rows, currentState);
+      return new PartialMatch<>(startRow, symbol, row, previous, state);
     }
 
-    public PartialMatch<E> append(String symbol, E row,
-        DeterministicAutomaton.MultiState toState) {
-      ImmutableList<String> symbols = ImmutableList.<String>builder()
-          .addAll(this.symbols)
-          .add(symbol)
-          .build();
-      ImmutableList<E> rows = ImmutableList.<E>builder()
-          .addAll(this.rows)
-          .add(row)
-          .build();
-      return new PartialMatch<>(startRow, symbols, rows, toState);
+    public PartialMatch<E> append(String symbol, E row, int toState) {
+      return new PartialMatch<>(startRow, symbol, row, this, toState);
+    }
+
+    /** Returns the symbols matched so far. */
+    public ImmutableList<String> symbols() {
+      final String[] symbols = new String[size];
+      @Nullable PartialMatch<E> pm = this;
+      for (int i = size - 1; i >= 0; i--) {
+        symbols[i] = requireNonNull(pm).symbol;
+        pm = pm.previous;
+      }
+      return ImmutableList.copyOf(symbols);
+    }
+
+    /** Returns the rows matched so far. */
+    public List<E> rows() {
+      final List<E> rows = new ArrayList<>(size);
+      for (@Nullable PartialMatch<E> pm = this; pm != null; pm = pm.previous) {
+        rows.add(pm.row);
+      }
+      Collections.reverse(rows);
+      return Collections.unmodifiableList(rows);
     }
 
     @Override public boolean equals(@Nullable Object o) {
       return o == this
           || o instanceof PartialMatch
           && startRow == ((PartialMatch) o).startRow
-          && Objects.equals(symbols, ((PartialMatch) o).symbols)
-          && Objects.equals(rows, ((PartialMatch) o).rows)
-          && Objects.equals(currentState, ((PartialMatch) o).currentState);
+          && state == ((PartialMatch) o).state
+          && size == ((PartialMatch) o).size
+          && Objects.equals(symbols(), ((PartialMatch) o).symbols())
+          && Objects.equals(rows(), ((PartialMatch) o).rows());
     }
 
     @Override public int hashCode() {
-      return Objects.hash(startRow, symbols, rows, currentState);
+      return Objects.hash(startRow, symbols(), rows(), state);
     }
 
     @Override public String toString() {
+      final List<String> symbols = symbols();
+      final List<E> rows = rows();
       final StringBuilder sb = new StringBuilder();
       sb.append("[");
       for (int i = 0; i < rows.size(); i++) {
@@ -318,34 +412,4 @@ public Matcher<E> build() {
       return new Matcher<>(automaton, builder.build());
     }
   }
-
-  /**
-   * A 2-tuple consisting of a symbol and a row.
-   *
-   * @param <E> Type of Row
-   */
-  static class Tuple<E> {
-    final String symbol;
-    final E row;
-
-    Tuple(String symbol, E row) {
-      this.symbol = symbol;
-      this.row = row;
-    }
-
-    @Override public boolean equals(@Nullable Object o) {
-      return o == this
-          || o instanceof Tuple
-          && ((Tuple) o).symbol.equals(symbol)
-          && Objects.equals(row, ((Tuple) o).row);
-    }
-
-    @Override public int hashCode() {
-      return Objects.hash(symbol, row);
-    }
-
-    @Override public String toString() {
-      return "(" + symbol + ", " + row + ")";
-    }
-  }
 }
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.runtime;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Deque that computes the minimum (or maximum) of a sliding window of
+ * values in amortized constant time per value.
+ *
+ * <p>Values are added in increasing order of their index, and are removed in
+ * the same order. The deque only retains values that may yet become the
+ * extremum: when a value is added, it discards all retained values that are
+ * not less than it (or, if computing the maximum, not greater than it).
+ * Therefore the retained values are monotonic, and the extremum is the first
+ * of them.
+ *
+ * <p>{@link org.apache.calcite.adapter.enumerable.EnumerableWindow} uses it
+ * to evaluate {@code MIN} and {@code MAX} over a frame such as
+ * {@code ROWS BETWEEN 10 PRECEDING AND CURRENT ROW} without re-scanning the
+ * frame for each row.
+ *
+ * @param <E> Value type
+ */
+public class MonotonicDeque<E extends Comparable<E>> {
+  private final boolean max;
+  private int[] indexes = new int[8];
+  private @Nullable Object[] values = new Object[8];
+  private int head;
+  private int tail;
+
+  /** Creates a MonotonicDeque.
+   *
+   * @param max Whether to compute the maximum (true) or the minimum (false)
+   */
+  public MonotonicDeque(boolean max) {
+    this.max = max;
+  }
+
+  /** Adds a value, whose index must be greater than that of any value that
+   * has already been added. */
+  public void add(int index, E value) {
+    while (tail > head && !precedes(value(tail - 1), value)) {
+      values[--tail] = null;
+    }
+    if (tail == indexes.length) {
+      if (head > 0) {
+        // Shift the retained values to the start of the arrays.
+        System.arraycopy(indexes, head, indexes, 0, tail - head);
+        System.arraycopy(values, head, values, 0, tail - head);
+        Arrays.fill(values, tail - head, tail, null);
+        tail -= head;
+        head = 0;
+      } else {
+        indexes = Arrays.copyOf(indexes, indexes.length * 2);
+        values = Arrays.copyOf(values, values.length * 2);
+      }
+    }
+    indexes[tail] = index;
+    values[tail++] = value;
+  }
+
+  /** Removes all values whose index is less than or equal to a given index.
+   * It is not an error if there are no such values. */
+  public void remove(int index) {
+    while (tail > head && indexes[head] <= index) {
+      values[head++] = null;
+    }
+    if (head == tail) {
+      head = tail = 0;
+    }
+  }
+
+  /** Returns the minimum (or maximum) of the values that have been added but
+   * not removed, or null if there are none. */
+  public @Nullable E first() {
+    return tail > head ? value(head) : null;
+  }
+
+  /** Removes all values. */
+  public void clear() {
+    Arrays.fill(values, head, tail, null);
+    head = tail = 0;
+  }
+
+  @SuppressWarnings("unchecked")
+  private E value(int i) {
+    return (E) values[i];
+  }
+
+  /** Returns whether a retained value must precede a newly added value;
+   * if not, the retained value can never again be the extremum. */
+  private boolean precedes(E retained, E added) {
+    final int c = retained.compareTo(added);
+    return max ? c > 0 : c < 0;
+  }
+}
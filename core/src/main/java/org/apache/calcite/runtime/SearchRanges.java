@@ -0,0 +1,365 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.runtime;
+
+import org.apache.calcite.linq4j.function.Deterministic;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Sorted, disjoint ranges of values, against which generated code tests
+ * values to implement the {@code SEARCH} operator.
+ *
+ * <p>A {@link org.apache.calcite.util.Sarg} with many points or ranges would
+ * otherwise be expanded into a chain of comparisons that is evaluated
+ * linearly for each row. Instead, the ranges are encoded as a string constant
+ * by {@link #appendRange}, decoded once per query by {@link #ofLongs} (or
+ * similar), and each test is a binary search.
+ *
+ * <p>Values of {@code INTEGER}, {@code BIGINT}, {@code DATE} and similar
+ * types are tested using {@link LongRanges#contains(long)}; {@code DOUBLE}
+ * values using {@link DoubleRanges#contains(double)}; {@code DECIMAL} and
+ * string values using {@link ComparableRanges#contains(Comparable)}. Each
+ * factory method returns the subclass for its type, so a value of the wrong
+ * type cannot be tested.
+ */
+@Deterministic
+public abstract class SearchRanges {
+  private static final int LOWER = 1;
+  private static final int LOWER_CLOSED = 2;
+  private static final int UPPER = 4;
+  private static final int UPPER_CLOSED = 8;
+  /** Flag indicating that a range is a point; its only value is both its
+   * lower and upper bound. */
+  private static final int POINT = 16;
+
+  /** Maximum length of each string constant produced by {@link #split}. */
+  private static final int CHUNK_LENGTH = 8192;
+
+  /** Flags of each range. */
+  final byte[] flags;
+
+  private SearchRanges(byte[] flags) {
+    this.flags = flags;
+  }
+
+  /** Creates ranges of integral values. */
+  public static LongRanges ofLongs(String... chunks) {
+    final Decoded<Long> d = decode(chunks, Long::valueOf);
+    return new LongRanges(d.flags, toLongs(d.lowers), toLongs(d.uppers));
+  }
+
+  /** Creates ranges of floating-point values. Bounds must not be NaN. */
+  public static DoubleRanges ofDoubles(String... chunks) {
+    final Decoded<Double> d = decode(chunks, Double::valueOf);
+    return new DoubleRanges(d.flags, toDoubles(d.lowers),
+        toDoubles(d.uppers));
+  }
+
+  /** Creates ranges of {@link BigDecimal} values. */
+  public static ComparableRanges ofDecimals(String... chunks) {
+    final Decoded<BigDecimal> d = decode(chunks, BigDecimal::new);
+    return new ComparableRanges(d.flags, d.lowers.toArray(new Comparable[0]),
+        d.uppers.toArray(new Comparable[0]));
+  }
+
+  /** Creates ranges of {@link String} values. */
+  public static ComparableRanges ofStrings(String... chunks) {
+    final Decoded<String> d = decode(chunks, s -> s);
+    return new ComparableRanges(d.flags, d.lowers.toArray(new Comparable[0]),
+        d.uppers.toArray(new Comparable[0]));
+  }
+
+  /** Appends the encoded form of a range to a buffer.
+   *
+   * @param buf Buffer
+   * @param lower Text of lower bound, or null if unbounded below
+   * @param lowerClosed Whether the range contains its lower bound
+   * @param upper Text of upper bound, or null if unbounded above
+   * @param upperClosed Whether the range contains its upper bound
+   */
+  public static void appendRange(StringBuilder buf, @Nullable String lower,
+      boolean lowerClosed, @Nullable String upper, boolean upperClosed) {
+    if (lower != null && lowerClosed && upperClosed && lower.equals(upper)) {
+      buf.append((char) ('@' + POINT));
+      appendText(buf, lower);
+      return;
+    }
+    int f = 0;
+    if (lower != null) {
+      f |= LOWER | (lowerClosed ? LOWER_CLOSED : 0);
+    }
+    if (upper != null) {
+      f |= UPPER | (upperClosed ? UPPER_CLOSED : 0);
+    }
+    buf.append((char) ('@' + f));
+    if (lower != null) {
+      appendText(buf, lower);
+    }
+    if (upper != null) {
+      appendText(buf, upper);
+    }
+  }
+
+  private static void appendText(StringBuilder buf, String text) {
+    buf.append(text.length()).append(':').append(text);
+  }
+
+  /** Splits encoded ranges into strings short enough to be constants in
+   * a Java class file. */
+  public static String[] split(CharSequence encoded) {
+    final int n = (encoded.length() + CHUNK_LENGTH - 1) / CHUNK_LENGTH;
+    final String[] chunks = new String[n];
+    for (int i = 0; i < n; i++) {
+      chunks[i] =
+          encoded.subSequence(i * CHUNK_LENGTH,
+              Math.min(encoded.length(), (i + 1) * CHUNK_LENGTH)).toString();
+    }
+    return chunks;
+  }
+
+  private static <T> Decoded<T> decode(String[] chunks,
+      Function<String, T> parse) {
+    final String s = String.join("", chunks);
+    final Decoded<T> d = new Decoded<>();
+    final List<Byte> flagList = new ArrayList<>();
+    int i = 0;
+    while (i < s.length()) {
+      final int f = s.charAt(i++) - '@';
+      flagList.add((byte) f);
+      if ((f & POINT) != 0) {
+        final int colon = s.indexOf(':', i);
+        final int end = colon + 1 + Integer.parseInt(s.substring(i, colon));
+        final T value = parse.apply(s.substring(colon + 1, end));
+        d.lowers.add(value);
+        d.uppers.add(value);
+        i = end;
+        continue;
+      }
+      for (int bound : new int[] {LOWER, UPPER}) {
+        final List<@Nullable T> list = bound == LOWER ? d.lowers : d.uppers;
+        if ((f & bound) == 0) {
+          list.add(null);
+          continue;
+        }
+        final int colon = s.indexOf(':', i);
+        final int end = colon + 1 + Integer.parseInt(s.substring(i, colon));
+        list.add(parse.apply(s.substring(colon + 1, end)));
+        i = end;
+      }
+    }
+    d.flags = new byte[flagList.size()];
+    for (int j = 0; j < d.flags.length; j++) {
+      d.flags[j] = flagList.get(j);
+    }
+    return d;
+  }
+
+  private static long[] toLongs(List<@Nullable Long> list) {
+    final long[] longs = new long[list.size()];
+    for (int i = 0; i < longs.length; i++) {
+      final Long v = list.get(i);
+      longs[i] = v == null ? 0L : v;
+    }
+    return longs;
+  }
+
+  private static double[] toDoubles(List<@Nullable Double> list) {
+    final double[] doubles = new double[list.size()];
+    for (int i = 0; i < doubles.length; i++) {
+      final Double v = list.get(i);
+      doubles[i] = v == null ? 0D : v;
+    }
+    return doubles;
+  }
+
+  /** Returns whether all ranges are points. */
+  boolean allPoints() {
+    for (byte f : flags) {
+      if ((f & POINT) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Returns whether a value is above the lower bound of range {@code i},
+   * given the result of comparing the value with that bound. */
+  final boolean aboveLower(int i, int c) {
+    final int f = flags[i];
+    return (f & (LOWER | POINT)) == 0
+        || c > 0
+        || c == 0 && (f & (LOWER_CLOSED | POINT)) != 0;
+  }
+
+  /** Returns whether a value is below the upper bound of range {@code i},
+   * given the result of comparing the value with that bound. */
+  final boolean belowUpper(int i, int c) {
+    final int f = flags[i];
+    return (f & (UPPER | POINT)) == 0
+        || c < 0
+        || c == 0 && (f & (UPPER_CLOSED | POINT)) != 0;
+  }
+
+  /** Result of decoding ranges. */
+  private static class Decoded<T> {
+    byte[] flags = new byte[0];
+    final List<@Nullable T> lowers = new ArrayList<>();
+    final List<@Nullable T> uppers = new ArrayList<>();
+  }
+
+  /** Ranges of {@code long} values. */
+  public static final class LongRanges extends SearchRanges {
+    private final long[] lowers;
+    private final long[] uppers;
+    /** Sorted values, if every range is a point; otherwise null. */
+    private final long @Nullable [] points;
+
+    private LongRanges(byte[] flags, long[] lowers, long[] uppers) {
+      super(flags);
+      this.lowers = lowers;
+      this.uppers = uppers;
+      this.points = allPoints() ? lowers : null;
+    }
+
+    /** Returns whether a range contains a value. */
+    public boolean contains(long v) {
+      if (points != null) {
+        return Arrays.binarySearch(points, v) >= 0;
+      }
+      // Find the last range whose lower bound is below v, then check whether
+      // v is also below its upper bound.
+      int lo = 0;
+      int hi = flags.length - 1;
+      int found = -1;
+      while (lo <= hi) {
+        final int mid = (lo + hi) >>> 1;
+        if (aboveLower(mid, Long.compare(v, lowers[mid]))) {
+          found = mid;
+          lo = mid + 1;
+        } else {
+          hi = mid - 1;
+        }
+      }
+      return found >= 0
+          && belowUpper(found, Long.compare(v, uppers[found]));
+    }
+  }
+
+  /** Ranges of {@code double} values. */
+  public static final class DoubleRanges extends SearchRanges {
+    private final double[] lowers;
+    private final double[] uppers;
+    /** Whether there is a range with neither a lower nor an upper bound. */
+    private final boolean unbounded;
+
+    private DoubleRanges(byte[] flags, double[] lowers, double[] uppers) {
+      super(flags);
+      this.lowers = lowers;
+      this.uppers = uppers;
+      boolean unbounded = false;
+      for (int i = 0; i < flags.length; i++) {
+        if (Double.isNaN(lowers[i]) || Double.isNaN(uppers[i])) {
+          // NaN is not ordered, so cannot be found by binary search
+          throw new IllegalArgumentException("NaN bound");
+        }
+        unbounded |= (flags[i] & (LOWER | UPPER | POINT)) == 0;
+      }
+      this.unbounded = unbounded;
+    }
+
+    /** Returns whether a range contains a value.
+     *
+     * <p>As for the comparisons into which {@code SEARCH} expands, NaN is
+     * neither less than, equal to, nor greater than any bound; so NaN is
+     * contained only in a range that has no bounds. */
+    public boolean contains(double v) {
+      if (Double.isNaN(v)) {
+        return unbounded;
+      }
+      int lo = 0;
+      int hi = flags.length - 1;
+      int found = -1;
+      while (lo <= hi) {
+        final int mid = (lo + hi) >>> 1;
+        if (aboveLower(mid, compare(v, lowers[mid]))) {
+          found = mid;
+          lo = mid + 1;
+        } else {
+          hi = mid - 1;
+        }
+      }
+      return found >= 0
+          && belowUpper(found, compare(v, uppers[found]));
+    }
+
+    /** Compares two values as the SQL comparison operators do; unlike
+     * {@link Double#compare}, regards 0.0 and -0.0 as equal. */
+    private static int compare(double v0, double v1) {
+      return v0 < v1 ? -1 : v0 == v1 ? 0 : 1;
+    }
+  }
+
+  /** Ranges of {@link Comparable} values. */
+  public static final class ComparableRanges extends SearchRanges {
+    private final @Nullable Comparable[] lowers;
+    private final @Nullable Comparable[] uppers;
+    /** Sorted values, if every range is a point; otherwise null. */
+    private final Comparable @Nullable [] points;
+
+    private ComparableRanges(byte[] flags, @Nullable Comparable[] lowers,
+        @Nullable Comparable[] uppers) {
+      super(flags);
+      this.lowers = lowers;
+      this.uppers = uppers;
+      //noinspection NullableProblems
+      this.points = allPoints() ? (Comparable[]) lowers : null;
+    }
+
+    /** Returns whether a range contains a value. */
+    @SuppressWarnings("unchecked")
+    public boolean contains(Comparable v) {
+      if (points != null) {
+        return Arrays.binarySearch(points, v) >= 0;
+      }
+      int lo = 0;
+      int hi = flags.length - 1;
+      int found = -1;
+      while (lo <= hi) {
+        final int mid = (lo + hi) >>> 1;
+        final Comparable lower = lowers[mid];
+        if (aboveLower(mid, lower == null ? 1 : v.compareTo(lower))) {
+          found = mid;
+          lo = mid + 1;
+        } else {
+          hi = mid - 1;
+        }
+      }
+      if (found < 0) {
+        return false;
+      }
+      final Comparable upper = uppers[found];
+      return belowUpper(found, upper == null ? -1 : v.compareTo(upper));
+    }
+  }
+}
@@ -16,6 +16,10 @@
  */
 package org.apache.calcite.runtime;
 
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.function.Function1;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -23,6 +27,8 @@
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 
 /**
  * Map that allows you to partition values into lists according to a common
@@ -75,4 +81,54 @@ public static <V> Iterator<V[]> singletonArrayIterator(
     multiMap.put("x", list);
     return multiMap.arrays(comparator);
   }
+
+  /** Shortcut method if the values are already sorted, so that values with
+   * the same key are adjacent, and values with the same key are in the
+   * desired order. Returns one array per key, in the order the keys occur.
+   *
+   * <p>Unlike {@link #arrays(Comparator)}, reads the values lazily, and never
+   * holds more than one key's values in memory. */
+  public static <K, V> Iterator<V[]> sortedArrayIterator(
+      Enumerable<V> source, Function1<V, K> keySelector) {
+    final Enumerator<V> enumerator = source.enumerator();
+    return new Iterator<V[]>() {
+      final List<V> list = new ArrayList<>();
+      boolean done = !advance();
+
+      private boolean advance() {
+        if (enumerator.moveNext()) {
+          return true;
+        }
+        enumerator.close();
+        return false;
+      }
+
+      @Override public boolean hasNext() {
+        return !done;
+      }
+
+      @Override public V[] next() {
+        if (done) {
+          throw new NoSuchElementException();
+        }
+        V value = enumerator.current();
+        final K key = keySelector.apply(value);
+        for (;;) {
+          list.add(value);
+          if (!advance()) {
+            done = true;
+            break;
+          }
+          value = enumerator.current();
+          if (!Objects.equals(key, keySelector.apply(value))) {
+            break;
+          }
+        }
+        @SuppressWarnings("unchecked")
+        final V[] vs = (V[]) list.toArray();
+        list.clear();
+        return vs;
+      }
+    };
+  }
 }
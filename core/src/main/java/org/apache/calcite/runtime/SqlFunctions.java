@@ -1973,7 +1973,7 @@ public static ByteString overlay(ByteString s, ByteString r, int start,
   /** State for {@code LIKE}, {@code ILIKE}. */
   @Deterministic
   public static class LikeFunction {
-    /** Key for cache of compiled regular expressions. */
+    /** Key for cache of compiled patterns. */
     private static final class Key {
       final String pattern;
       final @Nullable String escape;
@@ -1999,39 +1999,77 @@ private static final class Key {
             && flags == ((Key) obj).flags;
       }
 
-      Pattern toPattern() {
+      boolean matches(String pattern, @Nullable String escape, int flags) {
+        return this.pattern.equals(pattern)
+            && Objects.equals(this.escape, escape)
+            && this.flags == flags;
+      }
+
+      /** Compiles the pattern. A LIKE pattern whose only wildcard is
+       * {@code %} is matched by searching for its literal segments;
+       * other patterns use a regular expression. */
+      Predicate1<String> toMatcher() {
+        if (flags == 0) {
+          final Predicate1<String> matcher =
+              Like.sqlToMatcherLike(pattern, escape);
+          if (matcher != null) {
+            return matcher;
+          }
+        }
         String regex = Like.sqlToRegexLike(pattern, escape);
-        return Pattern.compile(regex, flags);
+        final Pattern compiled = Pattern.compile(regex, flags);
+        return s -> compiled.matcher(s).matches();
       }
     }
 
-    private final LoadingCache<Key, Pattern> cache =
+    /** A compiled pattern, and the key it was compiled from. */
+    private static final class Entry {
+      final Key key;
+      final Predicate1<String> matcher;
+
+      Entry(Key key) {
+        this.key = key;
+        this.matcher = key.toMatcher();
+      }
+    }
+
+    private final LoadingCache<Key, Entry> cache =
         CacheBuilder.newBuilder()
             .maximumSize(FUNCTION_LEVEL_CACHE_MAX_SIZE.value())
-            .build(CacheLoader.from(Key::toPattern));
+            .build(CacheLoader.from(Entry::new));
+
+    /** The most recently used entry. The pattern is usually a literal, so
+     * this avoids a cache lookup for each row. */
+    private @Nullable Entry last;
+
+    private boolean matches(String s, String pattern, @Nullable String escape,
+        int flags) {
+      Entry entry = last;
+      if (entry == null || !entry.key.matches(pattern, escape, flags)) {
+        entry = cache.getUnchecked(new Key(pattern, escape, flags));
+        last = entry;
+      }
+      return entry.matcher.apply(s);
+    }
 
     /** SQL {@code LIKE} function. */
     public boolean like(String s, String pattern) {
-      final Key key = new Key(pattern, null, 0);
-      return cache.getUnchecked(key).matcher(s).matches();
+      return matches(s, pattern, null, 0);
     }
 
     /** SQL {@code LIKE} function with escape. */
     public boolean like(String s, String pattern, String escape) {
-      final Key key = new Key(pattern, escape, 0);
-      return cache.getUnchecked(key).matcher(s).matches();
+      return matches(s, pattern, escape, 0);
     }
 
     /** SQL {@code ILIKE} function. */
     public boolean ilike(String s, String pattern) {
-      final Key key = new Key(pattern, null, Pattern.CASE_INSENSITIVE);
-      return cache.getUnchecked(key).matcher(s).matches();
+      return matches(s, pattern, null, Pattern.CASE_INSENSITIVE);
     }
 
     /** SQL {@code ILIKE} function with escape. */
     public boolean ilike(String s, String pattern, String escape) {
-      final Key key = new Key(pattern, escape, Pattern.CASE_INSENSITIVE);
-      return cache.getUnchecked(key).matcher(s).matches();
+      return matches(s, pattern, escape, Pattern.CASE_INSENSITIVE);
     }
   }
 
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.runtime;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.List;
+
+/**
+ * Keyed state of an operator in a continuous (streaming) query.
+ *
+ * <p>An incremental operator, such as the one that implements
+ * {@code SELECT STREAM ... GROUP BY}, keeps one entry per open group, and
+ * removes the entry when it emits the group. The state of a long-running
+ * query is therefore proportional to the number of open groups, not to the
+ * number of rows that have been read.
+ *
+ * <p>Use {@link StateStores#create(String, ClassLoader)} to create a store.
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public interface StateStore<K, V> extends AutoCloseable {
+  /** Returns the value of a key, or null if the key is not present. */
+  @Nullable V get(K key);
+
+  /** Sets the value of a key. */
+  void put(K key, V value);
+
+  /** Removes a key, returning its previous value, or null if the key was not
+   * present. */
+  @Nullable V remove(K key);
+
+  /** Returns the number of keys. */
+  int size();
+
+  /** Returns a snapshot of the keys, in no particular order.
+   *
+   * <p>An operator calls this method when it starts, to rebuild any indexes
+   * it keeps over the keys of a store that has been restored from a
+   * checkpoint. */
+  List<K> keys();
+
+  /** Returns the number of input rows that the operator had consumed when
+   * it made the checkpoint from which this store was restored; 0 if the
+   * store did not start from a checkpoint.
+   *
+   * <p>A source that is read again from its start replays rows whose effect
+   * is already in the store; the operator skips that many rows, so that no
+   * row is counted twice. */
+  long sourceOffset();
+
+  /** Makes the current contents of the store durable, so that a store
+   * created later with the same name starts with those contents.
+   *
+   * <p>Does nothing if the store is not persistent.
+   *
+   * @param sourceOffset Number of input rows that the operator has consumed;
+   *                     the contents of the store reflect exactly those rows
+   */
+  void checkpoint(long sourceOffset);
+
+  /** Releases the resources of this store. Does not remove the most recent
+   * checkpoint. */
+  @Override void close();
+}
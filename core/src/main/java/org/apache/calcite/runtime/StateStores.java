@@ -0,0 +1,505 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.runtime;
+
+import org.apache.calcite.DataContext;
+import org.apache.calcite.config.CalciteSystemProperty;
+import org.apache.calcite.util.Holder;
+import org.apache.calcite.util.Util;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Utilities for {@link StateStore}.
+ */
+public class StateStores {
+  /** Valid characters of a state id; an id becomes the name of a
+   * directory. */
+  private static final Pattern STATE_ID_PATTERN =
+      Pattern.compile("[A-Za-z0-9_.-]+");
+
+  private StateStores() {}
+
+  /** Returns the name of the state of an operator in the current execution,
+   * or null if the state of the execution is not to be persisted.
+   *
+   * <p>State is persisted only if the caller has given the execution a
+   * state id, in {@link DataContext.Variable#STREAM_STATE_ID}. The name
+   * combines that id with the position of the operator in the plan, so it is
+   * stable across executions of the same query with the same id, and
+   * different for executions with different ids.
+   *
+   * @param root     Data context of the execution
+   * @param operator Kind and position of the operator in the plan, for
+   *                 example "aggregate-0"
+   */
+  public static @Nullable String name(DataContext root, String operator) {
+    final Object stateId = root.get(DataContext.Variable.STREAM_STATE_ID.camelName);
+    if (stateId == null) {
+      return null;
+    }
+    final String id = stateId.toString();
+    if (!STATE_ID_PATTERN.matcher(id).matches()
+        || id.equals(".") || id.equals("..")) {
+      throw new IllegalArgumentException("invalid stream state id '" + id
+          + "'; must consist of letters, digits, '_', '-' and '.'");
+    }
+    return id + "/" + operator;
+  }
+
+  /** Creates the state store of an operator.
+   *
+   * <p>If {@code name} is not null and
+   * {@link CalciteSystemProperty#STREAM_STATE_DIRECTORY} is set, returns a
+   * persistent store in a sub-directory called {@code name}, restoring the
+   * most recent checkpoint in that directory, if any; otherwise returns a
+   * store that keeps all entries in memory.
+   *
+   * @param name        Name of the operator's state, as returned by
+   *                    {@link #name(DataContext, String)}; null if the
+   *                    state is not to be persisted
+   * @param classLoader Class loader of the keys and values, which may be
+   *                    instances of generated classes
+   */
+  public static <K, V> StateStore<K, V> create(@Nullable String name,
+      @Nullable ClassLoader classLoader) {
+    final Holder<String> directory =
+        Holder.of(CalciteSystemProperty.STREAM_STATE_DIRECTORY.value());
+    Hook.STREAM_STATE_DIRECTORY.run(directory);
+    if (name == null || directory.get().isEmpty()) {
+      return memory();
+    }
+    return spilling(new File(directory.get(), name),
+        CalciteSystemProperty.STREAM_STATE_MAX_IN_MEMORY.value(), classLoader);
+  }
+
+  /** Creates a state store that keeps all entries in memory. */
+  public static <K, V> StateStore<K, V> memory() {
+    return new MemoryStateStore<>();
+  }
+
+  /** Creates a state store that keeps at most {@code maxInMemory} entries in
+   * memory and writes the others to files in {@code directory}.
+   *
+   * <p>If {@code directory} contains a checkpoint, the store starts with the
+   * contents of that checkpoint.
+   *
+   * <p>The store holds a lock on {@code directory} until it is closed; if
+   * another store, in this or another process, holds the lock, throws
+   * {@link IllegalStateException}. */
+  public static <K, V> StateStore<K, V> spilling(File directory,
+      int maxInMemory, @Nullable ClassLoader classLoader) {
+    return new SpillingStateStore<>(directory, maxInMemory, classLoader);
+  }
+
+  /** State store that keeps all entries in memory.
+   *
+   * @param <K> Key type
+   * @param <V> Value type */
+  private static class MemoryStateStore<K, V> implements StateStore<K, V> {
+    private final Map<K, V> map = new HashMap<>();
+
+    @Override public @Nullable V get(K key) {
+      return map.get(key);
+    }
+
+    @Override public void put(K key, V value) {
+      map.put(key, value);
+    }
+
+    @Override public @Nullable V remove(K key) {
+      return map.remove(key);
+    }
+
+    @Override public int size() {
+      return map.size();
+    }
+
+    @Override public List<K> keys() {
+      return new ArrayList<>(map.keySet());
+    }
+
+    @Override public long sourceOffset() {
+      return 0L;
+    }
+
+    @Override public void checkpoint(long sourceOffset) {
+    }
+
+    @Override public void close() {
+      map.clear();
+    }
+  }
+
+  /** State store that keeps the most recently used entries in memory and
+   * writes the others to a log file.
+   *
+   * <p>The design follows log-structured key-value stores such as Bitcask.
+   * Values are serialized and appended to the log; an in-memory index holds
+   * the offset of the most recent value of each key that has been written.
+   * An entry that is in memory takes precedence over its value in the log.
+   *
+   * <p>A checkpoint appends the entries that are in memory to the log, syncs
+   * it, and then atomically replaces a small file that holds the index, the
+   * length of the log, and the number of input rows that the contents
+   * reflect. If the log has grown to more than twice its size
+   * after the last compaction, the checkpoint first copies the live values
+   * to a log of the next generation.
+   *
+   * <p>Values must be {@link java.io.Serializable}. A value that is not stays
+   * in memory, and is not included in checkpoints.
+   *
+   * @param <K> Key type
+   * @param <V> Value type */
+  private static class SpillingStateStore<K, V> implements StateStore<K, V> {
+    private static final String CHECKPOINT = "checkpoint";
+    private static final String LOCK = "lock";
+
+    /** Minimum size of the log before it is compacted. */
+    private static final long MIN_COMPACT_BYTES = 1 << 20;
+
+    private final File directory;
+    private final int maxInMemory;
+    /** Entries in memory, least recently used first. */
+    private final LinkedHashMap<K, V> cache =
+        new LinkedHashMap<>(16, 0.75f, true);
+    /** Entries whose values cannot be serialized. */
+    private final Map<K, V> pinned = new HashMap<>();
+    /** Offset in the log of the most recent value of each key. */
+    private final Map<K, Long> offsets = new HashMap<>();
+    private RandomAccessFile log;
+    private int generation;
+    /** Size of the log after the most recent compaction. */
+    private long compactedBytes;
+    private boolean checkpointed;
+    private long sourceOffset;
+    /** Prevents two executions from using the same directory at the same
+     * time. */
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+    /** Class loader of keys and values; generated classes are not visible
+     * to the default class loader of {@link ObjectInputStream}. */
+    private final @Nullable ClassLoader classLoader;
+
+    @SuppressWarnings("unchecked")
+    SpillingStateStore(File directory, int maxInMemory,
+        @Nullable ClassLoader classLoader) {
+      this.directory = directory;
+      this.maxInMemory = maxInMemory;
+      this.classLoader = classLoader;
+      try {
+        Files.createDirectories(directory.toPath());
+        lockChannel =
+            FileChannel.open(new File(directory, LOCK).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+          lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+          lock = null; // held by this process
+        }
+        if (lock == null) {
+          lockChannel.close();
+          throw new IllegalStateException("state " + directory
+              + " is in use by another execution");
+        }
+        this.lock = lock;
+      } catch (IOException e) {
+        throw Util.toUnchecked(e);
+      }
+      try {
+        final File checkpointFile = new File(directory, CHECKPOINT);
+        long length = 0;
+        if (checkpointFile.exists()) {
+          try (ObjectInputStream in =
+                   new LoaderObjectInputStream(
+                       new BufferedInputStream(
+                           new FileInputStream(checkpointFile)),
+                       classLoader)) {
+            generation = in.readInt();
+            length = in.readLong();
+            sourceOffset = in.readLong();
+            offsets.putAll((Map<K, Long>) in.readObject());
+          }
+          checkpointed = true;
+        }
+        log = new RandomAccessFile(logFile(generation), "rw");
+        // Discard values written after the checkpoint, or, if there is no
+        // checkpoint, by a previous execution
+        log.setLength(length);
+        compactedBytes = length;
+      } catch (IOException | ClassNotFoundException e) {
+        releaseLock();
+        throw Util.toUnchecked(e);
+      }
+    }
+
+    private File logFile(int generation) {
+      return new File(directory, "log." + generation);
+    }
+
+    @Override public @Nullable V get(K key) {
+      V value = cache.get(key);
+      if (value != null) {
+        return value;
+      }
+      value = pinned.get(key);
+      if (value != null) {
+        return value;
+      }
+      final Long offset = offsets.get(key);
+      if (offset == null) {
+        return null;
+      }
+      value = read(offset);
+      cache.put(key, value);
+      evict();
+      return value;
+    }
+
+    @Override public void put(K key, V value) {
+      if (pinned.remove(key) != null) {
+        pinned.put(key, value);
+        return;
+      }
+      cache.put(key, value);
+      evict();
+    }
+
+    @Override public @Nullable V remove(K key) {
+      final V value = get(key);
+      cache.remove(key);
+      pinned.remove(key);
+      offsets.remove(key);
+      return value;
+    }
+
+    @Override public int size() {
+      return allKeys().size();
+    }
+
+    @Override public List<K> keys() {
+      return new ArrayList<>(allKeys());
+    }
+
+    private Set<K> allKeys() {
+      final Set<K> keys = new LinkedHashSet<>(offsets.keySet());
+      keys.addAll(cache.keySet());
+      keys.addAll(pinned.keySet());
+      return keys;
+    }
+
+    /** Writes the least recently used entries to the log until no more than
+     * {@link #maxInMemory} entries are in memory. */
+    private void evict() {
+      while (cache.size() > maxInMemory) {
+        final Map.Entry<K, V> eldest = cache.entrySet().iterator().next();
+        final K key = eldest.getKey();
+        final V value = eldest.getValue();
+        cache.remove(key);
+        final @Nullable Long offset = append(value);
+        if (offset == null) {
+          pinned.put(key, value);
+        } else {
+          offsets.put(key, offset);
+        }
+      }
+    }
+
+    /** Appends a value to the log and returns its offset, or returns null if
+     * the value cannot be serialized. */
+    private @Nullable Long append(V value) {
+      final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+        out.writeObject(value);
+      } catch (NotSerializableException e) {
+        return null;
+      } catch (IOException e) {
+        throw Util.toUnchecked(e);
+      }
+      try {
+        final long offset = log.length();
+        log.seek(offset);
+        log.writeInt(bytes.size());
+        log.write(bytes.toByteArray());
+        return offset;
+      } catch (IOException e) {
+        throw Util.toUnchecked(e);
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V read(long offset) {
+      try {
+        log.seek(offset);
+        final byte[] bytes = new byte[log.readInt()];
+        log.readFully(bytes);
+        try (ObjectInputStream in =
+                 new LoaderObjectInputStream(new ByteArrayInputStream(bytes),
+                     classLoader)) {
+          return (V) requireNonNull(in.readObject());
+        }
+      } catch (IOException | ClassNotFoundException e) {
+        throw Util.toUnchecked(e);
+      }
+    }
+
+    @Override public long sourceOffset() {
+      return sourceOffset;
+    }
+
+    @Override public void checkpoint(long sourceOffset) {
+      try {
+        for (Map.Entry<K, V> entry : cache.entrySet()) {
+          final @Nullable Long offset = append(entry.getValue());
+          if (offset != null) {
+            offsets.put(entry.getKey(), offset);
+          }
+        }
+        final int previousGeneration = generation;
+        if (log.length() > Math.max(2 * compactedBytes, MIN_COMPACT_BYTES)) {
+          compact();
+        }
+        log.getFD().sync();
+
+        final File tmp = new File(directory, CHECKPOINT + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tmp);
+             ObjectOutputStream out =
+                 new ObjectOutputStream(new BufferedOutputStream(fos))) {
+          out.writeInt(generation);
+          out.writeLong(log.length());
+          out.writeLong(sourceOffset);
+          out.writeObject(new HashMap<>(offsets));
+          out.flush();
+          fos.getFD().sync();
+        }
+        Files.move(tmp.toPath(), new File(directory, CHECKPOINT).toPath(),
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+        checkpointed = true;
+        this.sourceOffset = sourceOffset;
+        if (generation != previousGeneration) {
+          Files.deleteIfExists(logFile(previousGeneration).toPath());
+        }
+      } catch (IOException e) {
+        throw Util.toUnchecked(e);
+      }
+    }
+
+    /** Copies the live values to a log of the next generation. */
+    private void compact() throws IOException {
+      final RandomAccessFile newLog =
+          new RandomAccessFile(logFile(generation + 1), "rw");
+      newLog.setLength(0);
+      for (Map.Entry<K, Long> entry : offsets.entrySet()) {
+        log.seek(entry.getValue());
+        final byte[] bytes = new byte[log.readInt()];
+        log.readFully(bytes);
+        entry.setValue(newLog.length());
+        newLog.writeInt(bytes.length);
+        newLog.write(bytes);
+      }
+      log.close();
+      if (!checkpointed) {
+        Files.deleteIfExists(logFile(generation).toPath());
+      }
+      log = newLog;
+      ++generation;
+      compactedBytes = newLog.length();
+    }
+
+    @Override public void close() {
+      cache.clear();
+      pinned.clear();
+      offsets.clear();
+      try {
+        log.close();
+        if (!checkpointed) {
+          Files.deleteIfExists(logFile(generation).toPath());
+        }
+      } catch (IOException e) {
+        throw Util.toUnchecked(e);
+      } finally {
+        releaseLock();
+      }
+    }
+
+    private void releaseLock() {
+      try {
+        lock.release();
+        lockChannel.close();
+      } catch (IOException e) {
+        throw Util.toUnchecked(e);
+      }
+    }
+  }
+
+  /** Object input stream that resolves classes using a given class loader,
+   * falling back to the default class loader. */
+  private static class LoaderObjectInputStream extends ObjectInputStream {
+    private final @Nullable ClassLoader classLoader;
+
+    LoaderObjectInputStream(InputStream in, @Nullable ClassLoader classLoader)
+        throws IOException {
+      super(in);
+      this.classLoader = classLoader;
+    }
+
+    @Override protected Class<?> resolveClass(ObjectStreamClass desc)
+        throws IOException, ClassNotFoundException {
+      if (classLoader != null) {
+        try {
+          return Class.forName(desc.getName(), false, classLoader);
+        } catch (ClassNotFoundException e) {
+          // fall through to the default class loader
+        }
+      }
+      return super.resolveClass(desc);
+    }
+  }
+}
@@ -122,25 +122,31 @@ private static SqlBinaryOperator of(SqlKind kind) {
     // Derive type for RHS.
     if (right instanceof SqlNodeList) {
       // Handle the 'IN (expr, ...)' form.
-      List<RelDataType> rightTypeList = new ArrayList<>();
       SqlNodeList nodeList = (SqlNodeList) right;
-      for (int i = 0; i < nodeList.size(); i++) {
-        SqlNode node = nodeList.get(i);
-        RelDataType nodeType = validator.deriveType(scope, node);
-        rightTypeList.add(nodeType);
-      }
-      rightType = typeFactory.leastRestrictive(rightTypeList);
-
-      // First check that the expressions in the IN list are compatible
-      // with each other. Same rules as the VALUES operator (per
-      // SQL:2003 Part 2 Section 8.4, <in predicate>).
-      if (null == rightType && validator.config().typeCoercionEnabled()) {
-        // Do implicit type cast if it is allowed to.
-        rightType = validator.getTypeCoercion().getWiderTypeFor(rightTypeList, true);
-      }
-      if (null == rightType) {
-        throw validator.newValidationError(right,
-            RESOURCE.incompatibleTypesInList());
+
+      // If the list consists of literals of the same type name (as do the
+      // large lists generated by tools), derive their types in one pass.
+      rightType = validator.deriveLiteralListType(scope, nodeList);
+      if (rightType == null) {
+        List<RelDataType> rightTypeList = new ArrayList<>();
+        for (int i = 0; i < nodeList.size(); i++) {
+          SqlNode node = nodeList.get(i);
+          RelDataType nodeType = validator.deriveType(scope, node);
+          rightTypeList.add(nodeType);
+        }
+        rightType = typeFactory.leastRestrictive(rightTypeList);
+
+        // First check that the expressions in the IN list are compatible
+        // with each other. Same rules as the VALUES operator (per
+        // SQL:2003 Part 2 Section 8.4, <in predicate>).
+        if (null == rightType && validator.config().typeCoercionEnabled()) {
+          // Do implicit type cast if it is allowed to.
+          rightType = validator.getTypeCoercion().getWiderTypeFor(rightTypeList, true);
+        }
+        if (null == rightType) {
+          throw validator.newValidationError(right,
+              RESOURCE.incompatibleTypesInList());
+        }
       }
 
       // Record the RHS type for use by SqlToRelConverter.
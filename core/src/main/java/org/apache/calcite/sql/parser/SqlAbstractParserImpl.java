@@ -32,6 +32,7 @@
 import org.apache.calcite.sql.SqlUtil;
 import org.apache.calcite.sql.validate.SqlConformance;
 import org.apache.calcite.util.Glossary;
+import org.apache.calcite.util.SourceStringReader;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
@@ -559,6 +560,25 @@ public void setTimeUnitCodes(Map<String, TimeUnit> timeUnitCodes) {
    */
   public abstract SqlNode parseArray() throws SqlParseException;
 
+  /**
+   * Resets this parser so that it can parse another statement.
+   *
+   * <p>Clears the state left by the previous statement (dynamic parameter
+   * count, original SQL text, warnings) and re-initializes the token manager
+   * on the new input. Settings such as casing, conformance and lexical state
+   * are not changed.
+   *
+   * @param reader Source of the next statement
+   */
+  public void reset(Reader reader) {
+    ReInit(reader);
+    nDynamicParams = 0;
+    originalSql = reader instanceof SourceStringReader
+        ? ((SourceStringReader) reader).getSourceString()
+        : null;
+    warnings.clear();
+  }
+
   /**
    * Sets the SQL text that is being parsed.
    */
@@ -64,11 +64,13 @@ public class SqlParser {
 
   //~ Instance fields --------------------------------------------------------
   private final SqlAbstractParserImpl parser;
+  private final SqlParserImplFactory parserFactory;
 
   //~ Constructors -----------------------------------------------------------
   private SqlParser(SqlAbstractParserImpl parser,
       Config config) {
     this.parser = parser;
+    this.parserFactory = config.parserFactory();
     parser.setTabSize(1);
     parser.setQuotedCasing(config.quotedCasing());
     parser.setUnquotedCasing(config.unquotedCasing());
@@ -129,6 +131,24 @@ public static SqlParser create(Reader reader, Config config) {
     return new SqlParser(parser, config);
   }
 
+  /** Creates a <code>SqlParser</code> that wraps an existing parser
+   * implementation, which must have been created by
+   * {@code config.parserFactory()} and reset on its new input. */
+  static SqlParser create(SqlAbstractParserImpl parser, Config config) {
+    return new SqlParser(parser, config);
+  }
+
+  /** Returns the underlying parser implementation. */
+  SqlAbstractParserImpl parserImpl() {
+    return parser;
+  }
+
+  /** Returns the factory that created the underlying parser
+   * implementation. */
+  SqlParserImplFactory parserFactory() {
+    return parserFactory;
+  }
+
   /**
    * Parses a SQL expression.
    *
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.sql.parser;
+
+import org.apache.calcite.config.CalciteSystemProperty;
+import org.apache.calcite.util.SourceStringReader;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.Reader;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Pool of parsers that can be reused from one statement to the next.
+ *
+ * <p>Creating a parser generated by JavaCC allocates its token buffers and
+ * look-ahead tables; a pooled parser is instead
+ * {@link SqlAbstractParserImpl#reset reset} on the new input.
+ *
+ * <p>A parser is not thread-safe, but the pool is: each call to
+ * {@link #acquire} returns a parser that no other thread is using. When it
+ * has finished parsing, the caller may give the parser back by calling
+ * {@link #release}; after that, it must not use the parser, or any parser
+ * state such as {@link SqlParser#getWarnings()}, again. (The parse trees that
+ * the parser produced remain valid.) A parser that is never released is
+ * simply garbage-collected.
+ *
+ * <p>The pool keeps up to {@code maxIdle} idle parsers for each
+ * {@link SqlParserImplFactory}. Factories are held weakly and compared by
+ * identity.
+ *
+ * @see CalciteSystemProperty#PARSER_POOL_SIZE
+ */
+public class SqlParserPool {
+  /** Pool shared by the parsers in Calcite's own prepare and planner code,
+   * whose size is given by {@link CalciteSystemProperty#PARSER_POOL_SIZE}. */
+  public static final SqlParserPool INSTANCE =
+      new SqlParserPool(CalciteSystemProperty.PARSER_POOL_SIZE.value());
+
+  private final int maxIdle;
+  private final LoadingCache<SqlParserImplFactory,
+      Queue<SqlAbstractParserImpl>> idle;
+
+  /** Creates a SqlParserPool.
+   *
+   * @param maxIdle Maximum number of idle parsers kept per parser factory;
+   *               0 disables pooling
+   */
+  public SqlParserPool(int maxIdle) {
+    if (maxIdle < 0) {
+      throw new IllegalArgumentException("maxIdle must be non-negative: "
+          + maxIdle);
+    }
+    this.maxIdle = maxIdle;
+    this.idle = CacheBuilder.newBuilder()
+        .weakKeys()
+        .build(CacheLoader.from(f -> new ArrayBlockingQueue<>(maxIdle)));
+  }
+
+  /** Returns a parser for a SQL string, reusing an idle parser if
+   * possible. */
+  public SqlParser acquire(String sql, SqlParser.Config config) {
+    return acquire(new SourceStringReader(sql), config);
+  }
+
+  /** Returns a parser for a reader, reusing an idle parser if possible. */
+  public SqlParser acquire(Reader reader, SqlParser.Config config) {
+    final SqlAbstractParserImpl parserImpl = poll(config.parserFactory());
+    if (parserImpl == null) {
+      return SqlParser.create(reader, config);
+    }
+    parserImpl.reset(reader);
+    return SqlParser.create(parserImpl, config);
+  }
+
+  /** Returns a parser to the pool. The caller must not use the parser
+   * afterwards. */
+  public void release(SqlParser parser) {
+    if (maxIdle == 0) {
+      return;
+    }
+    idle.getUnchecked(parser.parserFactory()).offer(parser.parserImpl());
+  }
+
+  /** Returns the number of idle parsers for a given factory. */
+  public int idleCount(SqlParserImplFactory parserFactory) {
+    final Queue<SqlAbstractParserImpl> queue =
+        idle.getIfPresent(parserFactory);
+    return queue == null ? 0 : queue.size();
+  }
+
+  private @Nullable SqlAbstractParserImpl poll(
+      SqlParserImplFactory parserFactory) {
+    final Queue<SqlAbstractParserImpl> queue =
+        idle.getIfPresent(parserFactory);
+    return queue == null ? null : queue.poll();
+  }
+}
@@ -356,6 +356,28 @@ RelDataType deriveType(
       SqlValidatorScope scope,
       SqlNode operand);
 
+  /**
+   * Derives, in a single pass, the types of a list of literals that all have
+   * the same {@link org.apache.calcite.sql.type.SqlTypeName}, such as the
+   * values of a large IN-list or a column of a VALUES clause, and returns
+   * their least restrictive type.
+   *
+   * <p>Returns null if the list is empty, or contains a node that is not a
+   * literal, or literals of different type names; the caller should then
+   * derive the type of each node using {@link #deriveType}.
+   *
+   * <p>The default implementation always returns null.
+   *
+   * @param scope Syntactic scope
+   * @param nodes List of parse tree nodes
+   * @return Least restrictive type of the literals, or null
+   */
+  default @Nullable RelDataType deriveLiteralListType(
+      SqlValidatorScope scope,
+      List<? extends SqlNode> nodes) {
+    return null;
+  }
+
   /**
    * Adds "line x, column y" context to a validator exception.
    *
@@ -1989,6 +1989,44 @@ protected SqlSelect createSourceSelectForDelete(SqlDelete call) {
     return type;
   }
 
+  @Override public @Nullable RelDataType deriveLiteralListType(
+      SqlValidatorScope scope,
+      List<? extends SqlNode> nodes) {
+    if (nodes.isEmpty()) {
+      return null;
+    }
+    final SqlTypeName typeName = nodes.get(0) instanceof SqlLiteral
+        ? ((SqlLiteral) nodes.get(0)).getTypeName()
+        : null;
+    if (typeName == null
+        || typeName == SqlTypeName.NULL
+        || typeName == SqlTypeName.UNKNOWN) {
+      return null;
+    }
+    for (SqlNode node : nodes) {
+      if (!(node instanceof SqlLiteral)
+          || ((SqlLiteral) node).getTypeName() != typeName) {
+        return null;
+      }
+    }
+
+    // Literals of the same type name usually have only a few distinct types
+    // (say CHAR(n) for a few values of n), and the least restrictive of those
+    // is the least restrictive of all.
+    final Set<RelDataType> types = new LinkedHashSet<>();
+    for (SqlNode node : nodes) {
+      RelDataType type = nodeToTypeMap.get(node);
+      if (type == null) {
+        type =
+            scope.nullifyType(node,
+                ((SqlLiteral) node).createSqlType(typeFactory));
+        setValidatedNodeType(node, type);
+      }
+      types.add(type);
+    }
+    return typeFactory.leastRestrictive(new ArrayList<>(types));
+  }
+
   /**
    * Derives the type of a node, never null.
    */
@@ -5954,6 +5992,12 @@ protected void validateValues(
       // 2. check if types at i:th position in each row are compatible
       for (int col = 0; col < columnCount; col++) {
         final int c = col;
+        final List<SqlNode> column =
+            Util.transform(operands, row -> ((SqlCall) row).operand(c));
+        if (deriveLiteralListType(scope, column) != null) {
+          // Column consists of literals of the same type name
+          continue;
+        }
         final RelDataType type =
             typeFactory.leastRestrictive(
                 new AbstractList<RelDataType>() {
@@ -44,6 +44,7 @@
 import org.apache.calcite.rel.core.Aggregate;
 import org.apache.calcite.rel.core.AggregateCall;
 import org.apache.calcite.rel.core.Collect;
+import org.apache.calcite.rel.core.ColumnarValues;
 import org.apache.calcite.rel.core.CorrelationId;
 import org.apache.calcite.rel.core.Filter;
 import org.apache.calcite.rel.core.Join;
@@ -56,6 +57,7 @@
 import org.apache.calcite.rel.hint.Hintable;
 import org.apache.calcite.rel.hint.RelHint;
 import org.apache.calcite.rel.logical.LogicalAggregate;
+import org.apache.calcite.rel.logical.LogicalColumnarValues;
 import org.apache.calcite.rel.logical.LogicalCorrelate;
 import org.apache.calcite.rel.logical.LogicalFilter;
 import org.apache.calcite.rel.logical.LogicalIntersect;
@@ -95,6 +97,7 @@
 import org.apache.calcite.rex.RexWindowBound;
 import org.apache.calcite.rex.RexWindowBounds;
 import org.apache.calcite.rex.RexWindowExclusion;
+import org.apache.calcite.runtime.ColumnarRows;
 import org.apache.calcite.runtime.PairList;
 import org.apache.calcite.schema.ColumnStrategy;
 import org.apache.calcite.schema.ModifiableTable;
@@ -232,6 +235,7 @@
 import static org.apache.calcite.sql.type.SqlTypeUtil.fromMeasure;
 import static org.apache.calcite.sql.type.SqlTypeUtil.hasScale;
 import static org.apache.calcite.sql.type.SqlTypeUtil.isApproximateNumeric;
+import static org.apache.calcite.sql.type.SqlTypeUtil.isCharacter;
 import static org.apache.calcite.sql.type.SqlTypeUtil.isExactNumeric;
 import static org.apache.calcite.sql.type.SqlTypeUtil.keepSourceTypeAndTargetNullability;
 import static org.apache.calcite.sql.type.SqlTypeUtil.promoteToRowType;
@@ -1224,6 +1228,18 @@ private void substituteSubQuery(Blackboard bb, SubQuery subQuery) {
 
       if (query instanceof SqlNodeList) {
         SqlNodeList valueList = (SqlNodeList) query;
+        if (config.isInListToSearch()
+            && leftSqlKeys.size() == 1
+            && (call.getKind() == SqlKind.IN
+                || call.getKind() == SqlKind.NOT_IN)) {
+          final RexNode search =
+              convertInToSearch(bb, leftSqlKeys.get(0), valueList,
+                  call.getKind() == SqlKind.NOT_IN);
+          if (search != null) {
+            subQuery.expr = search;
+            return;
+          }
+        }
         // When the list size under the threshold or the list references columns, we convert to OR.
         if (valueList.size() < config.getInSubQueryThreshold()
             || valueList.accept(new SqlIdentifierFinder())) {
@@ -1809,6 +1825,56 @@ public RelNode convertToSingleValueSubq(
     }
   }
 
+  /**
+   * Converts "x IN (1, 2, ...)" to "SEARCH(x, Sarg[1, 2, ...])", or returns
+   * null if the values are not all non-null literals of a type that can be
+   * compared with "x".
+   *
+   * <p>The literals go straight into a {@link org.apache.calcite.util.Sarg};
+   * there is no intermediate disjunction or inline table.
+   *
+   * @param leftKey    LHS
+   * @param valuesList RHS
+   * @param negate     Whether the operator is NOT IN
+   * @return converted expression, or null
+   */
+  private @Nullable RexNode convertInToSearch(
+      final Blackboard bb,
+      SqlNode leftKey,
+      SqlNodeList valuesList,
+      boolean negate) {
+    final RelDataType leftType = validator().getValidatedNodeType(leftKey);
+    final RelDataType listType = validator().getValidatedNodeType(valuesList);
+    if (leftType.getSqlTypeName() != listType.getSqlTypeName()
+        && !(isCharacter(leftType)
+            && isCharacter(listType))) {
+      return null;
+    }
+    for (SqlNode node : valuesList) {
+      // Literal, or literal cast by type coercion
+      final SqlNode operand = node.getKind() == SqlKind.CAST
+          ? ((SqlCall) node).operand(0)
+          : node;
+      if (!(operand instanceof SqlLiteral)
+          || SqlUtil.isNullLiteral(operand, false)) {
+        return null;
+      }
+    }
+    final List<RexNode> literals = new ArrayList<>(valuesList.size());
+    for (SqlNode node : valuesList) {
+      final RexNode e = bb.convertExpression(node);
+      if (!(e instanceof RexLiteral)) {
+        return null;
+      }
+      literals.add(e);
+    }
+    final RexNode left = bb.convertExpression(leftKey);
+    final RexNode in = rexBuilder.makeIn(left, literals);
+    return negate
+        ? rexBuilder.makeCall(SqlStdOperatorTable.NOT, in)
+        : in;
+  }
+
   /**
    * Converts a {@link SqlNodeList} (for example an IN-list or VALUES list)
    * into a relational expression and produces a Rex-level sub-query that
@@ -1990,8 +2056,18 @@ private RelOptUtil.Exists convertExists(
       }
       unionInputs.add(convertRowConstructor(bb, call));
     }
-    LogicalValues values =
-        LogicalValues.create(cluster, rowType, tupleList.build());
+    final ImmutableList<ImmutableList<RexLiteral>> tuples = tupleList.build();
+    if (unionInputs.isEmpty()
+        && tuples.size() >= config.getColumnarValuesThreshold()) {
+      final ColumnarRows columnarRows = ColumnarValues.toRows(rowType, tuples);
+      if (columnarRows != null) {
+        final RelNode resultRel =
+            LogicalColumnarValues.create(cluster, rowType, columnarRows);
+        leaves.put(resultRel, resultRel.getRowType().getFieldCount());
+        return resultRel;
+      }
+    }
+    LogicalValues values = LogicalValues.create(cluster, rowType, tuples);
     RelNode resultRel;
     if (unionInputs.isEmpty()) {
       resultRel = values;
@@ -6555,6 +6631,35 @@ public interface Config {
     /** Sets {@link #getInSubQueryThreshold()}. */
     Config withInSubQueryThreshold(int threshold);
 
+    /** Returns the {@code inListToSearch} option. Controls whether an
+     * {@code IN} or {@code NOT IN} list whose values are all non-null
+     * literals, and whose left operand is a single expression, is converted
+     * to a call to {@code SEARCH} with a
+     * {@link org.apache.calcite.util.Sarg}, whatever the size of the list.
+     * This is cheaper to create, and to plan, than a long disjunction or an
+     * inline table. Default is false, in which case
+     * {@link #getInSubQueryThreshold()} applies. */
+    @Value.Default default boolean isInListToSearch() {
+      return false;
+    }
+
+    /** Sets {@link #isInListToSearch()}. */
+    Config withInListToSearch(boolean inListToSearch);
+
+    /** Returns the {@code columnarValuesThreshold} option. A {@code VALUES}
+     * clause, or an inline table created for an {@code IN} list, that
+     * consists of literals and has at least this many rows is converted to a
+     * {@link org.apache.calcite.rel.logical.LogicalColumnarValues}, which
+     * holds its data in typed column arrays, rather than to a
+     * {@link org.apache.calcite.rel.logical.LogicalValues}. Default is
+     * {@link Integer#MAX_VALUE}, which disables the conversion. */
+    @Value.Default default int getColumnarValuesThreshold() {
+      return Integer.MAX_VALUE;
+    }
+
+    /** Sets {@link #getColumnarValuesThreshold()}. */
+    Config withColumnarValuesThreshold(int threshold);
+
     /** Returns whether to remove Sort operator for a sub-query
      * if the Sort has no offset and fetch limit attributes.
      * Because the remove does not change the semantics,
@@ -16,24 +16,33 @@
  */
 package org.apache.calcite.tools;
 
+import org.apache.calcite.adapter.enumerable.EnumerableConvention;
 import org.apache.calcite.adapter.enumerable.EnumerableRules;
 import org.apache.calcite.config.CalciteConnectionConfig;
 import org.apache.calcite.config.CalciteSystemProperty;
+import org.apache.calcite.plan.RelOptCost;
 import org.apache.calcite.plan.RelOptCostImpl;
 import org.apache.calcite.plan.RelOptLattice;
 import org.apache.calcite.plan.RelOptMaterialization;
 import org.apache.calcite.plan.RelOptPlanner;
 import org.apache.calcite.plan.RelOptRule;
+import org.apache.calcite.plan.RelOptRuleOperand;
 import org.apache.calcite.plan.RelOptRules;
 import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.plan.RelRule;
 import org.apache.calcite.plan.RelTraitSet;
 import org.apache.calcite.plan.hep.HepMatchOrder;
 import org.apache.calcite.plan.hep.HepPlanner;
 import org.apache.calcite.plan.hep.HepProgram;
 import org.apache.calcite.plan.hep.HepProgramBuilder;
+import org.apache.calcite.plan.volcano.RelSubset;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.RelNodes;
+import org.apache.calcite.rel.RelVisitor;
+import org.apache.calcite.rel.core.Aggregate;
 import org.apache.calcite.rel.core.Calc;
+import org.apache.calcite.rel.core.Correlate;
+import org.apache.calcite.rel.core.Join;
 import org.apache.calcite.rel.core.RelFactories;
 import org.apache.calcite.rel.metadata.ChainedRelMetadataProvider;
 import org.apache.calcite.rel.metadata.DefaultRelMetadataProvider;
@@ -52,9 +61,12 @@
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
+
 import java.util.Arrays;
 import java.util.List;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 import static org.apache.calcite.linq4j.Nullness.castNonNull;
 
@@ -92,6 +104,7 @@ public class Programs {
           EnumerableRules.ENUMERABLE_MINUS_RULE,
           EnumerableRules.ENUMERABLE_TABLE_MODIFICATION_RULE,
           EnumerableRules.ENUMERABLE_VALUES_RULE,
+          EnumerableRules.ENUMERABLE_COLUMNAR_VALUES_RULE,
           EnumerableRules.ENUMERABLE_WINDOW_RULE,
           EnumerableRules.ENUMERABLE_MATCH_RULE,
           CoreRules.PROJECT_TO_SEMI_JOIN,
@@ -114,6 +127,27 @@ public class Programs {
           JoinPushThroughJoinRule.LEFT,
           CoreRules.SORT_PROJECT_TRANSPOSE);
 
+  /** Rules that {@link #heuristicFirst} uses to convert each logical
+   * operator directly to {@link EnumerableConvention}; each is a copy of an
+   * enumerable rule that fires only if the operator's inputs are already
+   * enumerable. */
+  private static final ImmutableList<RelOptRule> HEURISTIC_RULES =
+      Stream.of(
+          EnumerableRules.ENUMERABLE_TABLE_SCAN_RULE,
+          EnumerableRules.ENUMERABLE_VALUES_RULE,
+          EnumerableRules.ENUMERABLE_COLUMNAR_VALUES_RULE,
+          EnumerableRules.ENUMERABLE_PROJECT_RULE,
+          EnumerableRules.ENUMERABLE_FILTER_RULE,
+          EnumerableRules.ENUMERABLE_CALC_RULE,
+          EnumerableRules.ENUMERABLE_AGGREGATE_RULE,
+          EnumerableRules.ENUMERABLE_SORT_RULE,
+          EnumerableRules.ENUMERABLE_LIMIT_RULE,
+          EnumerableRules.ENUMERABLE_JOIN_RULE,
+          EnumerableRules.ENUMERABLE_CORRELATE_RULE,
+          EnumerableRules.ENUMERABLE_UNION_RULE)
+          .map(Programs::withEnumerableInputs)
+          .collect(ImmutableList.toImmutableList());
+
   // private constructor for utility class
   private Programs() {}
 
@@ -235,6 +269,86 @@ public static Program heuristicJoinOrder(
     };
   }
 
+  /** Creates a program that plans simple queries with a single bottom-up
+   * pass of a {@link HepPlanner} that converts each logical operator directly
+   * to {@link EnumerableConvention}, and plans other queries using
+   * {@code program}, typically a cost-based program.
+   *
+   * <p>A query is simple if it has at most {@code maxJoinCount} joins, at most
+   * {@code maxCorrelateCount} correlated sub-queries and at most
+   * {@code maxAggregateCount} aggregates. Queries that use materializations or
+   * lattices are never simple.
+   *
+   * <p>The heuristic pass uses the enumerable rules, with their own
+   * conditions, and converts an operator only after all of its inputs have
+   * been converted. If the plan it produces still contains an operator that
+   * is not enumerable, does not have the required traits, or has an estimated
+   * cumulative cost that exceeds {@code maxRowCount} rows, it is discarded and
+   * {@code program} plans the query instead. */
+  public static Program heuristicFirst(Program program,
+      RelMetadataProvider metadataProvider, int maxJoinCount,
+      int maxCorrelateCount, int maxAggregateCount, double maxRowCount) {
+    final HepProgram hepProgram = new HepProgramBuilder()
+        .addMatchOrder(HepMatchOrder.BOTTOM_UP)
+        .addRuleCollection(HEURISTIC_RULES)
+        .build();
+    final Program heuristicProgram = of(hepProgram, true, metadataProvider);
+    return (planner, rel, requiredOutputTraits, materializations, lattices) -> {
+      if (materializations.isEmpty()
+          && lattices.isEmpty()
+          && requiredOutputTraits.getConvention() == EnumerableConvention.INSTANCE
+          && OperatorCountVisitor.isSimple(rel, maxJoinCount,
+              maxCorrelateCount, maxAggregateCount)) {
+        final RelNode rel2 =
+            heuristicProgram.run(planner, rel, requiredOutputTraits,
+                materializations, lattices);
+        if (isEnumerable(rel2)
+            && rel2.getTraitSet().satisfies(requiredOutputTraits)) {
+          final RelOptCost cost =
+              rel2.getCluster().getMetadataQuery().getCumulativeCost(rel2);
+          if (cost != null && cost.getRows() <= maxRowCount) {
+            return rel2;
+          }
+        }
+      }
+      return program.run(planner, rel, requiredOutputTraits, materializations,
+          lattices);
+    };
+  }
+
+  /** Returns a copy of a rule that matches only operators whose inputs are
+   * all in {@link EnumerableConvention}.
+   *
+   * <p>A converter rule converts each input to the target convention; if an
+   * input were not already converted, it would ask the cluster's planner,
+   * which is not the {@link HepPlanner}, to do so. */
+  private static RelOptRule withEnumerableInputs(RelOptRule rule) {
+    final RelOptRuleOperand operand = rule.getOperand();
+    return ((RelRule<?>) rule).config
+        .withOperandSupplier(b ->
+            b.operand(operand.getMatchedClass())
+                .predicate(r -> operand.matches(r)
+                    && r.getInputs().stream().allMatch(input ->
+                        input.getConvention() == EnumerableConvention.INSTANCE))
+                .anyInputs())
+        .toRule();
+  }
+
+  /** Returns whether every operator in a tree is in
+   * {@link EnumerableConvention}. */
+  private static boolean isEnumerable(RelNode rel) {
+    if (rel instanceof RelSubset
+        || rel.getConvention() != EnumerableConvention.INSTANCE) {
+      return false;
+    }
+    for (RelNode input : rel.getInputs()) {
+      if (!isEnumerable(input)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   public static Program decorrelate() {
     return new DecorrelateProgram();
   }
@@ -294,28 +408,24 @@ public static Program standard(RelMetadataProvider metadataProvider) {
   /** Returns the standard program with user metadata provider and enableFieldTrimming config. */
   public static Program standard(RelMetadataProvider metadataProvider,
       boolean enableFieldTrimming) {
-    final Program program1 =
-        (planner, rel, requiredOutputTraits, materializations, lattices) -> {
-          for (RelOptMaterialization materialization : materializations) {
-            planner.addMaterialization(materialization);
-          }
-          for (RelOptLattice lattice : lattices) {
-            planner.addLattice(lattice);
-          }
-
-          planner.setRoot(rel);
-          final RelNode rootRel2 =
-              rel.getTraitSet().equals(requiredOutputTraits)
-                  ? rel
-                  : planner.changeTraits(rel, requiredOutputTraits);
-          requireNonNull(rootRel2, "rootRel2");
+    return standard(metadataProvider, enableFieldTrimming, volcano());
+  }
 
-          planner.setRoot(rootRel2);
-          final RelOptPlanner planner2 = planner.chooseDelegate();
-          final RelNode rootRel3 = planner2.findBestExp();
-          return requireNonNull(rootRel3, "could not implement exp");
-        };
+  /** Returns a variant of the standard program that plans simple queries
+   * using a heuristic pass and uses the Volcano planner only for queries
+   * that exceed the given thresholds.
+   *
+   * @see #heuristicFirst */
+  public static Program standardHeuristicFirst(
+      RelMetadataProvider metadataProvider, int maxJoinCount,
+      int maxCorrelateCount, int maxAggregateCount, double maxRowCount) {
+    return standard(metadataProvider, true,
+        heuristicFirst(volcano(), metadataProvider, maxJoinCount,
+            maxCorrelateCount, maxAggregateCount, maxRowCount));
+  }
 
+  private static Program standard(RelMetadataProvider metadataProvider,
+      boolean enableFieldTrimming, Program program1) {
     List<Program> programs =
         Lists.newArrayList(subQuery(metadataProvider),
         new DecorrelateProgram(),
@@ -332,6 +442,31 @@ public static Program standard(RelMetadataProvider metadataProvider,
     return new SequenceProgram(ImmutableList.copyOf(programs));
   }
 
+  /** Returns a program that plans using the planner's rules, typically in a
+   * {@link org.apache.calcite.plan.volcano.VolcanoPlanner}. */
+  private static Program volcano() {
+    return (planner, rel, requiredOutputTraits, materializations, lattices) -> {
+      for (RelOptMaterialization materialization : materializations) {
+        planner.addMaterialization(materialization);
+      }
+      for (RelOptLattice lattice : lattices) {
+        planner.addLattice(lattice);
+      }
+
+      planner.setRoot(rel);
+      final RelNode rootRel2 =
+          rel.getTraitSet().equals(requiredOutputTraits)
+              ? rel
+              : planner.changeTraits(rel, requiredOutputTraits);
+      requireNonNull(rootRel2, "rootRel2");
+
+      planner.setRoot(rootRel2);
+      final RelOptPlanner planner2 = planner.chooseDelegate();
+      final RelNode rootRel3 = planner2.findBestExp();
+      return requireNonNull(rootRel3, "could not implement exp");
+    };
+  }
+
   /** Program backed by a {@link RuleSet}. */
   static class RuleSetProgram implements Program {
     final RuleSet ruleSet;
@@ -431,6 +566,36 @@ private static class DecorrelateProgram implements Program {
     }
   }
 
+  /** Visitor that counts the joins, correlates and aggregates in a query, to
+   * decide whether it is simple enough to be planned by the heuristic pass of
+   * {@link #heuristicFirst}. */
+  private static class OperatorCountVisitor extends RelVisitor {
+    int joinCount;
+    int correlateCount;
+    int aggregateCount;
+
+    static boolean isSimple(RelNode rel, int maxJoinCount,
+        int maxCorrelateCount, int maxAggregateCount) {
+      final OperatorCountVisitor visitor = new OperatorCountVisitor();
+      visitor.go(rel);
+      return visitor.joinCount <= maxJoinCount
+          && visitor.correlateCount <= maxCorrelateCount
+          && visitor.aggregateCount <= maxAggregateCount;
+    }
+
+    @Override public void visit(RelNode node, int ordinal,
+        @Nullable RelNode parent) {
+      if (node instanceof Join) {
+        ++joinCount;
+      } else if (node instanceof Correlate) {
+        ++correlateCount;
+      } else if (node instanceof Aggregate) {
+        ++aggregateCount;
+      }
+      super.visit(node, ordinal, parent);
+    }
+  }
+
   /** Program that trims fields. */
   private static class TrimFieldsProgram implements Program {
     @Override public RelNode run(RelOptPlanner planner, RelNode rel,
@@ -86,20 +86,24 @@
 import org.apache.calcite.runtime.Automaton;
 import org.apache.calcite.runtime.BinarySearch;
 import org.apache.calcite.runtime.Bindable;
+import org.apache.calcite.runtime.ColumnarRows;
 import org.apache.calcite.runtime.CompressionFunctions;
 import org.apache.calcite.runtime.Enumerables;
 import org.apache.calcite.runtime.FlatLists;
 import org.apache.calcite.runtime.FunctionContexts;
 import org.apache.calcite.runtime.JsonFunctions;
 import org.apache.calcite.runtime.Matcher;
+import org.apache.calcite.runtime.MonotonicDeque;
 import org.apache.calcite.runtime.PairList;
 import org.apache.calcite.runtime.Pattern;
 import org.apache.calcite.runtime.RandomFunction;
 import org.apache.calcite.runtime.ResultSetEnumerable;
+import org.apache.calcite.runtime.SearchRanges;
 import org.apache.calcite.runtime.SortedMultiMap;
 import org.apache.calcite.runtime.SpatialTypeFunctions;
 import org.apache.calcite.runtime.SqlFunctions;
 import org.apache.calcite.runtime.SqlFunctions.FlatProductInputType;
+import org.apache.calcite.runtime.StateStores;
 import org.apache.calcite.runtime.UrlFunctions;
 import org.apache.calcite.runtime.Utilities;
 import org.apache.calcite.runtime.XmlFunctions;
@@ -246,6 +250,9 @@ public enum BuiltInMethod {
       EqualityComparer.class, Predicate2.class),
   NESTED_LOOP_JOIN(EnumerableDefaults.class, "nestedLoopJoin", Enumerable.class,
       Enumerable.class, Predicate2.class, Function2.class, JoinType.class),
+  SPATIAL_JOIN(Enumerables.class, "spatialJoin", Enumerable.class,
+      Enumerable.class, Function1.class, Function1.class, double.class,
+      Predicate2.class, Function2.class, boolean.class),
   CORRELATE_JOIN(ExtendedEnumerable.class, "correlateJoin",
       JoinType.class, Function1.class, Function2.class),
   CORRELATE_BATCH_JOIN(EnumerableDefaults.class, "correlateBatchJoin",
@@ -263,6 +270,16 @@ public enum BuiltInMethod {
   GROUP_BY(ExtendedEnumerable.class, "groupBy", Function1.class),
   GROUP_BY2(ExtendedEnumerable.class, "groupBy", Function1.class,
       Function0.class, Function2.class, Function2.class),
+  STREAM_GROUP_BY(Enumerables.class, "streamGroupBy", Enumerable.class,
+      Function1.class, Function1.class, Function0.class, Function2.class,
+      Function2.class, String.class),
+  STATE_STORES_NAME(StateStores.class, "name", DataContext.class,
+      String.class),
+  GROUP_WINDOW_AGGREGATE(Enumerables.class, "groupWindowAggregate",
+      Enumerable.class, Function1.class, Function1.class, int.class, int.class,
+      Enumerables.GroupWindowType.class, long.class, long.class, long.class,
+      long.class, Function0.class, Function2.class, Function2.class,
+      Function2.class, String.class),
   GROUP_BY_MULTIPLE(EnumerableDefaults.class, "groupByMultiple",
       Enumerable.class, List.class, Function0.class, Function2.class,
       Function2.class),
@@ -293,6 +310,7 @@ public enum BuiltInMethod {
   ARRAY_COMPARER(Functions.class, "arrayComparer"),
   FUNCTION0_APPLY(Function0.class, "apply"),
   FUNCTION1_APPLY(Function1.class, "apply", Object.class),
+  FUNCTION2_APPLY(Function2.class, "apply", Object.class, Object.class),
   ARRAYS_AS_LIST(Arrays.class, "asList", Object[].class),
   ARRAY(SqlFunctions.class, "array", Object[].class),
   ARRAY_COPY(System.class, "arraycopy", Object.class, int.class, Object.class, int.class,
@@ -319,6 +337,8 @@ public enum BuiltInMethod {
   IDENTITY_SELECTOR(Functions.class, "identitySelector"),
   AS_ENUMERABLE(Linq4j.class, "asEnumerable", Object[].class),
   AS_ENUMERABLE2(Linq4j.class, "asEnumerable", Iterable.class),
+  COLUMNAR_ROWS_ARRAYS(ColumnarRows.class, "arrays"),
+  COLUMNAR_ROWS_SCALARS(ColumnarRows.class, "scalars"),
   ENUMERABLE_TO_LIST(ExtendedEnumerable.class, "toList"),
   ENUMERABLE_TO_MAP(ExtendedEnumerable.class, "toMap", Function1.class, Function1.class),
   AS_LIST(Primitive.class, "asList", Object.class),
@@ -395,6 +415,12 @@ public enum BuiltInMethod {
   SORTED_MULTI_MAP_ARRAYS(SortedMultiMap.class, "arrays", Comparator.class),
   SORTED_MULTI_MAP_SINGLETON(SortedMultiMap.class, "singletonArrayIterator",
       Comparator.class, List.class),
+  SORTED_MULTI_MAP_SORTED(SortedMultiMap.class, "sortedArrayIterator",
+      Enumerable.class, Function1.class),
+  MONOTONIC_DEQUE_ADD(MonotonicDeque.class, "add", int.class,
+      Comparable.class),
+  MONOTONIC_DEQUE_REMOVE(MonotonicDeque.class, "remove", int.class),
+  MONOTONIC_DEQUE_FIRST(MonotonicDeque.class, "first"),
   IMMUTABLE_INT_LIST_IDENTITY(ImmutableIntList.class, "identity", int.class),
   IMMUTABLE_INT_LIST_COPY_OF(ImmutableIntList.class, "copyOf", int[].class),
   BINARY_SEARCH5_LOWER(BinarySearch.class, "lowerBound", Object[].class,
@@ -405,6 +431,16 @@ public enum BuiltInMethod {
       Object.class, int.class, int.class, Function1.class, Comparator.class),
   BINARY_SEARCH6_UPPER(BinarySearch.class, "upperBound", Object[].class,
       Object.class, int.class, int.class, Function1.class, Comparator.class),
+  SEARCH_RANGES_OF_LONGS(SearchRanges.class, "ofLongs", String[].class),
+  SEARCH_RANGES_OF_DOUBLES(SearchRanges.class, "ofDoubles", String[].class),
+  SEARCH_RANGES_OF_DECIMALS(SearchRanges.class, "ofDecimals", String[].class),
+  SEARCH_RANGES_OF_STRINGS(SearchRanges.class, "ofStrings", String[].class),
+  SEARCH_RANGES_CONTAINS_LONG(SearchRanges.LongRanges.class, "contains",
+      long.class),
+  SEARCH_RANGES_CONTAINS_DOUBLE(SearchRanges.DoubleRanges.class, "contains",
+      double.class),
+  SEARCH_RANGES_CONTAINS(SearchRanges.ComparableRanges.class, "contains",
+      Comparable.class),
   ARRAY_ITEM(SqlFunctions.class, "arrayItemOptional", List.class, int.class,
       int.class, boolean.class),
   MAP_ITEM(SqlFunctions.class, "mapItemOptional", Map.class, Object.class),
@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Iterator that reads ahead from another iterator in a background thread.
+ *
+ * <p>The background thread reads elements in batches and hands each batch
+ * over through a queue that holds up to {@code depth} batches. While the
+ * consumer processes one batch, the thread is already fetching the next, so
+ * the latency of fetching (say a round trip to a remote server, or reading
+ * pages from a file) overlaps with the work done on the current batch.
+ *
+ * <p>The source iterator is created, accessed and released only by the
+ * background thread, which releases it when it is exhausted or when this
+ * iterator is closed.
+ *
+ * @param <E> element type
+ */
+public class PrefetchingIterator<E> implements Iterator<E>, AutoCloseable {
+  private static final ExecutorService EXECUTOR =
+      Executors.newCachedThreadPool(
+          new ThreadFactoryBuilder()
+              .setNameFormat("calcite-prefetch-%d")
+              .setDaemon(true)
+              .build());
+
+  private final Supplier<? extends Iterator<E>> source;
+  private final Runnable closer;
+  private final int batchSize;
+  private final BlockingQueue<Batch<E>> queue;
+  private volatile boolean closed;
+
+  private Iterator<E> current = Collections.emptyIterator();
+  private boolean done;
+  private long fetchWaitNanos;
+
+  /** Creates a PrefetchingIterator and starts reading from the source.
+   *
+   * @param source Creates the source iterator; called by the background
+   *               thread
+   * @param closer Action that releases the source; called by the background
+   *               thread once it has finished with the source
+   * @param batchSize Number of elements in each batch
+   * @param depth Maximum number of batches to read ahead
+   */
+  public PrefetchingIterator(Supplier<? extends Iterator<E>> source,
+      Runnable closer, int batchSize, int depth) {
+    checkArgument(batchSize > 0, "batchSize: %s > 0", batchSize);
+    checkArgument(depth > 0, "depth: %s > 0", depth);
+    this.source = requireNonNull(source, "source");
+    this.closer = requireNonNull(closer, "closer");
+    this.batchSize = batchSize;
+    this.queue = new ArrayBlockingQueue<>(depth);
+    EXECUTOR.execute(this::fill);
+  }
+
+  /** Body of the background thread. */
+  private void fill() {
+    Batch<E> last = new Batch<>(Collections.emptyList(), null);
+    try {
+      final Iterator<E> iterator = source.get();
+      boolean more = true;
+      while (more && !closed) {
+        final List<E> elements = new ArrayList<>(batchSize);
+        while (elements.size() < batchSize && (more = iterator.hasNext())) {
+          elements.add(iterator.next());
+        }
+        if (!elements.isEmpty() && !put(new Batch<>(elements, null))) {
+          return;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    } catch (RuntimeException | Error e) {
+      last = new Batch<>(Collections.emptyList(), e);
+    } finally {
+      closer.run();
+    }
+    try {
+      put(last);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /** Puts a batch onto the queue, waiting for space; returns false if this
+   * iterator was closed while waiting. */
+  private boolean put(Batch<E> batch) throws InterruptedException {
+    while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+      if (closed) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override public boolean hasNext() {
+    while (!current.hasNext()) {
+      if (done) {
+        return false;
+      }
+      final Batch<E> batch;
+      final long start = System.nanoTime();
+      try {
+        batch = queue.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(e);
+      } finally {
+        fetchWaitNanos += System.nanoTime() - start;
+      }
+      if (batch.error != null) {
+        done = true;
+        throw new RuntimeException(batch.error);
+      }
+      if (batch.elements.isEmpty()) {
+        done = true;
+      } else {
+        current = batch.elements.iterator();
+      }
+    }
+    return true;
+  }
+
+  @Override public E next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    return current.next();
+  }
+
+  /** Returns the total time, in nanoseconds, that the consumer has spent
+   * waiting for the background thread to fetch a batch. */
+  public long fetchWaitNanos() {
+    return fetchWaitNanos;
+  }
+
+  /** Stops reading ahead. The background thread releases the source when it
+   * next checks whether this iterator is closed. */
+  @Override public void close() {
+    closed = true;
+    done = true;
+    current = Collections.emptyIterator();
+    queue.clear();
+  }
+
+  /** Batch of elements; an empty batch marks the end of the source,
+   * possibly due to an error.
+   *
+   * @param <E> element type */
+  private static class Batch<E> {
+    final List<E> elements;
+    final @Nullable Throwable error;
+
+    Batch(List<E> elements, @Nullable Throwable error) {
+      this.elements = elements;
+      this.error = error;
+    }
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.enumerable;
+
+import org.apache.calcite.linq4j.tree.BlockBuilder;
+import org.apache.calcite.linq4j.tree.BlockStatement;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.apache.calcite.linq4j.tree.ParameterExpression;
+import org.apache.calcite.runtime.Hook;
+import org.apache.calcite.util.Pair;
+
+import org.codehaus.commons.compiler.ISimpleCompiler;
+import org.codehaus.janino.SimpleCompiler;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+
+/**
+ * Tests the estimation and checking of the size of generated methods, in
+ * {@link EnumerableRelImplementor} and {@link EnumerableInterpretable}.
+ */
+class MethodSizeTest {
+  /** Creates a block of {@code n} statements, each of which adds a
+   * constant to a variable. */
+  private static BlockStatement block(int n) {
+    final ParameterExpression x = Expressions.parameter(int.class, "x");
+    final BlockBuilder builder = new BlockBuilder(false);
+    for (int i = 0; i < n; i++) {
+      builder.add(
+          Expressions.statement(
+              Expressions.addAssign(x, Expressions.constant(i * 1_000))));
+    }
+    return builder.toBlock();
+  }
+
+  @Test void testMethodSplitCount() {
+    assertThat(EnumerableRelImplementor.methodSplitCount(block(10), 10),
+        is(1));
+    // A method too large to be compiled is split into parts about half the
+    // maximum size.
+    final BlockStatement block = block(4_000);
+    final int size = EnumerableRelImplementor.estimateMethodSize(block);
+    assertThat(size, greaterThan(8_000));
+    assertThat(EnumerableRelImplementor.methodSplitCount(block, 4_000),
+        is((size + 3_999) / 4_000));
+    // There are never more methods than parts.
+    assertThat(EnumerableRelImplementor.methodSplitCount(block, 2), is(2));
+    assertThat(EnumerableRelImplementor.methodSplitCount(block, 1), is(1));
+  }
+
+  @Test void testCheckMethodSizes() throws Exception {
+    final String source = "public class Foo {\n"
+        + "  public int small(int x) {\n"
+        + "    return x + 1;\n"
+        + "  }\n"
+        + "  public int large(int x) {\n"
+        + IntStream.range(0, 2_000)
+            .mapToObj(i -> "    x += " + i * 1_000 + ";\n")
+            .collect(Collectors.joining())
+        + "    return x;\n"
+        + "  }\n"
+        + "}\n";
+    final ISimpleCompiler compiler = new SimpleCompiler();
+    compiler.cook(source);
+    final List<Pair<String, Integer>> oversizedMethods = new ArrayList<>();
+    try (Hook.Closeable ignored =
+             Hook.OVERSIZED_METHOD.<Pair<String, Integer>>addThread(
+                 oversizedMethods::add)) {
+      EnumerableInterpretable.checkMethodSizes(compiler);
+    }
+    assertThat(oversizedMethods, hasSize(1));
+    assertThat(oversizedMethods.get(0).left, is("Foo.large"));
+    assertThat(oversizedMethods.get(0).right, greaterThan(8_000));
+
+    // A method that is not too large is not reported.
+    final ISimpleCompiler compiler2 = new SimpleCompiler();
+    compiler2.cook("public class Bar { public int f(int x) { return x; } }");
+    oversizedMethods.clear();
+    try (Hook.Closeable ignored =
+             Hook.OVERSIZED_METHOD.<Pair<String, Integer>>addThread(
+                 oversizedMethods::add)) {
+      EnumerableInterpretable.checkMethodSizes(compiler2);
+    }
+    assertThat(oversizedMethods, empty());
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.materialize;
+
+import org.apache.calcite.adapter.java.ReflectiveSchema;
+import org.apache.calcite.jdbc.CalciteSchema;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rel.type.RelDataTypeFactory;
+import org.apache.calcite.schema.Statistic;
+import org.apache.calcite.schema.Statistics;
+import org.apache.calcite.schema.Table;
+import org.apache.calcite.schema.impl.AbstractTable;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.calcite.test.schemata.hr.HrSchema;
+import org.apache.calcite.util.ImmutableBitSet;
+import org.apache.calcite.util.Pair;
+
+import com.google.common.collect.ImmutableList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+
+/**
+ * Unit tests for the management of lattice tiles by
+ * {@link MaterializationService}.
+ */
+class MaterializationServiceTest {
+  private CalciteSchema schema;
+  private Lattice lattice;
+  private MaterializationService service;
+
+  /** SQL of the tiles that have been built. */
+  private final List<String> builtTiles = new ArrayList<>();
+
+  @BeforeEach void setUp() {
+    final CalciteSchema rootSchema = CalciteSchema.createRootSchema(false);
+    schema = rootSchema.add("hr", new ReflectiveSchema(new HrSchema()));
+    lattice = Lattice.create(schema, "select 1 from \"hr\".\"emps\"", true);
+    MaterializationService.setThreadLocal();
+    service = MaterializationService.instance();
+  }
+
+  @AfterEach void tearDown() {
+    MaterializationService.setThreadLocal();
+  }
+
+  /** Defines a tile on the given columns, with the default measures. */
+  private Pair<CalciteSchema.TableEntry, TileKey> defineTile(int... columns) {
+    return defineTile(this::createTable, columns);
+  }
+
+  /** Defines a tile on the given columns, with the default measures, using a
+   * given table factory. */
+  private Pair<CalciteSchema.TableEntry, TileKey> defineTile(
+      MaterializationService.TableFactory tableFactory, int... columns) {
+    return service.defineTile(lattice, ImmutableBitSet.of(columns),
+        lattice.defaultMeasures, schema, true, true,
+        "m" + ImmutableBitSet.of(columns), tableFactory);
+  }
+
+  /** Creates a table of 100 rows that pretends to hold a tile. */
+  private Table createTable(CalciteSchema schema, String viewSql,
+      List<String> viewSchemaPath) {
+    builtTiles.add(viewSql);
+    return new AbstractTable() {
+      @Override public RelDataType getRowType(RelDataTypeFactory typeFactory) {
+        return typeFactory.builder().add("C", SqlTypeName.INTEGER).build();
+      }
+
+      @Override public Statistic getStatistic() {
+        return Statistics.of(100D, ImmutableList.of());
+      }
+    };
+  }
+
+  /** Tests that a tile is built by a background task, and that until the task
+   * has finished, the tile is not available. */
+  @Test void testBackgroundTile() {
+    final List<Runnable> tasks = new ArrayList<>();
+    service.setTileExecutor(tasks::add);
+
+    assertThat(defineTile(0), nullValue());
+    assertThat(tasks, hasSize(1));
+
+    // The tile is being built; asking again does not build it again.
+    assertThat(defineTile(0), nullValue());
+    assertThat(tasks, hasSize(1));
+    assertThat(builtTiles, hasSize(0));
+
+    tasks.get(0).run();
+    assertThat(builtTiles, hasSize(1));
+    final Pair<CalciteSchema.TableEntry, TileKey> pair = defineTile(0);
+    assertThat(pair, notNullValue());
+    assertThat(pair.left.name, is("m{0}"));
+    assertThat(schema.getTable("m{0}", true), notNullValue());
+    assertThat(tasks, hasSize(1));
+  }
+
+  /** Tests that an executor that runs tasks immediately makes the tile
+   * available to the query that asked for it. */
+  @Test void testBackgroundTileDirectExecutor() {
+    service.setTileExecutor(Runnable::run);
+    assertThat(defineTile(0), notNullValue());
+    assertThat(defineTile(0), notNullValue());
+    assertThat(builtTiles, hasSize(1));
+  }
+
+  /** Tests that a tile that fails to build in the background is counted, and
+   * is not built again until the retry delay has passed. */
+  @Test void testBackgroundTileFailure() {
+    service.setTileExecutor(Runnable::run);
+    final int[] attempts = {0};
+    final MaterializationService.TableFactory failingTableFactory =
+        (schema, viewSql, viewSchemaPath) -> {
+          ++attempts[0];
+          throw new IllegalStateException("cannot build tile");
+        };
+    assertThat(defineTile(failingTableFactory, 0), nullValue());
+    assertThat(attempts[0], is(1));
+    assertThat(service.getTileFailureCount(), is(1L));
+
+    // The tile failed recently, so it is not built again.
+    assertThat(defineTile(failingTableFactory, 0), nullValue());
+    assertThat(attempts[0], is(1));
+    assertThat(service.getTileFailureCount(), is(1L));
+
+    // With no retry delay, the next request tries again, and the build fails
+    // again.
+    service.setTileRetryDelay(0);
+    assertThat(defineTile(failingTableFactory, 0), nullValue());
+    assertThat(attempts[0], is(2));
+    assertThat(service.getTileFailureCount(), is(2L));
+
+    // The following request, with a table factory that succeeds, builds the
+    // tile.
+    assertThat(defineTile(0), notNullValue());
+    assertThat(builtTiles, hasSize(1));
+  }
+
+  /** Tests that when tiles occupy more rows than the budget, the least
+   * recently used tiles are removed. */
+  @Test void testTileEviction() {
+    // Each tile has 100 rows, so there is room for 2 tiles.
+    service.setTileRowBudget(250);
+    assertThat(defineTile(0), notNullValue());
+    assertThat(defineTile(1), notNullValue());
+    assertThat(builtTiles, hasSize(2));
+
+    // Use tile 0, so that tile 1 is the least recently used.
+    assertThat(defineTile(0), notNullValue());
+    assertThat(builtTiles, hasSize(2));
+
+    // Creating tile 2 evicts tile 1.
+    assertThat(defineTile(2), notNullValue());
+    assertThat(builtTiles, hasSize(3));
+    assertThat(schema.getTable("m{1}", true), nullValue());
+    assertThat(schema.getTable("m{0}", true), notNullValue());
+
+    // Tile 0 is still available; tile 1 has to be built again, and that
+    // evicts tile 2.
+    assertThat(defineTile(0), notNullValue());
+    assertThat(builtTiles, hasSize(3));
+    assertThat(defineTile(1), notNullValue());
+    assertThat(builtTiles, hasSize(4));
+    assertThat(schema.getTable("m{2}", true), nullValue());
+    assertThat(service.query(schema.root()), hasSize(2));
+  }
+}
@@ -23,6 +23,7 @@
 import org.apache.calcite.plan.ConventionTraitDef;
 import org.apache.calcite.plan.RelOptCluster;
 import org.apache.calcite.plan.RelOptListener;
+import org.apache.calcite.plan.RelOptPlanner;
 import org.apache.calcite.plan.RelOptRule;
 import org.apache.calcite.plan.RelOptRuleCall;
 import org.apache.calcite.plan.RelOptUtil;
@@ -74,7 +75,9 @@
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.CoreMatchers.startsWith;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.arrayWithSize;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -596,6 +599,72 @@ private void removeTrivialProject(boolean useRule) {
         isLinux(plan));
   }
 
+  /** Tests that the planner stops exploring when it reaches a limit, and
+   * returns the best plan found so far, or fails if it has not yet found a
+   * complete plan. */
+  @Test void testLimits() {
+    final String hashJoinPlan = ""
+        + "EnumerableHashJoin(condition=[=($0, $2)], joinType=[inner])\n"
+        + "  EnumerableValues(tuples=[[{ '2', 'a' }, { '1', 'b' }]])\n"
+        + "  EnumerableValues(tuples=[[{ '1', 'x' }, { '2', 'y' }]])\n";
+
+    // No limit
+    VolcanoPlanner planner = createJoinPlanner();
+    assertThat(RelOptUtil.toString(planner.findBestExp()),
+        isLinux(hashJoinPlan));
+    assertThat(planner.getExceededLimit(), nullValue());
+
+    // The planner has found a complete plan before it reaches the limit
+    planner = createJoinPlanner();
+    planner.setMaxRuleFirings(8);
+    assertThat(RelOptUtil.toString(planner.findBestExp()),
+        isLinux(hashJoinPlan));
+    assertThat(planner.getExceededLimit(), is(VolcanoPlanner.Limit.RULE_FIRINGS));
+
+    // The planner has not found a complete plan
+    planner = createJoinPlanner();
+    planner.setMaxRuleFirings(3);
+    final RelOptPlanner.CannotPlanException e =
+        assertThrows(RelOptPlanner.CannotPlanException.class,
+            planner::findBestExp);
+    assertThat(e.getMessage(),
+        startsWith("Planner stopped because it reached the maximum number "
+            + "of rule firings before it found a complete plan."));
+    assertThat(planner.getExceededLimit(), is(VolcanoPlanner.Limit.RULE_FIRINGS));
+
+    planner = createJoinPlanner();
+    planner.setMaxRelCount(1);
+    assertThrows(RelOptPlanner.CannotPlanException.class,
+        planner::findBestExp);
+    assertThat(planner.getExceededLimit(), is(VolcanoPlanner.Limit.REL_COUNT));
+  }
+
+  /** Creates a planner whose root is a join of two VALUES, and which can
+   * implement it as either a hash join or a merge join. */
+  private static VolcanoPlanner createJoinPlanner() {
+    final VolcanoPlanner planner = new VolcanoPlanner();
+    planner.addRelTraitDef(ConventionTraitDef.INSTANCE);
+    planner.addRelTraitDef(RelCollationTraitDef.INSTANCE);
+    planner.registerAbstractRelationalRules();
+    planner.addRule(EnumerableRules.ENUMERABLE_JOIN_RULE);
+    planner.addRule(EnumerableRules.ENUMERABLE_MERGE_JOIN_RULE);
+    planner.addRule(EnumerableRules.ENUMERABLE_VALUES_RULE);
+    planner.addRule(EnumerableRules.ENUMERABLE_SORT_RULE);
+
+    final RelOptCluster cluster = newCluster(planner);
+    final RelBuilder relBuilder =
+        RelFactories.LOGICAL_BUILDER.create(cluster, null);
+    final RelNode logicalPlan = relBuilder
+        .values(new String[]{"id", "name"}, "2", "a", "1", "b")
+        .values(new String[]{"id", "name"}, "1", "x", "2", "y")
+        .join(JoinRelType.INNER, "id")
+        .build();
+    final RelTraitSet desiredTraits =
+        cluster.traitSet().replace(EnumerableConvention.INSTANCE);
+    planner.setRoot(planner.changeTraits(logicalPlan, desiredTraits));
+    return planner;
+  }
+
   @Test void testPruneNode() {
     VolcanoPlanner planner = new VolcanoPlanner();
     planner.addRelTraitDef(ConventionTraitDef.INSTANCE);
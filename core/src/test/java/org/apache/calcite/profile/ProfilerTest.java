@@ -42,6 +42,7 @@
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedSet;
@@ -52,9 +53,11 @@
 
 import static com.google.common.collect.ImmutableList.toImmutableList;
 
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasToString;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
 import static java.util.Objects.requireNonNull;
 
@@ -371,6 +374,112 @@ class ProfilerTest {
     assertThat(q.isValid(), is(true));
   }
 
+  /** Tests that a profile computed by several threads is the same as one
+   * computed by one thread. There are enough rows that each worker receives
+   * several batches, and some columns have enough distinct values that their
+   * collectors switch to sketches. */
+  @Test void testProfileParallel() {
+    final List<List<Comparable>> rows = generateRows(5_000);
+    final List<Profiler.Column> columns = generateColumns();
+    final Profiler.Profile profile =
+        new ProfilerImpl(600, 200, p -> true)
+            .profile(rows, columns, ImmutableList.of());
+    final Profiler.Profile parallelProfile =
+        ProfilerImpl.builder().withPassSize(600).withParallelism(4).build()
+            .profile(rows, columns, ImmutableList.of());
+    assertThat(toJson(parallelProfile), is(toJson(profile)));
+    assertThat(parallelProfile.rowCount.rowCount, is(5_000));
+  }
+
+  /** Tests a profile computed from a sample of the rows. */
+  @Test void testProfileSample() {
+    final List<List<Comparable>> rows = generateRows(5_000);
+    final List<Profiler.Column> columns = generateColumns();
+    final Profiler.Profile profile =
+        ProfilerImpl.builder().withPassSize(10).withSampleSize(500).build()
+            .profile(rows, columns, ImmutableList.of());
+    // The row count is that of the sample; the profile records that it was
+    // sampled from a larger input.
+    assertThat(profile.rowCount.rowCount, is(500));
+    assertThat(profile.rowCount.inputRowCount, is(5_000L));
+    assertThat(profile.rowCount.isSampled(), is(true));
+    // Every row in the sample has a different ID.
+    assertThat(profile.cardinality(ImmutableBitSet.of(0)), is(500D));
+    assertThat(profile.cardinality(ImmutableBitSet.of(1)), is(7D));
+    // The statistics are consistent with the row count: no distribution has
+    // more values than there are rows, and each unique key has as many
+    // values as there are rows.
+    for (Profiler.Distribution distribution : profile.distributionList) {
+      assertThat(distribution.cardinality,
+          lessThanOrEqualTo((double) profile.rowCount.rowCount));
+    }
+    assertThat(profile.uniqueList.isEmpty(), is(false));
+    for (Profiler.Unique unique : profile.uniqueList) {
+      assertThat(profile.cardinality(Profiler.Column.toOrdinals(unique.columns)),
+          is((double) profile.rowCount.rowCount));
+    }
+    assertThat(toJson(profile),
+        hasToString(containsString("\"inputRowCount\": 5000")));
+
+    // If the sample is larger than the input, every row is profiled.
+    final Profiler.Profile profile2 =
+        ProfilerImpl.builder().withPassSize(10).withSampleSize(10_000).build()
+            .profile(rows, columns, ImmutableList.of());
+    final Profiler.Profile profile3 =
+        ProfilerImpl.builder().withPassSize(10).build()
+            .profile(rows, columns, ImmutableList.of());
+    assertThat(toJson(profile2), is(toJson(profile3)));
+    assertThat(profile2.rowCount.isSampled(), is(false));
+  }
+
+  /** Tests {@link org.apache.calcite.profile.ProfilerImpl.Reservoir}. */
+  @Test void testReservoir() {
+    final ProfilerImpl.Reservoir reservoir = new ProfilerImpl.Reservoir(10);
+    for (int i = 0; i < 1_000; i++) {
+      reservoir.add(ImmutableList.of(i));
+    }
+    assertThat(reservoir.count, is(1_000L));
+    assertThat(reservoir.rows.size(), is(10));
+    assertThat(new HashSet<>(reservoir.rows).size(), is(10));
+
+    final ProfilerImpl.Reservoir reservoir2 = new ProfilerImpl.Reservoir(10);
+    for (int i = 0; i < 3; i++) {
+      reservoir2.add(ImmutableList.of(i));
+    }
+    assertThat(reservoir2.rows,
+        hasToString("[[0], [1], [2]]"));
+  }
+
+  /** Generates rows with columns (ID, ID modulo 7, ID modulo 13 or null,
+   * name), some of which have more distinct values than a collector keeps
+   * before switching to a sketch. */
+  private static List<List<Comparable>> generateRows(int count) {
+    final List<List<Comparable>> rows = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      rows.add(
+          ImmutableList.of(i, i % 7,
+              i % 5 == 0 ? NullSentinel.INSTANCE : i % 13,
+              "name" + i % 2_000));
+    }
+    return rows;
+  }
+
+  private static List<Profiler.Column> generateColumns() {
+    return ImmutableList.of(new Profiler.Column(0, "ID"),
+        new Profiler.Column(1, "MOD7"),
+        new Profiler.Column(2, "MOD13"),
+        new Profiler.Column(3, "NAME"));
+  }
+
+  /** Converts the statistics of a profile to sorted JSON strings. */
+  private static List<String> toJson(Profiler.Profile profile) {
+    final JsonBuilder jb = new JsonBuilder();
+    return profile.statistics().stream()
+        .map(statistic -> jb.toJsonString(statistic.toMap(jb)))
+        .sorted()
+        .collect(Collectors.toList());
+  }
+
   private Fluid scott() {
     final String sql = "select * from \"scott\".emp\n"
         + "join \"scott\".dept on emp.deptno = dept.deptno";
@@ -70,8 +70,10 @@
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasToString;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -1519,4 +1521,38 @@ private static class UDT extends RelDataTypeImpl {
             literal, literal, flag),
         notNullValue());
   }
+
+  /** Tests that {@link RexBuilder} hash-conses the calls, input references
+   * and literals that it creates. */
+  @Test void testIntern() {
+    final RelDataTypeFactory typeFactory =
+        new SqlTypeFactoryImpl(RelDataTypeSystem.DEFAULT);
+    final RexBuilder builder = new RexBuilder(typeFactory);
+    final RelDataType intType = typeFactory.createSqlType(SqlTypeName.INTEGER);
+    final RexNode ref0 = builder.makeInputRef(intType, 0);
+    final RexNode ref1 = builder.makeInputRef(intType, 1);
+    assertThat(builder.makeInputRef(intType, 0), sameInstance(ref0));
+    assertThat(builder.makeExactLiteral(BigDecimal.ONE),
+        sameInstance(builder.makeExactLiteral(BigDecimal.ONE)));
+
+    final RexNode plus =
+        builder.makeCall(SqlStdOperatorTable.PLUS, ref0,
+            builder.makeExactLiteral(BigDecimal.ONE));
+    final RexNode eq = builder.makeCall(SqlStdOperatorTable.EQUALS, plus, ref1);
+    final RexNode eq2 =
+        builder.makeCall(SqlStdOperatorTable.EQUALS,
+            builder.makeCall(SqlStdOperatorTable.PLUS,
+                builder.makeInputRef(intType, 0),
+                builder.makeExactLiteral(BigDecimal.ONE)),
+            builder.makeInputRef(intType, 1));
+    assertThat(eq2, sameInstance(eq));
+
+    // Interning is strict. "$1 = $0 + 1" is equal to "$0 + 1 = $1" (because
+    // digests are normalized) but is a different object; so are literals
+    // whose values have a different scale.
+    final RexNode eq3 = builder.makeCall(SqlStdOperatorTable.EQUALS, ref1, plus);
+    assertThat(eq3, not(sameInstance(eq)));
+    assertThat(builder.makeExactLiteral(new BigDecimal("1.0")),
+        not(sameInstance(builder.makeExactLiteral(BigDecimal.ONE))));
+  }
 }
@@ -39,7 +39,7 @@ class AutomatonTest {
   private static <E> org.hamcrest.Matcher<List<Matcher.PartialMatch<E>>>
       isMatchList(final String value) {
     return Matchers.compose(Is.is(value),
-        match -> match.stream().map(pm -> pm.rows).collect(Collectors.toList())
+        match -> match.stream().map(pm -> pm.rows()).collect(Collectors.toList())
             .toString());
   }
 
@@ -87,8 +87,8 @@ class AutomatonTest {
             .add("a", s -> s.get().contains("a"))
             .add("b", s -> s.get().contains("b"))
             .build();
-    final String expected = "[[b], [ab], [ab], [ab, a, ab], [a, ab], [b], [ab, b], [ab, a, ab, b], "
-        + "[a, ab, b], [b]]";
+    final String expected = "[[b], [ab], [ab, a, ab], [a, ab], [ab], [ab, a, ab, b], "
+        + "[a, ab, b], [ab, b], [b], [b]]";
     assertThat(matcher.match(rows), isMatchList(expected));
   }
 
@@ -105,7 +105,7 @@ class AutomatonTest {
             .add("a", s -> s.get().contains("a"))
             .add("b", s -> s.get().contains("b"))
             .build();
-    final String expected = "[[ab, a, ab], [a, ab], [ab, b], [ab, a, ab, b], [a, ab, b]]";
+    final String expected = "[[ab, a, ab], [a, ab], [ab, a, ab, b], [a, ab, b], [ab, b]]";
     assertThat(matcher.match(rows), isMatchList(expected));
   }
 
@@ -200,7 +200,7 @@ private void checkRepeat(int minRepeat, int maxRepeat, String pattern,
             .add("c", s -> s.get() == 'c')
             .build();
     assertThat(matcher.match(chars(rows)),
-        isMatchList("[[a, b, a, c], [a, b, a, c], [a, b, a, b, a, c]]"));
+        isMatchList("[[a, b, a, c], [a, b, a, b, a, c], [a, b, a, c]]"));
   }
 
   @Test void testResultWithLabels() {
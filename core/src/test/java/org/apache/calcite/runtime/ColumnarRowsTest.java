@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.runtime;
+
+import com.google.common.collect.ImmutableList;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests {@link ColumnarRows}.
+ */
+class ColumnarRowsTest {
+  private static final List<Class<?>> CLASSES =
+      ImmutableList.of(Integer.class, String.class, Double.class,
+          BigDecimal.class);
+
+  /** Creates rows (i, 'v' || i, i / 2, i) for i in 0 .. n - 1; every
+   * third row has nulls in its numeric columns. */
+  private static ColumnarRows rows(int n) {
+    final ColumnarRows.Builder builder = ColumnarRows.builder(CLASSES, n);
+    for (int i = 0; i < n; i++) {
+      final boolean isNull = i % 3 == 2;
+      builder.set(i, 0, isNull ? null : i)
+          .set(i, 1, "v" + i)
+          .set(i, 2, isNull ? null : i / 2d)
+          .set(i, 3, isNull ? null : BigDecimal.valueOf(i));
+    }
+    return builder.build();
+  }
+
+  @Test void testGet() {
+    final ColumnarRows rows = rows(4);
+    assertThat(rows.size(), is(4));
+    assertThat(rows.columnCount(), is(4));
+    assertThat(rows.get(1, 0), is(1));
+    assertThat(rows.get(1, 1), is("v1"));
+    assertThat(rows.get(1, 2), is(0.5d));
+    assertThat(rows.get(1, 3), is(BigDecimal.ONE));
+    assertThat(rows.get(2, 0), nullValue());
+    assertThat(rows.get(2, 1), is("v2"));
+    assertThat(rows.get(2, 2), nullValue());
+    assertThat(rows.get(2, 3), nullValue());
+    assertThat(Arrays.asList(rows.row(3)),
+        is(Arrays.asList(3, "v3", 1.5d, BigDecimal.valueOf(3))));
+  }
+
+  @Test void testEnumerables() {
+    final ColumnarRows rows = rows(3);
+    assertThat(
+        rows.arrays().select(row -> Arrays.asList(row)).toList().toString(),
+        is("[[0, v0, 0.0, 0], [1, v1, 0.5, 1], [null, v2, null, null]]"));
+    assertThat(rows.scalars().toList(), is(Arrays.asList(0, 1, null)));
+  }
+
+  @Test void testEquals() {
+    final ColumnarRows rows = rows(10);
+    assertThat(rows, is(rows(10)));
+    assertThat(rows.hashCode(), is(rows(10).hashCode()));
+    assertThat(rows, not(is(rows(11))));
+
+    // A null differs from the default value of the primitive array.
+    final ColumnarRows zero =
+        ColumnarRows.builder(ImmutableList.of(int.class), 1)
+            .set(0, 0, 0)
+            .build();
+    final ColumnarRows nul =
+        ColumnarRows.builder(ImmutableList.of(int.class), 1)
+            .set(0, 0, null)
+            .build();
+    assertThat(zero, not(is(nul)));
+    assertThat(zero.get(0, 0), is(0));
+    assertThat(nul.get(0, 0), nullValue());
+  }
+
+  @Test void testToString() {
+    assertThat(rows(2).toString(), is("[{ 0, v0, 0.0, 0 }, { 1, v1, 0.5, 1 }]"));
+    assertThat(rows(7).toString(),
+        is("[{ 0, v0, 0.0, 0 }, { 1, v1, 0.5, 1 }, { null, v2, null, null }, "
+            + "{ 3, v3, 1.5, 3 }, { 4, v4, 2.0, 4 }, ... 2 more]"));
+  }
+}
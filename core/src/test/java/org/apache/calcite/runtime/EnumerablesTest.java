@@ -18,6 +18,7 @@
 
 import org.apache.calcite.linq4j.Enumerable;
 import org.apache.calcite.linq4j.EnumerableDefaults;
+import org.apache.calcite.linq4j.Enumerator;
 import org.apache.calcite.linq4j.JoinType;
 import org.apache.calcite.linq4j.Linq4j;
 import org.apache.calcite.linq4j.function.EqualityComparer;
@@ -30,7 +31,13 @@
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
@@ -41,6 +48,7 @@
 import static com.google.common.collect.Lists.newArrayList;
 
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasToString;
 
@@ -744,6 +752,144 @@ private static <T extends Comparable<T>> Enumerable<String> intersect(
         hasToString("[{Theodore, 20, 20, Sales}, {Sebastian, 20, 20, Sales}]"));
   }
 
+  /** Tests {@link Enumerables#spatialJoin}, which must return the same rows
+   * as a nested-loop join, whichever input it builds its index on. */
+  @Test void testSpatialJoin() {
+    final GeometryFactory factory = new GeometryFactory();
+    final Enumerable<@Nullable Point> points =
+        Linq4j.asEnumerable(
+            Arrays.asList(factory.createPoint(new Coordinate(0, 0)),
+                factory.createPoint(new Coordinate(1, 1)),
+                null,
+                factory.createPoint(new Coordinate(5, 5)),
+                factory.createPoint(new Coordinate(10, 0))));
+    final Enumerable<@Nullable Polygon> boxes =
+        Linq4j.asEnumerable(
+            Arrays.asList(box(factory, 0, 0, 2, 2),
+                box(factory, 4, 4, 6, 6),
+                null,
+                box(factory, 20, 20, 30, 30)));
+    final Function2<@Nullable Point, @Nullable Polygon, String> toString =
+        (p, b) -> p + " " + b;
+    for (double distance : new double[] {0D, 5D}) {
+      final Predicate2<@Nullable Point, @Nullable Polygon> predicate =
+          (p, b) -> p != null && b != null
+              && p.isWithinDistance(b, distance);
+      final List<String> expected =
+          EnumerableDefaults.nestedLoopJoin(points, boxes, predicate,
+              toString, JoinType.INNER)
+              .orderBy(Functions.identitySelector()).toList();
+      assertThat(expected.size(), equalTo(distance == 0D ? 3 : 5));
+      for (boolean buildLeft : new boolean[] {false, true}) {
+        assertThat(
+            Enumerables.spatialJoin(points, boxes, p -> p, b -> b, distance,
+                    predicate, toString, buildLeft)
+                .orderBy(Functions.identitySelector()).toList(),
+            equalTo(expected));
+      }
+    }
+  }
+
+  private static Polygon box(GeometryFactory factory, double x0, double y0,
+      double x1, double y1) {
+    return factory.createPolygon(
+        new Coordinate[] {new Coordinate(x0, y0), new Coordinate(x1, y0),
+            new Coordinate(x1, y1), new Coordinate(x0, y1),
+            new Coordinate(x0, y0)});
+  }
+  /** Tests {@link Enumerables#streamGroupBy}, which emits each group as soon
+   * as a row arrives with a greater value of the monotonic key, and re-opens
+   * a group if a row arrives late. */
+  @Test void testStreamGroupBy() {
+    final List<Integer> read = new ArrayList<>();
+    final Enumerable<Emp> emps =
+        EMPS.concat(Linq4j.asEnumerable(Arrays.asList(new Emp(10, "Late"))))
+            .select(emp -> {
+              read.add(emp.deptno);
+              return emp;
+            });
+    final Enumerable<String> counts =
+        Enumerables.streamGroupBy(emps, emp -> emp.deptno, emp -> emp.deptno,
+            () -> 0, (count, emp) -> count + 1,
+            (deptno, count) -> deptno + ":" + count, null);
+    try (Enumerator<String> enumerator = counts.enumerator()) {
+      assertThat(enumerator.moveNext(), is(true));
+      assertThat(enumerator.current(), is("10:1"));
+      // Group 10 was emitted when the first row of group 20 arrived.
+      assertThat(read, hasToString("[10, 20]"));
+    }
+    assertThat(counts.toList(), hasToString("[10:1, 20:2, 10:1, 30:1]"));
+  }
+  /** Tests that {@link Enumerables#streamGroupBy} with persistent state
+   * resumes from its checkpoint, skipping the rows of the replayed input that
+   * the checkpoint reflects, so that the group that was open at the
+   * checkpoint does not count any row twice. */
+  @Test void testStreamGroupByResume(@TempDir File stateDir) {
+    final Enumerable<Integer> deptnos =
+        Linq4j.asEnumerable(Arrays.asList(10, 10, 20, 20, 30, 30, 40));
+    final Enumerable<String> counts =
+        Enumerables.streamGroupBy(deptnos, d -> d, d -> d, () -> 0,
+            (count, d) -> count + 1, (deptno, count) -> deptno + ":" + count,
+            "q1/aggregate-0");
+    try (Hook.Closeable ignored =
+             Hook.STREAM_STATE_DIRECTORY.addThread(
+                 Hook.propertyJ(stateDir.getPath()))) {
+      // The first execution stops after two groups. It checkpointed when
+      // group 10 had been consumed, with group 20 open.
+      try (Enumerator<String> enumerator = counts.enumerator()) {
+        assertThat(enumerator.moveNext(), is(true));
+        assertThat(enumerator.current(), is("10:2"));
+        assertThat(enumerator.moveNext(), is(true));
+        assertThat(enumerator.current(), is("20:2"));
+      }
+      // The second execution emits group 20 again, with the same count.
+      assertThat(counts.toList(), hasToString("[20:2, 30:2, 40:1]"));
+      assertThat(counts.toList(), hasToString("[]"));
+    }
+  }
+
+  /** Tests {@link Enumerables#groupWindowAggregate} with tumbling windows
+   * and rows that arrive out of order. */
+  @Test void testGroupWindowAggregateTumble() {
+    // Row 8 is late but within the allowed lateness (5); row 3 arrives after
+    // its window has been emitted, and is dropped.
+    final Enumerable<Long> times =
+        Linq4j.asEnumerable(Arrays.asList(1L, 12L, 8L, 16L, 3L, 25L));
+    final Enumerable<String> counts =
+        Enumerables.groupWindowAggregate(times, t -> t, t -> t, 0, 1,
+            Enumerables.GroupWindowType.TUMBLE, 10, 10, 0, 5, () -> 0,
+            (count, t) -> count + 1, (start, count) -> start + ":" + count,
+            null, null);
+    assertThat(counts.toList(), hasToString("[0:2, 10:2, 20:1]"));
+  }
+
+  /** Tests {@link Enumerables#groupWindowAggregate} with session windows,
+   * where a row that arrives out of order joins two sessions. */
+  @Test void testGroupWindowAggregateSession() {
+    final Enumerable<Object[]> rows =
+        Linq4j.asEnumerable(
+            Arrays.asList(new Object[] {0L, "a"}, new Object[] {18L, "a"},
+                new Object[] {9L, "a"}, new Object[] {5L, "b"}));
+    final Enumerable<String> counts =
+        Enumerables.groupWindowAggregate(rows, row -> Arrays.asList(row),
+            row -> row[0], 0, 2, Enumerables.GroupWindowType.SESSION, 10, 10,
+            0, 20, () -> 0, (count, row) -> count + 1,
+            (key, count) -> key + ":" + count, Integer::sum, null);
+    assertThat(counts.toList(), hasToString("[[5, b]:1, [0, a]:3]"));
+
+    // Without a function to combine accumulators, the row that would join
+    // two sessions is dropped, as if it were late.
+    final Enumerable<String> counts2 =
+        Enumerables.groupWindowAggregate(rows, row -> Arrays.asList(row),
+            row -> row[0], 0, 2, Enumerables.GroupWindowType.SESSION, 10, 10,
+            0, 20, () -> 0, (count, row) -> count + 1,
+            (key, count) -> key + ":" + count, null, null);
+    assertThat(counts2.toList(),
+        hasToString("[[0, a]:1, [5, b]:1, [18, a]:1]"));
+  }
+
+
+
   @Test void testNestedLoopLeftJoin() {
     assertThat(
         EnumerableDefaults.nestedLoopJoin(EMPS, DEPTS, EMP_DEPT_EQUAL_DEPTNO,
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.runtime;
+
+import org.apache.calcite.linq4j.Linq4j;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests {@link MonotonicDeque}, and
+ * {@link SortedMultiMap#sortedArrayIterator}.
+ */
+class MonotonicDequeTest {
+  @Test void testMinMax() {
+    final MonotonicDeque<Integer> min = new MonotonicDeque<>(false);
+    final MonotonicDeque<Integer> max = new MonotonicDeque<>(true);
+    assertThat(min.first(), nullValue());
+    final int[] values = {5, 3, 4, 3, 7, 1};
+    for (int i = 0; i < values.length; i++) {
+      min.add(i, values[i]);
+      max.add(i, values[i]);
+    }
+    assertThat(min.first(), is(1));
+    assertThat(max.first(), is(7));
+    min.remove(4);
+    max.remove(4);
+    assertThat(min.first(), is(1));
+    assertThat(max.first(), is(1));
+    min.remove(5);
+    assertThat(min.first(), nullValue());
+    max.clear();
+    assertThat(max.first(), nullValue());
+  }
+
+  /** Compares the minimum and maximum of random sliding windows with the
+   * values computed by brute force. */
+  @Test void testSlidingWindow() {
+    final Random random = new Random(1);
+    final List<Integer> values = new ArrayList<>();
+    for (int i = 0; i < 1_000; i++) {
+      values.add(random.nextInt(50));
+    }
+    for (int width : new int[] {1, 2, 7, 100}) {
+      final MonotonicDeque<Integer> min = new MonotonicDeque<>(false);
+      final MonotonicDeque<Integer> max = new MonotonicDeque<>(true);
+      for (int i = 0; i < values.size(); i++) {
+        min.add(i, values.get(i));
+        max.add(i, values.get(i));
+        min.remove(i - width);
+        max.remove(i - width);
+        final List<Integer> frame =
+            values.subList(Math.max(0, i - width + 1), i + 1);
+        assertThat(min.first(), is(Collections.min(frame)));
+        assertThat(max.first(), is(Collections.max(frame)));
+      }
+    }
+  }
+
+  @Test void testSortedArrayIterator() {
+    final List<String> list =
+        Arrays.asList("apple", "avocado", "banana", "cherry", "cranberry");
+    final Iterator<String[]> iterator =
+        SortedMultiMap.sortedArrayIterator(Linq4j.asEnumerable(list),
+            s -> s.charAt(0));
+    final List<String> partitions = new ArrayList<>();
+    while (iterator.hasNext()) {
+      partitions.add(Arrays.toString(iterator.next()));
+    }
+    assertThat(partitions,
+        is(Arrays.asList("[apple, avocado]", "[banana]", "[cherry, cranberry]")));
+
+    final Iterator<String[]> emptyIterator =
+        SortedMultiMap.sortedArrayIterator(
+            Linq4j.asEnumerable(Collections.<String>emptyList()),
+            s -> s.charAt(0));
+    assertThat(emptyIterator.hasNext(), is(false));
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.runtime;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests {@link org.apache.calcite.runtime.SearchRanges}.
+ */
+class SearchRangesTest {
+  @Test void testLongPoints() {
+    final StringBuilder buf = new StringBuilder();
+    for (int i = -5; i < 1000; i += 3) {
+      SearchRanges.appendRange(buf, Integer.toString(i), true,
+          Integer.toString(i), true);
+    }
+    final SearchRanges.LongRanges ranges = SearchRanges.ofLongs(SearchRanges.split(buf));
+    for (int i = -10; i < 1010; i++) {
+      assertThat("contains " + i, ranges.contains(i),
+          is(i >= -5 && i < 1000 && (i + 5) % 3 == 0));
+    }
+  }
+
+  @Test void testLongRanges() {
+    // (-inf, 0), [10, 20), (30, 40], (50, +inf)
+    final StringBuilder buf = new StringBuilder();
+    SearchRanges.appendRange(buf, null, false, "0", false);
+    SearchRanges.appendRange(buf, "10", true, "20", false);
+    SearchRanges.appendRange(buf, "30", false, "40", true);
+    SearchRanges.appendRange(buf, "50", false, null, false);
+    final SearchRanges.LongRanges ranges = SearchRanges.ofLongs(SearchRanges.split(buf));
+    assertThat(ranges.contains(Long.MIN_VALUE), is(true));
+    assertThat(ranges.contains(-1L), is(true));
+    assertThat(ranges.contains(0L), is(false));
+    assertThat(ranges.contains(9L), is(false));
+    assertThat(ranges.contains(10L), is(true));
+    assertThat(ranges.contains(19L), is(true));
+    assertThat(ranges.contains(20L), is(false));
+    assertThat(ranges.contains(30L), is(false));
+    assertThat(ranges.contains(31L), is(true));
+    assertThat(ranges.contains(40L), is(true));
+    assertThat(ranges.contains(41L), is(false));
+    assertThat(ranges.contains(50L), is(false));
+    assertThat(ranges.contains(51L), is(true));
+    assertThat(ranges.contains(Long.MAX_VALUE), is(true));
+  }
+
+  @Test void testDoubleRanges() {
+    final StringBuilder buf = new StringBuilder();
+    SearchRanges.appendRange(buf, "-0.0", true, "-0.0", true);
+    SearchRanges.appendRange(buf, "1.5", false, "2.5", true);
+    final SearchRanges.DoubleRanges ranges =
+        SearchRanges.ofDoubles(SearchRanges.split(buf));
+    assertThat(ranges.contains(0D), is(true));
+    assertThat(ranges.contains(-0D), is(true));
+    assertThat(ranges.contains(1.5D), is(false));
+    assertThat(ranges.contains(2.5D), is(true));
+    assertThat(ranges.contains(2.6D), is(false));
+  }
+
+  /** Tests that NaN, like the comparisons into which {@code SEARCH} expands,
+   * is in no range that has a bound, and that a NaN bound is rejected. */
+  @Test void testDoubleNaN() {
+    final StringBuilder buf = new StringBuilder();
+    SearchRanges.appendRange(buf, null, false, "0.0", false);
+    SearchRanges.appendRange(buf, "1.0", true, "1.0", true);
+    SearchRanges.appendRange(buf, "2.0", false, null, false);
+    final SearchRanges.DoubleRanges ranges =
+        SearchRanges.ofDoubles(SearchRanges.split(buf));
+    assertThat(ranges.contains(Double.NaN), is(false));
+    assertThat(ranges.contains(Double.NEGATIVE_INFINITY), is(true));
+    assertThat(ranges.contains(1D), is(true));
+    assertThat(ranges.contains(Double.POSITIVE_INFINITY), is(true));
+
+    final StringBuilder buf2 = new StringBuilder();
+    SearchRanges.appendRange(buf2, null, false, null, false);
+    assertThat(SearchRanges.ofDoubles(SearchRanges.split(buf2))
+        .contains(Double.NaN), is(true));
+
+    final StringBuilder buf3 = new StringBuilder();
+    SearchRanges.appendRange(buf3, "1.0", true, "1.0", true);
+    SearchRanges.appendRange(buf3, "NaN", true, "NaN", true);
+    assertThrows(IllegalArgumentException.class,
+        () -> SearchRanges.ofDoubles(SearchRanges.split(buf3)));
+  }
+
+  @Test void testDecimalPoints() {
+    final StringBuilder buf = new StringBuilder();
+    SearchRanges.appendRange(buf, "1.5", true, "1.5", true);
+    SearchRanges.appendRange(buf, "2", true, "2", true);
+    final SearchRanges.ComparableRanges ranges =
+        SearchRanges.ofDecimals(SearchRanges.split(buf));
+    assertThat(ranges.contains(new BigDecimal("1.50")), is(true));
+    assertThat(ranges.contains(new BigDecimal("2.0")), is(true));
+    assertThat(ranges.contains(new BigDecimal("1.4")), is(false));
+  }
+
+  /** Tests strings that contain the characters that delimit the encoding,
+   * and enough values that the encoding is split into several chunks. */
+  @Test void testStrings() {
+    final StringBuilder buf = new StringBuilder();
+    SearchRanges.appendRange(buf, "", true, "", true);
+    SearchRanges.appendRange(buf, "1:a", true, "1:a", true);
+    for (int i = 0; i < 2000; i++) {
+      final String s = "b" + (100000 + i);
+      SearchRanges.appendRange(buf, s, true, s, true);
+    }
+    SearchRanges.appendRange(buf, "c", false, "d", false);
+    final String[] chunks = SearchRanges.split(buf);
+    assertThat(chunks.length > 1, is(true));
+    final SearchRanges.ComparableRanges ranges =
+        SearchRanges.ofStrings(chunks);
+    assertThat(ranges.contains(""), is(true));
+    assertThat(ranges.contains("1:a"), is(true));
+    assertThat(ranges.contains("1"), is(false));
+    assertThat(ranges.contains("b100000"), is(true));
+    assertThat(ranges.contains("b101999"), is(true));
+    assertThat(ranges.contains("b102000"), is(false));
+    assertThat(ranges.contains("c"), is(false));
+    assertThat(ranges.contains("cat"), is(true));
+    assertThat(ranges.contains("d"), is(false));
+  }
+}
@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.runtime;
+
+import org.apache.calcite.DataContext;
+import org.apache.calcite.DataContexts;
+
+import com.google.common.base.Strings;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests {@link StateStore} and {@link StateStores}.
+ */
+class StateStoreTest {
+  @TempDir File tempDir;
+
+  @Test void testMemory() {
+    try (StateStore<String, Integer> store = StateStores.memory()) {
+      checkBasic(store);
+    }
+  }
+
+  @Test void testSpilling() {
+    try (StateStore<String, Integer> store =
+             StateStores.spilling(tempDir, 2, null)) {
+      checkBasic(store);
+    }
+  }
+
+  private static void checkBasic(StateStore<String, Integer> store) {
+    for (int i = 0; i < 10; i++) {
+      store.put("k" + i, i);
+    }
+    assertThat(store.size(), is(10));
+    store.put("k3", 33);
+    assertThat(store.remove("k5"), is(5));
+    assertThat(store.remove("k5"), nullValue());
+    assertThat(store.size(), is(9));
+    assertThat(store.keys(), hasSize(9));
+    for (int i = 0; i < 10; i++) {
+      final Integer expected = i == 3 ? (Integer) 33 : i == 5 ? null : i;
+      assertThat(store.get("k" + i), is(expected));
+    }
+  }
+
+  /** Tests that a spilling store resumes from its most recent checkpoint,
+   * and discards changes made after the checkpoint. */
+  @Test void testCheckpoint() {
+    try (StateStore<String, Integer> store =
+             StateStores.spilling(tempDir, 2, null)) {
+      assertThat(store.sourceOffset(), is(0L));
+      for (int i = 0; i < 10; i++) {
+        store.put("k" + i, i);
+      }
+      store.remove("k5");
+      store.checkpoint(11);
+      assertThat(store.sourceOffset(), is(11L));
+      store.put("k0", 100);
+      store.put("k10", 10);
+      store.remove("k6");
+    }
+    try (StateStore<String, Integer> store =
+             StateStores.spilling(tempDir, 2, null)) {
+      assertThat(store.sourceOffset(), is(11L));
+      assertThat(store.size(), is(9));
+      assertThat(store.get("k0"), is(0));
+      assertThat(store.get("k5"), nullValue());
+      assertThat(store.get("k6"), is(6));
+      assertThat(store.get("k10"), nullValue());
+    }
+  }
+
+  /** Tests that a spilling store that was never checkpointed starts empty
+   * and leaves no log behind; only the lock file remains. */
+  @Test void testNoCheckpoint() {
+    try (StateStore<String, Integer> store =
+             StateStores.spilling(tempDir, 1, null)) {
+      store.put("a", 1);
+      store.put("b", 2);
+      store.put("c", 3);
+    }
+    assertThat(Arrays.asList(Objects.requireNonNull(tempDir.list())),
+        is(Arrays.asList("lock")));
+    try (StateStore<String, Integer> store =
+             StateStores.spilling(tempDir, 1, null)) {
+      assertThat(store.size(), is(0));
+    }
+  }
+
+  /** Tests that a value that cannot be serialized is kept in memory. */
+  @Test void testNotSerializable() {
+    try (StateStore<String, Object> store =
+             StateStores.spilling(tempDir, 1, null)) {
+      final Object o = new Object();
+      store.put("a", o);
+      store.put("b", "x");
+      store.put("c", "y");
+      assertThat(store.get("a"), is(o));
+      assertThat(store.size(), is(3));
+    }
+  }
+
+  /** Tests that the log is compacted when it contains many overwritten
+   * values, and that a checkpoint taken after compaction can be
+   * restored. */
+  @Test void testCompact() {
+    final String big = Strings.repeat("x", 10_000);
+    try (StateStore<String, String> store =
+             StateStores.spilling(tempDir, 10, null)) {
+      for (int round = 0; round < 5; round++) {
+        for (int i = 0; i < 50; i++) {
+          store.put("k" + i, big + round);
+        }
+        store.checkpoint(round);
+      }
+    }
+    final String[] files = Objects.requireNonNull(tempDir.list());
+    Arrays.sort(files);
+    assertThat(files.length, is(3));
+    assertThat(files[0], is("checkpoint"));
+    assertThat(files[1], is("lock"));
+    assertThat(files[2].equals("log.0"), is(false));
+    try (StateStore<String, String> store =
+             StateStores.spilling(tempDir, 10, null)) {
+      assertThat(store.size(), is(50));
+      assertThat(store.get("k17"), is(big + 4));
+      assertThat(store.sourceOffset(), is(4L));
+    }
+  }
+
+  /** Tests that two stores cannot use the same directory at the same
+   * time. */
+  @Test void testLock() {
+    try (StateStore<String, Integer> store =
+             StateStores.spilling(tempDir, 2, null)) {
+      store.put("a", 1);
+      final IllegalStateException e =
+          assertThrows(IllegalStateException.class,
+              () -> StateStores.spilling(tempDir, 2, null));
+      assertThat(e.getMessage(), containsString("is in use"));
+    }
+    // Once the first store is closed, the directory can be used again.
+    try (StateStore<String, Integer> store =
+             StateStores.spilling(tempDir, 2, null)) {
+      assertThat(store.size(), is(0));
+    }
+  }
+
+  /** Tests {@link StateStores#name}, which persists state only if the
+   * execution has a state id. */
+  @Test void testName() {
+    final Map<String, Object> map = new HashMap<>();
+    final DataContext root = DataContexts.of(map::get);
+    assertThat(StateStores.name(root, "aggregate-0"), nullValue());
+    map.put(DataContext.Variable.STREAM_STATE_ID.camelName, "q1");
+    assertThat(StateStores.name(root, "aggregate-0"), is("q1/aggregate-0"));
+    map.put(DataContext.Variable.STREAM_STATE_ID.camelName, "../q1");
+    assertThrows(IllegalArgumentException.class,
+        () -> StateStores.name(root, "aggregate-0"));
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.sql.parser;
+
+import org.apache.calcite.avatica.util.Casing;
+import org.apache.calcite.sql.SqlDynamicParam;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.SqlSelect;
+import org.apache.calcite.sql.parser.impl.SqlParserImpl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests {@link SqlParserPool}.
+ */
+class SqlParserPoolTest {
+  @Test void testReuse() throws SqlParseException {
+    final SqlParserPool pool = new SqlParserPool(2);
+    final SqlParser.Config config = SqlParser.config();
+
+    final SqlParser parser1 =
+        pool.acquire("select interval '2' days, ? from t", config);
+    final SqlNode node1 = parser1.parseStmt();
+    assertThat(parser1.getWarnings().size(), is(1));
+    assertThat(parser1.parserImpl().getOriginalSql(),
+        is("select interval '2' days, ? from t"));
+    pool.release(parser1);
+    assertThat(pool.idleCount(SqlParserImpl.FACTORY), is(1));
+
+    // The second parser reuses the implementation of the first, but sees
+    // none of its warnings or dynamic parameters
+    final SqlParser parser2 = pool.acquire("select ? from u", config);
+    assertThat(parser2.parserImpl(), sameInstance(parser1.parserImpl()));
+    assertThat(pool.idleCount(SqlParserImpl.FACTORY), is(0));
+    final SqlNode node2 = parser2.parseStmt();
+    assertThat(parser2.getWarnings().isEmpty(), is(true));
+    assertThat(parser2.parserImpl().getOriginalSql(), is("select ? from u"));
+    final SqlNode param = ((SqlSelect) node2).getSelectList().get(0);
+    assertThat(param, instanceOf(SqlDynamicParam.class));
+    assertThat(((SqlDynamicParam) param).getIndex(), is(0));
+    assertThat(node2.toString(), is("SELECT ?\nFROM `U`"));
+
+    // Parse trees from before the parser was released remain valid
+    assertThat(node1.toString(),
+        is("SELECT INTERVAL '2' DAY, ?\nFROM `T`"));
+    pool.release(parser2);
+  }
+
+  /** Tests that a reused parser takes its settings from the new
+   * configuration, and can be reused after a parse error. */
+  @Test void testReuseAfterError() throws SqlParseException {
+    final SqlParserPool pool = new SqlParserPool(2);
+    final SqlParser parser1 = pool.acquire("select from", SqlParser.config());
+    assertThrows(SqlParseException.class, parser1::parseStmt);
+    pool.release(parser1);
+
+    final SqlParser.Config config =
+        SqlParser.config().withUnquotedCasing(Casing.TO_LOWER);
+    final SqlParser parser2 = pool.acquire("select a from t", config);
+    assertThat(parser2.parserImpl(), sameInstance(parser1.parserImpl()));
+    assertThat(parser2.parseStmt().toString(), is("SELECT `a`\nFROM `t`"));
+  }
+
+  @Test void testDisabled() throws SqlParseException {
+    final SqlParserPool pool = new SqlParserPool(0);
+    final SqlParser parser1 = pool.acquire("values 1", SqlParser.config());
+    parser1.parseStmt();
+    pool.release(parser1);
+    assertThat(pool.idleCount(SqlParserImpl.FACTORY), is(0));
+    final SqlParser parser2 = pool.acquire("values 2", SqlParser.config());
+    assertThat(parser2.parserImpl(), not(sameInstance(parser1.parserImpl())));
+  }
+
+  @Test void testMaxIdle() {
+    final SqlParserPool pool = new SqlParserPool(1);
+    final SqlParser parser1 = pool.acquire("values 1", SqlParser.config());
+    final SqlParser parser2 = pool.acquire("values 2", SqlParser.config());
+    pool.release(parser1);
+    pool.release(parser2);
+    assertThat(pool.idleCount(SqlParserImpl.FACTORY), is(1));
+    assertThat(pool.acquire("values 3", SqlParser.config()).parserImpl(),
+        sameInstance(parser1.parserImpl()));
+    assertThat(pool.idleCount(SqlParserImpl.FACTORY), is(0));
+  }
+}
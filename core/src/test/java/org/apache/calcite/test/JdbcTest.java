@@ -48,6 +48,7 @@
 import org.apache.calcite.linq4j.Queryable;
 import org.apache.calcite.plan.RelOptPlanner;
 import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.plan.volcano.VolcanoPlanner;
 import org.apache.calcite.prepare.CalcitePrepareImpl;
 import org.apache.calcite.prepare.Prepare;
 import org.apache.calcite.rel.metadata.DefaultRelMetadataProvider;
@@ -168,6 +169,7 @@
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.CoreMatchers.startsWith;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.arrayWithSize;
@@ -1976,6 +1978,32 @@ private void checkResultSetMetaData(Connection connection, String sql)
             "c0=Drink; c1=Dairy; c2=USA; c3=WA; c4=Bellingham");
   }
 
+  /** Tests that when the planner reaches the limit set by
+   * {@link CalciteConnectionProperty#PLANNER_MAX_RULE_FIRINGS}, it returns the
+   * best plan found so far, and reports the limit via
+   * {@link Hook#PLANNER_LIMIT}. */
+  @Test void testPlannerMaxRuleFirings() {
+    final String sql = "select e.\"name\", d.\"name\" as \"dname\"\n"
+        + "from \"hr\".\"emps\" as e\n"
+        + "join \"hr\".\"depts\" as d using (\"deptno\")\n"
+        + "where e.\"salary\" > 7000";
+    final List<Object> limits = new ArrayList<>();
+    CalciteAssert.hr()
+        .with(CalciteConnectionProperty.PLANNER_MAX_RULE_FIRINGS, 40)
+        .query(sql)
+        .withHook(Hook.PLANNER_LIMIT, limits::add)
+        .returnsUnordered("name=Bill; dname=Sales",
+            "name=Theodore; dname=Sales");
+    assertThat(limits, hasItem(VolcanoPlanner.Limit.RULE_FIRINGS));
+
+    limits.clear();
+    CalciteAssert.hr()
+        .query(sql)
+        .withHook(Hook.PLANNER_LIMIT, limits::add)
+        .returnsCount(2);
+    assertThat(limits, hasSize(0));
+  }
+
   /** Test case for
    * <a href="https://issues.apache.org/jira/browse/CALCITE-6930">[CALCITE-6930]
    * Implementing JoinConditionOrExpansionRule</a>. */
@@ -4501,7 +4529,7 @@ void testOrderByOnSortedTable2(String format) {
    */
   @Test void testWinAggScalarNonNullPhysType() {
     String planLine =
-        "a0s0w0 = org.apache.calcite.runtime.SqlFunctions.lesser(a0s0w0, org.apache.calcite.runtime.SqlFunctions.toFloat(_rows[j]));";
+        "a0s0w0.add(j, Float.valueOf(org.apache.calcite.runtime.SqlFunctions.toFloat(_rows[j])));";
     if (CalciteSystemProperty.DEBUG.value()) {
       planLine = planLine.replace("a0s0w0", "MINa0s0w0");
     }
@@ -4526,7 +4554,7 @@ void testOrderByOnSortedTable2(String format) {
    */
   @Test void testWinAggScalarNonNullPhysTypePlusOne() {
     String planLine =
-        "a0s0w0 = org.apache.calcite.runtime.SqlFunctions.lesser(a0s0w0, org.apache.calcite.runtime.SqlFunctions.toFloat(_rows[j]));";
+        "a0s0w0.add(j, Float.valueOf(org.apache.calcite.runtime.SqlFunctions.toFloat(_rows[j])));";
     if (CalciteSystemProperty.DEBUG.value()) {
       planLine = planLine.replace("a0s0w0", "MINa0s0w0");
     }
@@ -6033,6 +6061,71 @@ private void checkPreparedOffsetFetch(final int offset, final int fetch,
         .returns("C=730\n");
   }
 
+  /** Tests connections that share a model; see
+   * {@link CalciteConnectionProperty#SHARED_MODEL}. */
+  @Test void testSharedModel() throws Exception {
+    final String model = "inline:{\n"
+        + "  version: '1.0',\n"
+        + "  defaultSchema: 'hr',\n"
+        + "  schemas: [ {\n"
+        + "    type: 'custom',\n"
+        + "    name: 'hr',\n"
+        + "    factory: '" + ReflectiveSchema.Factory.class.getName() + "',\n"
+        + "    operand: {class: '" + HrSchema.class.getName() + "'},\n"
+        + "    tables: [ {\n"
+        + "      name: 'V',\n"
+        + "      type: 'view',\n"
+        + "      sql: 'select \\\"empid\\\" from \\\"emps\\\" "
+        + "where \\\"deptno\\\" = 10'\n"
+        + "    } ]\n"
+        + "  } ]\n"
+        + "}";
+    final Properties info = new Properties();
+    info.setProperty("model", model);
+    info.setProperty("sharedModel", "true");
+    try (Connection c1 = DriverManager.getConnection("jdbc:calcite:", info);
+         Connection c2 = DriverManager.getConnection("jdbc:calcite:", info)) {
+      final SchemaPlus hr1 =
+          requireNonNull(c1.unwrap(CalciteConnection.class).getRootSchema()
+              .subSchemas().get("hr"));
+      final SchemaPlus hr2 =
+          requireNonNull(c2.unwrap(CalciteConnection.class).getRootSchema()
+              .subSchemas().get("hr"));
+      assertThat(hr1, not(sameInstance(hr2)));
+      assertThat(hr1.unwrap(ReflectiveSchema.class),
+          sameInstance(hr2.unwrap(ReflectiveSchema.class)));
+      assertThat(c2.getSchema(), is("hr"));
+
+      // A table added to one connection is not seen by the other
+      hr1.add("T", requireNonNull(hr1.tables().get("emps")));
+      assertThat(hr1.tables().get("T"), notNullValue());
+      assertThat(hr2.tables().get("T"), nullValue());
+
+      try (Statement s = c2.createStatement();
+           ResultSet r = s.executeQuery("select count(*) as c from v")) {
+        assertThat(CalciteAssert.toString(r), is("C=3\n"));
+      }
+      try (Statement s = c1.createStatement();
+           ResultSet r = s.executeQuery("select count(*) as c from t")) {
+        assertThat(CalciteAssert.toString(r), is("C=4\n"));
+      }
+    }
+
+    // Without the "sharedModel" property, each connection loads the model
+    info.remove("sharedModel");
+    try (Connection c1 = DriverManager.getConnection("jdbc:calcite:", info);
+         Connection c2 = DriverManager.getConnection("jdbc:calcite:", info)) {
+      final SchemaPlus hr1 =
+          requireNonNull(c1.unwrap(CalciteConnection.class).getRootSchema()
+              .subSchemas().get("hr"));
+      final SchemaPlus hr2 =
+          requireNonNull(c2.unwrap(CalciteConnection.class).getRootSchema()
+              .subSchemas().get("hr"));
+      assertThat(hr1.unwrap(ReflectiveSchema.class),
+          not(sameInstance(hr2.unwrap(ReflectiveSchema.class))));
+    }
+  }
+
   /** Tests a JSON model with a comment. Not standard JSON, but harmless to
    * allow Jackson's comments extension.
    *
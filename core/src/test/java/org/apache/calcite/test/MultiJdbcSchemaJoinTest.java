@@ -30,27 +30,40 @@
 
 import org.apache.commons.dbcp2.BasicDataSource;
 
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.Sets;
 
 import org.junit.jupiter.api.Test;
 
+import java.lang.management.ManagementFactory;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import javax.sql.DataSource;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import static java.util.Objects.requireNonNull;
+
 /** Test case for joining tables from two different JDBC databases. */
 class MultiJdbcSchemaJoinTest {
   @Test void test() throws SQLException {
@@ -122,6 +135,130 @@ class MultiJdbcSchemaJoinTest {
     }
   }
 
+  /** Tests a {@link JdbcSchema} whose data source caches prepared statements
+   * per connection; executing the same pushed-down query repeatedly, with
+   * different parameter values, gives the correct results, and borrows the
+   * back-end statement from the cache rather than preparing it again. */
+  @Test void testStatementCache() throws Exception {
+    final String db = TempDb.INSTANCE.getUrl();
+    try (Connection c1 = DriverManager.getConnection(db, "", "");
+         Statement stmt1 = c1.createStatement()) {
+      stmt1.execute("create table table1(id integer not null primary key, "
+          + "field1 varchar(10))");
+      stmt1.execute("insert into table1 values(100, 'foo')");
+      stmt1.execute("insert into table1 values(200, 'bar')");
+    }
+
+    final Map<String, Object> operand = new HashMap<>();
+    operand.put("jdbcUrl", db);
+    operand.put("jdbcDriver", "org.hsqldb.jdbcDriver");
+    operand.put("jdbcUser", "");
+    operand.put("jdbcPassword", "");
+    operand.put("jdbcStatementCacheSize", "8");
+    final String jmxName =
+        "org.apache.calcite.test:type=MultiJdbcSchemaJoinTest,name="
+            + ObjectName.quote(db);
+    operand.put("jdbcJmxName", jmxName);
+    try (Connection connection = DriverManager.getConnection("jdbc:calcite:")) {
+      final SchemaPlus rootSchema =
+          connection.unwrap(CalciteConnection.class).getRootSchema();
+      final JdbcSchema schema = JdbcSchema.create(rootSchema, "DB", operand);
+      rootSchema.add("DB", schema);
+      final BasicDataSource dataSource =
+          (BasicDataSource) schema.getDataSource();
+      assertThat(dataSource.isPoolPreparedStatements(), is(true));
+      assertThat(dataSource.getMaxOpenPreparedStatements(), is(8));
+
+      try (PreparedStatement ps =
+               connection.prepareStatement("select field1 from db.table1 "
+                   + "where id = ?")) {
+        for (int i = 0; i < 3; i++) {
+          ps.setInt(1, 100);
+          try (ResultSet rs = ps.executeQuery()) {
+            assertThat(CalciteAssert.toString(rs), is("FIELD1=foo\n"));
+          }
+          ps.setInt(1, 200);
+          try (ResultSet rs = ps.executeQuery()) {
+            assertThat(CalciteAssert.toString(rs), is("FIELD1=bar\n"));
+          }
+        }
+      }
+
+      // The pool registers a statement pool for each pooled connection.
+      // Six executions borrowed a statement, but few were created.
+      final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      final Set<ObjectName> statementPools =
+          server.queryNames(
+              new ObjectName(jmxName + ",connectionpool=connections,"
+                  + "connection=*,statementpool=statements"), null);
+      assertThat(statementPools, not(empty()));
+      long borrowed = 0;
+      long created = 0;
+      for (ObjectName statementPool : statementPools) {
+        borrowed += (Long) server.getAttribute(statementPool, "BorrowedCount");
+        created += (Long) server.getAttribute(statementPool, "CreatedCount");
+      }
+      assertThat(borrowed, greaterThanOrEqualTo(6L));
+      assertThat(created, lessThan(borrowed));
+    }
+  }
+
+  /** Tests a {@link JdbcSchema} that caches metadata. Two connections share
+   * the cache, so the second connection reads no metadata from the back end,
+   * and does not see a table created after the cache was populated. */
+  @Test void testMetadataCache() throws SQLException {
+    final String db = TempDb.INSTANCE.getUrl();
+    try (Connection c1 = DriverManager.getConnection(db, "", "");
+         Statement stmt1 = c1.createStatement()) {
+      stmt1.execute("create table table1(id integer not null primary key, "
+          + "field1 varchar(10))");
+      stmt1.execute("insert into table1 values(100, 'foo')");
+    }
+
+    final Map<String, Object> operand = new HashMap<>();
+    operand.put("jdbcUrl", db);
+    operand.put("jdbcDriver", "org.hsqldb.jdbcDriver");
+    operand.put("jdbcUser", "");
+    operand.put("jdbcPassword", "");
+    operand.put("jdbcMetadataCacheSeconds", 3600);
+    final String sql = "select field1 from db.table1";
+    final CacheStats stats1;
+    try (Connection connection = DriverManager.getConnection("jdbc:calcite:")) {
+      final SchemaPlus rootSchema =
+          connection.unwrap(CalciteConnection.class).getRootSchema();
+      final JdbcSchema schema = JdbcSchema.create(rootSchema, "DB", operand);
+      rootSchema.add("DB", schema);
+      try (Statement statement = connection.createStatement();
+           ResultSet rs = statement.executeQuery(sql)) {
+        assertThat(CalciteAssert.toString(rs), is("FIELD1=foo\n"));
+      }
+      stats1 = requireNonNull(schema.getMetadataCacheStats());
+      // One load for the list of tables, one for the row type of TABLE1
+      assertThat(stats1.loadCount(), is(2L));
+    }
+
+    try (Connection c1 = DriverManager.getConnection(db, "", "");
+         Statement stmt1 = c1.createStatement()) {
+      stmt1.execute("create table table2(id integer not null primary key)");
+    }
+
+    try (Connection connection = DriverManager.getConnection("jdbc:calcite:")) {
+      final SchemaPlus rootSchema =
+          connection.unwrap(CalciteConnection.class).getRootSchema();
+      final JdbcSchema schema = JdbcSchema.create(rootSchema, "DB", operand);
+      rootSchema.add("DB", schema);
+      try (Statement statement = connection.createStatement();
+           ResultSet rs = statement.executeQuery(sql)) {
+        assertThat(CalciteAssert.toString(rs), is("FIELD1=foo\n"));
+      }
+      final CacheStats stats2 = requireNonNull(schema.getMetadataCacheStats());
+      assertThat(stats2.loadCount(), is(2L));
+      assertThat(stats2.hitCount() > stats1.hitCount(), is(true));
+      assertThat(schema.tables().getNames(LikePattern.any()),
+          is(Collections.singleton("TABLE1")));
+    }
+  }
+
   private Connection setup() throws SQLException {
     // Create a jdbc database & table
     final String db = TempDb.INSTANCE.getUrl();
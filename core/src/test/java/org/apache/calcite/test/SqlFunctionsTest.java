@@ -330,6 +330,63 @@ static <E> List<E> list() {
     assertThat(convertOracle("a", "UTF8"), is("a"));
   }
 
+  /** Tests {@link SqlFunctions.LikeFunction}, in particular patterns that
+   * are matched without a regular expression. */
+  @Test void testLike() {
+    final SqlFunctions.LikeFunction f = new SqlFunctions.LikeFunction();
+    // exact
+    assertThat(f.like("abc", "abc"), is(true));
+    assertThat(f.like("abcd", "abc"), is(false));
+    assertThat(f.like("", ""), is(true));
+    assertThat(f.like("a", ""), is(false));
+    // prefix
+    assertThat(f.like("abcd", "abc%"), is(true));
+    assertThat(f.like("abc", "abc%"), is(true));
+    assertThat(f.like("xabc", "abc%"), is(false));
+    // suffix
+    assertThat(f.like("xabc", "%abc"), is(true));
+    assertThat(f.like("abcx", "%abc"), is(false));
+    // contains
+    assertThat(f.like("xabcx", "%abc%"), is(true));
+    assertThat(f.like("xabx", "%abc%"), is(false));
+    assertThat(f.like("x\nabc\ny", "%abc%"), is(true));
+    // prefix and suffix must not overlap
+    assertThat(f.like("abc", "ab%bc"), is(false));
+    assertThat(f.like("abbc", "ab%bc"), is(true));
+    assertThat(f.like("a", "a%a"), is(false));
+    // multiple segments
+    assertThat(f.like("abxcdxef", "ab%cd%ef"), is(true));
+    assertThat(f.like("abcdef", "ab%cd%ef"), is(true));
+    assertThat(f.like("abdcef", "ab%cd%ef"), is(false));
+    assertThat(f.like("abcdcd", "%cd%cd"), is(true));
+    assertThat(f.like("abcd", "%cd%cd"), is(false));
+    assertThat(f.like("xaybzc", "%a%b%c%"), is(true));
+    assertThat(f.like("xcybza", "%a%b%c%"), is(false));
+    // wildcard only
+    assertThat(f.like("", "%"), is(true));
+    assertThat(f.like("abc", "%%"), is(true));
+    // '_' uses a regular expression, which does not match line terminators
+    assertThat(f.like("abc", "a_c"), is(true));
+    assertThat(f.like("a\nc", "a_c"), is(false));
+    assertThat(f.like("abcd", "a_c%"), is(true));
+    // characters that are special in regular expressions
+    assertThat(f.like("a.b", "a.b"), is(true));
+    assertThat(f.like("axb", "a.b"), is(false));
+    assertThat(f.like("a*b(c", "%*b(%"), is(true));
+    // escape
+    assertThat(f.like("a%b", "a\\%b", "\\"), is(true));
+    assertThat(f.like("axb", "a\\%b", "\\"), is(false));
+    assertThat(f.like("a_b%", "%!_b!%", "!"), is(true));
+    assertThat(f.like("a!b", "a!!%", "!"), is(true));
+    // same pattern, different escape
+    assertThat(f.like("a!%", "a!%"), is(true));
+    assertThat(f.like("a!%", "a!%", "!"), is(false));
+    // case-insensitive
+    assertThat(f.ilike("ABCD", "abc%"), is(true));
+    assertThat(f.ilike("XABC", "abc%"), is(false));
+    assertThat(f.ilike("xAbCx", "%aBc%"), is(true));
+  }
+
   @Test void testPosixRegex() {
     final SqlFunctions.PosixRegexFunction f =
         new SqlFunctions.PosixRegexFunction();
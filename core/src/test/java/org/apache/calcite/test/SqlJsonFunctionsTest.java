@@ -89,6 +89,48 @@ class SqlJsonFunctionsTest {
             JsonFunctions.JsonPathContext.withJavaObj(JsonFunctions.PathMode.LAX, 100)));
   }
 
+  /** Tests that {@link JsonFunctions.StatefulFunction}, which reads simple
+   * paths without parsing the whole document, and shares a parsed document
+   * among calls, gives the same results as parsing the document for each
+   * call. */
+  @Test void testJsonApiCommonSyntaxWithCache() {
+    final String[] inputs = {
+        "{\"a\": {\"b\": [1, {\"c\": \"x\"}]}, \"d\": null}",
+        "{\"a\": 1, \"a\": 2}",
+        "{\"a\": {\"b\": 1}, \"e\": {\"b\": 2}, \"a\": {\"b\": 3}}",
+        "{\"a\": {\"b\": [1, 2], \"b\": [3]}}",
+        "{\"a\": 1, \"e\": ",
+        "{\"a\": 1} trailing",
+        "[10, 20, [30]]",
+        "\"a\"",
+        "null",
+        "",
+    };
+    final String[] pathSpecs = {
+        "$", "$.a", "lax $.a", "strict $.a.b", "lax $.a.b[0]",
+        "strict $.a.b[1].c", "lax $.a.b[5]", "strict $.a.b[5]", "$['a']",
+        "strict $.d", "lax $.x", "strict $.x", "lax $[2][0]", "strict $[1]",
+        "lax $.a.*", "$.a[",
+    };
+    for (String input : inputs) {
+      final JsonFunctions.StatefulFunction f =
+          new JsonFunctions.StatefulFunction();
+      for (String pathSpec : pathSpecs) {
+        // Copy the input, so that the function sees it as a new document
+        final String input2 = new String(input.toCharArray());
+        final JsonFunctions.JsonPathContext expected =
+            JsonFunctions.jsonApiCommonSyntax(input, pathSpec);
+        assertThat(input + " " + pathSpec,
+            f.jsonApiCommonSyntaxWithCache(input2, pathSpec),
+            contextMatches(expected));
+        // The second call on the same document parses it
+        assertThat(input + " " + pathSpec,
+            f.jsonApiCommonSyntaxWithCache(input2, pathSpec),
+            contextMatches(expected));
+      }
+    }
+  }
+
   @Test void testJsonExists() {
     assertJsonExists(
         JsonFunctions.JsonPathContext.withJavaObj(JsonFunctions.PathMode.STRICT, "bar"),
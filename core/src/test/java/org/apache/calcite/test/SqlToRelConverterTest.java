@@ -2111,6 +2111,35 @@ void checkCorrelatedMapSubQuery(boolean expand) {
     sql(sql).ok();
   }
 
+  /** As {@link #testInValueListLong()}, but with
+   * {@link SqlToRelConverter.Config#isInListToSearch()}, so that literal
+   * lists of any size become a {@code SEARCH}, not a sub-query. */
+  @Test void testInValueListLongToSearch() {
+    final String sql = "select empno from emp where deptno in"
+        + " (10, 20, 30, 40, 50, 60, 70, 80, 90, 100"
+        + ", 110, 120, 130, 140, 150, 160, 170, 180, 190"
+        + ", 200, 210, 220, 230)\n"
+        + "and ename not in ('a', 'bb', 'ccc')\n"
+        + "and empno in (1, empno)";
+    sql(sql).withConfig(c -> c.withInListToSearch(true)).ok();
+  }
+
+  /** Tests that a long IN list, converted to an inline table, and a
+   * {@code VALUES} clause become {@code LogicalColumnarValues} if they have
+   * at least {@code columnarValuesThreshold} rows. */
+  @Test void testColumnarValues() {
+    final String sql = "select empno from emp where deptno in"
+        + " (10, 20, 30, 40, 50, 60, 70, 80, 90, 100"
+        + ", 110, 120, 130, 140, 150, 160, 170, 180, 190"
+        + ", 200, 210, 220, 230)\n"
+        + "union all\n"
+        + "select * from (values 1, 2, 3)\n"
+        + "union all\n"
+        + "select a + b from (values (1, 2.5), (null, 3), (4, 5))\n"
+        + "  as t (a, b)";
+    sql(sql).withConfig(c -> c.withColumnarValuesThreshold(3)).ok();
+  }
+
   @Test void testInUncorrelatedSubQuery() {
     final String sql = "select empno from emp where deptno in"
         + " (select deptno from dept)";
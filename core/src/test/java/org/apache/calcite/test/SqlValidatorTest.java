@@ -1337,6 +1337,27 @@ void testLikeAndSimilarFails() {
     expr("1 in (null, null)").ok();
   }
 
+  /** Tests IN-lists and VALUES columns whose values are literals of the same
+   * type name, whose types the validator derives in a single pass. */
+  @Test void testLiteralList() {
+    expr("'a' in ('a', 'bb', 'ccc')")
+        .columnType("BOOLEAN NOT NULL");
+    expr("1 in (1, 2.5, 3)")
+        .columnType("BOOLEAN NOT NULL");
+    sql("values ('a', 1), ('bb', 2), ('ccc', 3)")
+        .type("RecordType(CHAR(3) NOT NULL EXPR$0,"
+            + " INTEGER NOT NULL EXPR$1) NOT NULL");
+    sql("values ('a', 1), ('bb', 2.5), ('ccc', 3)")
+        .type("RecordType(CHAR(3) NOT NULL EXPR$0,"
+            + " DECIMAL(11, 1) NOT NULL EXPR$1) NOT NULL");
+
+    final StringBuilder b = new StringBuilder();
+    for (int i = 0; i < 10_000; i++) {
+      b.append(i == 0 ? "" : ", ").append('\'').append(i).append('\'');
+    }
+    sql("select * from emp where ename in (" + b + ")").ok();
+  }
+
   @Test void testNullCast() {
     expr("cast(null as tinyint)")
         .columnType("TINYINT");
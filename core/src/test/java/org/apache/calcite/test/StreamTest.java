@@ -16,29 +16,48 @@
  */
 package org.apache.calcite.test;
 
+import org.apache.calcite.adapter.enumerable.EnumerableGroupWindowAggregateRule;
+import org.apache.calcite.adapter.enumerable.EnumerableRules;
+import org.apache.calcite.avatica.util.DateTimeUtils;
+import org.apache.calcite.config.CalciteConnectionProperty;
+import org.apache.calcite.plan.RelOptPlanner;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.runtime.Hook;
+import org.apache.calcite.schema.SchemaPlus;
+import org.apache.calcite.schema.Table;
 import org.apache.calcite.schema.TableFactory;
 import org.apache.calcite.test.schemata.orderstream.InfiniteOrdersStreamTableFactory;
 import org.apache.calcite.test.schemata.orderstream.OrdersStreamTableFactory;
+import org.apache.calcite.test.schemata.orderstream.OrdersTable;
 import org.apache.calcite.test.schemata.orderstream.ProductsTableFactory;
 import org.apache.calcite.util.TestUtil;
 
 import com.google.common.collect.ImmutableList;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.hamcrest.comparator.ComparatorMatcherBuilder;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.File;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Map;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import static java.util.Objects.requireNonNull;
+
 /**
  * Tests for streaming queries.
  */
@@ -143,7 +162,7 @@ private static String schemaFor(String name, Class<? extends TableFactory> clazz
                 + "        LogicalTableScan(table=[[STREAMS, ORDERS]])\n")
         .explainContains(
             "EnumerableCalc(expr#0..2=[{inputs}], expr#3=[1:BIGINT], expr#4=[>($t2, $t3)], proj#0..2=[{exprs}], $condition=[$t4])\n"
-                + "  EnumerableAggregate(group=[{0, 1}], C=[COUNT()])\n"
+                + "  EnumerableStreamAggregate(group=[{0, 1}], C=[COUNT()], monotonic=[0])\n"
                 + "    EnumerableCalc(expr#0..3=[{inputs}], expr#4=[FLAG(HOUR)], expr#5=[FLOOR($t0, $t4)], ROWTIME=[$t5], PRODUCT=[$t2])\n"
                 + "      EnumerableInterpreter\n"
                 + "        BindableTableScan(table=[[STREAMS, ORDERS, (STREAM)]])")
@@ -254,6 +273,146 @@ private static String schemaFor(String name, Class<? extends TableFactory> clazz
         });
   }
 
+  /** Tests that an aggregate over an infinite stream emits each group once
+   * the monotonic grouping key has moved on, rather than waiting for the end
+   * of the stream. */
+  @Test @Timeout(10) public void testInfiniteStreamGroupBy() {
+    CalciteAssert.model(STREAM_MODEL)
+        .withDefaultSchema(INFINITE_STREAM_SCHEMA_NAME)
+        .query("select stream floor(rowtime to second) as rowtime,\n"
+            + "  product, count(*) as c\n"
+            + "from orders\n"
+            + "group by floor(rowtime to second), product")
+        .limit(3)
+        .explainContains("EnumerableStreamAggregate(group=[{0, 1}], "
+            + "C=[COUNT()], monotonic=[0])\n")
+        .returnsCount(3);
+  }
+
+  /** Tests that a streaming aggregate with a state id resumes from its
+   * checkpoint when the same query is executed again, and skips the rows
+   * that the checkpoint already reflects.
+   *
+   * <p>See {@link org.apache.calcite.runtime.EnumerablesTest} for a test
+   * that resumes with groups still open. */
+  @Test void testStreamGroupByResume(@TempDir File stateDir) {
+    final String sql = "select stream floor(rowtime to hour) as rowtime,\n"
+        + "  product, count(*) as c\n"
+        + "from orders\n"
+        + "group by floor(rowtime to hour), product";
+    final Function<@Nullable String, CalciteAssert.AssertQuery> query =
+        stateId ->
+            (stateId == null
+                ? CalciteAssert.model(STREAM_MODEL)
+                : CalciteAssert.model(STREAM_MODEL)
+                    .with(CalciteConnectionProperty.STREAM_STATE_ID, stateId))
+                .withDefaultSchema("STREAMS")
+                .query(sql)
+                .withProperty(Hook.STREAM_STATE_DIRECTORY, stateDir.getPath());
+    query.apply("q1")
+        .returns("ROWTIME=2015-02-15 10:00:00; PRODUCT=paint; C=2\n"
+            + "ROWTIME=2015-02-15 10:00:00; PRODUCT=paper; C=1\n"
+            + "ROWTIME=2015-02-15 10:00:00; PRODUCT=brush; C=1\n"
+            + "ROWTIME=2015-02-15 11:00:00; PRODUCT=paint; C=1\n");
+
+    // The first execution consumed all of the rows of the stream; a second
+    // execution with the same id skips them, and has nothing to emit.
+    query.apply("q1").returns("");
+
+    // An execution with a different id, or with none, starts afresh, and an
+    // execution with no id persists nothing.
+    query.apply("q2").returnsCount(4);
+    query.apply(null).returnsCount(4);
+    assertThat(Arrays.asList(requireNonNull(stateDir.list())),
+        containsInAnyOrder("q1", "q2"));
+  }
+
+  @Test void testStreamGroupByTumble() {
+    CalciteAssert.model(STREAM_MODEL)
+        .withDefaultSchema("STREAMS")
+        .query("select stream tumble_end(rowtime, interval '1' hour) as rowtime,\n"
+            + "  product, count(*) as c, sum(units) as su\n"
+            + "from orders\n"
+            + "group by tumble(rowtime, interval '1' hour), product")
+        .explainContains("EnumerableGroupWindowAggregate(group=[{0, 1}], "
+            + "C=[COUNT()], SU=[$SUM0($2)], window=[TUMBLE], field=[0], "
+            + "size=[3600000])\n")
+        .returns(
+            startsWith("ROWTIME=2015-02-15 11:00:00; PRODUCT=paint; C=2; SU=13",
+                "ROWTIME=2015-02-15 11:00:00; PRODUCT=paper; C=1; SU=5",
+                "ROWTIME=2015-02-15 11:00:00; PRODUCT=brush; C=1; SU=12",
+                "ROWTIME=2015-02-15 12:00:00; PRODUCT=paint; C=1; SU=3"));
+  }
+
+  @Test void testStreamGroupByHop() {
+    CalciteAssert.model(STREAM_MODEL)
+        .withDefaultSchema("STREAMS")
+        .query("select stream\n"
+            + "  hop_end(rowtime, interval '30' minute, interval '1' hour) as rowtime,\n"
+            + "  count(*) as c\n"
+            + "from orders\n"
+            + "group by hop(rowtime, interval '30' minute, interval '1' hour)")
+        .explainContains("EnumerableGroupWindowAggregate(group=[{0}], "
+            + "C=[COUNT()], window=[HOP], field=[0], size=[3600000], "
+            + "slide=[1800000])\n")
+        .returns(
+            startsWith("ROWTIME=2015-02-15 10:30:00; C=3",
+                "ROWTIME=2015-02-15 11:00:00; C=4",
+                "ROWTIME=2015-02-15 11:30:00; C=2",
+                "ROWTIME=2015-02-15 12:00:00; C=1"));
+  }
+
+  @Test void testStreamGroupBySession() {
+    CalciteAssert.model(STREAM_MODEL)
+        .withDefaultSchema("STREAMS")
+        .query("select stream\n"
+            + "  session_start(rowtime, interval '20' minute) as rowtime,\n"
+            + "  product, count(*) as c\n"
+            + "from orders\n"
+            + "group by session(rowtime, interval '20' minute), product")
+        .explainContains("EnumerableGroupWindowAggregate(group=[{0, 1}], "
+            + "C=[COUNT()], window=[SESSION], field=[0], size=[1200000])\n")
+        .returns(
+            startsWith("ROWTIME=2015-02-15 10:15:00; PRODUCT=paint; C=1",
+                "ROWTIME=2015-02-15 10:24:15; PRODUCT=paper; C=1",
+                "ROWTIME=2015-02-15 10:24:45; PRODUCT=brush; C=1",
+                "ROWTIME=2015-02-15 10:58:00; PRODUCT=paint; C=2"));
+  }
+
+  /** Tests session windows where rows may arrive late, and a late row
+   * joins two sessions; the accumulators of the sessions are combined. */
+  @Test void testStreamGroupBySessionLate() {
+    final String model = "{\n"
+        + "  version: '1.0',\n"
+        + "  defaultSchema: 'LATE_STREAMS',\n"
+        + "   schemas: [\n"
+        + schemaFor("LATE_STREAMS", LateOrdersStreamTableFactory.class)
+        + "\n"
+        + "   ]\n"
+        + "}";
+    CalciteAssert.model(model)
+        .query("select stream\n"
+            + "  session_start(rowtime, interval '20' minute) as rowtime,\n"
+            + "  product, count(*) as c, sum(units) as su, min(units) as mu,\n"
+            + "  max(units) as xu\n"
+            + "from orders\n"
+            + "group by session(rowtime, interval '20' minute), product")
+        .withHook(Hook.PLANNER, (Consumer<RelOptPlanner>) planner -> {
+          planner.removeRule(
+              EnumerableRules.ENUMERABLE_GROUP_WINDOW_AGGREGATE_RULE);
+          planner.addRule(
+              EnumerableGroupWindowAggregateRule.Config.DEFAULT
+                  .withAllowedLateness(3_600_000L)
+                  .toRule());
+        })
+        .explainContains("window=[SESSION], field=[0], size=[1200000], "
+            + "lateness=[3600000])\n")
+        .returns("ROWTIME=2015-02-15 10:00:00; PRODUCT=paint; C=3; SU=7; MU=1;"
+            + " XU=4\n"
+            + "ROWTIME=2015-02-15 12:00:00; PRODUCT=paint; C=1; SU=8; MU=8;"
+            + " XU=8\n");
+  }
+
   @Test void testStreamToRelationJoin() {
     CalciteAssert.model(STREAM_JOINS_MODEL)
         .withDefaultSchema(STREAM_JOINS_SCHEMA_NAME)
@@ -268,17 +427,15 @@ private static String schemaFor(String name, Class<? extends TableFactory> clazz
             + "      LogicalTableScan(table=[[STREAM_JOINS, PRODUCTS]])\n")
         .explainContains(""
             + "EnumerableCalc(expr#0..4=[{inputs}], proj#0..1=[{exprs}], SUPPLIERID=[$t4])\n"
-            + "  EnumerableMergeJoin(condition=[=($2, $3)], joinType=[inner])\n"
-            + "    EnumerableSort(sort0=[$2], dir0=[ASC])\n"
-            + "      EnumerableCalc(expr#0..3=[{inputs}], expr#4=[CAST($t2):VARCHAR(32) NOT NULL], proj#0..1=[{exprs}], PRODUCT0=[$t4])\n"
-            + "        EnumerableInterpreter\n"
-            + "          BindableTableScan(table=[[STREAM_JOINS, ORDERS, (STREAM)]])\n"
-            + "    EnumerableSort(sort0=[$0], dir0=[ASC])\n"
-            + "      EnumerableTableScan(table=[[STREAM_JOINS, PRODUCTS]])\n")
+            + "  EnumerableStreamJoin(condition=[=($2, $3)], joinType=[inner])\n"
+            + "    EnumerableCalc(expr#0..3=[{inputs}], expr#4=[CAST($t2):VARCHAR(32) NOT NULL], proj#0..1=[{exprs}], PRODUCT0=[$t4])\n"
+            + "      EnumerableInterpreter\n"
+            + "        BindableTableScan(table=[[STREAM_JOINS, ORDERS, (STREAM)]])\n"
+            + "    EnumerableTableScan(table=[[STREAM_JOINS, PRODUCTS]])\n")
         .returns(
-            startsWith("ROWTIME=2015-02-15 10:24:45; ORDERID=3; SUPPLIERID=1",
-                "ROWTIME=2015-02-15 10:15:00; ORDERID=1; SUPPLIERID=1",
-                "ROWTIME=2015-02-15 10:58:00; ORDERID=4; SUPPLIERID=1"));
+            startsWith("ROWTIME=2015-02-15 10:15:00; ORDERID=1; SUPPLIERID=1",
+                "ROWTIME=2015-02-15 10:24:15; ORDERID=2; SUPPLIERID=0",
+                "ROWTIME=2015-02-15 10:24:45; ORDERID=3; SUPPLIERID=1"));
   }
 
   @Disabled
@@ -308,6 +465,26 @@ private static String schemaFor(String name, Class<? extends TableFactory> clazz
         .query(sql);
   }
 
+  /** Factory for a stream of orders in which the order at 10:15 arrives
+   * after the order at 10:30. */
+  public static class LateOrdersStreamTableFactory
+      implements TableFactory<Table> {
+    // public constructor, per factory contract
+    public LateOrdersStreamTableFactory() {
+    }
+
+    @Override public Table create(SchemaPlus schema, String name,
+        Map<String, Object> operand, @Nullable RelDataType rowType) {
+      final Object[][] rows = {
+          {DateTimeUtils.unixTimestamp(2015, 2, 15, 10, 0, 0), 1, "paint", 1},
+          {DateTimeUtils.unixTimestamp(2015, 2, 15, 10, 30, 0), 2, "paint", 2},
+          {DateTimeUtils.unixTimestamp(2015, 2, 15, 10, 15, 0), 3, "paint", 4},
+          {DateTimeUtils.unixTimestamp(2015, 2, 15, 12, 0, 0), 4, "paint", 8}
+      };
+      return new OrdersTable(ImmutableList.copyOf(rows));
+    }
+  }
+
   private Consumer<ResultSet> startsWith(String... rows) {
     final ImmutableList<String> rowList = ImmutableList.copyOf(rows);
     return resultSet -> {
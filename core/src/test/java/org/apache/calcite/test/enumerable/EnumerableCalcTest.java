@@ -16,15 +16,40 @@
  */
 package org.apache.calcite.test.enumerable;
 
+import org.apache.calcite.adapter.enumerable.EnumerableRules;
 import org.apache.calcite.adapter.java.ReflectiveSchema;
+import org.apache.calcite.rel.metadata.DefaultRelMetadataProvider;
+import org.apache.calcite.rel.rules.CoreRules;
+import org.apache.calcite.runtime.Hook;
 import org.apache.calcite.sql.SqlOperator;
 import org.apache.calcite.sql.fun.SqlStdOperatorTable;
 import org.apache.calcite.test.CalciteAssert;
 import org.apache.calcite.test.schemata.catchall.CatchallSchema;
 import org.apache.calcite.test.schemata.hr.HrSchema;
+import org.apache.calcite.tools.Program;
+import org.apache.calcite.tools.Programs;
+import org.apache.calcite.tools.RelBuilder;
+import org.apache.calcite.util.Holder;
+import org.apache.calcite.util.Pair;
+import org.apache.calcite.util.TestUtil;
 
+import com.google.common.collect.ImmutableList;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.junit.jupiter.api.Test;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+
 /**
  * Unit test for
  * {@link org.apache.calcite.adapter.enumerable.EnumerableCalc}.
@@ -129,4 +154,155 @@ private CalciteAssert.AssertQuery checkPosixRegex(
         .planContains("input_value != null && input_value.isEmpty()")
         .returnsUnordered("$f0=false", "$f0=true");
   }
+
+  /** Tests that a SEARCH call whose Sarg has many points is implemented by a
+   * binary search, not by a chain of comparisons. */
+  @Test void testSearchManyPoints() {
+    CalciteAssert.that()
+        .withSchema("s", new ReflectiveSchema(new HrSchema()))
+        .withRel(builder -> builder
+            .scan("s", "emps")
+            .filter(
+                builder.in(builder.field("empid"),
+                    IntStream.range(0, 10)
+                        .mapToObj(i -> builder.literal(100 + i * 10))
+                        .collect(Collectors.toList())))
+            .project(builder.field("empid"))
+            .build())
+        .planContains("SearchRanges.ofLongs(")
+        .returnsUnordered("empid=100", "empid=110", "empid=150");
+  }
+
+  /** As {@link #testSearchManyPoints()}, but the Sarg has the complement of
+   * many points (it implements {@code NOT IN}), and the column is nullable;
+   * a null value does not satisfy the condition. */
+  @Test void testSearchManyRangesNullable() {
+    CalciteAssert.that()
+        .withSchema("s", new ReflectiveSchema(new HrSchema()))
+        .withRel(builder -> builder
+            .scan("s", "emps")
+            .filter(
+                builder.not(
+                    builder.in(builder.field("commission"),
+                        IntStream.range(0, 10)
+                            .mapToObj(i -> builder.literal(i * 100))
+                            .collect(Collectors.toList()))))
+            .project(builder.field("empid"))
+            .build())
+        .planContains("SearchRanges.ofLongs(")
+        .returnsUnordered("empid=100", "empid=110");
+  }
+
+  /** Tests that when a Calc has so many expressions that its
+   * {@code current()} method would be too large to be JIT-compiled, the
+   * expressions are evaluated in several smaller functions. */
+  @Test void testSplitProjects() {
+    final int n = 1_000;
+    final List<Pair<String, Integer>> oversizedMethods = new ArrayList<>();
+    try (Hook.Closeable ignored =
+             Hook.OVERSIZED_METHOD.<Pair<String, Integer>>addThread(
+                 oversizedMethods::add)) {
+      CalciteAssert.that()
+          .withSchema("s", new ReflectiveSchema(new HrSchema()))
+          .withRel(builder -> builder
+              .scan("s", "emps")
+              .filter(
+                  builder.in(builder.field("empid"), builder.literal(100),
+                      builder.literal(150)))
+              .project(
+                  IntStream.range(0, n)
+                      .mapToObj(i ->
+                          builder.alias(
+                              builder.call(SqlStdOperatorTable.PLUS,
+                                  builder.field(i % 2 == 0 ? "empid" : "commission"),
+                                  builder.literal(i)),
+                              "c" + i))
+                      .collect(Collectors.toList()))
+              .build())
+          .planContains("projector1.apply(")
+          .returnsUnordered(expectedRow(n, 100, 1000), expectedRow(n, 150, null));
+    }
+    assertThat(oversizedMethods, empty());
+  }
+
+  /** Tests a Calc whose projections are split into several functions, above
+   * another Calc that generates a random value. Each row must contain the
+   * same random value in every column, so the input row must be read only
+   * once per output row. */
+  @Test void testSplitProjectsAboveCalc() {
+    // Convert each Project to a Calc, but do not merge the Calcs.
+    final Program program =
+        Programs.sequence(
+            Programs.hep(ImmutableList.of(CoreRules.PROJECT_TO_CALC), true,
+                DefaultRelMetadataProvider.INSTANCE),
+            Programs.ofRules(EnumerableRules.ENUMERABLE_CALC_RULE,
+                EnumerableRules.ENUMERABLE_TABLE_SCAN_RULE));
+    randomProjects(1_000)
+        .withHook(Hook.PROGRAM,
+            (Consumer<Holder<Program>>) holder -> holder.set(program))
+        .planContains("projector1.apply(")
+        .returns(resultSet -> checkSameRandomValue(resultSet, 1_000));
+  }
+
+  /** As {@link #testSplitProjectsAboveCalc()}, but the Calcs are merged; the
+   * merged program is non-deterministic, and is not split. */
+  @Test void testNoSplitProjectsNonDeterministic() {
+    randomProjects(1_000)
+        .planContains("public Object current() {")
+        .returns(resultSet -> checkSameRandomValue(resultSet, 1_000));
+  }
+
+  private static CalciteAssert.AssertQuery randomProjects(
+      int n) {
+    return CalciteAssert.that()
+        .withSchema("s", new ReflectiveSchema(new HrSchema()))
+        .withRel(b -> {
+          // Do not merge the projects.
+          final RelBuilder builder = b.transform(c -> c.withBloat(-1));
+          return builder
+              .scan("s", "emps")
+              .project(
+                  builder.alias(
+                      builder.call(SqlStdOperatorTable.CASE,
+                          builder.isNotNull(builder.field("commission")),
+                          builder.call(SqlStdOperatorTable.RAND_INTEGER,
+                              builder.literal(1_000_000)),
+                          builder.literal(null)),
+                      "r"))
+              .project(
+                  IntStream.range(0, n)
+                      .mapToObj(i ->
+                          builder.alias(
+                              builder.call(SqlStdOperatorTable.PLUS,
+                                  builder.field("r"), builder.literal(i)),
+                              "c" + i))
+                      .collect(Collectors.toList()))
+              .build();
+        });
+  }
+
+  private static void checkSameRandomValue(ResultSet resultSet, int n) {
+    try {
+      int rowCount = 0;
+      while (resultSet.next()) {
+        ++rowCount;
+        final Integer r = (Integer) resultSet.getObject(1);
+        for (int i = 1; i < n; i++) {
+          assertThat(resultSet.getObject(i + 1), is(r == null ? null : r + i));
+        }
+      }
+      assertThat(rowCount, is(4));
+    } catch (SQLException e) {
+      throw TestUtil.rethrow(e);
+    }
+  }
+
+  private static String expectedRow(int n, int empid,
+      @Nullable Integer commission) {
+    return IntStream.range(0, n)
+        .mapToObj(i -> "c" + i + "="
+            + (i % 2 == 0 ? Integer.valueOf(empid + i)
+                : commission == null ? null : commission + i))
+        .collect(Collectors.joining("; "));
+  }
 }
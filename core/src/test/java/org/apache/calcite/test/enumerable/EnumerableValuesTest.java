@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.test.enumerable;
+
+import org.apache.calcite.config.CalciteSystemProperty;
+import org.apache.calcite.rel.core.ColumnarValues;
+import org.apache.calcite.rel.logical.LogicalColumnarValues;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rel.type.RelDataTypeFactory;
+import org.apache.calcite.rex.RexBuilder;
+import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.runtime.ColumnarRows;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.calcite.test.CalciteAssert;
+
+import com.google.common.collect.ImmutableList;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Unit test for
+ * {@link org.apache.calcite.adapter.enumerable.EnumerableValues} and
+ * {@link org.apache.calcite.adapter.enumerable.EnumerableColumnarValues}.
+ */
+class EnumerableValuesTest {
+  /** Number of rows; large enough that
+   * {@link CalciteSystemProperty#VALUES_COLUMNAR_THRESHOLD} applies. */
+  private static final int ROW_COUNT = 150;
+
+  /** Tests a large {@code VALUES} with several columns, some of them
+   * nullable; the generated code reads the rows from columns. */
+  @Test void testColumnar() {
+    final String values = IntStream.range(0, ROW_COUNT)
+        .mapToObj(i -> "(" + (i % 10 == 0 ? "null" : i)
+            + ", 'n" + i + "', " + i + "e-1"
+            + ", DATE '" + LocalDate.of(2020, 1, 1).plusDays(i) + "')")
+        .collect(Collectors.joining(", "));
+    final String sql = "select count(*) as c, count(x) as cx, sum(x) as sx,\n"
+        + " sum(y) as sy, max(d) as md,\n"
+        + " count(*) filter (where x > 100) as c100,\n"
+        + " min(s) as ms\n"
+        + "from (values " + values + ") as t (x, s, y, d)";
+    CalciteAssert.that()
+        .query(sql)
+        .planContains(".arrays()")
+        .returnsUnordered("C=150; CX=135; SX=10125; SY=1117.5; MD=2020-05-29;"
+            + " C100=45; MS=n0  ");
+  }
+
+  /** Tests a large {@code VALUES} with one column; rows are scalars. */
+  @Test void testColumnarScalar() {
+    final String values = IntStream.range(0, ROW_COUNT)
+        .mapToObj(Integer::toString)
+        .collect(Collectors.joining(", "));
+    final String sql = "select sum(x) as s, count(*) as c\n"
+        + "from (values " + values + ") as t (x)\n"
+        + "where x >= 100";
+    CalciteAssert.that()
+        .query(sql)
+        .planContains(".scalars()")
+        .returnsUnordered("S=6225; C=50");
+  }
+
+  /** Tests that a small {@code VALUES} generates a row per literal. */
+  @Test void testNotColumnar() {
+    CalciteAssert.that()
+        .query("select * from (values (1, 'a'), (2, 'b')) as t (x, s)")
+        .planContains("new Object[] {")
+        .returnsUnordered("X=1; S=a", "X=2; S=b");
+  }
+
+  /** Tests that a {@link LogicalColumnarValues} is implemented by
+   * {@link org.apache.calcite.adapter.enumerable.EnumerableColumnarValues}. */
+  @Test void testColumnarValuesRel() {
+    CalciteAssert.that()
+        .withRel(builder -> {
+          final RexBuilder rexBuilder = builder.getRexBuilder();
+          final RelDataTypeFactory typeFactory = rexBuilder.getTypeFactory();
+          final RelDataType rowType = typeFactory.builder()
+              .add("I", SqlTypeName.INTEGER)
+              .add("D", SqlTypeName.DECIMAL, 5, 2).nullable(true)
+              .build();
+          final List<List<RexLiteral>> tuples = new ArrayList<>();
+          for (int i = 0; i < 3; i++) {
+            tuples.add(
+                ImmutableList.of(
+                    rexBuilder.makeExactLiteral(BigDecimal.valueOf(i),
+                        rowType.getFieldList().get(0).getType()),
+                    i == 1
+                        ? rexBuilder.makeNullLiteral(
+                            rowType.getFieldList().get(1).getType())
+                        : rexBuilder.makeExactLiteral(
+                            BigDecimal.valueOf(i * 125, 2),
+                            rowType.getFieldList().get(1).getType())));
+          }
+          final ColumnarRows rows =
+              requireNonNull(ColumnarValues.toRows(rowType, tuples));
+          return builder
+              .push(LogicalColumnarValues.create(builder.getCluster(), rowType,
+                  rows))
+              .build();
+        })
+        .planContains(".arrays()")
+        .returnsUnordered("I=0; D=0.00", "I=1; D=null", "I=2; D=2.50");
+  }
+}
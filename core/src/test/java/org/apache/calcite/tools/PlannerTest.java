@@ -46,6 +46,7 @@
 import org.apache.calcite.rel.core.TableScan;
 import org.apache.calcite.rel.logical.LogicalFilter;
 import org.apache.calcite.rel.logical.LogicalProject;
+import org.apache.calcite.rel.metadata.DefaultRelMetadataProvider;
 import org.apache.calcite.rel.metadata.RelMetadataQuery;
 import org.apache.calcite.rel.rules.CoreRules;
 import org.apache.calcite.rel.rules.ProjectMergeRule;
@@ -55,6 +56,7 @@
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rel.type.RelDataTypeFactory;
 import org.apache.calcite.rel.type.RelDataTypeSystem;
+import org.apache.calcite.rex.RexCorrelVariable;
 import org.apache.calcite.schema.SchemaPlus;
 import org.apache.calcite.schema.impl.ScalarFunctionImpl;
 import org.apache.calcite.sql.SqlAggFunction;
@@ -78,6 +80,7 @@
 import org.apache.calcite.test.CalciteAssert;
 import org.apache.calcite.test.RelBuilderTest;
 import org.apache.calcite.test.schemata.tpch.TpchSchema;
+import org.apache.calcite.util.Holder;
 import org.apache.calcite.util.Optionality;
 import org.apache.calcite.util.Smalls;
 import org.apache.calcite.util.Util;
@@ -85,6 +88,7 @@
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.hamcrest.Matcher;
 import org.immutables.value.Value;
 import org.junit.jupiter.api.Assertions;
@@ -101,7 +105,9 @@
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -736,6 +742,137 @@ private void runDuplicateSortCheck(String sql, String plan) throws Exception {
             + "INTEGER NOT NULL commission) NOT NULL"));
   }
 
+  /** Tests {@link Programs#standardHeuristicFirst}: a simple query is planned
+   * by the heuristic pass alone, and a query that has more joins than the
+   * threshold goes to the cost-based planner. */
+  @Test void testHeuristicFirst() throws Exception {
+    final String sql = "select \"empid\" from \"emps\"\n"
+        + "where \"deptno\" = 10\n"
+        + "order by \"name\" limit 3";
+    final String simplePlan = ""
+        + "EnumerableCalc(expr#0..1=[{inputs}], empid=[$t0])\n"
+        + "  EnumerableLimit(fetch=[3])\n"
+        + "    EnumerableSort(sort0=[$1], dir0=[ASC])\n"
+        + "      EnumerableCalc(expr#0..4=[{inputs}], "
+        + "expr#5=[CAST($t1):INTEGER NOT NULL], expr#6=[10], "
+        + "expr#7=[=($t5, $t6)], empid=[$t0], name=[$t2], $condition=[$t7])\n"
+        + "        EnumerableTableScan(table=[[hr, emps]])\n";
+    assertThat(toString(planHeuristicFirst(sql, 0, Double.MAX_VALUE)),
+        is(simplePlan));
+
+    // Above the row-count threshold, the query goes to the cost-based
+    // planner, which does not trim the input to the Sort
+    assertThat(toString(planHeuristicFirst(sql, 0, 0D)),
+        containsString("EnumerableSort(sort0=[$2], dir0=[ASC])"));
+
+    // With a join, and a join threshold of 0, the query goes to the
+    // cost-based planner, which chooses a merge join; with a threshold of 1,
+    // the heuristic pass converts the join to a hash join
+    final String sql2 = "select \"e\".\"empid\", \"d\".\"name\"\n"
+        + "from \"emps\" as \"e\"\n"
+        + "join \"depts\" as \"d\" on \"e\".\"deptno\" = \"d\".\"deptno\"\n"
+        + "order by \"e\".\"empid\" limit 2";
+    assertThat(toString(planHeuristicFirst(sql2, 0, Double.MAX_VALUE)),
+        containsString("EnumerableMergeJoin"));
+    assertThat(toString(planHeuristicFirst(sql2, 1, Double.MAX_VALUE)),
+        containsString("EnumerableHashJoin"));
+  }
+
+  /** Tests the aggregate threshold of {@link Programs#heuristicFirst}. */
+  @Test void testHeuristicFirstAggregate() throws Exception {
+    final String sql = "select \"deptno\", count(*) as c from \"emps\"\n"
+        + "group by \"deptno\"\n"
+        + "order by c";
+    final String simplePlan = ""
+        + "EnumerableSort(sort0=[$1], dir0=[ASC])\n"
+        + "  EnumerableAggregate(group=[{0}], C=[COUNT()])\n"
+        + "    EnumerableCalc(expr#0..4=[{inputs}], deptno=[$t1])\n"
+        + "      EnumerableTableScan(table=[[hr, emps]])\n";
+    assertThat(toString(planHeuristicFirst(sql, 0, 0, 1, Double.MAX_VALUE)),
+        is(simplePlan));
+
+    // With an aggregate threshold of 0, the query goes to the cost-based
+    // planner, which aggregates directly over the scan
+    assertThat(toString(planHeuristicFirst(sql, 0, 0, 0, Double.MAX_VALUE)),
+        containsString("EnumerableAggregate(group=[{1}], C=[COUNT()])\n"
+            + "    EnumerableTableScan(table=[[hr, emps]])\n"));
+  }
+
+  /** Tests the correlate threshold of {@link Programs#heuristicFirst}. The
+   * correlate is built directly, because the standard program would
+   * decorrelate a sub-query. */
+  @Test void testHeuristicFirstCorrelate() {
+    final RelBuilder builder =
+        RelBuilder.create(RelBuilderTest.config().build());
+    final Holder<@Nullable RexCorrelVariable> v = Holder.empty();
+    final RelNode rel = builder.scan("DEPT")
+        .variable(v::set)
+        .scan("EMP")
+        .filter(
+            builder.equals(builder.field("DEPTNO"),
+                builder.field(v.get(), "DEPTNO")))
+        .correlate(JoinRelType.LEFT, v.get().id,
+            builder.field(2, 0, "DEPTNO"))
+        .build();
+    final RelOptPlanner planner = rel.getCluster().getPlanner();
+    final RelTraitSet traitSet =
+        rel.getTraitSet().replace(EnumerableConvention.INSTANCE);
+
+    // The program that the heuristic pass falls back to records the queries
+    // it is given
+    final List<RelNode> fallbackRels = new ArrayList<>();
+    final Program fallback =
+        (planner2, rel2, requiredOutputTraits, materializations, lattices) -> {
+          fallbackRels.add(rel2);
+          return rel2;
+        };
+
+    final Program program0 =
+        Programs.heuristicFirst(fallback, DefaultRelMetadataProvider.INSTANCE,
+            0, 0, 0, Double.MAX_VALUE);
+    assertThat(
+        program0.run(planner, rel, traitSet, ImmutableList.of(),
+            ImmutableList.of()),
+        sameInstance(rel));
+    assertThat(fallbackRels, hasSize(1));
+
+    final Program program1 =
+        Programs.heuristicFirst(fallback, DefaultRelMetadataProvider.INSTANCE,
+            0, 1, 0, Double.MAX_VALUE);
+    final String expected = ""
+        + "EnumerableCorrelate(correlation=[$cor0], joinType=[left], "
+        + "requiredColumns=[{0}])\n"
+        + "  EnumerableTableScan(table=[[scott, DEPT]])\n"
+        + "  EnumerableFilter(condition=[=($7, $cor0.DEPTNO)])\n"
+        + "    EnumerableTableScan(table=[[scott, EMP]])\n";
+    assertThat(
+        toString(
+            program1.run(planner, rel, traitSet, ImmutableList.of(),
+                ImmutableList.of())),
+        is(expected));
+    assertThat(fallbackRels, hasSize(1));
+  }
+
+  private RelNode planHeuristicFirst(String sql, int maxJoinCount,
+      double maxRowCount) throws Exception {
+    return planHeuristicFirst(sql, maxJoinCount, 0, 0, maxRowCount);
+  }
+
+  private RelNode planHeuristicFirst(String sql, int maxJoinCount,
+      int maxCorrelateCount, int maxAggregateCount, double maxRowCount)
+      throws Exception {
+    final Program program =
+        Programs.standardHeuristicFirst(DefaultRelMetadataProvider.INSTANCE,
+            maxJoinCount, maxCorrelateCount, maxAggregateCount, maxRowCount);
+    final Planner planner = getPlanner(null, program);
+    final SqlNode parse = planner.parse(sql);
+    final SqlNode validate = planner.validate(parse);
+    final RelNode convert = planner.rel(validate).project();
+    final RelTraitSet traitSet = convert.getTraitSet()
+        .replace(EnumerableConvention.INSTANCE);
+    return planner.transform(0, traitSet, convert);
+  }
+
   /** Unit test that parses, validates, converts and plans. Planner is
    * provided with a list of RelTraitDefs to register. */
   @Test void testPlanWithExplicitTraitDefs() throws Exception {
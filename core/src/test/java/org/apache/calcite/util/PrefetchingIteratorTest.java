@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.util;
+
+import com.google.common.collect.ImmutableList;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests {@link PrefetchingIterator}.
+ */
+class PrefetchingIteratorTest {
+  /** Tests that every element of the source is returned, in order, and that
+   * the source is released when it is exhausted. */
+  @Test void testIterate() throws InterruptedException {
+    final List<Integer> list =
+        IntStream.range(0, 100).boxed().collect(Collectors.toList());
+    final CountDownLatch released = new CountDownLatch(1);
+    final List<Integer> result = new ArrayList<>();
+    try (PrefetchingIterator<Integer> iterator =
+             new PrefetchingIterator<>(list::iterator, released::countDown,
+                 7, 2)) {
+      iterator.forEachRemaining(result::add);
+    }
+    assertThat(result, is(list));
+    assertThat(released.await(10, TimeUnit.SECONDS), is(true));
+  }
+
+  /** Tests that an error in the source is thrown to the consumer, after the
+   * complete batches read before it. */
+  @Test void testError() {
+    final Iterator<Integer> source = new Iterator<Integer>() {
+      int i = 0;
+
+      @Override public boolean hasNext() {
+        return true;
+      }
+
+      @Override public Integer next() {
+        if (i == 3) {
+          throw new IllegalStateException("source failed");
+        }
+        return i++;
+      }
+    };
+    final List<Integer> result = new ArrayList<>();
+    try (PrefetchingIterator<Integer> iterator =
+             new PrefetchingIterator<>(() -> source, () -> { }, 2, 1)) {
+      final RuntimeException e =
+          assertThrows(RuntimeException.class,
+              () -> iterator.forEachRemaining(result::add));
+      assertThat(e.getCause().getMessage(), is("source failed"));
+    }
+    assertThat(result, is(ImmutableList.of(0, 1)));
+  }
+
+  /** Tests that closing the iterator before the source is exhausted stops
+   * the background thread, which releases the source. */
+  @Test void testClose() throws InterruptedException {
+    final Iterator<Integer> infinite = IntStream.iterate(0, i -> i + 1).iterator();
+    final CountDownLatch released = new CountDownLatch(1);
+    try (PrefetchingIterator<Integer> iterator =
+             new PrefetchingIterator<>(() -> infinite, released::countDown,
+                 10, 1)) {
+      assertThat(iterator.next(), is(0));
+      assertThat(iterator.next(), is(1));
+    }
+    assertThat(released.await(10, TimeUnit.SECONDS), is(true));
+  }
+}
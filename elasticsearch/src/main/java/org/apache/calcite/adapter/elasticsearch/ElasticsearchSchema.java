@@ -62,6 +62,11 @@ public class ElasticsearchSchema extends AbstractSchema {
    */
   private final int fetchSize;
 
+  /**
+   * Number of slices in which to scroll in parallel.
+   */
+  private final int scrollSlices;
+
   /**
    * Allows schema to be instantiated from existing elastic search client.
    *
@@ -77,12 +82,20 @@ public ElasticsearchSchema(RestClient client, ObjectMapper mapper,
   @VisibleForTesting
   ElasticsearchSchema(RestClient client, ObjectMapper mapper,
       @Nullable String index, int fetchSize) {
+    this(client, mapper, index, fetchSize, 1);
+  }
+
+  ElasticsearchSchema(RestClient client, ObjectMapper mapper,
+      @Nullable String index, int fetchSize, int scrollSlices) {
     super();
     this.client = requireNonNull(client, "client");
     this.mapper = requireNonNull(mapper, "mapper");
     checkArgument(fetchSize > 0,
         "invalid fetch size. Expected %s > 0", fetchSize);
+    checkArgument(scrollSlices > 0,
+        "invalid number of scroll slices. Expected %s > 0", scrollSlices);
     this.fetchSize = fetchSize;
+    this.scrollSlices = scrollSlices;
 
     if (index == null) {
       try {
@@ -103,7 +116,8 @@ private Map<String, Table> createTables(Iterable<String> indices) {
     final ImmutableMap.Builder<String, Table> builder = ImmutableMap.builder();
     for (String index : indices) {
       final ElasticsearchTransport transport =
-          new ElasticsearchTransport(client, mapper, index, fetchSize);
+          new ElasticsearchTransport(client, mapper, index, fetchSize,
+              scrollSlices);
       builder.put(index, new ElasticsearchTable(transport));
     }
     return builder.build();
@@ -117,6 +117,10 @@ public ElasticsearchSchemaFactory() {
    *   the coordinates list must be populated.</li>
    *   <li><b>disableSSLVerification</b>: A boolean parameter to disable SSL verification. Defaults
    *   to false. This should always be set to false for production systems.</li>
+   *   <li><b>fetchSize</b>: Number of documents fetched per scroll request. Defaults
+   *   to 5196.</li>
+   *   <li><b>scrollSlices</b>: Number of slices into which scans that are neither sorted nor
+   *   limited are split; slices are scrolled in parallel. Defaults to 1.</li>
    * </ul>
    *
    * @param parentSchema Parent schema
@@ -180,8 +184,15 @@ public ElasticsearchSchemaFactory() {
       final RestClient client =
           connect(sortedHost, pathPrefix, username, password, disableSSLVerification);
       final String index = (String) map.get("index");
-
-      return new ElasticsearchSchema(client, new ObjectMapper(), index);
+      final int fetchSize = map.containsKey("fetchSize")
+          ? Integer.parseInt(String.valueOf(map.get("fetchSize")))
+          : ElasticsearchTransport.DEFAULT_FETCH_SIZE;
+      final int scrollSlices = map.containsKey("scrollSlices")
+          ? Integer.parseInt(String.valueOf(map.get("scrollSlices")))
+          : 1;
+
+      return new ElasticsearchSchema(client, new ObjectMapper(), index,
+          fetchSize, scrollSlices);
     } catch (IOException e) {
       throw new RuntimeException("Cannot parse values from json", e);
     }
@@ -83,14 +83,31 @@ final class ElasticsearchTransport {
    */
   final int fetchSize;
 
+  /**
+   * Number of slices into which an unsorted, unlimited scroll is split; the
+   * slices are read in parallel.
+   *
+   * @see <a href="https://www.elastic.co/guide/en/elasticsearch/reference/current/paginate-search-results.html#slice-scroll">Sliced scroll</a>
+   */
+  final int scrollSlices;
+
   ElasticsearchTransport(final RestClient restClient,
       final ObjectMapper mapper,
       final String indexName,
       final int fetchSize) {
+    this(restClient, mapper, indexName, fetchSize, 1);
+  }
+
+  ElasticsearchTransport(final RestClient restClient,
+      final ObjectMapper mapper,
+      final String indexName,
+      final int fetchSize,
+      final int scrollSlices) {
     this.mapper = requireNonNull(mapper, "mapper");
     this.restClient = requireNonNull(restClient, "restClient");
     this.indexName = requireNonNull(indexName, "indexName");
     this.fetchSize = fetchSize;
+    this.scrollSlices = scrollSlices;
     this.version = version(); // cache version
     this.mapping = fetchAndCreateMapping(); // cache mapping
   }
@@ -206,8 +223,23 @@ Function<ObjectNode, ElasticsearchJson.Result> search() {
    */
   Function<ObjectNode, ElasticsearchJson.Result> search(final Map<String, String> httpParams) {
     requireNonNull(httpParams, "httpParams");
+    final Function<ObjectNode, ElasticsearchJson.Result> search =
+        searchWithoutHook(httpParams);
     return query -> {
       Hook.QUERY_PLAN.run(query);
+      return search.apply(query);
+    };
+  }
+
+  /**
+   * Search request using HTTP post; unlike {@link #search(Map)}, does not
+   * call {@link Hook#QUERY_PLAN}. For use by background threads, whose
+   * caller has already called the hook in the thread of the statement.
+   */
+  Function<ObjectNode, ElasticsearchJson.Result> searchWithoutHook(
+      final Map<String, String> httpParams) {
+    requireNonNull(httpParams, "httpParams");
+    return query -> {
       String path = String.format(Locale.ROOT, "/%s/_search", indexName);
       final HttpPost post;
       try {
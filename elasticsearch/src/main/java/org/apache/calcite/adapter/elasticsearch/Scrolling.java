@@ -16,13 +16,24 @@
  */
 package org.apache.calcite.adapter.elasticsearch;
 
+import org.apache.calcite.runtime.Hook;
+
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.google.common.collect.AbstractSequentialIterator;
-import com.google.common.collect.Iterators;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.util.Collections;
 import java.util.Iterator;
-import java.util.function.Consumer;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
@@ -33,12 +44,36 @@
  * <a href="https://www.elastic.co/guide/en/elasticsearch/reference/current/search-request-scroll.html">Elastic Scrolling API</a>
  * to optimally consume large search results.
  *
+ * <p>Each scroll is read by a background thread, which requests the next
+ * batch while the previous one is being consumed. If the search is neither
+ * sorted nor limited, and the transport is configured with more than one
+ * slice, the search is split into that many
+ * <a href="https://www.elastic.co/guide/en/elasticsearch/reference/current/paginate-search-results.html#slice-scroll">sliced scrolls</a>,
+ * which are read in parallel and whose batches are merged in arrival order.
+ *
+ * <p>The iterator returned by {@link #query} is {@link AutoCloseable}. If
+ * the consumer closes it before reading all hits, the readers stop, and
+ * clear their scroll contexts before {@code close} returns.
+ *
  * <p>This class is <strong>not thread safe</strong>.
  */
 class Scrolling {
 
+  /** How long a scroll context is kept alive between requests. A reader
+   * whose batch has not been consumed within this time gives up, because
+   * its scroll context would have expired anyway. */
+  private static final long KEEP_ALIVE_MINUTES = 1;
+
+  private static final ExecutorService EXECUTOR =
+      Executors.newCachedThreadPool(
+          new ThreadFactoryBuilder()
+              .setNameFormat("elasticsearch-scroll-%d")
+              .setDaemon(true)
+              .build());
+
   private final ElasticsearchTransport transport;
   private final int fetchSize;
+  private final int slices;
 
   Scrolling(ElasticsearchTransport transport) {
     this.transport = requireNonNull(transport, "transport");
@@ -46,6 +81,10 @@ class Scrolling {
     checkArgument(fetchSize > 0,
         "invalid fetch size. Expected %s > 0", fetchSize);
     this.fetchSize = fetchSize;
+    final int slices = transport.scrollSlices;
+    checkArgument(slices > 0,
+        "invalid number of scroll slices. Expected %s > 0", slices);
+    this.slices = slices;
   }
 
   Iterator<ElasticsearchJson.SearchHit> query(ObjectNode query) {
@@ -62,112 +101,188 @@ Iterator<ElasticsearchJson.SearchHit> query(ObjectNode query) {
     }
 
     query.put("size", fetchSize);
-    final ElasticsearchJson.Result first = transport
-        .search(Collections.singletonMap("scroll", "1m")).apply(query);
 
-    AutoClosingIterator iterator =
-        new AutoClosingIterator(new SequentialIterator(first, transport, limit),
-            scrollId -> transport.closeScroll(Collections.singleton(scrollId)));
-
-    Iterator<ElasticsearchJson.SearchHit> result = flatten(iterator);
-    // apply limit
-    if (limit != Long.MAX_VALUE) {
-      result = Iterators.limit(result, (int) limit);
+    // Slicing returns documents in no particular order, and each slice
+    // would fetch up to the limit, so only slice full, unsorted scans.
+    final int sliceCount =
+        limit == Long.MAX_VALUE && !query.has("sort") ? slices : 1;
+    final BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(sliceCount);
+    final AtomicBoolean closed = new AtomicBoolean();
+    for (int i = 0; i < sliceCount; i++) {
+      final ObjectNode sliceQuery;
+      if (sliceCount > 1) {
+        sliceQuery = query.deepCopy();
+        sliceQuery.putObject("slice")
+            .put("id", i)
+            .put("max", sliceCount);
+      } else {
+        sliceQuery = query;
+      }
+      // Call the hook here, because hook handlers may be thread-local
+      Hook.QUERY_PLAN.run(sliceQuery);
+      EXECUTOR.execute(() -> read(sliceQuery, limit, queue, closed));
     }
 
-    return result;
+    return new MergingIterator(queue, sliceCount, limit, closed);
   }
 
   /**
-   * Combines lazily multiple {@link ElasticsearchJson.Result} into a single iterator of
-   * {@link ElasticsearchJson.SearchHit}.
+   * Reads one scroll until the full search result is fetched or
+   * {@code limit} is reached or the consumer is closed, putting each batch of
+   * hits onto a queue, and then clears the scroll context.
    */
-  private static Iterator<ElasticsearchJson.SearchHit> flatten(
-      Iterator<ElasticsearchJson.Result> results) {
-    final Iterator<Iterator<ElasticsearchJson.SearchHit>> inputs =
-        Iterators.transform(results,
-            input -> input.searchHits().hits().iterator());
-    return Iterators.concat(inputs);
+  private void read(ObjectNode query, long limit, BlockingQueue<Batch> queue,
+      AtomicBoolean closed) {
+    checkArgument(limit >= 0, "limit: %s >= 0", limit);
+    String scrollId = null;
+    Batch last = Batch.END;
+    try {
+      ElasticsearchJson.Result result = transport
+          .searchWithoutHook(
+              Collections.singletonMap("scroll", KEEP_ALIVE_MINUTES + "m"))
+          .apply(query);
+      long count = 0;
+      for (;;) {
+        scrollId = result.scrollId().orElse(scrollId);
+        final List<ElasticsearchJson.SearchHit> hits =
+            result.searchHits().hits();
+        if (hits.isEmpty()) {
+          break;
+        }
+        if (!queue.offer(new Batch(hits, null), KEEP_ALIVE_MINUTES,
+            TimeUnit.MINUTES)) {
+          // consumer has gone away
+          return;
+        }
+        count += hits.size();
+        if (count >= limit || closed.get()) {
+          // stop (re-)requesting when limit is reached or the consumer is
+          // closed
+          break;
+        }
+        if (scrollId == null) {
+          throw new IllegalStateException("scrollId has to be present");
+        }
+        result = transport.scroll().apply(scrollId);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    } catch (RuntimeException | Error e) {
+      last = new Batch(ImmutableList.of(), e);
+    } finally {
+      if (scrollId != null) {
+        transport.closeScroll(Collections.singleton(scrollId));
+      }
+    }
+    try {
+      queue.offer(last, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
   }
 
-  /**
-   * Observes when existing iterator has ended and clears context (scroll) if any.
-   */
-  private static class AutoClosingIterator implements Iterator<ElasticsearchJson.Result>,
-      AutoCloseable {
-    private final Iterator<ElasticsearchJson.Result> delegate;
-    private final Consumer<String> closer;
-
-    /** Returns whether {@link #closer} consumer was already called. */
-    private boolean closed;
-
-    /** Keeps last value of {@code scrollId} in memory so scroll can be released
-     * upon termination. */
-    private String scrollId;
-
-    private AutoClosingIterator(
-        final Iterator<ElasticsearchJson.Result> delegate,
-        final Consumer<String> closer) {
-      this.delegate = delegate;
-      this.closer = closer;
-    }
+  /** Batch of search hits fetched by one request, or the end of a scroll
+   * (possibly due to an error). */
+  private static class Batch {
+    /** Marks the successful end of a scroll. */
+    static final Batch END = new Batch(ImmutableList.of(), null);
 
-    @Override public void close() {
-      if (!closed && scrollId != null) {
-        // close once (if scrollId is present)
-        closer.accept(scrollId);
-      }
-      closed = true;
-    }
+    final List<ElasticsearchJson.SearchHit> hits;
+    final @Nullable Throwable error;
 
-    @Override public boolean hasNext() {
-      final boolean hasNext = delegate.hasNext();
-      if (!hasNext) {
-        close();
-      }
-      return hasNext;
+    Batch(List<ElasticsearchJson.SearchHit> hits, @Nullable Throwable error) {
+      this.hits = hits;
+      this.error = error;
     }
 
-    @Override public ElasticsearchJson.Result next() {
-      ElasticsearchJson.Result next = delegate.next();
-      next.scrollId().ifPresent(id -> scrollId = id);
-      return next;
+    boolean isEnd() {
+      return hits.isEmpty();
     }
   }
 
   /**
-   * Iterator which consumes current {@code scrollId} until full search result is fetched
-   * or {@code limit} is reached.
+   * Combines lazily the batches produced by one or more scroll readers into
+   * a single iterator of {@link ElasticsearchJson.SearchHit}, returning at
+   * most {@code limit} hits.
    */
-  private static class SequentialIterator
-      extends AbstractSequentialIterator<ElasticsearchJson.Result> {
-
-    private final ElasticsearchTransport transport;
-    private final long limit;
-    private long count;
-
-    private SequentialIterator(final ElasticsearchJson.Result first,
-        final ElasticsearchTransport transport, final long limit) {
-      super(first);
-      this.transport = transport;
-      checkArgument(limit >= 0,
-          "limit: %s >= 0", limit);
-      this.limit = limit;
+  private static class MergingIterator
+      implements Iterator<ElasticsearchJson.SearchHit>, AutoCloseable {
+    private final BlockingQueue<Batch> queue;
+    private final int readerCount;
+    private final AtomicBoolean closed;
+    private int finishedCount;
+    private long remaining;
+    private Iterator<ElasticsearchJson.SearchHit> current =
+        Collections.emptyIterator();
+
+    MergingIterator(BlockingQueue<Batch> queue, int readerCount, long limit,
+        AtomicBoolean closed) {
+      this.queue = queue;
+      this.readerCount = readerCount;
+      this.remaining = limit;
+      this.closed = closed;
     }
 
-    @Override protected ElasticsearchJson.Result computeNext(
-        final ElasticsearchJson.Result previous) {
-      final int hits = previous.searchHits().hits().size();
-      if (hits == 0 || count >= limit) {
-        // stop (re-)requesting when limit is reached or no more results
-        return null;
+    @Override public boolean hasNext() {
+      if (remaining <= 0 || closed.get()) {
+        return false;
       }
+      while (!current.hasNext()) {
+        if (finishedCount == readerCount) {
+          return false;
+        }
+        final Batch batch;
+        try {
+          batch = queue.take();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new RuntimeException("Interrupted while scrolling", e);
+        }
+        if (batch.isEnd()) {
+          ++finishedCount;
+          if (batch.error != null) {
+            throw new RuntimeException("Error while scrolling", batch.error);
+          }
+        } else {
+          current = batch.hits.iterator();
+        }
+      }
+      return true;
+    }
 
-      count += hits;
-      final String scrollId = previous.scrollId()
-          .orElseThrow(() -> new IllegalStateException("scrollId has to be present"));
+    @Override public ElasticsearchJson.SearchHit next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      --remaining;
+      return current.next();
+    }
 
-      return transport.scroll().apply(scrollId);
+    /** Stops the readers, and waits until each has cleared its scroll
+     * context. A reader that is waiting for room in the queue, or for a
+     * response, notices that the consumer is closed once it has put its
+     * batch onto the queue, so this method keeps draining the queue. */
+    @Override public void close() {
+      if (!closed.compareAndSet(false, true)) {
+        return;
+      }
+      current = Collections.emptyIterator();
+      try {
+        while (finishedCount < readerCount) {
+          final Batch batch =
+              queue.poll(KEEP_ALIVE_MINUTES, TimeUnit.MINUTES);
+          if (batch == null) {
+            // a reader has given up; its scroll context will expire
+            break;
+          }
+          if (batch.isEnd()) {
+            ++finishedCount;
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
     }
   }
 }
@@ -35,6 +35,8 @@
 import java.io.InputStream;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -42,6 +44,9 @@
 import java.util.Locale;
 import java.util.stream.IntStream;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
 /**
  * Tests usage of scrolling API like correct results and resource cleanup
  * (delete scroll after scan).
@@ -66,6 +71,11 @@ public static void setupInstance() throws Exception {
   }
 
   private ConnectionFactory newConnectionFactory(int fetchSize) {
+    return newConnectionFactory(fetchSize, 1);
+  }
+
+  private ConnectionFactory newConnectionFactory(int fetchSize,
+      int scrollSlices) {
     return () -> {
       final Connection connection =
           DriverManager.getConnection("jdbc:calcite:");
@@ -73,7 +83,7 @@ private ConnectionFactory newConnectionFactory(int fetchSize) {
           connection.unwrap(CalciteConnection.class).getRootSchema();
       root.add("elastic",
           new ElasticsearchSchema(NODE.restClient(), NODE.mapper(), NAME,
-              fetchSize));
+              fetchSize, scrollSlices));
       return connection;
     };
   }
@@ -95,6 +105,46 @@ private ConnectionFactory newConnectionFactory(int fetchSize) {
     }
   }
 
+  /** Tests a full scan that is split into several slices, which are
+   * scrolled in parallel. */
+  @Test void slicedScrolling() throws Exception {
+    final String[] expected = IntStream.range(0, SIZE).mapToObj(i -> "V=" + i)
+        .toArray(String[]::new);
+    final String query = String.format(Locale.ROOT, "select _MAP['value'] as v from "
+        + "\"elastic\".\"%s\"", NAME);
+
+    for (int slices : Arrays.asList(2, 3)) {
+      for (int fetchSize : Arrays.asList(1, 3, SIZE + 1)) {
+        CalciteAssert.that()
+            .with(newConnectionFactory(fetchSize, slices))
+            .query(query)
+            .returnsUnordered(expected)
+            .queryContains(queries -> {
+              final long sliceCount = queries.stream()
+                  .filter(q -> q.toString().contains("\"slice\""))
+                  .count();
+              assertThat(sliceCount, is((long) slices));
+            });
+        assertNoActiveScrolls();
+      }
+    }
+  }
+
+  /** Tests that closing a result set before reading all rows stops the
+   * readers of a sliced scroll and clears their scroll contexts. */
+  @Test void abandonedSlicedScrolling() throws Exception {
+    final String query = String.format(Locale.ROOT, "select _MAP['value'] as v from "
+        + "\"elastic\".\"%s\"", NAME);
+    try (Connection connection =
+             newConnectionFactory(1, 2).createConnection();
+         Statement statement = connection.createStatement()) {
+      try (ResultSet resultSet = statement.executeQuery(query)) {
+        assertThat(resultSet.next(), is(true));
+      }
+      assertNoActiveScrolls();
+    }
+  }
+
   /**
    * Ensures there are no pending scroll contexts in elastic search cluster.
    * Queries {@code /_nodes/stats/indices/search} endpoint.
@@ -173,6 +173,11 @@ private static RelCollation deduceImplicitCollation(List<String> fieldNames,
     List<RelFieldCollation> keyCollations = new ArrayList<>(indexColumnNames.size());
     for (String keyColumnName : indexColumnNames) {
       int fieldIndex = fieldNames.indexOf(keyColumnName);
+      if (fieldIndex < 0) {
+        // rows are sorted only by the index columns before the first one
+        // that is not projected
+        break;
+      }
       keyCollations.add(
           new RelFieldCollation(fieldIndex, RelFieldCollation.Direction.ASCENDING));
     }
@@ -183,8 +188,9 @@ public IndexCondition withFieldNames(List<String> fieldNames) {
     if (Objects.equals(fieldNames, this.fieldNames)) {
       return this;
     }
+    // the implicit collation refers to fields by ordinal, so deduce it again
     return new IndexCondition(fieldNames, indexName, indexColumnNames,
-        implicitCollation, pushDownConditions, remainderConditions,
+        null, pushDownConditions, remainderConditions,
         queryType, pointQueryKey, rangeQueryLowerOp, rangeQueryUpperOp,
         rangeQueryLowerKey, rangeQueryUpperKey);
   }
@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.innodb;
+
+import com.alibaba.innodb.java.reader.Constants;
+import com.alibaba.innodb.java.reader.TableReader;
+import com.alibaba.innodb.java.reader.page.AbstractPage;
+import com.alibaba.innodb.java.reader.page.index.Index;
+import com.alibaba.innodb.java.reader.page.index.IndexHeader;
+import com.alibaba.innodb.java.reader.schema.KeyMeta;
+import com.alibaba.innodb.java.reader.schema.TableDef;
+import com.alibaba.innodb.java.reader.schema.Workaround;
+import com.google.common.collect.ImmutableMap;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Statistics about the indexes of an InnoDB table, estimated from the
+ * pages of its data file.
+ *
+ * <p>The root page of each index gives its height. The number of leaf pages
+ * and records of each index is extrapolated from a sample of at most
+ * {@link #SAMPLE_PAGES} pages spread evenly over the data file; if the file
+ * is no larger than that, every page is read and the statistics are exact.
+ *
+ * <p>The statistics are used by {@link InnodbFilterTranslator} to estimate
+ * the number of page reads needed to evaluate an {@link IndexCondition},
+ * and by {@link InnodbFilter} and {@link InnodbTableScan} to charge for the
+ * lookups of the clustered index that a non-covering secondary index
+ * needs.
+ */
+class IndexStatistics {
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(IndexStatistics.class);
+
+  /** Maximum number of pages read to estimate statistics. */
+  static final int SAMPLE_PAGES = 256;
+
+  /** Statistics that are used if the data file cannot be read; all costs
+   * are equal, so that indexes are chosen by {@link QueryType#priority()}. */
+  static final IndexStatistics UNKNOWN = new IndexStatistics(ImmutableMap.of());
+
+  private final ImmutableMap<String, Stat> statMap;
+
+  private IndexStatistics(ImmutableMap<String, Stat> statMap) {
+    this.statMap = statMap;
+  }
+
+  /** Reads statistics of all indexes of a table.
+   *
+   * @param tableReader Opened reader of the table's data file
+   * @param tableDef    Table definition
+   */
+  static IndexStatistics of(TableReader tableReader, TableDef tableDef) {
+    try {
+      return read(tableReader, tableDef);
+    } catch (RuntimeException e) {
+      LOGGER.warn("Cannot read index statistics of table {}",
+          tableDef.getName(), e);
+      return UNKNOWN;
+    }
+  }
+
+  private static IndexStatistics read(TableReader tableReader,
+      TableDef tableDef) {
+    // Find the root page of each index; the root identifies the index
+    // that each sampled page belongs to, and its level gives the height
+    final Map<Long, String> indexIdToName = new HashMap<>();
+    final Map<String, Index> roots = new HashMap<>();
+    final Index pkRoot = readIndexPage(tableReader, Constants.ROOT_PAGE_NUMBER);
+    if (pkRoot == null) {
+      return UNKNOWN;
+    }
+    roots.put(Constants.PRIMARY_KEY_NAME, pkRoot);
+    for (KeyMeta skMeta : tableDef.getSecondaryKeyMetaList()) {
+      if (skMeta.getType() == KeyMeta.Type.FULLTEXT_KEY) {
+        continue;
+      }
+      final long pageNumber =
+          Workaround.getSkRootPageNumber(tableDef, skMeta.getName(),
+              Optional.empty(), n -> readIndexPage(tableReader, n));
+      final Index root = readIndexPage(tableReader, pageNumber);
+      if (root != null) {
+        roots.put(skMeta.getName(), root);
+      }
+    }
+    roots.forEach((name, root) ->
+        indexIdToName.put(root.getIndexHeader().getIndexId(), name));
+
+    // Count leaf pages and records per index in a sample of pages
+    final long numOfPages = tableReader.getNumOfPages();
+    final long step = Math.max(1, numOfPages / SAMPLE_PAGES);
+    final Map<String, long[]> leafPagesAndRecs = new HashMap<>();
+    long sampled = 0;
+    for (long p = 0; p < numOfPages; p += step) {
+      ++sampled;
+      final Index page = readIndexPage(tableReader, p);
+      if (page == null || !page.isLeafPage()) {
+        continue;
+      }
+      final String name =
+          indexIdToName.get(page.getIndexHeader().getIndexId());
+      if (name != null) {
+        final long[] counts =
+            leafPagesAndRecs.computeIfAbsent(name, k -> new long[2]);
+        counts[0]++;
+        counts[1] += page.getIndexHeader().getNumOfRecs();
+      }
+    }
+    final double scale = sampled == 0 ? 1D : (double) numOfPages / sampled;
+
+    final ImmutableMap.Builder<String, Stat> builder = ImmutableMap.builder();
+    roots.forEach((name, root) -> {
+      final IndexHeader header = root.getIndexHeader();
+      final int height = header.getPageLevel() + 1;
+      final long[] counts = leafPagesAndRecs.get(name);
+      final double leafPages;
+      final double rowCount;
+      if (root.isLeafPage()) {
+        leafPages = 1D;
+        rowCount = header.getNumOfRecs();
+      } else if (counts == null) {
+        // No leaf page of this index was sampled; each record in the root
+        // points to at least one leaf page
+        leafPages = header.getNumOfRecs();
+        rowCount = leafPages;
+      } else {
+        leafPages = Math.max(header.getNumOfRecs(), counts[0] * scale);
+        rowCount = leafPages * counts[1] / counts[0];
+      }
+      builder.put(name, new Stat(height, leafPages, rowCount));
+    });
+    final IndexStatistics statistics = new IndexStatistics(builder.build());
+    LOGGER.debug("Index statistics of table {}: {}", tableDef.getName(),
+        statistics.statMap);
+    return statistics;
+  }
+
+  private static @Nullable Index readIndexPage(TableReader tableReader,
+      long pageNumber) {
+    final AbstractPage page;
+    try {
+      page = tableReader.readPage(pageNumber);
+    } catch (RuntimeException e) {
+      // Page types that the reader does not support are not index pages
+      return null;
+    }
+    return page instanceof Index ? (Index) page : null;
+  }
+
+  /** Returns the estimated number of rows in the table, or null if
+   * unknown. */
+  @Nullable Double getRowCount() {
+    final Stat pk = statMap.get(Constants.PRIMARY_KEY_NAME);
+    return pk == null ? null : pk.rowCount;
+  }
+
+  /** Returns the estimated number of page reads needed to look up one record
+   * in the clustered index, that is, the clustered index's height; 0 if
+   * unknown. */
+  double lookupCost() {
+    final Stat pk = statMap.get(Constants.PRIMARY_KEY_NAME);
+    return pk == null ? 0D : pk.height;
+  }
+
+  /** Estimates the number of page reads needed to evaluate an index
+   * condition.
+   *
+   * <p>A read via a secondary index costs, for each matching record, a
+   * lookup of the clustered index, unless the index is covering.
+   *
+   * @param condition   Index condition
+   * @param selectivity Fraction of the index's records that match
+   * @param covering    Whether all required columns are in the index, so
+   *                    the clustered index does not need to be read
+   * @return estimated number of page reads; 0 if the statistics are unknown
+   */
+  double cost(IndexCondition condition, double selectivity,
+      boolean covering) {
+    final Stat pk = statMap.get(Constants.PRIMARY_KEY_NAME);
+    final Stat index = statMap.get(condition.getIndexName());
+    if (pk == null || index == null) {
+      return 0D;
+    }
+    final double lookupCost =
+        covering ? 0D : selectivity * pk.rowCount * lookupCost();
+    switch (condition.getQueryType()) {
+    case PK_POINT_QUERY:
+      return pk.height;
+    case PK_RANGE_QUERY:
+      return pk.height + selectivity * pk.leafPages;
+    case PK_FULL_SCAN:
+      return pk.leafPages;
+    case SK_POINT_QUERY:
+    case SK_RANGE_QUERY:
+      return index.height + selectivity * index.leafPages + lookupCost;
+    case SK_FULL_SCAN:
+      return index.leafPages + lookupCost;
+    default:
+      throw new AssertionError("query type is invalid");
+    }
+  }
+
+  /** Statistics of one index. */
+  private static class Stat {
+    /** Number of levels in the B+ tree. */
+    final int height;
+    /** Estimated number of leaf pages. */
+    final double leafPages;
+    /** Estimated number of records in leaf pages. */
+    final double rowCount;
+
+    Stat(int height, double leafPages, double rowCount) {
+      this.height = height;
+      this.leafPages = leafPages;
+      this.rowCount = rowCount;
+    }
+
+    @Override public String toString() {
+      return "{height=" + height + ", leafPages=" + leafPages
+          + ", rowCount=" + rowCount + "}";
+    }
+  }
+}
@@ -41,16 +41,21 @@ public class InnodbFilter extends Filter implements InnodbRel {
   private final TableDef tableDef;
   public final IndexCondition indexCondition;
   private final @Nullable String forceIndexName;
+  /** Estimated number of page reads needed to look up a record in the
+   * clustered index; 0 if unknown. */
+  private final double lookupCost;
 
   /** Creates an InnodbFilter; but use {@link #create} if possible. */
   private InnodbFilter(RelOptCluster cluster, RelTraitSet traitSet,
       RelNode input, RexNode condition, IndexCondition indexCondition,
-      TableDef tableDef, @Nullable String forceIndexName) {
+      TableDef tableDef, @Nullable String forceIndexName,
+      double lookupCost) {
     super(cluster, traitSet, input, condition);
 
     this.tableDef = requireNonNull(tableDef, "tableDef");
     this.indexCondition = requireNonNull(indexCondition, "indexCondition");
     this.forceIndexName = forceIndexName;
+    this.lookupCost = lookupCost;
 
     assert getConvention() == InnodbRel.CONVENTION;
     assert getConvention() == input.getConvention();
@@ -60,20 +65,43 @@ private InnodbFilter(RelOptCluster cluster, RelTraitSet traitSet,
   public static InnodbFilter create(RelOptCluster cluster, RelTraitSet traitSet,
       RelNode input, RexNode condition, IndexCondition indexCondition,
       TableDef tableDef, @Nullable String forceIndexName) {
+    return create(cluster, traitSet, input, condition, indexCondition,
+        tableDef, forceIndexName, 0D);
+  }
+
+  /** Creates an InnodbFilter that needs a given number of page reads to look
+   * up a record in the clustered index. */
+  public static InnodbFilter create(RelOptCluster cluster, RelTraitSet traitSet,
+      RelNode input, RexNode condition, IndexCondition indexCondition,
+      TableDef tableDef, @Nullable String forceIndexName,
+      double lookupCost) {
     return new InnodbFilter(cluster, traitSet, input, condition, indexCondition,
-        tableDef, forceIndexName);
+        tableDef, forceIndexName, lookupCost);
   }
 
   @Override public @Nullable RelOptCost computeSelfCost(RelOptPlanner planner,
       RelMetadataQuery mq) {
-    final RelOptCost cost = requireNonNull(super.computeSelfCost(planner, mq));
-    return cost.multiplyBy(0.1);
+    final RelOptCost cost =
+        requireNonNull(super.computeSelfCost(planner, mq)).multiplyBy(0.1);
+    if (lookupCost == 0D
+        || !InnodbFilterTranslator.needsClusteredLookup(tableDef,
+            indexCondition.getIndexName(),
+            InnodbRules.innodbFieldNames(getRowType()))) {
+      return cost;
+    }
+    // Each record that the secondary index matches is looked up in the
+    // clustered index, because the index does not contain every column
+    final double pageReads = mq.getRowCount(this) * lookupCost;
+    return cost.plus(
+        planner.getCostFactory().makeCost(pageReads, 0D, pageReads));
   }
 
   @Override public InnodbFilter copy(RelTraitSet traitSet, RelNode input,
       RexNode condition) {
     return new InnodbFilter(getCluster(), traitSet, input, condition,
-        indexCondition, tableDef, forceIndexName);
+        indexCondition.withFieldNames(
+            InnodbRules.innodbFieldNames(input.getRowType())),
+        tableDef, forceIndexName, lookupCost);
   }
 
   @Override public void implement(Implementor implementor) {
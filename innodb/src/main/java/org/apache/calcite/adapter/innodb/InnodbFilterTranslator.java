@@ -17,6 +17,7 @@
 package org.apache.calcite.adapter.innodb;
 
 import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.rel.metadata.RelMdUtil;
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rex.RexBuilder;
 import org.apache.calcite.rex.RexCall;
@@ -42,7 +43,9 @@
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -63,14 +66,24 @@ class InnodbFilterTranslator {
   private final List<KeyMeta> skMetaList;
   /** If not null, force to use one specific index from hint. */
   private final @Nullable String forceIndexName;
+  /** Statistics used to estimate the cost of each index condition. */
+  private final IndexStatistics statistics;
 
   InnodbFilterTranslator(RexBuilder rexBuilder, RelDataType rowType,
       TableDef tableDef, @Nullable String forceIndexName) {
+    this(rexBuilder, rowType, tableDef, forceIndexName,
+        IndexStatistics.UNKNOWN);
+  }
+
+  InnodbFilterTranslator(RexBuilder rexBuilder, RelDataType rowType,
+      TableDef tableDef, @Nullable String forceIndexName,
+      IndexStatistics statistics) {
     this.rexBuilder = rexBuilder;
     this.fieldNames = InnodbRules.innodbFieldNames(rowType);
     this.pkMeta = tableDef.getPrimaryKeyMeta();
     this.skMetaList = tableDef.getSecondaryKeyMetaList();
     this.forceIndexName = forceIndexName;
+    this.statistics = statistics;
   }
 
   /**
@@ -104,30 +117,138 @@ private IndexCondition translateAnd(RexNode condition) {
     List<RexNode> rexNodeList = RelOptUtil.conjunctions(condition2);
 
     List<IndexCondition> indexConditions = new ArrayList<>();
+    final Map<IndexCondition, KeyMeta> keyMetaMap = new IdentityHashMap<>();
 
     // try to push down filter by primary key
     if (pkMeta != null) {
       IndexCondition pkPushDownCond = findPushDownCondition(rexNodeList, pkMeta);
       indexConditions.add(pkPushDownCond);
+      keyMetaMap.put(pkPushDownCond, pkMeta);
     }
 
     // try to push down filter by secondary keys
     if (!skMetaList.isEmpty()) {
       for (KeyMeta skMeta : skMetaList) {
-        indexConditions.add(findPushDownCondition(rexNodeList, skMeta));
+        IndexCondition skPushDownCond = findPushDownCondition(rexNodeList, skMeta);
+        indexConditions.add(skPushDownCond);
+        keyMetaMap.put(skPushDownCond, skMeta);
       }
     }
 
     // a collection of all possible push down conditions, see if it can
-    // be pushed down, filter by forcing index name, then sort by comparator
-    Stream<IndexCondition> pushDownConditions = indexConditions.stream()
+    // be pushed down, filter by forcing index name, then choose the one
+    // with the lowest estimated cost; among conditions of equal cost, the
+    // query type with the highest priority wins
+    final List<IndexCondition> candidates = indexConditions.stream()
         .filter(IndexCondition::canPushDown)
         .filter(this::nonForceIndexOrMatchForceIndexName)
-        .sorted(new IndexConditionComparator());
+        .collect(Collectors.toList());
+    final Map<IndexCondition, Double> costMap = new IdentityHashMap<>();
+    for (IndexCondition candidate : candidates) {
+      costMap.put(candidate,
+          cost(candidate, requireNonNull(keyMetaMap.get(candidate), "keyMeta")));
+    }
+    Stream<IndexCondition> pushDownConditions = candidates.stream()
+        .sorted(
+            Comparator.<IndexCondition>comparingDouble(c ->
+                    requireNonNull(costMap.get(c), "cost"))
+                .thenComparing(new IndexConditionComparator()));
 
     return pushDownConditions.findFirst().orElse(IndexCondition.EMPTY_CONDITION);
   }
 
+  /**
+   * Estimates the number of page reads needed to evaluate an index
+   * condition.
+   *
+   * @param condition index condition
+   * @param keyMeta   metadata of the index the condition uses
+   * @return estimated number of page reads
+   */
+  private double cost(IndexCondition condition, KeyMeta keyMeta) {
+    return statistics.cost(condition, selectivity(condition, keyMeta),
+        isCovering(keyMeta));
+  }
+
+  /** Estimates the fraction of an index's records that match an index
+   * condition. */
+  private double selectivity(IndexCondition condition, KeyMeta keyMeta) {
+    final Double rowCount = statistics.getRowCount();
+    if (isUnique(keyMeta)
+        && (condition.getQueryType() == QueryType.PK_POINT_QUERY
+            || condition.getQueryType() == QueryType.SK_POINT_QUERY)
+        && rowCount != null && rowCount >= 1D) {
+      return 1D / rowCount;
+    }
+    return RelMdUtil.guessSelectivity(
+        RexUtil.composeConjunction(rexBuilder,
+            condition.getPushDownConditions()));
+  }
+
+  private @Nullable KeyMeta keyMeta(String indexName) {
+    if (pkMeta != null && indexName.equals(pkMeta.getName())) {
+      return pkMeta;
+    }
+    for (KeyMeta skMeta : skMetaList) {
+      if (indexName.equals(skMeta.getName())) {
+        return skMeta;
+      }
+    }
+    return null;
+  }
+
+  private static boolean isUnique(KeyMeta keyMeta) {
+    switch (keyMeta.getType()) {
+    case PRIMARY_KEY:
+    case UNIQUE_KEY:
+    case UNIQUE_INDEX:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  /**
+   * Returns whether a secondary index contains all columns of the row type
+   * that the filter reads, in which case InnoDB-java-reader reads the values
+   * from the index records and skips the lookup of the clustered index.
+   * Columns that are indexed by prefix do not count, because the index does
+   * not contain their full value.
+   */
+  private boolean isCovering(KeyMeta keyMeta) {
+    return isCovering(keyMeta, pkMeta, fieldNames);
+  }
+
+  /** Returns whether reading the given columns via an index requires a
+   * lookup of the clustered index for each record; true if the index is a
+   * secondary index that does not contain all of the columns. */
+  static boolean needsClusteredLookup(TableDef tableDef, String indexName,
+      Collection<String> columnNames) {
+    final KeyMeta skMeta = tableDef.getSecondaryKeyMetaMap().get(indexName);
+    return skMeta != null
+        && !isCovering(skMeta, tableDef.getPrimaryKeyMeta(), columnNames);
+  }
+
+  /** Returns whether a secondary index contains all of the given columns,
+   * either as key columns that are not indexed by prefix or as columns of
+   * the primary key. */
+  private static boolean isCovering(KeyMeta keyMeta, @Nullable KeyMeta pkMeta,
+      Collection<String> columnNames) {
+    if (!keyMeta.isSecondaryKey()) {
+      return false;
+    }
+    for (String name : columnNames) {
+      final boolean inKey = keyMeta.getKeyColumnNames().contains(name)
+          && !keyMeta.getVarLen(name).isPresent();
+      final boolean inPrimaryKey = pkMeta != null
+          && pkMeta.getKeyColumnNames().contains(name);
+      if (!inKey && !inPrimaryKey) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
    * Tries to translate a conjunctive predicate to push down condition.
    *
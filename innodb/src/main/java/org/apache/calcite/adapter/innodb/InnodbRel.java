@@ -20,9 +20,12 @@
 import org.apache.calcite.plan.RelOptTable;
 import org.apache.calcite.rel.RelNode;
 
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+import static java.util.Objects.requireNonNull;
+
 /**
  * Relational expression that uses InnoDB calling convention.
  */
@@ -43,9 +46,23 @@ class Implementor {
     InnodbTable innodbTable;
 
     public void addSelectFields(Map<String, String> fields) {
-      if (fields != null) {
+      if (fields == null) {
+        return;
+      }
+      if (selectFields.isEmpty()) {
         selectFields.putAll(fields);
+        return;
       }
+      // A projection on top of another projection selects from the fields
+      // that the other projection produces; map them back to table columns
+      final Map<String, String> columnNames = new HashMap<>();
+      selectFields.forEach((columnName, name) -> columnNames.put(name, columnName));
+      final Map<String, String> newSelectFields = new LinkedHashMap<>();
+      fields.forEach((inputName, name) ->
+          newSelectFields.put(
+              requireNonNull(columnNames.get(inputName), inputName), name));
+      selectFields.clear();
+      selectFields.putAll(newSelectFields);
     }
 
     public void setIndexCondition(IndexCondition indexCondition) {
@@ -21,6 +21,7 @@
 import org.apache.calcite.plan.RelOptCluster;
 import org.apache.calcite.plan.RelOptRule;
 import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.plan.RelOptUtil;
 import org.apache.calcite.plan.RelRule;
 import org.apache.calcite.plan.RelTraitSet;
 import org.apache.calcite.rel.RelCollation;
@@ -34,9 +35,15 @@
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rex.RexInputRef;
 import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.rex.RexPermuteInputsShuttle;
 import org.apache.calcite.rex.RexUtil;
 import org.apache.calcite.rex.RexVisitorImpl;
 import org.apache.calcite.sql.validate.SqlValidatorUtil;
+import org.apache.calcite.tools.RelBuilder;
+import org.apache.calcite.util.ImmutableBitSet;
+import org.apache.calcite.util.mapping.Mapping;
+import org.apache.calcite.util.mapping.MappingType;
+import org.apache.calcite.util.mapping.Mappings;
 
 import com.alibaba.innodb.java.reader.schema.TableDef;
 import com.google.common.collect.ImmutableList;
@@ -69,6 +76,12 @@ private InnodbRules() {
   public static final InnodbFilterRule FILTER =
       InnodbFilterRule.InnodbFilterRuleConfig.DEFAULT.toRule();
 
+  /** Rule to convert a {@link org.apache.calcite.rel.logical.LogicalFilter}
+   * under a {@link org.apache.calcite.rel.logical.LogicalProject} to a
+   * {@link InnodbFilter} that may use a covering secondary index. */
+  public static final InnodbProjectFilterRule PROJECT_FILTER =
+      InnodbProjectFilterRule.InnodbProjectFilterRuleConfig.DEFAULT.toRule();
+
   /** Rule to convert a {@link org.apache.calcite.rel.core.Sort} with a
    * {@link org.apache.calcite.rel.core.Filter} to a
    * {@link InnodbSort}. */
@@ -83,6 +96,7 @@ private InnodbRules() {
   public static final List<RelOptRule> RULES =
       ImmutableList.of(PROJECT,
           FILTER,
+          PROJECT_FILTER,
           SORT_FILTER,
           SORT_SCAN);
 
@@ -173,6 +187,17 @@ protected InnodbFilterRule(InnodbFilterRuleConfig config) {
       }
     }
 
+    /** Converts a filter, choosing the index condition with the lowest
+     * estimated cost.
+     *
+     * <p>The filter's input may project some of the scan's columns; a
+     * secondary index that contains all of them is read without looking up
+     * the clustered index.
+     *
+     * @param filter Filter
+     * @param scan   Scan that is the input to the filter, possibly via a
+     *               projection
+     */
     RelNode convert(LogicalFilter filter, InnodbTableScan scan) {
       final RelTraitSet traitSet = filter.getTraitSet().replace(InnodbRel.CONVENTION);
 
@@ -180,7 +205,8 @@ RelNode convert(LogicalFilter filter, InnodbTableScan scan) {
       final RelOptCluster cluster = filter.getCluster();
       final InnodbFilterTranslator translator =
           new InnodbFilterTranslator(cluster.getRexBuilder(),
-              filter.getRowType(), tableDef, scan.getForceIndexName());
+              filter.getRowType(), tableDef, scan.getForceIndexName(),
+              scan.innodbTable.getIndexStatistics());
       final IndexCondition indexCondition =
           translator.translateMatch(filter.getCondition());
 
@@ -191,7 +217,8 @@ RelNode convert(LogicalFilter filter, InnodbTableScan scan) {
           InnodbFilter.create(cluster, traitSet,
               convert(filter.getInput(), InnodbRel.CONVENTION),
               condition, indexCondition, tableDef,
-              scan.getForceIndexName());
+              scan.getForceIndexName(),
+              scan.innodbTable.getIndexStatistics().lookupCost());
 
       // if some conditions can be pushed down, we left the remainder conditions
       // in the original filter and create a subsidiary filter
@@ -219,6 +246,87 @@ public interface InnodbFilterRuleConfig extends RelRule.Config {
     }
   }
 
+  /**
+   * Rule to convert a {@link org.apache.calcite.rel.logical.LogicalFilter}
+   * under a {@link org.apache.calcite.rel.logical.LogicalProject} to a
+   * {@link InnodbFilter}.
+   *
+   * <p>Unlike {@link InnodbFilterRule}, it knows which columns the query
+   * reads, so it projects them below the filter and can prefer a secondary
+   * index that contains all of them; such a covering index is read without
+   * looking up the clustered index.
+   *
+   * @see #PROJECT_FILTER
+   */
+  public static class InnodbProjectFilterRule
+      extends RelRule<InnodbProjectFilterRule.InnodbProjectFilterRuleConfig> {
+    /** Creates a InnodbProjectFilterRule. */
+    protected InnodbProjectFilterRule(InnodbProjectFilterRuleConfig config) {
+      super(config);
+    }
+
+    @Override public void onMatch(RelOptRuleCall call) {
+      final LogicalProject project = call.rel(0);
+      final LogicalFilter filter = call.rel(1);
+      final InnodbTableScan scan = call.rel(2);
+      if (!filter.getTraitSet().contains(Convention.NONE)) {
+        return;
+      }
+      final ImmutableBitSet requiredColumns =
+          RelOptUtil.InputFinder.bits(project.getProjects(), null)
+              .union(RelOptUtil.InputFinder.bits(filter.getCondition()));
+      if (requiredColumns.cardinality() == scan.getRowType().getFieldCount()) {
+        return;
+      }
+
+      // Project the required columns below the filter, so that the storage
+      // engine is asked for those columns only and the filter can read them
+      // from a covering index; then apply the remainder condition and the
+      // original projection
+      final List<Integer> ordinals = requiredColumns.asList();
+      final Mapping mapping =
+          Mappings.create(MappingType.INVERSE_SURJECTION,
+              scan.getRowType().getFieldCount(), ordinals.size());
+      for (int i = 0; i < ordinals.size(); i++) {
+        mapping.set(ordinals.get(i), i);
+      }
+      final RexPermuteInputsShuttle shuttle = RexPermuteInputsShuttle.of(mapping);
+      final RelBuilder relBuilder = call.builder();
+      final LogicalFilter narrowFilter =
+          LogicalFilter.create(
+              relBuilder.push(scan).project(relBuilder.fields(ordinals)).build(),
+              filter.getCondition().accept(shuttle));
+      final RelNode converted = FILTER.convert(narrowFilter, scan);
+      if (converted == narrowFilter) {
+        return;
+      }
+      final LogicalFilter remainder = (LogicalFilter) converted;
+      relBuilder.push(remainder.getInput())
+          .filter(remainder.getCondition())
+          .project(shuttle.visitList(project.getProjects()),
+              project.getRowType().getFieldNames(), true);
+      call.transformTo(relBuilder.build());
+    }
+
+    /** Rule configuration. */
+    @Value.Immutable(singleton = false)
+    public interface InnodbProjectFilterRuleConfig extends RelRule.Config {
+      InnodbProjectFilterRuleConfig DEFAULT =
+          ImmutableInnodbProjectFilterRuleConfig.builder()
+              .withOperandSupplier(b0 ->
+                  b0.operand(LogicalProject.class)
+                      .predicate(project -> project.getVariablesSet().isEmpty())
+                      .oneInput(b1 -> b1.operand(LogicalFilter.class)
+                          .oneInput(b2 -> b2.operand(InnodbTableScan.class)
+                              .noInputs())))
+              .build();
+
+      @Override default InnodbProjectFilterRule toRule() {
+        return new InnodbProjectFilterRule(this);
+      }
+    }
+  }
+
   /**
    * Rule to convert a {@link org.apache.calcite.rel.core.Sort} to a
    * {@link InnodbSort}.
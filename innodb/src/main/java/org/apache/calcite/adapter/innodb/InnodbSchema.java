@@ -49,18 +49,38 @@ public class InnodbSchema extends AbstractSchema {
   final List<String> sqlFilePathList;
   final String ibdDataFileBasePath;
   final TableReaderFactory tableReaderFactory;
+  /** Number of records to read ahead in a background thread during scans
+   * other than primary key point queries; 0 means read synchronously. */
+  final int readAhead;
 
   static final ColumnTypeToSqlTypeConversionRules COLUMN_TYPE_TO_SQL_TYPE =
       ColumnTypeToSqlTypeConversionRules.instance();
 
   public InnodbSchema(List<String> sqlFilePathList,
       String ibdDataFileBasePath) {
+    this(sqlFilePathList, ibdDataFileBasePath, 0);
+  }
+
+  /**
+   * Creates an InnoDB schema.
+   *
+   * @param sqlFilePathList     paths of SQL files with table definitions
+   * @param ibdDataFileBasePath directory of the InnoDB data files
+   * @param readAhead           number of records to read ahead in a
+   *                            background thread during scans other than
+   *                            primary key point queries, or 0 to read
+   *                            synchronously
+   */
+  public InnodbSchema(List<String> sqlFilePathList,
+      String ibdDataFileBasePath, int readAhead) {
+    checkArgument(readAhead >= 0, "readAhead must not be negative");
     checkArgument(sqlFilePathList != null && !sqlFilePathList.isEmpty(),
         "SQL file path list cannot be empty");
     checkArgument(StringUtils.isNotEmpty(ibdDataFileBasePath),
         "InnoDB data file with ibd suffix cannot be empty");
     this.sqlFilePathList = sqlFilePathList;
     this.ibdDataFileBasePath = ibdDataFileBasePath;
+    this.readAhead = readAhead;
 
     List<TableDefProvider> tableDefProviderList = sqlFilePathList.stream()
         .map(SqlFileTableDefProvider::new).collect(toList());
@@ -41,6 +41,8 @@ public InnodbSchemaFactory() {
       System.setProperty("innodb.java.reader.server.timezone", timeZone);
     }
 
-    return new InnodbSchema(sqlFilePathList, ibdDataFileBasePath);
+    final Object readAhead = operand.get("readAhead");
+    return new InnodbSchema(sqlFilePathList, ibdDataFileBasePath,
+        readAhead == null ? 0 : Integer.parseInt(readAhead.toString()));
   }
 }
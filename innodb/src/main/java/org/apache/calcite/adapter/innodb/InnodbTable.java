@@ -33,9 +33,13 @@
 import org.apache.calcite.rel.type.RelDataTypeSystem;
 import org.apache.calcite.rel.type.RelProtoDataType;
 import org.apache.calcite.schema.SchemaPlus;
+import org.apache.calcite.schema.Statistic;
+import org.apache.calcite.schema.Statistics;
 import org.apache.calcite.schema.TranslatableTable;
 import org.apache.calcite.schema.impl.AbstractTableQueryable;
 import org.apache.calcite.sql.type.SqlTypeFactoryImpl;
+import org.apache.calcite.util.ImmutableBitSet;
+import org.apache.calcite.util.PrefetchingIterator;
 
 import com.alibaba.innodb.java.reader.Constants;
 import com.alibaba.innodb.java.reader.TableReader;
@@ -75,6 +79,8 @@ public class InnodbTable extends AbstractQueryableTable
       Suppliers.memoize(this::supplyProto);
   private final Supplier<TableDef> tableDefSupplier =
       Suppliers.memoize(this::supplyTableDef);
+  private final Supplier<IndexStatistics> indexStatisticsSupplier =
+      Suppliers.memoize(this::supplyIndexStatistics);
 
   public InnodbTable(InnodbSchema schema, String tableName) {
     super(Object[].class);
@@ -102,6 +108,36 @@ private TableDef supplyTableDef() {
     return schema.getTableDef(tableName);
   }
 
+  /** Returns statistics of the table's indexes, read from its data file
+   * the first time they are needed. */
+  IndexStatistics getIndexStatistics() {
+    return indexStatisticsSupplier.get();
+  }
+
+  private IndexStatistics supplyIndexStatistics() {
+    try (TableReader tableReader =
+             schema.tableReaderFactory.createTableReader(tableName)) {
+      tableReader.open();
+      return IndexStatistics.of(tableReader, getTableDef());
+    }
+  }
+
+  @Override public Statistic getStatistic() {
+    final Double rowCount = getIndexStatistics().getRowCount();
+    if (rowCount == null) {
+      return Statistics.UNKNOWN;
+    }
+    final TableDef tableDef = getTableDef();
+    final List<String> fieldNames = tableDef.getColumnNames();
+    final ImmutableList.Builder<ImmutableBitSet> keys = ImmutableList.builder();
+    final List<String> pkColumnNames = tableDef.getPrimaryKeyColumnNames();
+    if (!pkColumnNames.isEmpty()) {
+      keys.add(ImmutableBitSet.of(pkColumnNames.stream()
+          .map(fieldNames::indexOf).collect(Collectors.toList())));
+    }
+    return Statistics.of(rowCount, keys.build());
+  }
+
   /**
    * Get index name set.
    *
@@ -176,47 +212,60 @@ public Enumerable<Object> query(
     tableReader.open();
     return new AbstractEnumerable<Object>() {
       @Override public Enumerator<Object> enumerator() {
-        Iterator<GenericRecord> resultIterator;
         LOGGER.debug("Create query iterator, queryType={}, indexName={}, "
                 + "pointQueryKey={}, projection={}, rangeQueryKey={}{} AND {}{}, "
                 + "ascOrder={}", queryType, indexName, pointQueryKey,
             selectedColumnNames, rangeQueryLowerKey, rangeQueryLowerOp,
             rangeQueryUpperKey, rangeQueryUpperOp, ascOrder);
-        switch (queryType) {
+        final Supplier<Iterator<GenericRecord>> iteratorSupplier = () -> {
+          switch (queryType) {
           case PK_POINT_QUERY:
-            resultIterator =
-                RecordIterator.create(tableReader
-                    .queryByPrimaryKey(pointQueryKey, selectedColumnNames));
-            break;
+            return RecordIterator.create(tableReader
+                .queryByPrimaryKey(pointQueryKey, selectedColumnNames));
           case PK_RANGE_QUERY:
-            resultIterator =
-                tableReader.getRangeQueryIterator(rangeQueryLowerKey,
-                    rangeQueryLowerOp, rangeQueryUpperKey, rangeQueryUpperOp,
-                    selectedColumnNames, ascOrder);
-            break;
+            return tableReader.getRangeQueryIterator(rangeQueryLowerKey,
+                rangeQueryLowerOp, rangeQueryUpperKey, rangeQueryUpperOp,
+                selectedColumnNames, ascOrder);
           case SK_POINT_QUERY:
-            resultIterator =
-                tableReader.getRecordIteratorBySk(indexName, pointQueryKey,
-                    ComparisonOperator.GTE, pointQueryKey,
-                    ComparisonOperator.LTE, selectedColumnNames, ascOrder);
-            break;
+            return tableReader.getRecordIteratorBySk(indexName, pointQueryKey,
+                ComparisonOperator.GTE, pointQueryKey,
+                ComparisonOperator.LTE, selectedColumnNames, ascOrder);
           case SK_RANGE_QUERY:
           case SK_FULL_SCAN:
-            resultIterator =
-                tableReader.getRecordIteratorBySk(indexName, rangeQueryLowerKey,
-                    rangeQueryLowerOp, rangeQueryUpperKey, rangeQueryUpperOp,
-                    selectedColumnNames, ascOrder);
-            break;
+            return tableReader.getRecordIteratorBySk(indexName,
+                rangeQueryLowerKey, rangeQueryLowerOp, rangeQueryUpperKey,
+                rangeQueryUpperOp, selectedColumnNames, ascOrder);
           case PK_FULL_SCAN:
-            resultIterator =
-                tableReader.getQueryAllIterator(selectedColumnNames, ascOrder);
-            break;
+            return tableReader.getQueryAllIterator(selectedColumnNames,
+                ascOrder);
           default:
             throw new AssertionError("query type is invalid");
-        }
+          }
+        };
 
         RelDataType rowType = resultRowType.apply(typeFactory);
-        return new InnodbEnumerator(resultIterator, rowType) {
+        final int readAhead = schema.readAhead;
+        if (readAhead > 0 && queryType != QueryType.PK_POINT_QUERY) {
+          // Read batches of readAhead records in a background thread, which
+          // keeps one batch ready while the consumer works on the previous
+          // one. A primary key point query returns at most one record, so
+          // there is nothing to read ahead.
+          //
+          // The background thread creates the iterator, because
+          // InnoDB-java-reader keeps per-thread state while it creates an
+          // iterator over a secondary index, and closes the reader when it is
+          // done.
+          final PrefetchingIterator<GenericRecord> iterator =
+              new PrefetchingIterator<>(iteratorSupplier, tableReader::close,
+                  readAhead, 1);
+          return new InnodbEnumerator(iterator, rowType) {
+            @Override public void close() {
+              super.close();
+              iterator.close();
+            }
+          };
+        }
+        return new InnodbEnumerator(iteratorSupplier.get(), rowType) {
           @Override public void close() {
             super.close();
             tableReader.close();
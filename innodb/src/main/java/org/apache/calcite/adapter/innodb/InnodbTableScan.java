@@ -17,6 +17,7 @@
 package org.apache.calcite.adapter.innodb;
 
 import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelOptCost;
 import org.apache.calcite.plan.RelOptPlanner;
 import org.apache.calcite.plan.RelOptRule;
 import org.apache.calcite.plan.RelOptTable;
@@ -28,6 +29,7 @@
 import org.apache.calcite.rel.hint.HintPredicates;
 import org.apache.calcite.rel.hint.HintStrategyTable;
 import org.apache.calcite.rel.hint.RelHint;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
 import org.apache.calcite.rel.type.RelDataType;
 
 import com.alibaba.innodb.java.reader.Constants;
@@ -86,6 +88,22 @@ protected InnodbTableScan(RelOptCluster cluster, RelTraitSet traitSet,
     }
   }
 
+  @Override public @Nullable RelOptCost computeSelfCost(RelOptPlanner planner,
+      RelMetadataQuery mq) {
+    final RelOptCost cost = requireNonNull(super.computeSelfCost(planner, mq));
+    if (!InnodbFilterTranslator.needsClusteredLookup(
+        innodbTable.getTableDef(), indexCondition.getIndexName(),
+        InnodbRules.innodbFieldNames(getRowType()))) {
+      return cost;
+    }
+    // Each record of the forced secondary index is looked up in the
+    // clustered index, because the index does not contain every column
+    final double pageReads = mq.getRowCount(this)
+        * innodbTable.getIndexStatistics().lookupCost();
+    return cost.plus(
+        planner.getCostFactory().makeCost(pageReads, 0D, pageReads));
+  }
+
   @Override public void implement(Implementor implementor) {
     implementor.innodbTable = innodbTable;
     implementor.table = table;
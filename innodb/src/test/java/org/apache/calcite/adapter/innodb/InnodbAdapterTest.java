@@ -65,6 +65,22 @@ public class InnodbAdapterTest {
                       "url"))
               .file().getAbsolutePath());
 
+  /** Model whose schema reads ahead 4 records at a time during scans. */
+  private static final String INNODB_READ_AHEAD_MODEL = "{\n"
+      + "  version: '1.0',\n"
+      + "  defaultSchema: 'test',\n"
+      + "  schemas: [ {\n"
+      + "    name: 'test',\n"
+      + "    type: 'custom',\n"
+      + "    factory: 'org.apache.calcite.adapter.innodb.InnodbSchemaFactory',\n"
+      + "    operand: {\n"
+      + "      sqlFilePath: [ 'src/test/resources/scott.sql' ],\n"
+      + "      ibdDataFileBasePath: 'src/test/resources/data',\n"
+      + "      readAhead: 4\n"
+      + "    }\n"
+      + "  } ]\n"
+      + "}";
+
   @Test void testSelectCount() {
     sql("SELECT * FROM \"EMP\"")
         .returnsCount(14);
@@ -460,10 +476,10 @@ public class InnodbAdapterTest {
   @Test void testSelectBySkVarcharRangeQueryCoveringIndexOrderByDesc() {
     sql("SELECT ENAME FROM \"EMP\" WHERE ENAME >= 'CLARK' AND ENAME < 'SMITHY' ORDER BY ENAME DESC")
         .explainContains("PLAN=InnodbToEnumerableConverter\n"
-            + "  InnodbProject(ENAME=[$1])\n"
-            + "    InnodbSort(sort0=[$1], dir0=[DESC])\n"
-            + "      InnodbFilter(condition=[(SK_RANGE_QUERY, index=ENAME_KEY, "
+            + "  InnodbSort(sort0=[$0], dir0=[DESC])\n"
+            + "    InnodbFilter(condition=[(SK_RANGE_QUERY, index=ENAME_KEY, "
             + "ENAME>=CLARK, ENAME<SMITHY)])\n"
+            + "      InnodbProject(ENAME=[$1])\n"
             + "        InnodbTableScan(table=[[test, EMP]])\n")
         .returns("ENAME=SMITH\n"
             + "ENAME=SCOTT\n"
@@ -833,10 +849,11 @@ public class InnodbAdapterTest {
     sql("SELECT EMPNO,CREATE_DATETIME,JOB FROM \"EMP\" WHERE "
         + "CREATE_DATETIME >= '2018-09-02 12:12:56'")
         .explainContains("PLAN=InnodbToEnumerableConverter\n"
-            + "  InnodbProject(EMPNO=[$0], CREATE_DATETIME=[$10], JOB=[$2])\n"
+            + "  InnodbProject(EMPNO=[$0], CREATE_DATETIME=[$2], JOB=[$1])\n"
             + "    InnodbFilter(condition=[(SK_RANGE_QUERY, index=CREATE_DATETIME_JOB_KEY, "
             + "CREATE_DATETIME>=2018-09-02 12:12:56)])\n"
-            + "      InnodbTableScan(table=[[test, EMP]])\n")
+            + "      InnodbProject(EMPNO=[$0], JOB=[$2], CREATE_DATETIME=[$10])\n"
+            + "        InnodbTableScan(table=[[test, EMP]])\n")
         .returns("EMPNO=7654; CREATE_DATETIME=2018-09-02 12:12:56; JOB=SALESMAN\n"
             + "EMPNO=7902; CREATE_DATETIME=2019-05-29 00:00:00; JOB=ANALYST\n"
             + "EMPNO=7839; CREATE_DATETIME=2019-06-08 15:15:15; JOB=PRESIDENT\n"
@@ -886,7 +903,8 @@ public class InnodbAdapterTest {
         .explainContains("InnodbToEnumerableConverter\n"
             + "    InnodbFilter(condition=[(SK_RANGE_QUERY, index=DEPTNO_JOB_KEY, "
             + "DEPTNO>20)])\n"
-            + "      InnodbTableScan(table=[[test, EMP]])\n")
+            + "      InnodbProject(EMPNO=[$0], JOB=[$2], DEPTNO=[$8])\n"
+            + "        InnodbTableScan(table=[[test, EMP]])\n")
         .returns("EMPNO=7499; DEPTNO=30; JOB=SALESMAN\n"
             + "EMPNO=7521; DEPTNO=30; JOB=SALESMAN\n"
             + "EMPNO=7654; DEPTNO=30; JOB=SALESMAN\n"
@@ -895,14 +913,15 @@ public class InnodbAdapterTest {
 
   @Test void testSelectByMultipleSkRangeQueryPushDownPartialCondition3() {
     sql("SELECT EMPNO,DEPTNO,JOB FROM \"EMP\" WHERE JOB >= 'SALE' AND DEPTNO >= 20")
-        .explainContains("PLAN=EnumerableCalc(expr#0..12=[{inputs}], "
-            + "expr#13=[CAST($t2):VARCHAR(4) NOT NULL], "
-            + "expr#14=['SALE':VARCHAR(4)], expr#15=[>=($t13, $t14)], "
-            + "EMPNO=[$t0], DEPTNO=[$t8], JOB=[$t2], $condition=[$t15])\n"
+        .explainContains("PLAN=EnumerableCalc(expr#0..2=[{inputs}], "
+            + "expr#3=[CAST($t1):VARCHAR(4) NOT NULL], "
+            + "expr#4=['SALE':VARCHAR(4)], expr#5=[>=($t3, $t4)], "
+            + "EMPNO=[$t0], DEPTNO=[$t2], JOB=[$t1], $condition=[$t5])\n"
             + "  InnodbToEnumerableConverter\n"
             + "    InnodbFilter(condition=[(SK_RANGE_QUERY, index=DEPTNO_JOB_KEY, "
             + "DEPTNO>=20)])\n"
-            + "      InnodbTableScan(table=[[test, EMP]])\n")
+            + "      InnodbProject(EMPNO=[$0], JOB=[$2], DEPTNO=[$8])\n"
+            + "        InnodbTableScan(table=[[test, EMP]])\n")
         .returns("EMPNO=7499; DEPTNO=30; JOB=SALESMAN\n"
             + "EMPNO=7521; DEPTNO=30; JOB=SALESMAN\n"
             + "EMPNO=7654; DEPTNO=30; JOB=SALESMAN\n"
@@ -974,9 +993,10 @@ public class InnodbAdapterTest {
   @Test void testSelectByMultipleSkWithSameLeftPrefixForceIndexCoveringIndex() {
     sql("SELECT EMPNO,DEPTNO,MGR FROM \"EMP\"/*+ index(DEPTNO_MGR_KEY) */ WHERE DEPTNO > 0")
         .explainContains("PLAN=InnodbToEnumerableConverter\n"
-            + "  InnodbProject(EMPNO=[$0], DEPTNO=[$8], MGR=[$4])\n"
+            + "  InnodbProject(EMPNO=[$0], DEPTNO=[$2], MGR=[$1])\n"
             + "    InnodbFilter(condition=[(SK_RANGE_QUERY, index=DEPTNO_MGR_KEY, DEPTNO>0)])\n"
-            + "      InnodbTableScan(table=[[test, EMP]], forceIndex=[DEPTNO_MGR_KEY])\n")
+            + "      InnodbProject(EMPNO=[$0], MGR=[$4], DEPTNO=[$8])\n"
+            + "        InnodbTableScan(table=[[test, EMP]], forceIndex=[DEPTNO_MGR_KEY])\n")
         .returns("EMPNO=7839; DEPTNO=10; MGR=null\n"
             + "EMPNO=7934; DEPTNO=10; MGR=7782\n"
             + "EMPNO=7782; DEPTNO=10; MGR=7839\n"
@@ -993,6 +1013,58 @@ public class InnodbAdapterTest {
             + "EMPNO=7698; DEPTNO=30; MGR=7839\n");
   }
 
+  /** The secondary indexes that match {@code DEPTNO = 20} have equal
+   * selectivity, but only {@code DEPTNO_SAL_COMM_KEY} contains all columns
+   * the query needs, so it is chosen without a hint, and the clustered index
+   * is not read. */
+  @Test void testSelectByMultipleSkWithSameLeftPrefixChooseCoveringIndex() {
+    sql("SELECT EMPNO,DEPTNO,SAL FROM \"EMP\" WHERE DEPTNO = 20 AND SAL > 2000")
+        .explainContains("PLAN=EnumerableCalc(expr#0..2=[{inputs}], "
+            + "expr#3=[CAST($t1):DECIMAL(12, 2) NOT NULL], "
+            + "expr#4=[2000.00:DECIMAL(12, 2)], expr#5=[>($t3, $t4)], "
+            + "EMPNO=[$t0], DEPTNO=[$t2], SAL=[$t1], $condition=[$t5])\n"
+            + "  InnodbToEnumerableConverter\n"
+            + "    InnodbFilter(condition=[(SK_RANGE_QUERY, "
+            + "index=DEPTNO_SAL_COMM_KEY, DEPTNO>=20, DEPTNO<=20)])\n"
+            + "      InnodbProject(EMPNO=[$0], SAL=[$6], DEPTNO=[$8])\n"
+            + "        InnodbTableScan(table=[[test, EMP]])\n")
+        .returnsUnordered("EMPNO=7566; DEPTNO=20; SAL=2975.00",
+            "EMPNO=7788; DEPTNO=20; SAL=3000.00",
+            "EMPNO=7902; DEPTNO=20; SAL=3000.00");
+  }
+
+  @Test void testRowCountStatistic() {
+    sql("SELECT * FROM \"EMP\"")
+        .explainMatches("including all attributes ",
+            CalciteAssert.checkResultContains("rowcount = 14.0"));
+  }
+
+  @Test void testReadAhead() {
+    final String model = INNODB_READ_AHEAD_MODEL;
+    CalciteAssert.that()
+        .withModel(model)
+        .enable(enabled())
+        .query("SELECT EMPNO FROM \"EMP\" WHERE EMPNO > 7600")
+        .returnsCount(10);
+    CalciteAssert.that()
+        .withModel(model)
+        .enable(enabled())
+        .query("SELECT * FROM \"EMP\"")
+        .returns(all());
+    CalciteAssert.that()
+        .withModel(model)
+        .enable(enabled())
+        .query("SELECT EMPNO FROM \"EMP\" WHERE EMPNO > 7600 LIMIT 2")
+        .returnsCount(2);
+    // Secondary index point query
+    CalciteAssert.that()
+        .withModel(model)
+        .enable(enabled())
+        .query("SELECT EMPNO FROM \"EMP\" WHERE HIREDATE = '1981-12-03'")
+        .explainContains("SK_POINT_QUERY, index=HIREDATE_KEY")
+        .returnsUnordered("EMPNO=7900", "EMPNO=7902");
+  }
+
   @Test void testGroupByFilterPushDown() {
     sql("SELECT DEPTNO,SUM(SAL) AS TOTAL_SAL FROM EMP WHERE AGE > 30 GROUP BY DEPTNO")
         .explainContains("PLAN=EnumerableAggregate(group=[{8}], TOTAL_SAL=[$SUM0($6)])\n"
@@ -1009,9 +1081,9 @@ public class InnodbAdapterTest {
         + "ON EMP.DEPTNO = DEPT.DEPTNO AND EMP.DEPTNO = 20")
         .explainContains("EnumerableHashJoin(condition=[=($2, $3)], joinType=[inner])\n"
             + "    InnodbToEnumerableConverter\n"
-            + "      InnodbProject(EMPNO=[$0], JOB=[$2], DEPTNO=[$8])\n"
-            + "        InnodbFilter(condition=[(SK_RANGE_QUERY, index=DEPTNO_JOB_KEY, "
+            + "      InnodbFilter(condition=[(SK_RANGE_QUERY, index=DEPTNO_JOB_KEY, "
             + "DEPTNO>=20, DEPTNO<=20)])\n"
+            + "        InnodbProject(EMPNO=[$0], JOB=[$2], DEPTNO=[$8])\n"
             + "          InnodbTableScan(table=[[test, EMP]])\n"
             + "    InnodbToEnumerableConverter\n"
             + "      InnodbProject(DEPTNO=[$0], DNAME=[$1])\n"
@@ -1061,11 +1133,12 @@ public class InnodbAdapterTest {
     sql("SELECT EMPNO,DEPTNO,JOB FROM \"EMP\"/*+ index(DEPTNO_JOB_KEY) */ WHERE DEPTNO > 10 "
         + "ORDER BY DEPTNO DESC,JOB DESC")
         .explainContains("PLAN=InnodbToEnumerableConverter\n"
-            + "  InnodbProject(EMPNO=[$0], DEPTNO=[$8], JOB=[$2])\n"
-            + "    InnodbSort(sort0=[$8], sort1=[$2], dir0=[DESC], dir1=[DESC])\n"
+            + "  InnodbProject(EMPNO=[$0], DEPTNO=[$2], JOB=[$1])\n"
+            + "    InnodbSort(sort0=[$2], sort1=[$1], dir0=[DESC], dir1=[DESC])\n"
             + "      InnodbFilter(condition=[(SK_RANGE_QUERY, index=DEPTNO_JOB_KEY, "
             + "DEPTNO>10)])\n"
-            + "        InnodbTableScan(table=[[test, EMP]], forceIndex=[DEPTNO_JOB_KEY])\n")
+            + "        InnodbProject(EMPNO=[$0], JOB=[$2], DEPTNO=[$8])\n"
+            + "          InnodbTableScan(table=[[test, EMP]], forceIndex=[DEPTNO_JOB_KEY])\n")
         .returns("EMPNO=7844; DEPTNO=30; JOB=SALESMAN\n"
             + "EMPNO=7654; DEPTNO=30; JOB=SALESMAN\n"
             + "EMPNO=7521; DEPTNO=30; JOB=SALESMAN\n"
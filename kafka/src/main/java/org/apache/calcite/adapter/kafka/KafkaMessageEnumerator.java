@@ -22,12 +22,16 @@
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.time.Duration;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Deque;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static java.util.Objects.requireNonNull;
@@ -36,6 +40,14 @@
  * Enumerator to read data from {@link Consumer},
  * and converted into SQL rows with {@link KafkaRowConverter}.
  *
+ * <p>Records are converted a batch at a time, one batch per poll of the
+ * consumer.
+ *
+ * <p>If the enumerator is bounded, it reads each partition assigned to the
+ * consumer up to the end offset that the partition had when the enumerator
+ * first polled, and then finishes; otherwise it waits for new records
+ * until cancelled.
+ *
  * @param <K> Type for Kafka message key,
  *           refer to {@link ConsumerConfig#KEY_DESERIALIZER_CLASS_CONFIG};
  * @param <V> Type for Kafka message value,
@@ -45,24 +57,36 @@
   final Consumer consumer;
   final KafkaRowConverter<K, V> rowConverter;
   private final AtomicBoolean cancelFlag;
+  private final Duration pollTimeout;
+  private final boolean bounded;
 
   // runtime
-  private final Deque<ConsumerRecord<K, V>> bufferedRecords = new ArrayDeque<>();
-  private @Nullable ConsumerRecord<K, V> curRecord;
+  private final Deque<Object[]> bufferedRows = new ArrayDeque<>();
+  private @Nullable Object[] curRow;
+  private @Nullable Map<TopicPartition, Long> endOffsets;
 
   KafkaMessageEnumerator(final Consumer consumer,
       final KafkaRowConverter<K, V> rowConverter,
       final AtomicBoolean cancelFlag) {
+    this(consumer, rowConverter, cancelFlag, Duration.ofMillis(100), false);
+  }
+
+  KafkaMessageEnumerator(final Consumer consumer,
+      final KafkaRowConverter<K, V> rowConverter,
+      final AtomicBoolean cancelFlag, final Duration pollTimeout,
+      final boolean bounded) {
     this.consumer = consumer;
     this.rowConverter = rowConverter;
     this.cancelFlag = cancelFlag;
+    this.pollTimeout = requireNonNull(pollTimeout, "pollTimeout");
+    this.bounded = bounded;
   }
 
   /**
    * It returns an Array of Object, with each element represents a field of row.
    */
   @Override public Object[] current() {
-    return rowConverter.toRow(requireNonNull(curRecord, "curRecord"));
+    return requireNonNull(curRow, "curRow");
   }
 
   @Override public boolean moveNext() {
@@ -70,24 +94,66 @@
       return false;
     }
 
-    while (bufferedRecords.isEmpty()) {
-      pullRecords();
+    while (bufferedRows.isEmpty()) {
+      final List<Object[]> rows = pollBatch();
+      if (rows == null) {
+        return false;
+      }
+      bufferedRows.addAll(rows);
     }
 
-    curRecord = bufferedRecords.removeFirst();
+    curRow = bufferedRows.removeFirst();
     return true;
   }
 
-  private void pullRecords() {
-    ConsumerRecords<K, V> records = consumer.poll(Duration.ofMillis(100));
-    for (ConsumerRecord record : records) {
-      bufferedRecords.add(record);
+  /**
+   * Polls the consumer once and converts the records it returns.
+   *
+   * <p>Returns an empty list if the poll timed out, and null if the
+   * enumerator is bounded and has read all of its partitions.
+   */
+  @Nullable List<Object[]> pollBatch() {
+    if (bounded) {
+      if (endOffsets == null) {
+        //noinspection unchecked
+        endOffsets = consumer.endOffsets(consumer.assignment());
+      }
+      if (isExhausted(endOffsets)) {
+        return null;
+      }
+    }
+    final ConsumerRecords<K, V> records = consumer.poll(pollTimeout);
+    final List<ConsumerRecord<K, V>> batch = new ArrayList<>(records.count());
+    for (ConsumerRecord<K, V> record : records) {
+      if (endOffsets == null || record.offset() < endOffset(endOffsets, record)) {
+        batch.add(record);
+      }
+    }
+    return batch.isEmpty() ? new ArrayList<>() : rowConverter.toRows(batch);
+  }
+
+  private boolean isExhausted(Map<TopicPartition, Long> endOffsets) {
+    for (Map.Entry<TopicPartition, Long> entry : endOffsets.entrySet()) {
+      if (consumer.position(entry.getKey()) < entry.getValue()) {
+        return false;
+      }
     }
+    return true;
+  }
+
+  private static long endOffset(Map<TopicPartition, Long> endOffsets,
+      ConsumerRecord<?, ?> record) {
+    final Long offset =
+        endOffsets.get(new TopicPartition(record.topic(), record.partition()));
+    return offset == null ? Long.MAX_VALUE : offset;
   }
 
   @Override public void reset() {
-    this.bufferedRecords.clear();
-    pullRecords();
+    this.bufferedRows.clear();
+    final List<Object[]> rows = pollBatch();
+    if (rows != null) {
+      bufferedRows.addAll(rows);
+    }
   }
 
   @Override public void close() {
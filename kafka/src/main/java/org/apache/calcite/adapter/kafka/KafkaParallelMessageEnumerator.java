@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.kafka;
+
+import org.apache.calcite.linq4j.Enumerator;
+
+import org.apache.kafka.common.errors.WakeupException;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Enumerator that reads a Kafka topic using several consumers in parallel.
+ *
+ * <p>Each consumer is assigned a group of the topic's partitions, and is
+ * polled by its own thread via a {@link KafkaMessageEnumerator}. The threads
+ * convert records into rows a batch at a time, and hand the batches over
+ * through a bounded queue, so readers block if the consumer of this enumerator
+ * falls behind.
+ *
+ * <p>Rows from different partition groups are interleaved in arbitrary order;
+ * order is preserved within each partition.
+ */
+class KafkaParallelMessageEnumerator implements Enumerator<@Nullable Object[]> {
+  /** Marks that a reader has finished. */
+  private static final List<Object[]> END = ImmutableList.of();
+
+  private final List<KafkaMessageEnumerator<?, ?>> readers;
+  private final AtomicBoolean cancelFlag;
+  private final BlockingQueue<List<Object[]>> queue;
+  private final AtomicBoolean closed = new AtomicBoolean();
+  private final AtomicReference<@Nullable Throwable> failure =
+      new AtomicReference<>();
+  private @Nullable ExecutorService executor;
+
+  // runtime
+  private final Deque<Object[]> bufferedRows = new ArrayDeque<>();
+  private @Nullable Object[] curRow;
+  private int finishedCount;
+
+  KafkaParallelMessageEnumerator(List<KafkaMessageEnumerator<?, ?>> readers,
+      AtomicBoolean cancelFlag) {
+    this.readers = ImmutableList.copyOf(readers);
+    this.cancelFlag = cancelFlag;
+    this.queue = new ArrayBlockingQueue<>(2 * readers.size());
+  }
+
+  private void start() {
+    final ExecutorService executor =
+        Executors.newFixedThreadPool(readers.size(),
+            new ThreadFactoryBuilder()
+                .setNameFormat("kafka-reader-%d")
+                .setDaemon(true)
+                .build());
+    for (KafkaMessageEnumerator<?, ?> reader : readers) {
+      executor.execute(() -> read(reader));
+    }
+    this.executor = executor;
+  }
+
+  /** Body of a reader thread. The thread owns its consumer, and closes it on
+   * exit, because Kafka consumers must not be used by several threads. */
+  private void read(KafkaMessageEnumerator<?, ?> reader) {
+    try {
+      while (!closed.get() && !cancelFlag.get()) {
+        final List<Object[]> rows = reader.pollBatch();
+        if (rows == null) {
+          break;
+        }
+        if (!rows.isEmpty()) {
+          queue.put(rows);
+        }
+      }
+    } catch (WakeupException | InterruptedException e) {
+      // close() was called
+    } catch (Throwable e) {
+      failure.compareAndSet(null, e);
+    } finally {
+      reader.close();
+      try {
+        // Nobody is waiting for END if this enumerator is closed
+        while (!closed.get() && !queue.offer(END, 100, TimeUnit.MILLISECONDS)) {
+          // keep trying
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  @Override public Object[] current() {
+    return requireNonNull(curRow, "curRow");
+  }
+
+  @Override public boolean moveNext() {
+    if (executor == null) {
+      start();
+    }
+    while (bufferedRows.isEmpty()) {
+      if (cancelFlag.get() || finishedCount == readers.size()) {
+        checkFailure();
+        return false;
+      }
+      final List<Object[]> rows;
+      try {
+        rows = queue.poll(100, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+      if (rows == END) {
+        ++finishedCount;
+        checkFailure();
+      } else if (rows != null) {
+        bufferedRows.addAll(rows);
+      }
+    }
+    curRow = bufferedRows.removeFirst();
+    return true;
+  }
+
+  private void checkFailure() {
+    final Throwable e = failure.get();
+    if (e != null) {
+      throw new RuntimeException("Error while reading from Kafka", e);
+    }
+  }
+
+  @Override public void reset() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override public void close() {
+    if (closed.compareAndSet(false, true)) {
+      final ExecutorService executor = this.executor;
+      if (executor == null) {
+        readers.forEach(KafkaMessageEnumerator::close);
+        return;
+      }
+      readers.forEach(reader -> reader.consumer.wakeup());
+      executor.shutdownNow();
+    }
+  }
+}
@@ -21,6 +21,9 @@
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Interface to handle formatting between Kafka message and Calcite row.
  *
@@ -48,4 +51,23 @@
    * @return fields in the row
    */
   Object[] toRow(ConsumerRecord<K, V> message);
+
+  /**
+   * Parses and reformats a batch of Kafka messages, as returned by one poll
+   * of the consumer.
+   *
+   * <p>The default implementation calls {@link #toRow(ConsumerRecord)} for
+   * each message; implementations that can share work across messages may
+   * override it.
+   *
+   * @param messages Raw Kafka message records
+   * @return rows, one per message, in the same order
+   */
+  default List<Object[]> toRows(List<ConsumerRecord<K, V>> messages) {
+    final List<Object[]> rows = new ArrayList<>(messages.size());
+    for (ConsumerRecord<K, V> message : messages) {
+      rows.add(toRow(message));
+    }
+    return rows;
+  }
 }
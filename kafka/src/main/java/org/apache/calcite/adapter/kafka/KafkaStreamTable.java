@@ -36,12 +36,17 @@
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
 
 import com.google.common.collect.ImmutableList;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
 import java.util.Properties;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -64,29 +69,110 @@ public class KafkaStreamTable implements ScannableTable, StreamableTable {
       @Override public Enumerator<@Nullable Object[]> enumerator() {
         if (tableOptions.getConsumer() != null) {
           return new KafkaMessageEnumerator(tableOptions.getConsumer(),
-              tableOptions.getRowConverter(), cancelFlag);
+              tableOptions.getRowConverter(), cancelFlag,
+              tableOptions.getPollTimeout(), tableOptions.isBounded());
         }
 
-        Properties consumerConfig = new Properties();
-        consumerConfig.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG,
-            tableOptions.getBootstrapServers());
-        // by default it's <byte[], byte[]>
-        consumerConfig.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG,
-            "org.apache.kafka.common.serialization.ByteArrayDeserializer");
-        consumerConfig.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG,
-            "org.apache.kafka.common.serialization.ByteArrayDeserializer");
-
-        if (tableOptions.getConsumerParams() != null) {
-          consumerConfig.putAll(tableOptions.getConsumerParams());
+        final Properties consumerConfig = consumerConfig();
+        if (tableOptions.getParallelism() <= 1
+            && tableOptions.getPartitions() == null
+            && !tableOptions.isBounded()) {
+          Consumer consumer = new KafkaConsumer<>(consumerConfig);
+          consumer.subscribe(Collections.singletonList(tableOptions.getTopicName()));
+          return new KafkaMessageEnumerator(consumer, tableOptions.getRowConverter(),
+              cancelFlag, tableOptions.getPollTimeout(), false);
         }
-        Consumer consumer = new KafkaConsumer<>(consumerConfig);
-        consumer.subscribe(Collections.singletonList(tableOptions.getTopicName()));
 
-        return new KafkaMessageEnumerator(consumer, tableOptions.getRowConverter(), cancelFlag);
+        // Assign partitions explicitly, so that each consumer reads a known
+        // group of partitions, and a bounded scan knows where each partition
+        // ends.
+        final List<TopicPartition> partitions = partitions(consumerConfig);
+        final int readerCount =
+            Math.max(1, Math.min(tableOptions.getParallelism(), partitions.size()));
+        final List<KafkaMessageEnumerator<?, ?>> readers = new ArrayList<>();
+        for (int i = 0; i < readerCount; i++) {
+          final List<TopicPartition> group = new ArrayList<>();
+          for (int j = i; j < partitions.size(); j += readerCount) {
+            group.add(partitions.get(j));
+          }
+          Consumer consumer = new KafkaConsumer<>(consumerConfig);
+          consumer.assign(group);
+          readers.add(
+              new KafkaMessageEnumerator(consumer, tableOptions.getRowConverter(),
+                  cancelFlag, tableOptions.getPollTimeout(),
+                  tableOptions.isBounded()));
+        }
+        if (readers.size() == 1) {
+          return (Enumerator) readers.get(0);
+        }
+        return new KafkaParallelMessageEnumerator(readers, cancelFlag);
       }
     };
   }
 
+  private Properties consumerConfig() {
+    Properties consumerConfig = new Properties();
+    consumerConfig.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG,
+        tableOptions.getBootstrapServers());
+    // by default it's <byte[], byte[]>
+    consumerConfig.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG,
+        "org.apache.kafka.common.serialization.ByteArrayDeserializer");
+    consumerConfig.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG,
+        "org.apache.kafka.common.serialization.ByteArrayDeserializer");
+    if (tableOptions.getMaxPollRecords() != null) {
+      consumerConfig.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG,
+          tableOptions.getMaxPollRecords());
+    }
+    if (tableOptions.isBounded()) {
+      // a bounded scan reads history, so by default starts at the beginning
+      consumerConfig.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+    }
+
+    if (tableOptions.getConsumerParams() != null) {
+      consumerConfig.putAll(tableOptions.getConsumerParams());
+    }
+    return consumerConfig;
+  }
+
+  /** Returns the partitions to read: those given in the table options, or
+   * otherwise all partitions of the topic. */
+  private List<TopicPartition> partitions(Properties consumerConfig) {
+    final String topicName = tableOptions.getTopicName();
+    final List<TopicPartition> partitions = new ArrayList<>();
+    if (tableOptions.getPartitions() != null) {
+      for (Integer partition : tableOptions.getPartitions()) {
+        partitions.add(new TopicPartition(topicName, partition));
+      }
+    } else {
+      try (Consumer<?, ?> consumer = new KafkaConsumer<>(consumerConfig)) {
+        partitions.addAll(topicPartitions(consumer, topicName));
+      }
+    }
+    return partitions;
+  }
+
+  /** Returns all partitions of a topic, as reported by a consumer.
+   *
+   * @throws RuntimeException if the topic has no partitions, for example
+   * because it does not exist */
+  static List<TopicPartition> topicPartitions(Consumer<?, ?> consumer,
+      String topicName) {
+    // Depending on the client, an unknown topic has null or no partitions;
+    // reading no partitions would silently return no rows
+    final List<PartitionInfo> infos = consumer.partitionsFor(topicName);
+    if (infos == null || infos.isEmpty()) {
+      throw new RuntimeException(
+          String.format(Locale.ROOT,
+              "Kafka topic '%s' does not exist or has no partitions",
+              topicName));
+    }
+    final List<TopicPartition> partitions = new ArrayList<>();
+    for (PartitionInfo info : infos) {
+      partitions.add(new TopicPartition(topicName, info.partition()));
+    }
+    return partitions;
+  }
+
   @Override public RelDataType getRowType(final RelDataTypeFactory typeFactory) {
     return tableOptions.getRowConverter().rowDataType(tableOptions.getTopicName());
   }
@@ -25,4 +25,9 @@ interface KafkaTableConstants {
   String SCHEMA_ROW_CONVERTER = "row.converter";
   String SCHEMA_CUST_CONSUMER = "consumer.cust";
   String SCHEMA_CONSUMER_PARAMS = "consumer.params";
+  String SCHEMA_CONSUMER_PARALLELISM = "consumer.parallelism";
+  String SCHEMA_POLL_TIMEOUT_MS = "poll.timeout.ms";
+  String SCHEMA_POLL_MAX_RECORDS = "poll.max.records";
+  String SCHEMA_SCAN_PARTITIONS = "scan.partitions";
+  String SCHEMA_SCAN_BOUNDED = "scan.bounded";
 }
@@ -23,9 +23,13 @@
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.OffsetResetStrategy;
 
+import com.google.common.collect.ImmutableList;
+
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.lang.reflect.InvocationTargetException;
+import java.time.Duration;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -93,6 +97,83 @@ public KafkaTableFactory() {
       }
     }
 
+    if (operand.containsKey(KafkaTableConstants.SCHEMA_CONSUMER_PARALLELISM)) {
+      tableOptionBuilder.setParallelism(
+          ((Number) operand.get(KafkaTableConstants.SCHEMA_CONSUMER_PARALLELISM))
+              .intValue());
+    }
+    if (operand.containsKey(KafkaTableConstants.SCHEMA_POLL_TIMEOUT_MS)) {
+      tableOptionBuilder.setPollTimeout(
+          Duration.ofMillis(
+              ((Number) operand.get(KafkaTableConstants.SCHEMA_POLL_TIMEOUT_MS))
+                  .longValue()));
+    }
+    if (operand.containsKey(KafkaTableConstants.SCHEMA_POLL_MAX_RECORDS)) {
+      tableOptionBuilder.setMaxPollRecords(
+          ((Number) operand.get(KafkaTableConstants.SCHEMA_POLL_MAX_RECORDS))
+              .intValue());
+    }
+    if (operand.containsKey(KafkaTableConstants.SCHEMA_SCAN_PARTITIONS)) {
+      tableOptionBuilder.setPartitions(partitions(name, operand));
+    }
+    if (operand.containsKey(KafkaTableConstants.SCHEMA_SCAN_BOUNDED)) {
+      tableOptionBuilder.setBounded(
+          (Boolean) operand.get(KafkaTableConstants.SCHEMA_SCAN_BOUNDED));
+    }
+
+    if (tableOptionBuilder.getConsumer() != null
+        && (tableOptionBuilder.getParallelism() > 1
+            || tableOptionBuilder.getPartitions() != null
+            || tableOptionBuilder.getMaxPollRecords() != null)) {
+      // A custom consumer is created by its own class, so it decides itself
+      // what it reads and how many records a poll returns
+      final String details =
+          String.format(Locale.ROOT,
+              "Failed to create table '%s' with configuration:\n"
+                  + "'%s'\n"
+                  + "'%s' cannot be combined with '%s', '%s' or '%s'",
+              name, operand, KafkaTableConstants.SCHEMA_CUST_CONSUMER,
+              KafkaTableConstants.SCHEMA_CONSUMER_PARALLELISM,
+              KafkaTableConstants.SCHEMA_SCAN_PARTITIONS,
+              KafkaTableConstants.SCHEMA_POLL_MAX_RECORDS);
+      throw new RuntimeException(details);
+    }
+
     return new KafkaStreamTable(tableOptionBuilder);
   }
+
+  /** Returns the value of the "scan.partitions" operand, a list of partition
+   * numbers. A JSON number may have been read as any subclass of
+   * {@link Number}, so each element is checked and converted. */
+  private static List<Integer> partitions(String name,
+      Map<String, Object> operand) {
+    final Object value = operand.get(KafkaTableConstants.SCHEMA_SCAN_PARTITIONS);
+    final ImmutableList.Builder<Integer> partitions = ImmutableList.builder();
+    if (value instanceof List) {
+      for (Object o : (List<?>) value) {
+        if (o instanceof Number) {
+          final long partition = ((Number) o).longValue();
+          if (partition == ((Number) o).doubleValue()
+              && partition >= 0
+              && partition <= Integer.MAX_VALUE) {
+            partitions.add((int) partition);
+            continue;
+          }
+        }
+        throw new RuntimeException(
+            String.format(Locale.ROOT,
+                "Failed to create table '%s' with configuration:\n"
+                    + "'%s'\n"
+                    + "Partition '%s' is not a non-negative integer",
+                name, operand, o));
+      }
+      return partitions.build();
+    }
+    throw new RuntimeException(
+        String.format(Locale.ROOT,
+            "Failed to create table '%s' with configuration:\n"
+                + "'%s'\n"
+                + "'%s' must be a list of partition numbers",
+            name, operand, KafkaTableConstants.SCHEMA_SCAN_PARTITIONS));
+  }
 }
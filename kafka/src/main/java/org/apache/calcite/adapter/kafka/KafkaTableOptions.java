@@ -18,6 +18,8 @@
 
 import org.apache.kafka.clients.consumer.Consumer;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -30,6 +32,11 @@ public final class KafkaTableOptions {
   private Map<String, String> consumerParams;
   // added to inject MockConsumer for testing.
   private Consumer consumer;
+  private Duration pollTimeout = Duration.ofMillis(100);
+  private Integer maxPollRecords;
+  private int parallelism = 1;
+  private List<Integer> partitions;
+  private boolean bounded;
 
   public String getBootstrapServers() {
     return bootstrapServers;
@@ -76,4 +83,60 @@ public KafkaTableOptions setConsumer(final Consumer consumer) {
     this.consumer = consumer;
     return this;
   }
+
+  /** Returns how long each poll of the consumer waits for records.
+   * Default 100 milliseconds. */
+  public Duration getPollTimeout() {
+    return pollTimeout;
+  }
+
+  public KafkaTableOptions setPollTimeout(final Duration pollTimeout) {
+    this.pollTimeout = pollTimeout;
+    return this;
+  }
+
+  /** Returns the maximum number of records returned, and converted to rows,
+   * by each poll of the consumer; null to use the consumer's default. */
+  public Integer getMaxPollRecords() {
+    return maxPollRecords;
+  }
+
+  public KafkaTableOptions setMaxPollRecords(final Integer maxPollRecords) {
+    this.maxPollRecords = maxPollRecords;
+    return this;
+  }
+
+  /** Returns the number of consumers that read the topic's partitions in
+   * parallel, each in its own thread. Default 1. */
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  public KafkaTableOptions setParallelism(final int parallelism) {
+    this.parallelism = parallelism;
+    return this;
+  }
+
+  /** Returns the partitions to read; null to read all partitions of the
+   * topic. */
+  public List<Integer> getPartitions() {
+    return partitions;
+  }
+
+  public KafkaTableOptions setPartitions(final List<Integer> partitions) {
+    this.partitions = partitions;
+    return this;
+  }
+
+  /** Returns whether a scan stops when it has read each partition up to the
+   * end offset it had when the scan started, rather than waiting for new
+   * records indefinitely. Default false. */
+  public boolean isBounded() {
+    return bounded;
+  }
+
+  public KafkaTableOptions setBounded(final boolean bounded) {
+    this.bounded = bounded;
+    return this;
+  }
 }
@@ -17,8 +17,14 @@
 package org.apache.calcite.adapter.kafka;
 
 import org.apache.calcite.config.CalciteConnectionProperty;
+import org.apache.calcite.jdbc.CalciteSchema;
+import org.apache.calcite.schema.SchemaPlus;
 import org.apache.calcite.test.CalciteAssert;
 
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+
 import com.google.common.io.Resources;
 
 import org.junit.jupiter.api.Test;
@@ -27,6 +33,20 @@
 import java.io.UncheckedIOException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import static java.util.Objects.requireNonNull;
 
@@ -89,6 +109,112 @@ private CalciteAssert.AssertThat assertModel(URL url) {
                 + "    BindableTableScan(table=[[KAFKA, MOCKTABLE, (STREAM)]])");
   }
 
+  /** Tests a bounded scan, which terminates after reading the records that
+   * were in the topic when it started, without a LIMIT. */
+  @Test void testBoundedScan() {
+    assertModel(MODEL)
+        .query("SELECT STREAM MSG_OFFSET FROM KAFKA.MOCKTABLE_BOUNDED")
+        .returnsUnordered("MSG_OFFSET=0", "MSG_OFFSET=1", "MSG_OFFSET=2",
+            "MSG_OFFSET=3", "MSG_OFFSET=4", "MSG_OFFSET=5", "MSG_OFFSET=6",
+            "MSG_OFFSET=7", "MSG_OFFSET=8", "MSG_OFFSET=9");
+  }
+
+  /** Tests {@link KafkaParallelMessageEnumerator}, reading from two consumers
+   * in parallel until both are exhausted. */
+  @Test void testParallelRead() {
+    final List<KafkaMessageEnumerator<?, ?>> readers = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      readers.add(
+          new KafkaMessageEnumerator<>(
+              new KafkaMockConsumer(OffsetResetStrategy.NONE),
+              new KafkaRowConverterImpl(), new AtomicBoolean(),
+              Duration.ofMillis(10), true));
+    }
+    final List<Long> offsets = new ArrayList<>();
+    try (KafkaParallelMessageEnumerator enumerator =
+             new KafkaParallelMessageEnumerator(readers, new AtomicBoolean())) {
+      while (enumerator.moveNext()) {
+        offsets.add((Long) enumerator.current()[2]);
+      }
+    }
+    assertThat(offsets, hasSize(20));
+    Collections.sort(offsets);
+    assertThat(offsets.subList(0, 4), is(Arrays.asList(0L, 0L, 1L, 1L)));
+  }
+
+  /** Tests that the partitions to scan may be given as any kind of integer,
+   * since a JSON number may be read as a {@link Long}, and that other values
+   * are rejected. */
+  @Test void testPartitionsOperand() {
+    final Map<String, Object> operand = new HashMap<>();
+    operand.put(KafkaTableConstants.SCHEMA_TOPIC_NAME, "t");
+    operand.put(KafkaTableConstants.SCHEMA_SCAN_PARTITIONS,
+        Arrays.asList(0, 2L));
+    final KafkaStreamTable table = createTable(operand);
+    assertThat(table.tableOptions.getPartitions(), is(Arrays.asList(0, 2)));
+
+    operand.put(KafkaTableConstants.SCHEMA_SCAN_PARTITIONS,
+        Arrays.asList(1, 1.5D));
+    final RuntimeException e =
+        assertThrows(RuntimeException.class, () -> createTable(operand));
+    assertThat(e.getMessage(),
+        containsString("Partition '1.5' is not a non-negative integer"));
+  }
+
+  /** Tests that a custom consumer cannot be combined with options that it
+   * would ignore. */
+  @Test void testCustConsumerWithParallelism() {
+    final Map<String, Object> operand = new HashMap<>();
+    operand.put(KafkaTableConstants.SCHEMA_CUST_CONSUMER,
+        KafkaMockConsumer.class.getName());
+    operand.put(KafkaTableConstants.SCHEMA_CONSUMER_PARALLELISM, 2);
+    final RuntimeException e =
+        assertThrows(RuntimeException.class, () -> createTable(operand));
+    assertThat(e.getMessage(),
+        containsString("'consumer.cust' cannot be combined with "
+            + "'consumer.parallelism', 'scan.partitions' or 'poll.max.records'"));
+
+    operand.remove(KafkaTableConstants.SCHEMA_CONSUMER_PARALLELISM);
+    operand.put(KafkaTableConstants.SCHEMA_SCAN_PARTITIONS,
+        Collections.singletonList(0));
+    assertThrows(RuntimeException.class, () -> createTable(operand));
+
+    operand.remove(KafkaTableConstants.SCHEMA_SCAN_PARTITIONS);
+    operand.put(KafkaTableConstants.SCHEMA_POLL_MAX_RECORDS, 10);
+    assertThrows(RuntimeException.class, () -> createTable(operand));
+  }
+
+  /** Tests that reading all partitions of a topic fails with an error that
+   * names the topic if the topic has no partitions, rather than returning no
+   * rows. */
+  @Test void testTopicWithoutPartitions() {
+    final KafkaMockConsumer consumer =
+        new KafkaMockConsumer(OffsetResetStrategy.NONE);
+    consumer.updatePartitions("testtopic",
+        Arrays.asList(new PartitionInfo("testtopic", 0, null, null, null),
+            new PartitionInfo("testtopic", 1, null, null, null)));
+    assertThat(KafkaStreamTable.topicPartitions(consumer, "testtopic"),
+        is(
+            Arrays.asList(new TopicPartition("testtopic", 0),
+                new TopicPartition("testtopic", 1))));
+
+    // The mock consumer returns null for a topic that it does not know
+    final RuntimeException e =
+        assertThrows(RuntimeException.class,
+            () -> KafkaStreamTable.topicPartitions(consumer, "unknown"));
+    assertThat(e.getMessage(),
+        is("Kafka topic 'unknown' does not exist or has no partitions"));
+
+    consumer.updatePartitions("empty", Collections.emptyList());
+    assertThrows(RuntimeException.class,
+        () -> KafkaStreamTable.topicPartitions(consumer, "empty"));
+  }
+
+  private static KafkaStreamTable createTable(Map<String, Object> operand) {
+    final SchemaPlus schema = CalciteSchema.createRootSchema(false).plus();
+    return new KafkaTableFactory().create(schema, "T", operand, null);
+  }
+
   @Test void testCustRowConverter() {
     assertModel(MODEL)
         .query("SELECT STREAM * FROM KAFKA.MOCKTABLE_CUST_ROW_CONVERTER")
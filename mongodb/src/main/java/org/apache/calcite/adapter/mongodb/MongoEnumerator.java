@@ -21,6 +21,7 @@
 import org.apache.calcite.linq4j.Enumerator;
 import org.apache.calcite.linq4j.function.Function1;
 import org.apache.calcite.linq4j.tree.Primitive;
+import org.apache.calcite.util.PrefetchingIterator;
 
 import com.mongodb.client.MongoCursor;
 
@@ -29,6 +30,8 @@
 import org.bson.types.Binary;
 import org.bson.types.Decimal128;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
 import java.util.Date;
@@ -36,18 +39,23 @@
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static java.lang.String.format;
 
 /** Enumerator that reads from a MongoDB collection. */
 class MongoEnumerator implements Enumerator<Object> {
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(MongoEnumerator.class);
+
   private final Iterator<Document> cursor;
   private final Function1<Document, Object> getter;
   private @Nullable Object current;
 
   /** Creates a MongoEnumerator.
    *
-   * @param cursor Mongo iterator (usually a {@link com.mongodb.DBCursor})
+   * @param cursor Mongo iterator (usually a {@link MongoCursor}, or a
+   *               {@link PrefetchingIterator} that reads ahead from one)
    * @param getter Converts an object into a list of fields
    */
   MongoEnumerator(Iterator<Document> cursor,
@@ -85,6 +93,12 @@ class MongoEnumerator implements Enumerator<Object> {
   @Override public void close() {
     if (cursor instanceof MongoCursor) {
       ((MongoCursor) cursor).close();
+    } else if (cursor instanceof PrefetchingIterator) {
+      final PrefetchingIterator<Document> prefetcher =
+          (PrefetchingIterator<Document>) cursor;
+      prefetcher.close();
+      LOGGER.debug("Waited {} ms for MongoDB to fetch documents",
+          TimeUnit.NANOSECONDS.toMillis(prefetcher.fetchWaitNanos()));
     }
     // AggregationOutput implements Iterator but not DBCursor. There is no
     // available close() method -- apparently there is no open resource.
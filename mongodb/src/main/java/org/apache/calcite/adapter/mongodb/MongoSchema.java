@@ -35,7 +35,16 @@
  * is a MONGO file in that directory.
  */
 public class MongoSchema extends AbstractSchema {
+  /** Number of documents per prefetched batch if the batch size is not
+   * specified. */
+  static final int DEFAULT_BATCH_SIZE = 100;
+
+  /** Default number of batches to fetch ahead of the consumer. */
+  static final int DEFAULT_PREFETCH_DEPTH = 1;
+
   final MongoDatabase mongoDb;
+  private final int batchSize;
+  private final int prefetchDepth;
 
   /**
    * Creates a MongoDB schema.
@@ -44,7 +53,24 @@ public class MongoSchema extends AbstractSchema {
    * @param database Mongo database name, e.g. "foodmart"
    */
   MongoSchema(MongoClientSettings settings, String database) {
+    this(settings, database, 0, DEFAULT_PREFETCH_DEPTH);
+  }
+
+  /**
+   * Creates a MongoDB schema.
+   *
+   * @param settings Mongo connection settings, including host and credentials
+   * @param database Mongo database name, e.g. "foodmart"
+   * @param batchSize Number of documents per batch; 0 to use the driver's
+   *                  default
+   * @param prefetchDepth Number of batches to fetch ahead of the consumer;
+   *                      0 to fetch synchronously
+   */
+  MongoSchema(MongoClientSettings settings, String database, int batchSize,
+      int prefetchDepth) {
     super();
+    this.batchSize = batchSize;
+    this.prefetchDepth = prefetchDepth;
 
     final MongoClient mongo = MongoClients.create(settings);
     try {
@@ -62,14 +88,22 @@ public class MongoSchema extends AbstractSchema {
    */
   @VisibleForTesting
   MongoSchema(MongoDatabase mongoDb) {
+    this(mongoDb, 0, DEFAULT_PREFETCH_DEPTH);
+  }
+
+  @VisibleForTesting
+  MongoSchema(MongoDatabase mongoDb, int batchSize, int prefetchDepth) {
     super();
     this.mongoDb = requireNonNull(mongoDb, "mongoDb");
+    this.batchSize = batchSize;
+    this.prefetchDepth = prefetchDepth;
   }
 
   @Override protected Map<String, Table> getTableMap() {
     final ImmutableMap.Builder<String, Table> builder = ImmutableMap.builder();
     for (String collectionName : mongoDb.listCollectionNames()) {
-      builder.put(collectionName, new MongoTable(collectionName));
+      builder.put(collectionName,
+          new MongoTable(collectionName, batchSize, prefetchDepth));
     }
     return builder.build();
   }
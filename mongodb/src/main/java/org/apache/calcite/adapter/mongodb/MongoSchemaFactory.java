@@ -52,7 +52,22 @@ public MongoSchemaFactory() {
       settings.credential(createCredential(operand));
     }
 
-    return new MongoSchema(settings.build(), database);
+    final int batchSize = intOperand(operand, "batchSize", 0);
+    final int prefetchDepth =
+        intOperand(operand, "prefetchDepth", MongoSchema.DEFAULT_PREFETCH_DEPTH);
+    return new MongoSchema(settings.build(), database, batchSize,
+        prefetchDepth);
+  }
+
+  private static int intOperand(Map<String, Object> operand, String name,
+      int defaultValue) {
+    final Object o = operand.get(name);
+    if (o == null) {
+      return defaultValue;
+    }
+    return o instanceof Number
+        ? ((Number) o).intValue()
+        : Integer.parseInt(o.toString());
   }
 
   private static MongoCredential createCredential(Map<String, Object> map) {
@@ -32,10 +32,13 @@
 import org.apache.calcite.schema.TranslatableTable;
 import org.apache.calcite.schema.impl.AbstractTableQueryable;
 import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.calcite.util.PrefetchingIterator;
 import org.apache.calcite.util.Util;
 
+import com.mongodb.client.AggregateIterable;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
 
 import org.bson.BsonDocument;
@@ -53,11 +56,28 @@
 public class MongoTable extends AbstractQueryableTable
     implements TranslatableTable {
   private final String collectionName;
+  private final int batchSize;
+  private final int prefetchDepth;
 
   /** Creates a MongoTable. */
   MongoTable(String collectionName) {
+    this(collectionName, 0, MongoSchema.DEFAULT_PREFETCH_DEPTH);
+  }
+
+  /** Creates a MongoTable.
+   *
+   * @param collectionName Collection name
+   * @param batchSize Number of documents per batch returned by the server;
+   *                  0 to use the driver's default
+   * @param prefetchDepth Number of batches to fetch ahead, in a background
+   *                      thread, while the current batch is being converted;
+   *                      0 to fetch synchronously
+   */
+  MongoTable(String collectionName, int batchSize, int prefetchDepth) {
     super(Object[].class);
     this.collectionName = collectionName;
+    this.batchSize = batchSize;
+    this.prefetchDepth = prefetchDepth;
   }
 
   @Override public String toString() {
@@ -110,7 +130,10 @@ private Enumerable<Object> find(MongoDatabase mongoDb, String filterJson,
       @Override public Enumerator<Object> enumerator() {
         @SuppressWarnings("unchecked") final FindIterable<Document> cursor =
             collection.find(filter).projection(project);
-        return new MongoEnumerator(cursor.iterator(), getter);
+        if (batchSize > 0) {
+          cursor.batchSize(batchSize);
+        }
+        return new MongoEnumerator(prefetch(cursor.iterator()), getter);
       }
     };
   }
@@ -141,8 +164,12 @@ private Enumerable<Object> aggregate(final MongoDatabase mongoDb,
       @Override public Enumerator<Object> enumerator() {
         final Iterator<Document> resultIterator;
         try {
-          resultIterator = mongoDb.getCollection(collectionName)
-              .aggregate(list).iterator();
+          final AggregateIterable<Document> iterable =
+              mongoDb.getCollection(collectionName).aggregate(list);
+          if (batchSize > 0) {
+            iterable.batchSize(batchSize);
+          }
+          resultIterator = prefetch(iterable.iterator());
         } catch (Exception e) {
           throw new RuntimeException("While running MongoDB query "
               + Util.toString(operations, "[", ",\n", "]"), e);
@@ -152,6 +179,17 @@ private Enumerable<Object> aggregate(final MongoDatabase mongoDb,
     };
   }
 
+  /** Wraps a cursor so that a background thread fetches batches of documents
+   * ahead of the consumer; or returns the cursor if prefetch is disabled. */
+  private Iterator<Document> prefetch(MongoCursor<Document> cursor) {
+    if (prefetchDepth <= 0) {
+      return cursor;
+    }
+    return new PrefetchingIterator<>(() -> cursor, cursor::close,
+        batchSize > 0 ? batchSize : MongoSchema.DEFAULT_BATCH_SIZE,
+        prefetchDepth);
+  }
+
   /** Implementation of {@link org.apache.calcite.linq4j.Queryable} based on
    * a {@link org.apache.calcite.adapter.mongodb.MongoTable}.
    *
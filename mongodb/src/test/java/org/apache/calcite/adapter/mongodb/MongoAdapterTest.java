@@ -83,6 +83,9 @@ public class MongoAdapterTest implements SchemaFactory {
       requireNonNull(MongoAdapterTest.class.getResource("/mongo-model.json"),
           "url");
 
+  /** Text of the "mongo-zips" model. */
+  private static final String MODEL_STRING = modelString(MODEL);
+
   /** Number of records in local file. */
   protected static final int ZIPS_SIZE = 149;
 
@@ -146,9 +149,15 @@ private static void populate(MongoCollection<Document> collection, URL resource)
     });
   }
 
-  /** Returns always the same schema to avoid initialization costs. */
+  /** Returns always the same schema to avoid initialization costs,
+   * unless the operand overrides how documents are fetched. */
   @Override public Schema create(SchemaPlus parentSchema, String name,
       Map<String, Object> operand) {
+    if (operand.containsKey("prefetchDepth")) {
+      return new MongoSchema(schema.mongoDb,
+          ((Number) operand.get("batchSize")).intValue(),
+          ((Number) operand.get("prefetchDepth")).intValue());
+    }
     return schema;
   }
 
@@ -161,9 +170,13 @@ private CalciteAssert.AssertThat assertModel(String model) {
   }
 
   private CalciteAssert.AssertThat assertModel(URL url) {
+    return assertModel(modelString(url));
+  }
+
+  private static String modelString(URL url) {
     requireNonNull(url, "url");
     try {
-      return assertModel(Resources.toString(url, StandardCharsets.UTF_8));
+      return Resources.toString(url, StandardCharsets.UTF_8);
     } catch (IOException e) {
       throw new UncheckedIOException(e);
     }
@@ -179,6 +192,28 @@ private CalciteAssert.AssertThat assertModel(URL url) {
             + "      MongoTableScan(table=[[mongo_raw, zips]])");
   }
 
+  /** Tests that results are complete and correct whether documents are
+   * fetched synchronously or prefetched in batches smaller than, equal to, or
+   * larger than the result. */
+  @Test void testPrefetch() {
+    final String model = MODEL_STRING.replace("\"database\": \"test\"",
+        "\"database\": \"test\", \"batchSize\": %d, \"prefetchDepth\": %d");
+    for (int[] batchSizeAndDepth
+        : new int[][] {{0, 0}, {1, 1}, {7, 2}, {ZIPS_SIZE, 1}, {1000, 3}}) {
+      assertModel(
+          String.format(Locale.ROOT, model, batchSizeAndDepth[0],
+              batchSizeAndDepth[1]))
+          .query("select * from zips")
+          .returnsCount(ZIPS_SIZE);
+      assertModel(
+          String.format(Locale.ROOT, model, batchSizeAndDepth[0],
+              batchSizeAndDepth[1]))
+          .query("select state, count(*) as c from zips\n"
+              + "where state in ('CA', 'TX') group by state order by state")
+          .returnsOrdered("STATE=CA; C=3", "STATE=TX; C=3");
+    }
+  }
+
   @Test void testSortLimit() {
     assertModel(MODEL)
         .query("select state, id from zips\n"
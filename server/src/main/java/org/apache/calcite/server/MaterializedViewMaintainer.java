@@ -0,0 +1,467 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.server;
+
+import org.apache.calcite.config.CalciteConnectionProperty;
+import org.apache.calcite.jdbc.CalciteConnection;
+import org.apache.calcite.jdbc.CalciteMetaImpl;
+import org.apache.calcite.jdbc.CalciteSchema;
+import org.apache.calcite.plan.RelOptTable;
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.RelRoot;
+import org.apache.calcite.rel.core.Aggregate;
+import org.apache.calcite.rel.core.AggregateCall;
+import org.apache.calcite.rel.core.Calc;
+import org.apache.calcite.rel.core.Filter;
+import org.apache.calcite.rel.core.Join;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.core.Project;
+import org.apache.calcite.rel.core.TableScan;
+import org.apache.calcite.rel.core.Values;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.rex.RexUtil;
+import org.apache.calcite.sql.dialect.CalciteSqlDialect;
+import org.apache.calcite.sql.parser.SqlParseException;
+import org.apache.calcite.tools.FrameworkConfig;
+import org.apache.calcite.tools.Frameworks;
+import org.apache.calcite.tools.Planner;
+import org.apache.calcite.tools.RelConversionException;
+import org.apache.calcite.tools.RelRunner;
+import org.apache.calcite.tools.ValidationException;
+import org.apache.calcite.util.Util;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Range;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/** Keeps the contents of a {@link MaterializedViewTable} up to date as rows
+ * are inserted into the tables that its query reads.
+ *
+ * <p>The maintainer records how many rows each base table had when the view
+ * was last refreshed. Because INSERT appends rows to a
+ * {@link MutableArrayTable}, the rows after that watermark are the delta of
+ * the table. When the view is next scanned, the maintainer propagates the
+ * deltas through the view's query:
+ *
+ * <ul>
+ * <li>If the query is select-project-join, it evaluates the query once per
+ * changed table, with that table restricted to its delta, the tables before
+ * it to their current rows and the tables after it to their previous rows,
+ * and appends the results to the view;
+ *
+ * <li>If the query is an aggregate of a select-project-join query, it
+ * evaluates the aggregate over the deltas in the same way, and merges the
+ * result into the existing rows of the view, adding counts and sums and
+ * taking the minimum of minimums and the maximum of maximums;
+ *
+ * <li>Otherwise, or if a row has been removed or replaced in a base table
+ * since the previous refresh, it recomputes the view.
+ * </ul>
+ *
+ * <p>A refresh modifies the table's rows, but scans do not read them
+ * directly; they read a copy that the maintainer replaces when a refresh has
+ * completed. A scan therefore sees the view's contents either before or after
+ * a refresh, never a mixture, even if it is still reading the rows when
+ * another thread refreshes the view.
+ */
+class MaterializedViewMaintainer {
+  private final MaterializedViewTable table;
+  private final CalciteSchema schema;
+  private final String name;
+  private final String sql;
+  private final List<String> fieldNames;
+  private final Mode mode;
+  private final List<MutableArrayTable> baseTables;
+  /** For each column of the view, the aggregate function that merges the
+   * values of the column, or null if the column is a group key. Empty unless
+   * {@link #mode} is {@link Mode#AGGREGATE}. */
+  private final List<@Nullable String> mergeFunctions;
+  private final int[] watermarks;
+  private final int[] generations;
+  /** Rows that scans see; a copy of the table's rows as of the end of the
+   * most recent refresh. Never modified, only replaced. */
+  private volatile List<Object> contents;
+  /** Generation of the table's rows when {@link #contents} was copied. */
+  private int contentsGeneration;
+  private boolean refreshing;
+
+  private MaterializedViewMaintainer(MaterializedViewTable table,
+      CalciteSchema schema, String name, String sql, List<String> fieldNames,
+      Mode mode,
+      List<MutableArrayTable> baseTables,
+      List<@Nullable String> mergeFunctions) {
+    this.table = table;
+    this.schema = schema;
+    this.name = name;
+    this.sql = sql;
+    this.fieldNames = ImmutableList.copyOf(fieldNames);
+    this.mode = mode;
+    this.baseTables = ImmutableList.copyOf(baseTables);
+    this.mergeFunctions = new ArrayList<>(mergeFunctions);
+    this.watermarks = new int[baseTables.size()];
+    this.generations = new int[baseTables.size()];
+    mark();
+    publish();
+  }
+
+  /** Creates a maintainer for a materialized view that has just been
+   * populated, or returns null if the view cannot be maintained because one
+   * of the tables that it reads is not a {@link MutableArrayTable}.
+   *
+   * @param table Table that holds the contents of the view
+   * @param schema Schema that contains the table, and in which the query
+   *               is validated
+   * @param name Name of the table within its schema
+   * @param sql SQL query that defines the view
+   */
+  static @Nullable MaterializedViewMaintainer create(
+      MaterializedViewTable table, CalciteSchema schema, String name,
+      String sql) {
+    final RelRoot root;
+    final Planner planner = planner(schema);
+    try {
+      root = planner.rel(planner.validate(planner.parse(sql)));
+    } catch (SqlParseException | ValidationException
+        | RelConversionException e) {
+      throw Util.throwAsRuntime(e);
+    } finally {
+      planner.close();
+    }
+
+    final List<MutableArrayTable> baseTables = new ArrayList<>();
+    for (RelOptTable relOptTable : RelOptUtil.findAllTables(root.rel)) {
+      final MutableArrayTable baseTable =
+          relOptTable.unwrap(MutableArrayTable.class);
+      if (baseTable == null) {
+        return null;
+      }
+      baseTables.add(baseTable);
+    }
+    if (baseTables.isEmpty()) {
+      // The view's contents never change.
+      return null;
+    }
+
+    final List<@Nullable String> mergeFunctions = new ArrayList<>();
+    final Mode mode;
+    final Set<MutableArrayTable> distinctTables = new HashSet<>(baseTables);
+    if (distinctTables.size() < baseTables.size()) {
+      // A table is read more than once, so we cannot restrict one of its
+      // occurrences to the delta.
+      mode = Mode.FULL;
+    } else if (isSpj(root.rel)) {
+      mode = Mode.APPEND;
+    } else if (isMergeableAggregate(root, mergeFunctions)) {
+      mode = Mode.AGGREGATE;
+    } else {
+      mode = Mode.FULL;
+    }
+    return new MaterializedViewMaintainer(table, schema, name, sql,
+        root.validatedRowType.getFieldNames(), mode, baseTables,
+        mergeFunctions);
+  }
+
+  private static Planner planner(CalciteSchema schema) {
+    final FrameworkConfig config = Frameworks.newConfigBuilder()
+        .defaultSchema(schema.plus())
+        .build();
+    return Frameworks.getPlanner(config);
+  }
+
+  /** Returns whether a relational expression consists only of scans,
+   * filters, projects, inner joins and constant relations. */
+  private static boolean isSpj(RelNode rel) {
+    if (rel instanceof Filter) {
+      if (RexUtil.SubQueryFinder.containsSubQuery((Filter) rel)) {
+        return false;
+      }
+    } else if (rel instanceof Project) {
+      if (RexUtil.SubQueryFinder.containsSubQuery((Project) rel)) {
+        return false;
+      }
+    } else if (rel instanceof Join) {
+      final Join join = (Join) rel;
+      if (join.getJoinType() != JoinRelType.INNER
+          || RexUtil.SubQueryFinder.containsSubQuery(join)) {
+        return false;
+      }
+    } else if (!(rel instanceof TableScan
+        || rel instanceof Calc
+        || rel instanceof Values)) {
+      return false;
+    }
+    for (RelNode input : rel.getInputs()) {
+      if (!isSpj(input)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Returns whether a query is an aggregate of a select-project-join query
+   * whose results can be merged with the results of the same aggregate over
+   * other rows; if so, populates the merge function of each column. */
+  private static boolean isMergeableAggregate(RelRoot root,
+      List<@Nullable String> mergeFunctions) {
+    final List<Integer> fields = new ArrayList<>(root.fields.leftList());
+    RelNode rel = root.rel;
+    if (rel instanceof Project) {
+      final List<RexNode> projects = ((Project) rel).getProjects();
+      for (int i = 0; i < fields.size(); i++) {
+        final RexNode project = projects.get(fields.get(i));
+        if (!(project instanceof RexInputRef)) {
+          return false;
+        }
+        fields.set(i, ((RexInputRef) project).getIndex());
+      }
+      rel = ((Project) rel).getInput();
+    }
+    if (!(rel instanceof Aggregate)) {
+      return false;
+    }
+    final Aggregate aggregate = (Aggregate) rel;
+    if (aggregate.getGroupType() != Aggregate.Group.SIMPLE
+        || !isSpj(aggregate.getInput())) {
+      return false;
+    }
+    final int groupCount = aggregate.getGroupCount();
+    final Set<Integer> keys = new HashSet<>();
+    for (int field : fields) {
+      if (field < groupCount) {
+        keys.add(field);
+        mergeFunctions.add(null);
+        continue;
+      }
+      final AggregateCall aggCall =
+          aggregate.getAggCallList().get(field - groupCount);
+      if (aggCall.isDistinct() || aggCall.hasFilter()) {
+        return false;
+      }
+      switch (aggCall.getAggregation().getKind()) {
+      case COUNT:
+      case SUM:
+      case SUM0:
+        mergeFunctions.add("SUM");
+        break;
+      case MIN:
+        mergeFunctions.add("MIN");
+        break;
+      case MAX:
+        mergeFunctions.add("MAX");
+        break;
+      default:
+        return false;
+      }
+    }
+    // Each group must be a row of the view, identified by its keys.
+    return keys.size() == groupCount;
+  }
+
+  /** Brings the contents of the view up to date with its base tables, and
+   * returns the rows that a scan should see.
+   *
+   * <p>If called while the view is being refreshed by the current thread,
+   * returns the table's rows as they are; the refresh reads the view's
+   * existing rows. */
+  synchronized List<Object> refresh() {
+    if (refreshing) {
+      return table.rows;
+    }
+    // Rows appended to a base table after this point, and rows removed or
+    // replaced, are seen by the next refresh, because the watermarks
+    // recorded at the end of this refresh are these sizes and generations
+    final int[] sizes = new int[baseTables.size()];
+    final int[] newGenerations = new int[baseTables.size()];
+    boolean changed = false;
+    boolean rewritten = false;
+    for (int i = 0; i < baseTables.size(); i++) {
+      final MutableArrayTable.RowList rows = baseTables.get(i).rows;
+      newGenerations[i] = rows.generation;
+      sizes[i] = rows.size();
+      changed |= sizes[i] != watermarks[i];
+      rewritten |= newGenerations[i] != generations[i];
+    }
+    if (!changed && !rewritten) {
+      if (table.rows.size() != contents.size()
+          || table.rows.generation != contentsGeneration) {
+        // The table was modified other than by a refresh
+        publish();
+      }
+      return contents;
+    }
+    refreshing = true;
+    boolean succeeded = false;
+    try (CalciteConnection connection = connect()) {
+      if (rewritten || mode == Mode.FULL) {
+        final ImmutableMap.Builder<MutableArrayTable, Range<Integer>> ranges =
+            ImmutableMap.builder();
+        for (int j = 0; j < baseTables.size(); j++) {
+          ranges.put(baseTables.get(j), Range.closedOpen(0, sizes[j]));
+        }
+        table.rows.clear();
+        execute(connection, insertSql(), ranges.build());
+      } else {
+        for (int i = 0; i < baseTables.size(); i++) {
+          if (sizes[i] == watermarks[i]) {
+            continue;
+          }
+          final ImmutableMap.Builder<MutableArrayTable, Range<Integer>> ranges =
+              ImmutableMap.builder();
+          for (int j = 0; j < baseTables.size(); j++) {
+            ranges.put(baseTables.get(j),
+                j < i ? Range.closedOpen(0, sizes[j])
+                    : j == i ? Range.closedOpen(watermarks[j], sizes[j])
+                    : Range.closedOpen(0, watermarks[j]));
+          }
+          if (mode == Mode.APPEND) {
+            execute(connection, insertSql(), ranges.build());
+          } else {
+            final int oldSize = table.rows.size();
+            ranges.put(table, Range.closedOpen(0, oldSize));
+            execute(connection, mergeSql(), ranges.build());
+            table.rows.subList(0, oldSize).clear();
+          }
+        }
+      }
+      System.arraycopy(sizes, 0, watermarks, 0, sizes.length);
+      System.arraycopy(newGenerations, 0, generations, 0,
+          newGenerations.length);
+      succeeded = true;
+    } catch (SQLException e) {
+      throw Util.throwAsRuntime(e);
+    } finally {
+      refreshing = false;
+      if (!succeeded) {
+        // Discard the partial refresh; the next refresh starts again from
+        // the same watermarks
+        table.rows.clear();
+        table.rows.addAll(contents);
+      }
+      publish();
+    }
+    return contents;
+  }
+
+  /** Makes the table's current rows visible to scans, replacing the rows
+   * that scans saw previously. */
+  private void publish() {
+    contents = Collections.unmodifiableList(new ArrayList<>(table.rows));
+    contentsGeneration = table.rows.generation;
+  }
+
+  /** Records the size and generation of each base table. */
+  private void mark() {
+    for (int i = 0; i < baseTables.size(); i++) {
+      final MutableArrayTable.RowList rows = baseTables.get(i).rows;
+      watermarks[i] = rows.size();
+      generations[i] = rows.generation;
+    }
+  }
+
+  /** Creates a connection in which to execute refresh statements. The
+   * connection does not use materialized views, because a refresh must not
+   * read the view that it is refreshing. */
+  private CalciteConnection connect() {
+    final CalciteConnection connection =
+        CalciteMetaImpl.connect(schema.root(), null);
+    connection.getProperties()
+        .setProperty(CalciteConnectionProperty.MATERIALIZATIONS_ENABLED.camelName(),
+            "false");
+    return connection;
+  }
+
+  /** Executes a DML statement, with scans restricted to given ranges of
+   * rows. */
+  private void execute(CalciteConnection connection, String dml,
+      Map<MutableArrayTable, Range<Integer>> ranges) throws SQLException {
+    final Planner planner = planner(schema);
+    final Map<MutableArrayTable, Range<Integer>> previousRanges =
+        MutableArrayTable.SCAN_RANGES.get();
+    MutableArrayTable.SCAN_RANGES.set(ranges);
+    try {
+      final RelRoot root =
+          planner.rel(planner.validate(planner.parse(dml)));
+      final RelRunner runner = connection.unwrap(RelRunner.class);
+      try (PreparedStatement statement = runner.prepareStatement(root.rel)) {
+        Util.discard(statement.executeUpdate());
+      }
+    } catch (SqlParseException | ValidationException
+        | RelConversionException e) {
+      throw Util.throwAsRuntime(e);
+    } finally {
+      MutableArrayTable.SCAN_RANGES.set(previousRanges);
+      planner.close();
+    }
+  }
+
+  /** Returns an INSERT statement that appends the results of the view's
+   * query to the view. */
+  private String insertSql() {
+    return "INSERT INTO " + quote(name) + " " + sql;
+  }
+
+  /** Returns an INSERT statement that appends to the view the result of
+   * merging its existing rows with the results of the view's query. */
+  private String mergeSql() {
+    final StringBuilder select = new StringBuilder();
+    final StringBuilder groupBy = new StringBuilder();
+    for (int i = 0; i < fieldNames.size(); i++) {
+      final String field = quote(fieldNames.get(i));
+      final String function = mergeFunctions.get(i);
+      select.append(i == 0 ? "" : ", ");
+      if (function == null) {
+        select.append(field);
+        groupBy.append(groupBy.length() == 0 ? " GROUP BY " : ", ")
+            .append(field);
+      } else {
+        select.append(function).append('(').append(field).append(')');
+      }
+    }
+    return "INSERT INTO " + quote(name) + " SELECT " + select
+        + " FROM (SELECT * FROM " + quote(name)
+        + " UNION ALL SELECT * FROM (" + sql + ") AS " + quote("D")
+        + ") AS " + quote("T") + groupBy;
+  }
+
+  private static String quote(String identifier) {
+    return CalciteSqlDialect.DEFAULT.quoteIdentifier(identifier);
+  }
+
+  /** How the contents of a view are brought up to date. */
+  private enum Mode {
+    /** Append the results of the query over each delta. */
+    APPEND,
+    /** Merge the results of the query over each delta with the existing
+     * rows. */
+    AGGREGATE,
+    /** Recompute the query. */
+    FULL
+  }
+}
@@ -23,6 +23,8 @@
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import java.util.List;
+
 /** A table that implements a materialized view. */
 class MaterializedViewTable
     extends MutableArrayTable {
@@ -30,6 +32,11 @@
    * or null if not (yet) materialized. */
   @Nullable MaterializationKey key;
 
+  /** Keeps the contents of this table up to date with the tables that its
+   * query reads, or null if the table is populated only when it is
+   * created. */
+  @Nullable MaterializedViewMaintainer maintainer;
+
   MaterializedViewTable(String name, RelProtoDataType protoRowType) {
     super(name, protoRowType, protoRowType,
         NullInitializerExpressionFactory.INSTANCE);
@@ -39,6 +46,14 @@
     return Schema.TableType.MATERIALIZED_VIEW;
   }
 
+  @Override List<Object> rowsToScan() {
+    final MaterializedViewMaintainer maintainer = this.maintainer;
+    if (maintainer == null) {
+      return super.rowsToScan();
+    }
+    return rowsToScan(maintainer.refresh());
+  }
+
   @Override public <C extends Object> @Nullable C unwrap(Class<C> aClass) {
     if (MaterializationKey.class.isAssignableFrom(aClass)
         && aClass.isInstance(key)) {
@@ -30,19 +30,33 @@
 import org.apache.calcite.schema.impl.AbstractTableQueryable;
 import org.apache.calcite.sql2rel.InitializerExpressionFactory;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Range;
+
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.lang.reflect.Type;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import static java.util.Objects.requireNonNull;
 
 /** Table backed by a Java list. */
 class MutableArrayTable extends AbstractModifiableTable
     implements Wrapper {
-  final List rows = new ArrayList();
+  /** Ranges of rows that a scan in the current thread may see, by table.
+   * Tables that are not in the map are scanned in full.
+   *
+   * <p>Set while a materialized view is being refreshed, so that the view's
+   * query sees only the rows that have been inserted into a base table since
+   * the previous refresh. */
+  static final ThreadLocal<Map<MutableArrayTable, Range<Integer>>> SCAN_RANGES =
+      ThreadLocal.withInitial(ImmutableMap::of);
+
+  final RowList rows = new RowList();
   private final RelProtoDataType protoRowType;
   private final InitializerExpressionFactory initializerExpressionFactory;
 
@@ -75,11 +89,31 @@ class MutableArrayTable extends AbstractModifiableTable
         tableName) {
       @Override public Enumerator<T> enumerator() {
         //noinspection unchecked
-        return (Enumerator<T>) Linq4j.enumerator(rows);
+        return (Enumerator<T>) Linq4j.enumerator(rowsToScan());
       }
     };
   }
 
+  /** Returns the rows that a scan of this table should return. */
+  List<Object> rowsToScan() {
+    return rowsToScan(rows);
+  }
+
+  /** Returns the rows that a scan of this table should return, given the
+   * current contents of the table. */
+  List<Object> rowsToScan(List<Object> rows) {
+    final Range<Integer> range = SCAN_RANGES.get().get(this);
+    if (range == null) {
+      return rows;
+    }
+    // If rows were removed since the range was computed, the table's
+    // generation has changed, and the next refresh will recompute the view
+    final int size = rows.size();
+    return new ArrayList<>(
+        rows.subList(Math.min(range.lowerEndpoint(), size),
+            Math.min(range.upperEndpoint(), size)));
+  }
+
   @Override public Type getElementType() {
     return Object[].class;
   }
@@ -100,4 +134,53 @@ class MutableArrayTable extends AbstractModifiableTable
     }
     return super.unwrap(aClass);
   }
+
+  /** List of rows that counts the modifications that are not appends.
+   *
+   * <p>INSERT appends rows, so if {@link #generation} has not changed since
+   * the list had {@code n} rows, the rows added since then are those in the
+   * range {@code [n, size)}. */
+  static class RowList extends AbstractList<Object> {
+    private final List<Object> list = new ArrayList<>();
+
+    /** Incremented each time a row is removed or replaced, or is inserted
+     * other than at the end of the list. */
+    int generation;
+
+    @Override public Object get(int index) {
+      return list.get(index);
+    }
+
+    @Override public int size() {
+      return list.size();
+    }
+
+    @Override public Object set(int index, Object element) {
+      ++generation;
+      return list.set(index, element);
+    }
+
+    @Override public void add(int index, Object element) {
+      if (index != list.size()) {
+        ++generation;
+      }
+      list.add(index, element);
+    }
+
+    @Override public boolean addAll(Collection<?> c) {
+      return list.addAll(c);
+    }
+
+    @Override public Object remove(int index) {
+      ++generation;
+      return list.remove(index);
+    }
+
+    @Override protected void removeRange(int fromIndex, int toIndex) {
+      if (fromIndex < toIndex) {
+        ++generation;
+      }
+      list.subList(fromIndex, toIndex).clear();
+    }
+  }
 }
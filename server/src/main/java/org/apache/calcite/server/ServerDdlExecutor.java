@@ -425,6 +425,8 @@ public void execute(SqlCreateMaterializedView create,
         new MaterializedViewTable(pair.right, RelDataTypeImpl.proto(rowType));
     pair.left.add(pair.right, table);
     populate(create.name, create.query, context);
+    table.maintainer =
+        MaterializedViewMaintainer.create(table, pair.left, pair.right, sql);
     table.key =
         MaterializationService.instance().defineMaterialization(pair.left, null,
             sql, schemaPath, pair.right, true, true);
@@ -19,6 +19,7 @@
 import org.apache.calcite.config.CalciteConnectionProperty;
 import org.apache.calcite.jdbc.CalciteConnection;
 import org.apache.calcite.jdbc.CalcitePrepare;
+import org.apache.calcite.runtime.Hook;
 import org.apache.calcite.schema.Function;
 import org.apache.calcite.schema.FunctionParameter;
 import org.apache.calcite.server.DdlExecutorImpl;
@@ -37,6 +38,7 @@
 import org.apache.calcite.sql.ddl.SqlDropSchema;
 import org.apache.calcite.sql.ddl.SqlTruncateTable;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
@@ -49,12 +51,16 @@
 import java.sql.Struct;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 import static org.apache.calcite.test.Matchers.isLinux;
 
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
@@ -470,6 +476,171 @@ static Connection connect() throws SQLException {
     }
   }
 
+  /** Tests that a materialized view is brought up to date when rows are
+   * inserted into the tables that it reads. Materialized views are not
+   * used to answer queries on this connection, so each query reads what
+   * is stored in the view. */
+  @Test void testMaterializedViewRefresh() throws Exception {
+    final String url = URL + "materializationsEnabled=false";
+    try (Connection c =
+             DriverManager.getConnection(url,
+                 CalciteAssert.propBuilder()
+                     .set(CalciteConnectionProperty.PARSER_FACTORY,
+                         ServerDdlExecutor.class.getName() + "#PARSER_FACTORY")
+                     .build());
+         Statement s = c.createStatement()) {
+      s.execute("create table d (deptno int not null, name varchar(10))");
+      s.execute("create table e (empno int not null, deptno int, sal int)");
+      s.execute("insert into d values (10, 'Sales'), (20, 'Marketing')");
+      s.execute("insert into e values (100, 10, 1000), (110, 20, 50)");
+      s.execute("create materialized view ed as\n"
+          + "select e.empno, d.name from e join d using (deptno)\n"
+          + "where e.sal > 100");
+      s.execute("create materialized view ea as\n"
+          + "select deptno, count(*) as c, sum(sal) as s, min(sal) as lo,\n"
+          + "  max(sal) as hi\n"
+          + "from e group by deptno");
+      s.execute("create materialized view eavg as\n"
+          + "select deptno, avg(sal) as a from e group by deptno");
+
+      s.execute("insert into e values (120, 30, 200), (130, 10, 300)");
+      s.execute("insert into d values (30, 'Research')");
+      s.execute("insert into e values (140, 20, 150)");
+      try (ResultSet r = s.executeQuery("select * from ed order by empno")) {
+        assertThat(CalciteAssert.toString(r),
+            is("EMPNO=100; NAME=Sales\n"
+                + "EMPNO=120; NAME=Research\n"
+                + "EMPNO=130; NAME=Sales\n"
+                + "EMPNO=140; NAME=Marketing\n"));
+      }
+      try (ResultSet r = s.executeQuery("select * from ea order by deptno")) {
+        assertThat(CalciteAssert.toString(r),
+            is("DEPTNO=10; C=2; S=1300; LO=300; HI=1000\n"
+                + "DEPTNO=20; C=2; S=200; LO=50; HI=150\n"
+                + "DEPTNO=30; C=1; S=200; LO=200; HI=200\n"));
+      }
+      try (ResultSet r = s.executeQuery("select * from eavg order by deptno")) {
+        assertThat(CalciteAssert.toString(r),
+            is("DEPTNO=10; A=650\n"
+                + "DEPTNO=20; A=100\n"
+                + "DEPTNO=30; A=200\n"));
+      }
+
+      // After rows are removed, the view is recomputed
+      s.execute("truncate table e");
+      s.execute("insert into e values (150, 30, 900)");
+      try (ResultSet r = s.executeQuery("select * from ea")) {
+        assertThat(CalciteAssert.toString(r),
+            is("DEPTNO=30; C=1; S=900; LO=900; HI=900\n"));
+      }
+    }
+  }
+
+  /** Tests that a scan of a materialized view that is in progress when the
+   * view is refreshed continues to see the rows from before the refresh,
+   * not a mixture of old and new rows. */
+  @Test void testMaterializedViewRefreshDuringScan() throws Exception {
+    final String url = URL + "materializationsEnabled=false";
+    try (Connection c =
+             DriverManager.getConnection(url,
+                 CalciteAssert.propBuilder()
+                     .set(CalciteConnectionProperty.PARSER_FACTORY,
+                         ServerDdlExecutor.class.getName() + "#PARSER_FACTORY")
+                     .build());
+         Statement s = c.createStatement();
+         Statement s2 = c.createStatement()) {
+      s.execute("create table e (empno int not null, deptno int, sal int)");
+      s.execute("insert into e values (100, 10, 1000), (110, 20, 50)");
+      s.execute("create materialized view ea as\n"
+          + "select deptno, count(*) as c, sum(sal) as s\n"
+          + "from e group by deptno");
+
+      try (ResultSet r = s2.executeQuery("select * from ea")) {
+        assertThat(r.next(), is(true));
+        final int firstDeptno = r.getInt("DEPTNO");
+
+        // Refresh the view while the first scan is still open
+        s.execute("insert into e values (120, 10, 200), (130, 30, 300)");
+        try (ResultSet r2 = s.executeQuery("select * from ea order by deptno")) {
+          assertThat(CalciteAssert.toString(r2),
+              is("DEPTNO=10; C=2; S=1200\n"
+                  + "DEPTNO=20; C=1; S=50\n"
+                  + "DEPTNO=30; C=1; S=300\n"));
+        }
+
+        // The first scan sees the one remaining row that the view had when
+        // the scan started
+        assertThat(CalciteAssert.toString(r),
+            is(firstDeptno == 10
+                ? "DEPTNO=20; C=1; S=50\n"
+                : "DEPTNO=10; C=1; S=1000\n"));
+      }
+    }
+  }
+
+  /** Tests that rows inserted into a base table while a materialized view is
+   * being refreshed are propagated to the view by the next refresh. */
+  @Test void testMaterializedViewInsertDuringRefresh() throws Exception {
+    final String url = URL + "materializationsEnabled=false";
+    try (Connection c =
+             DriverManager.getConnection(url,
+                 CalciteAssert.propBuilder()
+                     .set(CalciteConnectionProperty.PARSER_FACTORY,
+                         ServerDdlExecutor.class.getName() + "#PARSER_FACTORY")
+                     .build());
+         Statement s = c.createStatement()) {
+      s.execute("create table e (empno int not null, deptno int, sal int)");
+      s.execute("insert into e values (100, 10, 1000), (110, 20, 50)");
+      s.execute("create materialized view ea as\n"
+          + "select deptno, count(*) as c, sum(sal) as s\n"
+          + "from e group by deptno");
+      s.execute("insert into e values (120, 10, 200)");
+
+      // When the refresh prepares the statement that merges into the view,
+      // another thread inserts into the base table, and this thread waits
+      // for it to finish
+      final AtomicBoolean inserted = new AtomicBoolean();
+      final AtomicReference<@Nullable Throwable> error =
+          new AtomicReference<>();
+      final Consumer<String> handler = javaPlan -> {
+        if (javaPlan.contains("getModifiableCollection")
+            && javaPlan.contains("\"EA\"")
+            && inserted.compareAndSet(false, true)) {
+          final Thread thread = new Thread(() -> {
+            try (Statement s2 = c.createStatement()) {
+              s2.execute("insert into e values (130, 30, 300)");
+            } catch (Throwable e) {
+              error.set(e);
+            }
+          });
+          thread.start();
+          try {
+            thread.join();
+          } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+          }
+        }
+      };
+      try (Hook.Closeable ignored = Hook.JAVA_PLAN.addThread(handler);
+           ResultSet r = s.executeQuery("select * from ea order by deptno")) {
+        // The refresh propagates only the rows that existed when it started
+        assertThat(CalciteAssert.toString(r),
+            is("DEPTNO=10; C=2; S=1200\n"
+                + "DEPTNO=20; C=1; S=50\n"));
+      }
+      assertThat(inserted.get(), is(true));
+      assertThat(error.get(), nullValue());
+
+      // The next refresh propagates the row inserted during the previous one
+      try (ResultSet r = s.executeQuery("select * from ea order by deptno")) {
+        assertThat(CalciteAssert.toString(r),
+            is("DEPTNO=10; C=2; S=1200\n"
+                + "DEPTNO=20; C=1; S=50\n"
+                + "DEPTNO=30; C=1; S=300\n"));
+      }
+    }
+  }
+
   @Test void testCreateFunction() throws Exception {
     try (Connection c = connect();
          Statement s = c.createStatement()) {
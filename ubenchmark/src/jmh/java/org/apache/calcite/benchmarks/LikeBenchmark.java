@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.benchmarks;
+
+import org.apache.calcite.runtime.SqlFunctions;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Benchmarks SQL {@code LIKE}, comparing
+ * {@link SqlFunctions.LikeFunction#like(String, String)}, which matches
+ * patterns whose only wildcard is {@code %} without a regular expression,
+ * against the equivalent regular expression.
+ */
+@Fork(value = 1, jvmArgsPrepend = "-Xmx1024m")
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Threads(1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@State(Scope.Thread)
+public class LikeBenchmark {
+
+  /** Pattern; prefix, suffix, contains, multiple segments, and a pattern
+   * with {@code _}, which always uses a regular expression. */
+  @Param({"abc%", "%xyz", "%lmn%", "ab%lm%yz", "a_c%"})
+  String pattern;
+
+  /** Length of each string that is matched. */
+  @Param({"16", "256"})
+  int length;
+
+  private String[] strings;
+  private SqlFunctions.LikeFunction likeFunction;
+  private Pattern regex;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    final Random random = new Random(0);
+    strings = new String[1024];
+    for (int i = 0; i < strings.length; i++) {
+      final StringBuilder b = new StringBuilder(length);
+      for (int j = 0; j < length; j++) {
+        b.append((char) ('a' + random.nextInt(26)));
+      }
+      // Make about half of the strings match the literal parts
+      if (i % 2 == 0) {
+        b.replace(0, 2, "ab");
+        b.replace(length / 2, length / 2 + 3, "lmn");
+        b.replace(length - 3, length, "xyz");
+      }
+      strings[i] = b.toString();
+    }
+    likeFunction = new SqlFunctions.LikeFunction();
+    regex = Pattern.compile(toRegex(pattern));
+  }
+
+  /** Converts a LIKE pattern without escapes to a regular expression, the
+   * same way as {@code Like.sqlToRegexLike}. */
+  private static String toRegex(String pattern) {
+    final StringBuilder b = new StringBuilder();
+    for (char c : pattern.toCharArray()) {
+      if (c == '%') {
+        b.append("(?s:.*)");
+      } else if (c == '_') {
+        b.append('.');
+      } else {
+        b.append(Pattern.quote(String.valueOf(c)));
+      }
+    }
+    return b.toString();
+  }
+
+  @Benchmark
+  public void like(Blackhole bh) {
+    for (String s : strings) {
+      bh.consume(likeFunction.like(s, pattern));
+    }
+  }
+
+  @Benchmark
+  public void regex(Blackhole bh) {
+    for (String s : strings) {
+      bh.consume(regex.matcher(s).matches());
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(LikeBenchmark.class.getSimpleName())
+        .forks(1)
+        .build();
+
+    new Runner(opt).run();
+  }
+}